@@ -0,0 +1,37 @@
+package com.vijay.User_Master.Helper;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Birthday lookup keys.
+ * A birthday is matched on month and day as MMDD (workers.birth_month_day). In years without a
+ * 29 February, people born on it are greeted on 28 February or 1 March, or not at all, per LeapDay.
+ */
+public final class BirthdayKeys {
+
+    public static final int LEAP_DAY = 229;
+
+    public enum LeapDay {
+        FEB_28, MAR_1, SKIP
+    }
+
+    private BirthdayKeys() {
+    }
+
+    public static int of(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * Birthday keys to greet on the given date
+     */
+    public static List<Integer> celebratedOn(LocalDate date, LeapDay leapDay) {
+        int key = of(date);
+        if (!date.isLeapYear()
+                && (leapDay == LeapDay.FEB_28 && key == 228 || leapDay == LeapDay.MAR_1 && key == 301)) {
+            return List.of(key, LEAP_DAY);
+        }
+        return List.of(key);
+    }
+}
@@ -0,0 +1,113 @@
+package com.vijay.User_Master.Helper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notification template parsed once into literal and placeholder segments.
+ * Placeholders are {{name}} or {{name:N}} (number with N decimals, 0 to 10, rounded half-up like %.Nf);
+ * rendering only appends segments, nothing is re-parsed per recipient.
+ */
+public final class CompiledTemplate {
+
+    public static final int MAX_DECIMALS = 10;
+
+    private final String[] literals;     // literals[i] precedes placeholder i; one extra trailing literal
+    private final String[] names;
+    private final int[] decimals;        // -1 = plain value
+    private final int sizeHint;
+
+    private CompiledTemplate(String[] literals, String[] names, int[] decimals, int sizeHint) {
+        this.literals = literals;
+        this.names = names;
+        this.decimals = decimals;
+        this.sizeHint = sizeHint;
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Integer> decimals = new ArrayList<>();
+        int literalLength = 0;
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            String literal = source.substring(position, open);
+            literals.add(literal);
+            literalLength += literal.length();
+
+            String placeholder = source.substring(open + 2, close).trim();
+            int colon = placeholder.indexOf(':');
+            if (colon < 0) {
+                names.add(placeholder);
+                decimals.add(-1);
+            } else {
+                names.add(placeholder.substring(0, colon).trim());
+                int places;
+                try {
+                    places = Integer.parseInt(placeholder.substring(colon + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid decimals in placeholder {{" + placeholder + "}}");
+                }
+                if (places < 0 || places > MAX_DECIMALS) {
+                    throw new IllegalArgumentException("Decimals in placeholder {{" + placeholder
+                            + "}} must be between 0 and " + MAX_DECIMALS);
+                }
+                decimals.add(places);
+            }
+            position = close + 2;
+        }
+        String tail = source.substring(position);
+        literals.add(tail);
+        literalLength += tail.length();
+
+        return new CompiledTemplate(
+                literals.toArray(String[]::new),
+                names.toArray(String[]::new),
+                decimals.stream().mapToInt(Integer::intValue).toArray(),
+                literalLength + names.size() * 16);
+    }
+
+    public int sizeHint() {
+        return sizeHint;
+    }
+
+    public void render(Map<String, Object> values, StringBuilder out) {
+        out.ensureCapacity(out.length() + sizeHint);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            appendValue(out, values.get(names[i]), decimals[i]);
+        }
+        out.append(literals[names.length]);
+    }
+
+    private static void appendValue(StringBuilder out, Object value, int decimals) {
+        if (value == null) {
+            return;
+        }
+        if (decimals >= 0 && value instanceof Number number) {
+            if (decimals == 0 && !(number instanceof BigDecimal)) {
+                out.append(Math.round(number.doubleValue()));
+            } else {
+                BigDecimal decimal = number instanceof BigDecimal big ? big : BigDecimal.valueOf(number.doubleValue());
+                out.append(decimal.setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+            }
+            return;
+        }
+        if (value instanceof CharSequence text) {
+            out.append(text);
+        } else {
+            out.append(value);
+        }
+    }
+}
@@ -1,26 +1,116 @@
 package com.vijay.User_Master.Helper;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
+@Slf4j
 public class EmailUtils {
     
+    private final SmtpTransportPool transportPool;
+    private final String from;
+    private final boolean enabled;
+    
+    public EmailUtils(SmtpTransportPool transportPool,
+                      @Value("${spring.mail.username:}") String from,
+                      @Value("${spring.mail.password:}") String password) {
+        this.transportPool = transportPool;
+        this.from = from;
+        // Without credentials mail runs in MOCK mode and is only logged
+        this.enabled = !from.isEmpty() && !password.isEmpty();
+    }
+    
+    public record Email(String to, String subject, String body) {
+    }
+    
+    /**
+     * Send one email; used by the outbox dispatcher, which retries a failed email
+     *
+     * @throws IllegalStateException The server did not accept the email
+     */
     public void sendEmail(String to, String subject, String body) {
-        // Implementation for sending email
-        System.out.println("Sending email to: " + to);
-        System.out.println("Subject: " + subject);
-        System.out.println("Body: " + body);
+        Map<Integer, String> failures = sendEmails(List.of(new Email(to, subject, body)));
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Email to " + to + " failed: " + failures.get(0));
+        }
+    }
+    
+    public Map<Integer, String> sendEmails(List<Email> emails) {
+        return sendEmails(emails, false);
+    }
+
+    /**
+     * Send a batch over one pooled SMTP connection
+     *
+     * @param interactive Use the connections reserved for interactive mail (password reset)
+     * @return Error per failed email index (empty when all were accepted)
+     */
+    public Map<Integer, String> sendEmails(List<Email> emails, boolean interactive) {
+        if (!enabled) {
+            // Recipient and subject only: bodies can carry password-reset links
+            for (Email email : emails) {
+                log.debug("MOCK email to {}: {}", email.to(), email.subject());
+            }
+            return Map.of();
+        }
+        
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(emails.size());
+        List<Integer> indexes = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            try {
+                messages.add(toMimeMessage(emails.get(i)));
+                indexes.add(i);
+            } catch (MessagingException e) {
+                failures.put(i, "Invalid message: " + e.getMessage());
+            }
+        }
+        try {
+            transportPool.send(messages, interactive).forEach((index, error) -> failures.put(indexes.get(index), error));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            indexes.forEach(index -> failures.putIfAbsent(index, "Interrupted before sending"));
+        }
+        log.info("Email batch: {}/{} accepted", emails.size() - failures.size(), emails.size());
+        return failures;
     }
     
     public void sendPasswordResetEmail(String email, String resetToken) {
         String subject = "Password Reset Request";
         String body = "Click the link to reset your password: " + resetToken;
-        sendEmail(email, subject, body);
+        sendQuietly(email, subject, body);
     }
     
     public void sendWelcomeEmail(String email, String username) {
         String subject = "Welcome to School Management System";
         String body = "Welcome " + username + "! Your account has been created successfully.";
-        sendEmail(email, subject, body);
+        sendQuietly(email, subject, body);
+    }
+    
+    // Account flows carry on when mail is down, as they did before mail was sent for real
+    private void sendQuietly(String to, String subject, String body) {
+        try {
+            sendEmail(to, subject, body);
+        } catch (IllegalStateException e) {
+            log.error("Could not send \"{}\" email to {}: {}", subject, to, e.getMessage());
+        }
+    }
+    
+    private MimeMessage toMimeMessage(Email email) throws MessagingException {
+        MimeMessage message = transportPool.createMessage();
+        message.setFrom(new InternetAddress(from));
+        message.setRecipients(MimeMessage.RecipientType.TO, InternetAddress.parse(email.to()));
+        message.setSubject(email.subject(), "UTF-8");
+        message.setContent(email.body(), "text/html; charset=UTF-8");
+        return message;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.vijay.User_Master.Helper;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent latency samples (a fixed-size ring) for percentile reporting,
+ * plus an all-time count and maximum. Recording is a short synchronized write.
+ */
+public final class LatencyReservoir {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long count;
+    private long max;
+
+    public record Snapshot(long count, long p50, long p95, long p99, long max) {
+    }
+
+    public LatencyReservoir(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long millis) {
+        long value = Math.max(millis, 0);
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        count++;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Percentiles over the retained window; count and max cover every sample since startup
+     */
+    public Snapshot snapshot() {
+        long[] window;
+        long total;
+        long highest;
+        synchronized (this) {
+            window = Arrays.copyOf(samples, size);
+            total = count;
+            highest = max;
+        }
+        Arrays.sort(window);
+        return new Snapshot(total, percentile(window, 0.50), percentile(window, 0.95), percentile(window, 0.99), highest);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+    }
+}
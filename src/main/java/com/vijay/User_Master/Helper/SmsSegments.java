@@ -0,0 +1,132 @@
+package com.vijay.User_Master.Helper;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SMS encoding and billed-segment calculator.
+ * A message is GSM-7 only if every character is in the GSM 03.38 alphabet (extension characters
+ * such as € [ ] { } cost two septets); anything else, including a single emoji, switches the whole
+ * message to UCS-2. Segment sizes: GSM-7 160 single / 153 concatenated, UCS-2 70 / 67.
+ */
+public final class SmsSegments {
+
+    private static final String GSM_BASIC =
+            "@£$¥èéùìòÇ\nØø\rÅåΔ_ΦΓΛΩΠΨΣΘΞÆæßÉ !\"#¤%&'()*+,-./0123456789:;<=>?" +
+            "¡ABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÑÜ§¿abcdefghijklmnopqrstuvwxyzäöñüà";
+    private static final String GSM_EXTENSION = "\f^{}\\[~]|€";
+
+    // Common non-GSM characters with a GSM-7 spelling; everything else unmappable is dropped
+    private static final Map<Integer, String> REPLACEMENTS = Map.ofEntries(
+            Map.entry((int) '‘', "'"), Map.entry((int) '’', "'"), Map.entry((int) '‚', "'"), Map.entry((int) '′', "'"),
+            Map.entry((int) '“', "\""), Map.entry((int) '”', "\""), Map.entry((int) '„', "\""), Map.entry((int) '″', "\""),
+            Map.entry((int) '–', "-"), Map.entry((int) '—', "-"), Map.entry((int) '−', "-"),
+            Map.entry((int) '…', "..."), Map.entry((int) '•', "*"), Map.entry((int) '×', "x"),
+            Map.entry((int) 'Ł', "L"), Map.entry((int) 'ł', "l"), Map.entry((int) '₹', "Rs."), Map.entry(0x00A0, " "), Map.entry((int) '\t', " "));
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{[^}]*}}");
+    private static final Pattern LINE_INDENT = Pattern.compile("(?m)^ +");
+    private static final Pattern REPEATED_SPACES = Pattern.compile(" {2,}");
+
+    public enum Encoding {
+        GSM7, UCS2
+    }
+
+    /**
+     * @param units Septets (GSM-7) or UTF-16 code units (UCS-2)
+     */
+    public record Count(Encoding encoding, int units, int segments) {
+    }
+
+    private SmsSegments() {
+    }
+
+    public static boolean isGsm7(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (GSM_BASIC.indexOf(c) < 0 && GSM_EXTENSION.indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static Count count(String text) {
+        if (isGsm7(text)) {
+            int septets = 0;
+            for (int i = 0; i < text.length(); i++) {
+                septets += GSM_EXTENSION.indexOf(text.charAt(i)) >= 0 ? 2 : 1;
+            }
+            return new Count(Encoding.GSM7, septets, segments(septets, 160, 153));
+        }
+        return new Count(Encoding.UCS2, text.length(), segments(text.length(), 70, 67));
+    }
+
+    /**
+     * Rewrite text into the GSM-7 alphabet: typographic punctuation and ₹ get ASCII spellings,
+     * accented letters lose their accent, emoji and other symbols are removed
+     */
+    public static String toGsm7(String text) {
+        if (isGsm7(text)) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        text.codePoints().forEach(codePoint -> {
+            String replacement = REPLACEMENTS.get(codePoint);
+            if (replacement != null) {
+                out.append(replacement);
+                return;
+            }
+            String character = Character.toString(codePoint);
+            if (isGsm7(character)) {
+                out.append(character);
+                return;
+            }
+            String decomposed = Normalizer.normalize(character, Normalizer.Form.NFD);
+            for (int i = 0; i < decomposed.length(); i++) {
+                char c = decomposed.charAt(i);
+                if (GSM_BASIC.indexOf(c) >= 0 || GSM_EXTENSION.indexOf(c) >= 0) {
+                    out.append(c);
+                }
+            }
+        });
+        String cleaned = LINE_INDENT.matcher(out).replaceAll("");
+        return REPEATED_SPACES.matcher(cleaned).replaceAll(" ");
+    }
+
+    /**
+     * Estimate a template's segments with every placeholder rendered placeholderWidth characters wide
+     */
+    public static Count estimate(String templateSource, int placeholderWidth) {
+        return count(PLACEHOLDER.matcher(templateSource).replaceAll("x".repeat(Math.max(placeholderWidth, 0))));
+    }
+
+    /**
+     * Shrink a template towards targetSegments: first blank lines are removed, then static lines
+     * (no placeholders) are dropped from the end. The first line and lines with placeholders are kept.
+     */
+    public static String fitTemplate(String templateSource, int targetSegments, int placeholderWidth) {
+        if (targetSegments <= 0 || estimate(templateSource, placeholderWidth).segments() <= targetSegments) {
+            return templateSource;
+        }
+        String compact = templateSource.replaceAll("\n{2,}", "\n").strip();
+        List<String> lines = new ArrayList<>(List.of(compact.split("\n", -1)));
+        for (int i = lines.size() - 1; i > 0
+                && estimate(String.join("\n", lines), placeholderWidth).segments() > targetSegments; i--) {
+            if (!PLACEHOLDER.matcher(lines.get(i)).find()) {
+                lines.remove(i);
+            }
+        }
+        return String.join("\n", lines);
+    }
+
+    private static int segments(int units, int single, int concatenated) {
+        if (units == 0) {
+            return 0;
+        }
+        return units <= single ? 1 : (units + concatenated - 1) / concatenated;
+    }
+}
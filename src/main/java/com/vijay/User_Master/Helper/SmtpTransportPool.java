@@ -0,0 +1,205 @@
+package com.vijay.User_Master.Helper;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Small pool of authenticated SMTP connections.
+ * A batch of messages is sent over one borrowed connection, so the TCP/TLS handshake and AUTH
+ * are paid once per connection instead of once per email. Connections are recycled after
+ * max-messages-per-connection (providers cap messages per session) or when idle too long,
+ * and a dropped connection is reopened once. If reopening fails too, the server is down or refusing
+ * us, so the rest of the batch is reported failed at once instead of reconnecting for every message.
+ * A few connections are reserved for interactive mail so it never waits behind bulk batches.
+ */
+@Component
+@Slf4j
+public class SmtpTransportPool {
+
+    private final Session session;
+    private final MailProperties mailProperties;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutMs;
+
+    private final Semaphore permits;
+    private final Semaphore interactivePermits;
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int sent;
+        private long lastUsed;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    public SmtpTransportPool(MailProperties mailProperties,
+                             @Value("${app.mail.pool.size:4}") int poolSize,
+                             @Value("${app.mail.pool.reserved-interactive:1}") int reservedInteractive,
+                             @Value("${app.mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                             @Value("${app.mail.pool.idle-timeout-ms:60000}") long idleTimeoutMs) {
+        this.mailProperties = mailProperties;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.permits = new Semaphore(poolSize, true);
+        this.interactivePermits = reservedInteractive > 0 ? new Semaphore(reservedInteractive, true) : permits;
+
+        Properties properties = new Properties();
+        properties.putAll(mailProperties.getProperties());
+        properties.putIfAbsent("mail.smtp.connectiontimeout", "10000");
+        properties.putIfAbsent("mail.smtp.timeout", "30000");
+        properties.putIfAbsent("mail.smtp.writetimeout", "30000");
+        this.session = Session.getInstance(properties);
+    }
+
+    public MimeMessage createMessage() {
+        return new MimeMessage(session);
+    }
+
+    public Map<Integer, String> send(List<MimeMessage> messages) throws InterruptedException {
+        return send(messages, false);
+    }
+
+    /**
+     * Send messages over one pooled connection
+     *
+     * @param interactive Take one of the reserved interactive connections instead of a shared one
+     * @return Error per failed message index (empty when all were accepted)
+     */
+    public Map<Integer, String> send(List<MimeMessage> messages, boolean interactive) throws InterruptedException {
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
+        Semaphore slot = interactive ? interactivePermits : permits;
+        slot.acquire();
+        PooledTransport connection = null;
+        try {
+            connection = borrow();
+            for (int i = 0; i < messages.size(); i++) {
+                String error;
+                try {
+                    error = sendOne(connection, messages.get(i));
+                } catch (MessagingException e) {
+                    String unavailable = "SMTP unavailable: " + e.getClass().getSimpleName() + ": " + e.getMessage();
+                    log.warn("SMTP reconnect failed, failing the remaining {} message(s) of the batch: {}",
+                            messages.size() - i, e.getMessage());
+                    for (int j = i; j < messages.size(); j++) {
+                        failures.put(j, unavailable);
+                    }
+                    break;
+                }
+                if (error != null) {
+                    failures.put(i, error);
+                }
+            }
+            return failures;
+        } finally {
+            if (connection != null && connection.transport.isConnected()) {
+                connection.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(connection);
+            } else if (connection != null) {
+                close(connection);
+            }
+            slot.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    /**
+     * @return Error for a rejected message, null when accepted
+     * @throws MessagingException The connection failed again after reopening it
+     */
+    private String sendOne(PooledTransport connection, MimeMessage message) throws MessagingException {
+        try {
+            ensureOpen(connection);
+            deliver(connection, message);
+            return null;
+        } catch (SendFailedException e) {
+            // Rejected recipients; the connection itself is still good
+            return "Rejected: " + e.getMessage();
+        } catch (MessagingException e) {
+            // Connection-level failure: reopen once and retry this message
+            log.warn("SMTP connection failed ({}), reconnecting", e.getMessage());
+            close(connection);
+        }
+        try {
+            ensureOpen(connection);
+            deliver(connection, message);
+            return null;
+        } catch (SendFailedException e) {
+            return "Rejected: " + e.getMessage();
+        } catch (MessagingException e) {
+            close(connection);
+            throw e;
+        }
+    }
+
+    private void deliver(PooledTransport connection, MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new java.util.Date());
+        }
+        message.saveChanges();
+        connection.transport.sendMessage(message, message.getAllRecipients());
+        connection.lastUsed = System.currentTimeMillis();
+        if (++connection.sent >= maxMessagesPerConnection) {
+            close(connection);
+        }
+    }
+
+    private PooledTransport borrow() throws InterruptedException {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - connection.lastUsed < idleTimeoutMs && connection.transport.isConnected()) {
+                return connection;
+            }
+            close(connection);
+        }
+        try {
+            return new PooledTransport(session.getTransport(mailProperties.getProtocol()));
+        } catch (MessagingException e) {
+            throw new IllegalStateException("No SMTP transport for protocol " + mailProperties.getProtocol(), e);
+        }
+    }
+
+    private void ensureOpen(PooledTransport connection) throws MessagingException {
+        if (!connection.transport.isConnected()) {
+            Integer port = mailProperties.getPort();
+            connection.transport.connect(mailProperties.getHost(), port != null ? port : -1,
+                    mailProperties.getUsername(), mailProperties.getPassword());
+            connection.sent = 0;
+        }
+    }
+
+    private void close(PooledTransport connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Ignoring SMTP close failure: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.vijay.User_Master.Helper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking token bucket: permitsPerSecond on average, with up to burst permits available after idle time.
+ * Callers sleep outside the lock, so many virtual threads can wait on one bucket cheaply.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private long nextFreeNanos;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and burst >= 1");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * (burst - 1);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Take one permit, waiting until it is available
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // Unused time accrues as saved permits, capped at the burst size
+            long grantAt = Math.max(nextFreeNanos, now - burstNanos);
+            nextFreeNanos = grantAt + intervalNanos;
+            waitNanos = grantAt - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Hold back every caller for at least the given time (e.g. the provider answered 429)
+     */
+    public synchronized void pause(long millis) {
+        nextFreeNanos = Math.max(nextFreeNanos, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,265 @@
+package com.vijay.User_Master.Helper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Twilio Messages API client for SMS and WhatsApp.
+ * Sends on virtual threads with a cap on requests in flight and a token bucket for the
+ * account's messages-per-second limit. A 429 pauses the whole bucket (Retry-After or
+ * exponential backoff) before the request is retried. Interactive messages (OTP, password
+ * reset) use a reserved share of the rate and their own in-flight permits, so they never queue
+ * behind a bulk send. With a status callback URL configured, Twilio reports each message's delivery
+ * to TwilioWebhookController. The API base URL is configurable so a local HTTP stub can stand in for Twilio.
+ */
+@Component
+@Slf4j
+public class TwilioMessageSender {
+
+    private static final String COUNTRY_CODE = "+91";   // Numbers are stored without it
+
+    private final String authorization;
+    private final String smsFrom;
+    private final String whatsAppFrom;
+    private final boolean smsEnabled;
+    private final boolean whatsAppEnabled;
+    private final URI messagesUri;
+    private final String statusCallbackUrl;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    private final Duration requestTimeout;
+
+    private final Semaphore inFlight;
+    private final TokenBucket rateLimit;
+    private final Semaphore interactiveInFlight;
+    private final TokenBucket interactiveRateLimit;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    public record Message(String to, String body, String mediaUrl, boolean whatsApp, boolean isInteractive) {
+
+        public static Message sms(String to, String body) {
+            return new Message(to, body, null, false, false);
+        }
+
+        public static Message whatsApp(String to, String body, String mediaUrl) {
+            return new Message(to, body, mediaUrl, true, false);
+        }
+
+        /**
+         * Same message on the reserved interactive capacity
+         */
+        public Message interactive() {
+            return new Message(to, body, mediaUrl, whatsApp, true);
+        }
+    }
+
+    /**
+     * Outcome of one message: the Twilio SID when accepted, otherwise the error
+     */
+    public record Result(boolean accepted, String sid, String error) {
+    }
+
+    public TwilioMessageSender(ObjectMapper objectMapper,
+                               @Value("${twilio.account.sid:}") String accountSid,
+                               @Value("${twilio.auth.token:}") String authToken,
+                               @Value("${twilio.phone.number:}") String smsFrom,
+                               @Value("${twilio.whatsapp.number:whatsapp:+14155238886}") String whatsAppFrom,
+                               @Value("${whatsapp.enabled:false}") boolean whatsAppEnabled,
+                               @Value("${app.twilio.base-url:https://api.twilio.com}") String baseUrl,
+                               @Value("${app.twilio.status-callback-url:}") String statusCallbackUrl,
+                               @Value("${app.twilio.max-concurrency:20}") int maxConcurrency,
+                               @Value("${app.twilio.messages-per-second:10}") double messagesPerSecond,
+                               @Value("${app.twilio.burst:10}") int burst,
+                               @Value("${app.twilio.interactive.messages-per-second:2}") double interactivePerSecond,
+                               @Value("${app.twilio.interactive.max-concurrency:4}") int interactiveConcurrency,
+                               @Value("${app.twilio.max-retries:3}") int maxRetries,
+                               @Value("${app.twilio.retry-backoff-ms:1000}") long retryBackoffMs,
+                               @Value("${app.twilio.timeout-ms:10000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((accountSid + ":" + authToken).getBytes(StandardCharsets.UTF_8));
+        this.smsFrom = smsFrom;
+        this.whatsAppFrom = whatsAppFrom;
+        boolean credentials = !accountSid.isEmpty() && !authToken.isEmpty();
+        this.smsEnabled = credentials && !smsFrom.isEmpty();
+        this.whatsAppEnabled = credentials && whatsAppEnabled;
+        this.messagesUri = URI.create(baseUrl.replaceAll("/+$", "")
+                + "/2010-04-01/Accounts/" + accountSid + "/Messages.json");
+        this.statusCallbackUrl = statusCallbackUrl;
+        this.maxRetries = maxRetries;
+        this.retryBackoffMs = retryBackoffMs;
+        this.requestTimeout = Duration.ofMillis(timeoutMs);
+        if (interactivePerSecond >= messagesPerSecond) {
+            throw new IllegalArgumentException("app.twilio.interactive.messages-per-second must be below app.twilio.messages-per-second");
+        }
+        // The account limit is split: interactive gets its reservation, everything else the remainder
+        this.inFlight = new Semaphore(maxConcurrency);
+        this.interactiveInFlight = interactivePerSecond > 0 ? new Semaphore(interactiveConcurrency) : inFlight;
+        this.rateLimit = new TokenBucket(messagesPerSecond - Math.max(interactivePerSecond, 0), burst);
+        this.interactiveRateLimit = interactivePerSecond > 0
+                ? new TokenBucket(interactivePerSecond, Math.max(1, (int) Math.ceil(interactivePerSecond)))
+                : rateLimit;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+
+        if (smsEnabled || this.whatsAppEnabled) {
+            log.info("Twilio messaging enabled (SMS: {}, WhatsApp: {}, {} msg/s of which {} reserved for interactive, {} concurrent)",
+                    smsEnabled, this.whatsAppEnabled, messagesPerSecond, interactivePerSecond, maxConcurrency);
+        } else {
+            log.warn("⚠️ Twilio not configured. SMS and WhatsApp will run in MOCK mode.");
+        }
+    }
+
+    public boolean isSmsEnabled() {
+        return smsEnabled;
+    }
+
+    public boolean isWhatsAppEnabled() {
+        return whatsAppEnabled;
+    }
+
+    public Result send(Message message) {
+        try {
+            return deliver(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(false, null, "Interrupted before sending");
+        }
+    }
+
+    /**
+     * Send a batch concurrently within the account's rate limit
+     *
+     * @return One result per message, in the same order
+     */
+    public List<Result> sendAll(List<Message> messages) {
+        List<Result> results = new ArrayList<>(messages.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> futures = new ArrayList<>(messages.size());
+            for (Message message : messages) {
+                futures.add(executor.submit(() -> send(message)));
+            }
+            for (Future<Result> future : futures) {
+                results.add(join(future));
+            }
+        }
+        long accepted = results.stream().filter(Result::accepted).count();
+        log.info("Twilio batch finished: {}/{} accepted", accepted, messages.size());
+        return results;
+    }
+
+    private Result deliver(Message message) throws InterruptedException {
+        if (message.whatsApp() ? !whatsAppEnabled : !smsEnabled) {
+            return new Result(false, null, (message.whatsApp() ? "WhatsApp" : "SMS") + " is not configured");
+        }
+        HttpRequest request = HttpRequest.newBuilder(messagesUri)
+                .timeout(requestTimeout)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form(message)))
+                .build();
+
+        Semaphore permits = message.isInteractive() ? interactiveInFlight : inFlight;
+        TokenBucket bucket = message.isInteractive() ? interactiveRateLimit : rateLimit;
+        permits.acquire();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                bucket.acquire();
+                HttpResponse<String> response;
+                try {
+                    response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                } catch (IOException e) {
+                    return new Result(false, null, "Twilio request failed: " + e.getMessage());
+                }
+                int status = response.statusCode();
+                if (status >= 200 && status < 300) {
+                    return new Result(true, field(response.body(), "sid"), null);
+                }
+                if (status == 429 && attempt < maxRetries) {
+                    long delay = retryAfterMillis(response, attempt);
+                    log.warn("Twilio rate limit hit, backing off {} ms (attempt {})", delay, attempt + 1);
+                    // The 429 applies to the whole account
+                    rateLimit.pause(delay);
+                    interactiveRateLimit.pause(delay);
+                    continue;
+                }
+                return new Result(false, null, "Twilio HTTP " + status + ": " + field(response.body(), "message"));
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private String form(Message message) {
+        String prefix = message.whatsApp() ? "whatsapp:" : "";
+        StringBuilder form = new StringBuilder()
+                .append("To=").append(encode(prefix + COUNTRY_CODE + message.to()))
+                .append("&From=").append(encode(message.whatsApp() ? whatsAppFrom : smsFrom))
+                .append("&Body=").append(encode(message.body()));
+        if (message.mediaUrl() != null) {
+            form.append("&MediaUrl=").append(encode(message.mediaUrl()));
+        }
+        if (!statusCallbackUrl.isEmpty()) {
+            form.append("&StatusCallback=").append(encode(statusCallbackUrl));
+        }
+        return form.toString();
+    }
+
+    private long retryAfterMillis(HttpResponse<String> response, int attempt) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return Long.parseLong(value.trim()) * 1000;
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                })
+                .orElse(retryBackoffMs << Math.min(attempt, 10));
+    }
+
+    private String field(String json, String name) {
+        try {
+            JsonNode value = objectMapper.readTree(json).get(name);
+            return value != null && !value.isNull() ? value.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Result join(Future<Result> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(false, null, "Interrupted before sending");
+        } catch (ExecutionException e) {
+            return new Result(false, null, e.getCause().getClass().getSimpleName() + ": " + e.getCause().getMessage());
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
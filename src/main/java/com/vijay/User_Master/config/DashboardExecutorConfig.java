@@ -0,0 +1,17 @@
+package com.vijay.User_Master.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class DashboardExecutorConfig {
+
+    // One virtual thread per dashboard section; sections are blocking JDBC loaders
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService dashboardSectionExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
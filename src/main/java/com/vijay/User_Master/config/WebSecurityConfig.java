@@ -4,6 +4,7 @@ import com.vijay.User_Master.config.security.JwtAuthenticationEntryPoint;
 import com.vijay.User_Master.config.security.JwtAuthenticationFilter;
 import lombok.AllArgsConstructor;
 import org.apache.catalina.filters.CorsFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -45,6 +46,9 @@ public class WebSecurityConfig {
                         // 0) CORS preflight must be open
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+                        // 0b) Async re-dispatch of streamed responses (SSE); the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // 1) All common static resources (css/js/images/webjars/favicon, etc.)
                         .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
 
@@ -64,6 +68,7 @@ public class WebSecurityConfig {
                                 "/api/auth/register/**",
                                 "/api/v1/home/**",
                                 "/api/v1/tokens/**",
+                                "/api/v1/webhooks/twilio/status",
                                 "/api/users/image/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui.html",
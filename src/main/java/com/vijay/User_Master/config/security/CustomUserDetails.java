@@ -39,6 +39,8 @@ public class CustomUserDetails implements UserDetails {
     @JsonIgnore
     private List<Worker> workers;
     private AccountStatus accountStatus;
+    // School (owner user) this principal belongs to; a school owner is its own owner
+    private Long ownerId;
 
 
     public static CustomUserDetails build(User user) {
@@ -54,7 +56,8 @@ public class CustomUserDetails implements UserDetails {
                 user.getDeletedOn(),
                 user.getImageName(),
                 user.getWorkers(),
-                user.getAccountStatus()
+                user.getAccountStatus(),
+                user.getId()
         );
     }
 
@@ -71,10 +74,29 @@ public class CustomUserDetails implements UserDetails {
                 worker.getDeletedOn(),
                 worker.getImageName(),
                 null, // Workers don't have associated workers, so set it to null
-                worker.getAccountStatus()
+                worker.getAccountStatus(),
+                worker.getOwner() != null ? worker.getOwner().getId() : null
         );
     }
 
+    /**
+     * Lightweight principal rebuilt from signed token claims, without touching the database.
+     * Carries no password, account status or workers.
+     */
+    public static CustomUserDetails fromToken(Long id, Long ownerId, String name, String username,
+                                              String email, Collection<String> roleNames) {
+        Set<Role> roles = roleNames.stream()
+                .map(roleName -> {
+                    Role role = new Role();
+                    role.setName(roleName);
+                    role.setActive(true);
+                    return role;
+                })
+                .collect(Collectors.toUnmodifiableSet());
+        return new CustomUserDetails(id, name, username, email, null, roles, null, false, null, null,
+                null, null, ownerId);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return roles.stream()
@@ -1,5 +1,6 @@
 package com.vijay.User_Master.config.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,7 +9,6 @@ import lombok.AllArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -22,7 +22,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private JwtTokenProvider jwtTokenProvider;
 
-    private UserDetailsService userDetailsService;
+    private PrincipalCache principalCache;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
@@ -42,10 +42,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = getTokenFromRequest(request);
 
             if (StringUtils.hasText(token)) {
-                String username = jwtTokenProvider.getUsernameFromToken(token);
+                // One parse + signature check (or a cache hit); expired or forged tokens throw
+                Claims claims = jwtTokenProvider.parseToken(token);
+                String username = claims.getSubject();
                 
-                if (username != null && jwtTokenProvider.validateToken(token, username)) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (username != null) {
+                    // Claim-carrying tokens need no lookup; others resolve through the principal cache
+                    UserDetails userDetails = jwtTokenProvider.getPrincipalFromClaims(claims);
+                    if (userDetails == null) {
+                        userDetails = principalCache.get(username);
+                    }
 
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
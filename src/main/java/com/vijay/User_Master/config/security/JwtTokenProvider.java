@@ -1,17 +1,29 @@
 package com.vijay.User_Master.config.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
@@ -22,28 +34,120 @@ public class JwtTokenProvider {
     @Value("${app-jwt-expiration-milliseconds:86400000}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+    
+    // Opt-in: carry roles and tenant in the token so requests authenticate without a DB lookup
+    @Value("${app.jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+    
+    // Shorter lifetime for claim-carrying tokens bounds how long a role change can go unnoticed
+    @Value("${app.jwt.stateless-expiration-milliseconds:900000}")
+    private Long statelessExpiration;
+    
+    private static final String CLAIM_ID = "id";
+    private static final String CLAIM_OWNER_ID = "oid";
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_ROLES = "roles";
+    
+    // Key and parser are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // Recently verified tokens, keyed by SHA-256 of the token, least recently used evicted first
+    private Map<String, Claims> verifiedTokens;
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        });
     }
     
     public String generateToken(String username) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        return createToken(claims, username, expiration);
     }
     
-    private String createToken(Map<String, Object> claims, String subject) {
+    /**
+     * Token for an authenticated principal; in stateless-principal mode it also carries
+     * the principal's id, owner id and role names.
+     */
+    public String generateToken(CustomUserDetails principal) {
+        if (!statelessPrincipal) {
+            return generateToken(principal.getUsername());
+        }
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_ID, principal.getId());
+        claims.put(CLAIM_OWNER_ID, principal.getOwnerId());
+        claims.put(CLAIM_NAME, principal.getName());
+        claims.put(CLAIM_EMAIL, principal.getEmail());
+        claims.put(CLAIM_ROLES, principal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.toList()));
+        return createToken(claims, principal.getUsername(), statelessExpiration);
+    }
+    
+    /**
+     * Principal rebuilt from token claims, or null when the token does not carry them
+     * (or stateless-principal mode is off) and the caller must load it from the database
+     */
+    public CustomUserDetails getPrincipalFromClaims(Claims claims) {
+        if (!statelessPrincipal || !(claims.get(CLAIM_ROLES) instanceof List<?> roleNames)) {
+            return null;
+        }
+        return CustomUserDetails.fromToken(
+                toLong(claims.get(CLAIM_ID)),
+                toLong(claims.get(CLAIM_OWNER_ID)),
+                claims.get(CLAIM_NAME, String.class),
+                claims.getSubject(),
+                claims.get(CLAIM_EMAIL, String.class),
+                roleNames.stream().map(String::valueOf).collect(Collectors.toList()));
+    }
+    
+    private String createToken(Map<String, Object> claims, String subject, long lifetimeMillis) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + lifetimeMillis))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    /**
+     * Parse and verify a token once; repeat calls with the same unexpired token
+     * are served from the verified-token cache without another signature check.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public Claims parseToken(String token) {
+        String key = hash(token);
+        Claims cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            verifiedTokens.remove(key);
+            throw new ExpiredJwtException(null, cached, "JWT expired at " + cached.getExpiration());
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(key, claims);
+        return claims;
+    }
+    
     public Boolean validateToken(String token, String username) {
-        final String tokenUsername = getUsernameFromToken(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
+        Claims claims = parseToken(token);
+        return (claims.getSubject().equals(username) && !isExpired(claims));
     }
     
     public String getUsernameFromToken(String token) {
@@ -59,20 +163,26 @@ public class JwtTokenProvider {
     }
     
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
     
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private boolean isExpired(Claims claims) {
+        Date expiresAt = claims.getExpiration();
+        return expiresAt != null && expiresAt.before(new Date());
+    }
+    
+    // Numeric claims come back as Integer or Long depending on their size
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
     }
     
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
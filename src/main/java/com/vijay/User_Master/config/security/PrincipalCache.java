@@ -0,0 +1,122 @@
+package com.vijay.User_Master.config.security;
+
+import com.vijay.User_Master.dto.PrincipalCacheStats;
+import com.vijay.User_Master.entity.User;
+import com.vijay.User_Master.entity.Worker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based cache of resolved principals for token-authenticated requests,
+ * keyed by the username (or email) carried in the JWT.
+ * Login still goes through CustomUserDetailsService directly so passwords are never checked
+ * against a cached entry; role and account-status changes evict explicitly.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+
+    public PrincipalCache(CustomUserDetailsService userDetailsService,
+                          @Value("${app.security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${app.security.principal-cache.max-size:10000}") int maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public UserDetails get(String username) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry != null && entry.expiresAt() > now) {
+            hits.incrementAndGet();
+            return entry.principal();
+        }
+        misses.incrementAndGet();
+        UserDetails principal = userDetailsService.loadUserByUsername(username);
+        entries.put(username, new Entry(principal, now + ttlMillis));
+        return principal;
+    }
+
+    public void evict(User user) {
+        if (user != null) {
+            evictKeys(user.getUsername(), user.getEmail());
+        }
+    }
+
+    public void evict(Worker worker) {
+        if (worker != null) {
+            evictKeys(worker.getUsername(), worker.getEmail());
+        }
+    }
+
+    /**
+     * Drop every entry, e.g. when a role itself is deactivated or deleted
+     */
+    public void evictAll() {
+        evictNowAndAfterCommit(() -> {
+            evictions.addAndGet(entries.size());
+            entries.clear();
+        });
+    }
+
+    public PrincipalCacheStats getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        return PrincipalCacheStats.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.get())
+                .size(entries.size())
+                .hitRatio(lookups == 0 ? 0.0 : Math.round(hitCount * 1000.0 / lookups) / 10.0)
+                .build();
+    }
+
+    private void evictKeys(String... keys) {
+        evictNowAndAfterCommit(() -> {
+            for (String key : keys) {
+                if (key != null && entries.remove(key) != null) {
+                    evictions.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    // A request racing the writing transaction could re-cache the old state, so evict again once it commits
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
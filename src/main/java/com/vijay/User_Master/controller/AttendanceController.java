@@ -1,9 +1,12 @@
 package com.vijay.User_Master.controller;
 
+import com.vijay.User_Master.Helper.CommonUtils;
 import com.vijay.User_Master.Helper.ExceptionUtil;
 import com.vijay.User_Master.dto.AttendanceRequest;
 import com.vijay.User_Master.dto.AttendanceResponse;
 import com.vijay.User_Master.dto.AttendanceStatistics;
+import com.vijay.User_Master.service.AttendanceRollupBackfillJob;
+import com.vijay.User_Master.service.AttendanceRollupService;
 import com.vijay.User_Master.service.AttendanceService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
@@ -31,6 +34,8 @@ import java.util.List;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final AttendanceRollupService rollupService;
+    private final AttendanceRollupBackfillJob rollupBackfillJob;
 
     /**
      * Get all attendance records with pagination
@@ -207,6 +212,38 @@ public class AttendanceController {
         return ExceptionUtil.createBuildResponse(stats, HttpStatus.OK);
     }
 
+    /**
+     * Get day-by-day attendance statistics for a class in a month
+     */
+    @GetMapping("/class/{classId}/statistics/monthly")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER', 'TEACHER')")
+    public ResponseEntity<?> getMonthlyAttendanceStatistics(
+            @PathVariable Long classId,
+            @RequestParam int year,
+            @RequestParam int month) {
+        log.info("Fetching monthly attendance statistics for class ID: {} for {}/{}", classId, month, year);
+        List<AttendanceStatistics> stats = attendanceService.getMonthlyAttendanceStatistics(classId, year, month);
+        return ExceptionUtil.createBuildResponse(stats, HttpStatus.OK);
+    }
+
+    /**
+     * Rebuild the attendance rollup for the logged-in school
+     * Without a range, every month since the first attendance record is rebuilt
+     */
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<?> rebuildAttendanceRollup(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        Long ownerId = CommonUtils.getLoggedInUser().getId();
+        log.info("Rebuilding attendance rollup for owner: {} from {} to {}", ownerId, startDate, endDate);
+        int rows = (startDate != null && endDate != null)
+            ? rollupService.rebuild(ownerId, startDate, endDate)
+            : rollupBackfillJob.backfillOwner(ownerId);
+        return ExceptionUtil.createBuildResponseMessage(
+            "Attendance rollup rebuilt: " + rows + " rows", HttpStatus.OK);
+    }
+
     /**
      * Check if attendance is already marked
      */
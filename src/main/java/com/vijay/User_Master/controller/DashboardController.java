@@ -1,17 +1,34 @@
 package com.vijay.User_Master.controller;
 
 import com.vijay.User_Master.dto.DashboardAnalytics;
+import com.vijay.User_Master.dto.DashboardEvent;
+import com.vijay.User_Master.dto.PageableResponse;
+import com.vijay.User_Master.dto.TenantCounterDrift;
 import com.vijay.User_Master.Helper.CommonUtils;
+import com.vijay.User_Master.service.DashboardEventHub;
 import com.vijay.User_Master.service.DashboardService;
+import com.vijay.User_Master.service.TenantCounterReconciliationJob;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Dashboard Analytics REST Controller
@@ -25,6 +42,12 @@ import org.springframework.web.bind.annotation.*;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final TenantCounterReconciliationJob tenantCounterReconciliationJob;
+    private final DashboardEventHub dashboardEventHub;
+
+    // Live streams end after this long; EventSource clients reconnect and receive a fresh snapshot
+    @Value("${app.dashboard.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
 
     /**
      * Get Application Owner Dashboard Analytics
@@ -73,6 +96,24 @@ public class DashboardController {
         return ResponseEntity.ok(analytics);
     }
 
+    /**
+     * Get School Summaries
+     * Paginated, sortable per-school student/teacher counts for the Application Owner
+     * Only accessible by SUPER_ADMIN role
+     */
+    @GetMapping("/schools")
+    @Operation(summary = "Get School Summaries", 
+               description = "Get one page of per-school summaries, sortable by schoolName, ownerId, totalStudents or totalTeachers")
+    @PreAuthorize("hasRole('ROLE_SUPER_ADMIN')")
+    public ResponseEntity<PageableResponse<DashboardAnalytics.SchoolAnalyticsSummary>> getSchoolSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "totalStudents") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        log.info("Getting School Summaries - page: {}, size: {}", page, size);
+        return ResponseEntity.ok(dashboardService.getSchoolSummaries(page, size, sortBy, sortDir));
+    }
+
     /**
      * Get Quick Stats for Dashboard Widgets
      * Returns essential metrics for dashboard widgets
@@ -123,6 +164,56 @@ public class DashboardController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Stream School Owner Dashboard
+     * Server-Sent Events: one "snapshot" event with the current quick stats, then a
+     * delta event per attendance mark, fee payment or student admission. A keep-alive comment
+     * every 15s holds idle connections open until the stream timeout.
+     */
+    @GetMapping(value = "/school-owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream School Owner Dashboard", 
+               description = "Live quick-stats snapshot followed by change events for the school owner's school")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_SUPER_USER')")
+    public ResponseEntity<SseEmitter> streamSchoolOwnerDashboard() {
+        Long ownerId = CommonUtils.getLoggedInUser().getId();
+        log.info("Opening dashboard stream for owner: {}", ownerId);
+
+        Flux<DashboardEvent> events = dashboardEventHub.subscribe(ownerId);
+        if (events == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        Mono<SseEmitter.SseEventBuilder> snapshot = Mono
+                .fromCallable(() -> dashboardService.getQuickStats(ownerId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(stats -> SseEmitter.event().name("snapshot").data(stats));
+        Flux<SseEmitter.SseEventBuilder> deltas = events
+                .map(event -> SseEmitter.event().name(event.getType()).data(event));
+        Flux<SseEmitter.SseEventBuilder> heartbeats = Flux.interval(Duration.ofSeconds(15))
+                .map(tick -> SseEmitter.event().comment("keep-alive"));
+
+        // mergeSequential subscribes to the deltas straight away, so nothing published
+        // while the snapshot is loading is lost; it is simply emitted after the snapshot.
+        // Ending the emitter (timeout, client gone, error) cancels the subscription,
+        // which releases the hub subscriber.
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Disposable subscription = Flux.mergeSequential(snapshot, deltas).mergeWith(heartbeats)
+                .subscribe(event -> send(emitter, event), emitter::completeWithError);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscription.dispose());
+        emitter.onCompletion(subscription::dispose);
+        return ResponseEntity.ok(emitter);
+    }
+
+    // A failed write ends the subscription, which completes the emitter with the error
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Get Dashboard Summary
      * Returns a summary of key metrics for the dashboard
@@ -183,4 +274,18 @@ public class DashboardController {
         DashboardAnalytics.QuickStats health = dashboardService.getQuickStats(isSuperAdmin ? null : ownerId);
         return ResponseEntity.ok(health);
     }
+
+    /**
+     * Reconcile Tenant Counters
+     * Recomputes every school's counters from the source tables
+     * Only accessible by SUPER_ADMIN role
+     */
+    @PostMapping("/counters/reconcile")
+    @Operation(summary = "Reconcile Tenant Counters", 
+               description = "Recompute dashboard counters for all schools and report the ones that drifted")
+    @PreAuthorize("hasRole('ROLE_SUPER_ADMIN')")
+    public ResponseEntity<List<TenantCounterDrift>> reconcileCounters() {
+        log.info("Reconciling tenant counters on demand");
+        return ResponseEntity.ok(tenantCounterReconciliationJob.reconcileAll());
+    }
 }
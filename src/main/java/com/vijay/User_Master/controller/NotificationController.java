@@ -1,9 +1,31 @@
 package com.vijay.User_Master.controller;
 
+import com.vijay.User_Master.Helper.CommonUtils;
 import com.vijay.User_Master.Helper.ExceptionUtil;
+import com.vijay.User_Master.dto.BroadcastProgress;
+import com.vijay.User_Master.dto.ChannelPolicyRequest;
+import com.vijay.User_Master.dto.NotificationLaneStats;
+import com.vijay.User_Master.dto.NotificationOutboxResponse;
+import com.vijay.User_Master.dto.NotificationRouterStats;
+import com.vijay.User_Master.dto.RecipientDedupStats;
+import com.vijay.User_Master.dto.RouteRequest;
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.entity.NotificationTemplate;
+import com.vijay.User_Master.entity.ScheduledJobCheckpoint;
+import com.vijay.User_Master.exceptions.BadApiRequestException;
+import com.vijay.User_Master.service.NotificationDispatcher;
+import com.vijay.User_Master.service.NotificationOutboxService;
+import com.vijay.User_Master.service.NotificationRouter;
+import com.vijay.User_Master.service.NotificationTemplateEngine;
+import com.vijay.User_Master.service.RecipientResolver;
+import com.vijay.User_Master.service.ScheduledNotificationService;
 import com.vijay.User_Master.service.SchoolNotificationService;
+import com.vijay.User_Master.service.TenantJobRunner;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +33,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Email Notification Controller
@@ -23,6 +48,14 @@ import java.time.LocalDate;
 public class NotificationController {
 
     private final SchoolNotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final ModelMapper modelMapper;
+    private final NotificationTemplateEngine templateEngine;
+    private final RecipientResolver recipientResolver;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TenantJobRunner tenantJobRunner;
+    private final ScheduledNotificationService scheduledNotificationService;
+    private final NotificationRouter notificationRouter;
 
     // ============= ATTENDANCE NOTIFICATIONS =============
 
@@ -154,6 +187,19 @@ public class NotificationController {
             "Report card sent successfully", HttpStatus.OK);
     }
 
+    /**
+     * Mail a semester's report cards to the parents of all students of the school, in the background
+     */
+    @PostMapping("/grades/report-cards")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<?> sendReportCards(@RequestParam String semester) {
+        Long ownerId = CommonUtils.getLoggedInUser().getOwnerId();
+        log.info("Mailing report cards for semester {} to all students of owner {}", semester, ownerId);
+        String runKey = scheduledNotificationService.startReportCards(ownerId, semester);
+        return ExceptionUtil.createBuildResponse(
+            Map.of("jobName", "report-cards", "runKey", runKey), HttpStatus.ACCEPTED);
+    }
+
     /**
      * Send weekly progress report
      */
@@ -352,5 +398,214 @@ public class NotificationController {
         return ExceptionUtil.createBuildResponseMessage(
             "Library overdue notice sent", HttpStatus.OK);
     }
-}
 
+    // ============= CHANNEL ROUTING =============
+
+    /**
+     * Message the parents of the given students over the school's cheapest channel, with fallback, in the background
+     */
+    @PostMapping("/route")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<?> routeMessage(@RequestBody RouteRequest request) {
+        Long ownerId = CommonUtils.getLoggedInUser().getOwnerId();
+        log.info("Routing campaign {} to parents of {} students for owner {}", request.getCampaign(),
+            request.getStudentIds() != null ? request.getStudentIds().size() : 0, ownerId);
+        notificationRouter.route(ownerId, request.getCampaign(), request.getStudentIds(),
+            request.getSubject(), request.getMessage());
+        return ExceptionUtil.createBuildResponseMessage(
+            "Notification routing started", HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * The logged-in school's allowed channels and email fallback mode
+     */
+    @GetMapping("/channel-policy")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<NotificationRouter.Policy> getChannelPolicy() {
+        return ResponseEntity.ok(notificationRouter.getPolicy(CommonUtils.getLoggedInUser().getOwnerId()));
+    }
+
+    @PutMapping("/channel-policy")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<NotificationRouter.Policy> saveChannelPolicy(@RequestBody ChannelPolicyRequest request) {
+        Long ownerId = CommonUtils.getLoggedInUser().getOwnerId();
+        log.info("Saving notification channel policy {} for owner ID: {}", request.getChannels(), ownerId);
+        return ResponseEntity.ok(notificationRouter.savePolicy(ownerId, request));
+    }
+
+    /**
+     * Profile queries, paid sends, fallbacks and digests of the channel router, across every
+     * school, so for SUPER_ADMIN only
+     */
+    @GetMapping("/router/stats")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<NotificationRouterStats> getRouterStats() {
+        return ResponseEntity.ok(notificationRouter.getStats());
+    }
+
+    // ============= OUTBOX =============
+
+    /**
+     * Outbox message counts by status (PENDING, PROCESSING, SENT, DEAD); the caller's school, or all schools for SUPER_ADMIN
+     */
+    @GetMapping("/outbox/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Long>> getOutboxStatus() {
+        return ResponseEntity.ok(notificationOutboxService.getStatusCounts(outboxOwnerScope()));
+    }
+
+    /**
+     * Per priority lane: workers, pending messages and queue delay percentiles; the lanes are shared
+     * by every school, so the figures are for SUPER_ADMIN only
+     */
+    @GetMapping("/outbox/lanes")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<List<NotificationLaneStats>> getOutboxLanes() {
+        return ResponseEntity.ok(notificationDispatcher.getLaneStats());
+    }
+
+    /**
+     * Messages that used up all delivery attempts; the caller's school, or all schools for SUPER_ADMIN
+     */
+    @GetMapping("/outbox/dead")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER', 'SUPER_ADMIN')")
+    public ResponseEntity<Page<NotificationOutboxResponse>> getDeadLetters(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(toResponses(
+            notificationOutboxService.getDeadLetters(outboxOwnerScope(), PageRequest.of(page, size))));
+    }
+
+    /**
+     * The school's messages that Twilio accepted but later reported undelivered or failed
+     */
+    @GetMapping("/outbox/undelivered")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<Page<NotificationOutboxResponse>> getUndelivered(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Long ownerId = CommonUtils.getLoggedInUser().getOwnerId();
+        return ResponseEntity.ok(toResponses(notificationOutboxService.getUndelivered(ownerId, PageRequest.of(page, size))));
+    }
+
+    /**
+     * Put a dead-lettered message back in the queue with a fresh set of attempts
+     */
+    @PostMapping("/outbox/dead/{id}/retry")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER', 'SUPER_ADMIN')")
+    public ResponseEntity<?> retryDeadLetter(@PathVariable Long id) {
+        log.info("Retrying dead-lettered notification ID: {}", id);
+        notificationOutboxService.retryDeadLetter(outboxOwnerScope(), id);
+        return ExceptionUtil.createBuildResponseMessage(
+            "Notification queued for retry", HttpStatus.OK);
+    }
+
+    /**
+     * Progress of a bulk or emergency SMS / WhatsApp send
+     */
+    @GetMapping("/outbox/broadcasts/{broadcastId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER', 'SUPER_ADMIN')")
+    public ResponseEntity<BroadcastProgress> getBroadcastProgress(@PathVariable String broadcastId) {
+        return ResponseEntity.ok(notificationOutboxService.getBroadcastProgress(outboxOwnerScope(), broadcastId));
+    }
+
+    /**
+     * Per-recipient status of a broadcast (status, attempts, last error, provider message ID)
+     */
+    @GetMapping("/outbox/broadcasts/{broadcastId}/recipients")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER', 'SUPER_ADMIN')")
+    public ResponseEntity<Page<NotificationOutboxResponse>> getBroadcastRecipients(
+            @PathVariable String broadcastId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(toResponses(
+            notificationOutboxService.getBroadcastRecipients(outboxOwnerScope(), broadcastId, PageRequest.of(page, size))));
+    }
+
+    /**
+     * Sends saved by merging siblings and skipping parents already reached in the same campaign;
+     * figures cover every school, so they are for SUPER_ADMIN only
+     */
+    @GetMapping("/recipients/stats")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<RecipientDedupStats> getRecipientDedupStats() {
+        return ResponseEntity.ok(recipientResolver.getStats());
+    }
+
+    // ============= SCHEDULED JOBS =============
+
+    /**
+     * Per-school checkpoints of a scheduled job run (e.g. low-attendance / 2025-01-10)
+     */
+    @GetMapping("/jobs/{jobName}/{runKey}")
+    @PreAuthorize("hasAnyRole('SUPER_USER', 'SUPER_ADMIN')")
+    public ResponseEntity<List<ScheduledJobCheckpoint>> getJobCheckpoints(
+            @PathVariable String jobName,
+            @PathVariable String runKey) {
+        return ResponseEntity.ok(tenantJobRunner.getCheckpoints(jobName, runKey));
+    }
+
+    // ============= TEMPLATES =============
+
+    /**
+     * Keys of the bundled templates a school can override (e.g. email/fee-reminder)
+     */
+    @GetMapping("/templates")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<Set<String>> getTemplateKeys() {
+        return ResponseEntity.ok(templateEngine.getTemplateKeys());
+    }
+
+    /**
+     * The logged-in school's template overrides
+     */
+    @GetMapping("/templates/overrides")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<List<NotificationTemplate>> getTemplateOverrides() {
+        return ResponseEntity.ok(templateEngine.getOverrides(CommonUtils.getLoggedInUser().getOwnerId()));
+    }
+
+    /**
+     * Override a template for the logged-in school; placeholders are {{name}} or {{name:decimals}}
+     */
+    @PutMapping("/templates")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<NotificationTemplate> saveTemplateOverride(
+            @RequestParam String key,
+            @RequestBody String body) {
+        Long ownerId = CommonUtils.getLoggedInUser().getOwnerId();
+        log.info("Saving notification template override {} for owner ID: {}", key, ownerId);
+        return ResponseEntity.ok(templateEngine.saveOverride(ownerId, key, body));
+    }
+
+    /**
+     * Remove the logged-in school's override so the bundled template is used again
+     */
+    @DeleteMapping("/templates")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<?> deleteTemplateOverride(@RequestParam String key) {
+        Long ownerId = CommonUtils.getLoggedInUser().getOwnerId();
+        log.info("Removing notification template override {} for owner ID: {}", key, ownerId);
+        templateEngine.deleteOverride(ownerId, key);
+        return ExceptionUtil.createBuildResponseMessage(
+            "Notification template override removed", HttpStatus.OK);
+    }
+
+    private Page<NotificationOutboxResponse> toResponses(Page<NotificationOutbox> messages) {
+        return messages.map(message -> modelMapper.map(message, NotificationOutboxResponse.class));
+    }
+
+    // Outbox rows hold parents' phones, emails and message bodies: schools see only their own, SUPER_ADMIN every school
+    private static Long outboxOwnerScope() {
+        boolean isSuperAdmin = CommonUtils.getLoggedInUser().getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_SUPER_ADMIN"));
+        if (isSuperAdmin) {
+            return null;
+        }
+        Long ownerId = CommonUtils.getLoggedInUser().getOwnerId();
+        if (ownerId == null) {
+            throw new BadApiRequestException("No school is associated with this account");
+        }
+        return ownerId;
+    }
+}
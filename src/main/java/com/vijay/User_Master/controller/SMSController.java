@@ -1,6 +1,9 @@
 package com.vijay.User_Master.controller;
 
+import com.vijay.User_Master.Helper.CommonUtils;
 import com.vijay.User_Master.Helper.ExceptionUtil;
+import com.vijay.User_Master.dto.SmsSegmentInfo;
+import com.vijay.User_Master.service.NotificationTemplateEngine;
 import com.vijay.User_Master.service.SMSService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * SMS Notification Controller
@@ -27,6 +31,7 @@ import java.util.List;
 public class SMSController {
 
     private final SMSService smsService;
+    private final NotificationTemplateEngine templateEngine;
 
     /**
      * Send custom SMS to a phone number
@@ -51,9 +56,31 @@ public class SMSController {
             @RequestBody List<String> phoneNumbers,
             @RequestParam String message) {
         log.info("Sending bulk SMS to {} recipients", phoneNumbers.size());
-        smsService.sendBulkSMS(phoneNumbers, message);
-        return ExceptionUtil.createBuildResponseMessage(
-            "Bulk SMS sent to " + phoneNumbers.size() + " recipients", HttpStatus.OK);
+        int segments = templateEngine.estimateSms(message).getSegments();
+        String broadcastId = smsService.sendBulkSMS(phoneNumbers, message);
+        return ExceptionUtil.createBuildResponse(
+            Map.of("broadcastId", broadcastId,
+                   "recipients", phoneNumbers.size(),
+                   "segmentsPerMessage", segments,
+                   "estimatedSegments", segments * phoneNumbers.size()), HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Encoding and billed segments of a message before it is sent, plus its GSM-7 optimised form
+     */
+    @PostMapping("/segments")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<SmsSegmentInfo> estimateSegments(@RequestParam String message) {
+        return ResponseEntity.ok(templateEngine.estimateSms(message));
+    }
+
+    /**
+     * Expected segments of each SMS template for the logged-in school
+     */
+    @GetMapping("/templates/segments")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_USER')")
+    public ResponseEntity<Map<String, SmsSegmentInfo>> getTemplateSegments() {
+        return ResponseEntity.ok(templateEngine.getSmsSegmentEstimates(CommonUtils.getLoggedInUser().getOwnerId()));
     }
 
     /**
@@ -138,9 +165,9 @@ public class SMSController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> sendEmergencySMSToAll(@RequestParam String message) {
         log.info("Sending emergency SMS to all parents");
-        smsService.sendEmergencySMSToAll(message);
-        return ExceptionUtil.createBuildResponseMessage(
-            "Emergency SMS sent to all parents", HttpStatus.OK);
+        String broadcastId = smsService.sendEmergencySMSToAll(message);
+        return ExceptionUtil.createBuildResponse(
+            Map.of("broadcastId", broadcastId), HttpStatus.ACCEPTED);
     }
 
     /**
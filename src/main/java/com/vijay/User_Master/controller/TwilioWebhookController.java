@@ -0,0 +1,52 @@
+package com.vijay.User_Master.controller;
+
+import com.vijay.User_Master.service.DeliveryStatusIngestor;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Twilio Webhook Controller
+ * Public endpoint for Twilio message status callbacks (StatusCallback on every SMS / WhatsApp send).
+ * Requests are authenticated by X-Twilio-Signature instead of a JWT and only buffered here;
+ * DeliveryStatusIngestor writes them to the outbox in batches.
+ */
+@RestController
+@RequestMapping("/api/v1/webhooks/twilio")
+@AllArgsConstructor
+@Slf4j
+public class TwilioWebhookController {
+
+    private final DeliveryStatusIngestor statusIngestor;
+
+    /**
+     * Message status callback (MessageSid, MessageStatus, ErrorCode, ...)
+     */
+    @PostMapping(value = "/status", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Void> statusCallback(
+            @RequestParam Map<String, String> params,
+            @RequestHeader(value = "X-Twilio-Signature", required = false) String signature) {
+        if (!statusIngestor.isSignatureValid(params, signature)) {
+            log.warn("Rejected Twilio status callback with an invalid signature");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        boolean accepted = statusIngestor.offer(params.get("MessageSid"), params.get("MessageStatus"), params.get("ErrorCode"));
+        // Full buffer: a 503 makes Twilio retry the callback later
+        return ResponseEntity.status(accepted ? HttpStatus.NO_CONTENT : HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    /**
+     * Callbacks received, rejected and written since startup
+     */
+    @GetMapping("/status/stats")
+    @PreAuthorize("hasAnyRole('SUPER_USER', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Long>> getStatusCallbackStats() {
+        return ResponseEntity.ok(statusIngestor.getStats());
+    }
+}
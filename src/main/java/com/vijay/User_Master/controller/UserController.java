@@ -4,8 +4,10 @@ import com.vijay.User_Master.Helper.CommonUtils;
 import com.vijay.User_Master.Helper.ExceptionUtil;
 
 import com.vijay.User_Master.config.security.CustomUserDetails;
+import com.vijay.User_Master.config.security.PrincipalCache;
 import com.vijay.User_Master.dto.ImageResponse;
 import com.vijay.User_Master.dto.PageableResponse;
+import com.vijay.User_Master.dto.PrincipalCacheStats;
 import com.vijay.User_Master.dto.UserRequest;
 import com.vijay.User_Master.dto.UserResponse;
 import com.vijay.User_Master.entity.Role;
@@ -24,6 +26,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -45,9 +48,17 @@ public class UserController {
 
     private FileService fileService;
     private ModelMapper mapper;
+    private PrincipalCache principalCache;
 
 
 
+    // Hit/miss metrics of the cache that resolves JWT subjects to principals
+    @GetMapping("/principal-cache/stats")
+    @PreAuthorize("hasRole('ROLE_SUPER_ADMIN')")
+    public ResponseEntity<PrincipalCacheStats> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.getStats());
+    }
+
     // Endpoint to create a new user
     @PostMapping
     public ResponseEntity<?> createUser(@RequestBody UserRequest userRequest) {
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * WhatsApp Notification Controller
@@ -66,9 +67,9 @@ public class WhatsAppController {
             @RequestBody List<String> phoneNumbers,
             @RequestParam String message) {
         log.info("Sending bulk WhatsApp to {} recipients", phoneNumbers.size());
-        whatsAppService.sendBulkWhatsAppMessages(phoneNumbers, message);
-        return ExceptionUtil.createBuildResponseMessage(
-            "Bulk WhatsApp sent to " + phoneNumbers.size() + " recipients", HttpStatus.OK);
+        String broadcastId = whatsAppService.sendBulkWhatsAppMessages(phoneNumbers, message);
+        return ExceptionUtil.createBuildResponse(
+            Map.of("broadcastId", broadcastId, "recipients", phoneNumbers.size()), HttpStatus.ACCEPTED);
     }
 
     /**
@@ -177,9 +178,9 @@ public class WhatsAppController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> sendEmergencyWhatsAppToAll(@RequestParam String message) {
         log.info("Sending emergency WhatsApp to all parents");
-        whatsAppService.sendEmergencyWhatsAppToAll(message);
-        return ExceptionUtil.createBuildResponseMessage(
-            "Emergency WhatsApp sent to all parents", HttpStatus.OK);
+        String broadcastId = whatsAppService.sendEmergencyWhatsAppToAll(message);
+        return ExceptionUtil.createBuildResponse(
+            Map.of("broadcastId", broadcastId), HttpStatus.ACCEPTED);
     }
 
     /**
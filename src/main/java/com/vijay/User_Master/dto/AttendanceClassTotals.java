@@ -0,0 +1,10 @@
+package com.vijay.User_Master.dto;
+
+/**
+ * Attendance totals for one class over a date range, from the daily rollup
+ */
+public interface AttendanceClassTotals {
+    Long getClassId();
+    Long getPresent();
+    Long getTotal();
+}
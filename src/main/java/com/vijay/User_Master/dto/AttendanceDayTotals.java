@@ -0,0 +1,13 @@
+package com.vijay.User_Master.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Attendance totals for one day, summed over classes (and schools) from the daily rollup
+ */
+public interface AttendanceDayTotals {
+    LocalDate getAttendanceDate();
+    Long getPresent();
+    Long getAbsent();
+    Long getTotal();
+}
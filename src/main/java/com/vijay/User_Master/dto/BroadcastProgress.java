@@ -0,0 +1,25 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Delivery progress of one bulk / emergency send
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastProgress {
+    private String broadcastId;
+    private long total;
+    private long sent;
+    private long failed;            // Dead-lettered after all attempts
+    private long inFlight;          // Pending, retrying or being sent
+    private boolean complete;
+    private Map<String, Long> statusCounts;
+}
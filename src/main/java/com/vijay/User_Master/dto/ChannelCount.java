@@ -0,0 +1,12 @@
+package com.vijay.User_Master.dto;
+
+/**
+ * Notifications sent and failed on one channel over a period
+ */
+public interface ChannelCount {
+    String getChannel();
+
+    Long getSent();
+
+    Long getFailed();
+}
@@ -0,0 +1,17 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChannelPolicyRequest {
+    private List<String> channels;      // Allowed channels: WHATSAPP, SMS, EMAIL
+    private boolean emailDigest;
+}
@@ -82,6 +82,9 @@ public class DashboardAnalytics {
     // For Super Admin - School-wise analytics
     private List<SchoolAnalyticsSummary> schoolWiseAnalytics;
     
+    // Sections that missed their deadline and carry stale or empty data
+    private List<String> partialSections;
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -90,6 +93,7 @@ public class DashboardAnalytics {
         private String date;
         private Integer present;
         private Integer absent;
+        private Integer total; // All records marked that day, any status
         private Double percentage;
     }
     
@@ -0,0 +1,30 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregated counters behind DashboardAnalytics and QuickStats
+ * Built from grouped count queries, never from loaded entities
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardCounts {
+
+    private int totalStudents;
+    private int activeStudents;
+    private int inactiveStudents;
+    private int totalTeachers;
+    private int activeTeachers;
+    private int inactiveTeachers;
+    private int totalClasses;
+    private int totalSubjects;
+    private int totalExams;
+    private int upcomingExams;
+    private int totalAssignments;
+    private int pendingAssignments;
+}
@@ -0,0 +1,28 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Small change notification pushed to live dashboard subscribers of one school
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardEvent {
+
+    public static final String ATTENDANCE_MARKED = "ATTENDANCE_MARKED";
+    public static final String FEE_PAID = "FEE_PAID";
+    public static final String STUDENT_ADMITTED = "STUDENT_ADMITTED";
+
+    private String type;
+    private Long ownerId;
+    private Map<String, Object> data;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,13 @@
+package com.vijay.User_Master.dto;
+
+/**
+ * Projection for a total count together with the subset still open
+ * (upcoming exams, pending assignments)
+ */
+public interface ItemCount {
+
+    Long getTotal();
+
+    // SUM over an empty set is null
+    Long getOpen();
+}
@@ -0,0 +1,17 @@
+package com.vijay.User_Master.dto;
+
+/**
+ * A student below the attendance threshold, with the details the warning email needs
+ */
+public interface LowAttendanceStudent {
+    Long getStudentId();
+    String getFirstName();
+    String getLastName();
+    String getParentEmail();
+    Long getPresent();
+    Long getTotal();
+
+    default double getPercentage() {
+        return getTotal() == null || getTotal() == 0 ? 0.0 : getPresent() * 100.0 / getTotal();
+    }
+}
@@ -0,0 +1,14 @@
+package com.vijay.User_Master.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Monthly facts for one month, summed over schools when no owner is given
+ */
+public interface MonthlyFactTotals {
+    String getMonthKey();
+    Long getNewAdmissions();
+    BigDecimal getFeeCollected();
+    Long getAttendancePresent();
+    Long getAttendanceTotal();
+}
@@ -0,0 +1,27 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dispatcher lane health: workers, backlog and delays (percentiles over recent deliveries, in ms)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationLaneStats {
+    private String priority;
+    private int workers;
+    private int activeWorkers;
+    private long pending;
+    private long delivered;             // Since startup on this instance
+    private long queueDelayP50Ms;       // Due -> claimed by a worker
+    private long queueDelayP95Ms;
+    private long queueDelayP99Ms;
+    private long queueDelayMaxMs;
+    private long endToEndP50Ms;         // Queued -> accepted by the provider, retries included
+    private long endToEndP99Ms;
+}
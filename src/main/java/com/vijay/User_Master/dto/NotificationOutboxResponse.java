@@ -0,0 +1,39 @@
+package com.vijay.User_Master.dto;
+
+import com.vijay.User_Master.entity.NotificationOutbox;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Delivery state of one outbox message. The body is left out: it can hold an OTP or a
+ * password-reset link.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutboxResponse {
+    private Long id;
+    private Long ownerId;
+    private NotificationOutbox.Channel channel;
+    private String recipient;
+    private String subject;
+    private String broadcastId;
+    private String campaignKey;
+    private NotificationOutbox.Priority priority;
+    private NotificationOutbox.Status status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime createdOn;
+    private LocalDateTime sentOn;
+    private String providerMessageId;
+    private String fallbackChannels;
+    private String deliveryStatus;
+    private String deliveryErrorCode;
+    private LocalDateTime deliveryUpdatedOn;
+}
@@ -0,0 +1,27 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Channel router activity since startup
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRouterStats {
+    private long students;                  // Students routed
+    private long profileQueries;            // Contact profile queries run
+    private long naiveLookups;              // Lookups a per-student, per-channel send would have run
+    private long coalesced;                 // Siblings merged into one message
+    private Map<String, Long> queuedByChannel;
+    private long fallbacks;                 // Failed messages moved to their next channel
+    private long digestItems;               // Email fallbacks collected for a digest
+    private long digestEmails;              // Digest emails sent
+    private long estimatedCostPaise;        // First-choice paid sends, at the configured cost
+}
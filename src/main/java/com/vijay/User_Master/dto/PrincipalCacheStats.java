@@ -0,0 +1,21 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hit/miss counters of the authenticated-principal cache
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrincipalCacheStats {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    private double hitRatio;
+}
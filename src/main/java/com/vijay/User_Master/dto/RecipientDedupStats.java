@@ -0,0 +1,24 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Messages avoided by recipient de-duplication since startup
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientDedupStats {
+    private long targeted;                  // Student contacts requested
+    private long queued;                    // Messages actually queued
+    private long savedByCoalescing;         // Siblings merged into one message
+    private long savedByCampaignDedup;      // Address already reached in the same campaign
+    private double savedRatio;
+    private Map<String, Long> savedByChannel;
+}
@@ -0,0 +1,22 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A message to the parents of some students, sent over the school's cheapest working channel
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RouteRequest {
+    private List<Long> studentIds;
+    private String campaign;        // e.g. "sports-day"; a parent is reached once per campaign per day
+    private String subject;         // Email subject, also used by the email fallback
+    private String message;         // Plain text; "{{studentNames}}" is replaced by the children's first names
+}
@@ -0,0 +1,12 @@
+package com.vijay.User_Master.dto;
+
+/**
+ * One school (owner) with its live student and teacher counts, from a single grouped query
+ */
+public interface SchoolSummaryRow {
+    Long getOwnerId();
+    String getSchoolName();
+    Boolean getActive();
+    Long getTotalStudents();
+    Long getTotalTeachers();
+}
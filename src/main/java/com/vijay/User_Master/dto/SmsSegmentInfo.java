@@ -0,0 +1,23 @@
+package com.vijay.User_Master.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SMS encoding (GSM7 / UCS2) and billed segment count
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SmsSegmentInfo {
+    private String encoding;
+    private int characters;             // Septets for GSM7, UTF-16 units for UCS2
+    private int segments;
+    private String optimisedText;       // Free-text estimates only
+    private Integer optimisedSegments;
+}
@@ -0,0 +1,10 @@
+package com.vijay.User_Master.dto;
+
+/**
+ * One student's attendance counts over a date range
+ */
+public interface StudentAttendanceTotals {
+    Long getStudentId();
+    Long getPresent();
+    Long getTotal();
+}
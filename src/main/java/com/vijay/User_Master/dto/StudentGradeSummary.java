@@ -0,0 +1,10 @@
+package com.vijay.User_Master.dto;
+
+/**
+ * One student's published grades: how many there are and their average percentage (the GPA)
+ */
+public interface StudentGradeSummary {
+    Long getStudentId();
+    Long getPublishedGrades();
+    Double getAveragePercentage();
+}
@@ -0,0 +1,26 @@
+package com.vijay.User_Master.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Result of reconciling one school's counters against the source tables
+ * drift holds stored minus recomputed, only for counters that disagreed
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantCounterDrift {
+    private Long ownerId;
+    private boolean rowMissing;
+    private Map<String, Long> drift;
+
+    public boolean hasDrift() {
+        return rowMissing || (drift != null && !drift.isEmpty());
+    }
+}
@@ -0,0 +1,17 @@
+package com.vijay.User_Master.dto;
+
+/**
+ * Projection for grouped worker counts
+ * One row per (role, deleted, active) combination of a tenant (or of all tenants)
+ */
+public interface WorkerRoleCount {
+
+    String getRoleName();
+
+    Boolean getDeleted();
+
+    // null when the worker has no account status
+    Boolean getActive();
+
+    Long getTotal();
+}
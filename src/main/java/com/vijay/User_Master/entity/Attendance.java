@@ -14,7 +14,8 @@ import java.time.LocalTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "attendance", 
-       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "attendance_date", "session"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "attendance_date", "session"}),
+       indexes = @Index(name = "idx_attendance_owner_student_status", columnList = "owner_id, student_id, status"))
 @EntityListeners(AuditingEntityListener.class)
 public class Attendance extends BaseModel {
 
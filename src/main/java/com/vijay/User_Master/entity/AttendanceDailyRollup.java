@@ -0,0 +1,50 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Daily attendance rollup
+ * One row per school, class and date with the count of each attendance status.
+ * Maintained incrementally by AttendanceServiceImpl and rebuildable from the attendance table.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "attendance_daily_rollup",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"owner_id", "class_id", "attendance_date"}),
+       indexes = @Index(name = "idx_rollup_owner_date", columnList = "owner_id, attendance_date"))
+public class AttendanceDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+
+    @Column(name = "attendance_date", nullable = false)
+    private LocalDate attendanceDate;
+
+    private long present;
+
+    private long absent;
+
+    private long late;
+
+    private long halfDay;
+
+    private long excused;
+
+    private long other;     // MEDICAL_LEAVE, SICK_LEAVE, HOLIDAY
+
+    private long total;
+}
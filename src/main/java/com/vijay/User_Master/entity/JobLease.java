@@ -0,0 +1,35 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Job lease
+ * Time-limited ownership of a scheduled job run, or one school's partition of it, by one
+ * application instance. Written only through JobLeaseRepository's atomic upsert.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "job_leases",
+       indexes = @Index(name = "idx_job_lease_expires", columnList = "expires_at"))
+public class JobLease {
+
+    @Id
+    @Column(name = "lease_key", length = 150)
+    private String leaseKey;            // e.g. "low-attendance:2025-01-10:owner:42"
+
+    @Column(nullable = false, length = 100)
+    private String holder;              // Instance id of the owner
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;    // Database clock; free for anyone once passed
+
+    @Column(name = "acquired_on")
+    private LocalDateTime acquiredOn;
+}
@@ -0,0 +1,43 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Monthly dashboard facts
+ * One row per school and month (yyyy-MM), rebuilt one month at a time by MonthlyFactBuilder
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "monthly_facts",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"owner_id", "month_key"}))
+public class MonthlyFact {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "month_key", nullable = false, length = 7)
+    private String monthKey;            // e.g. "2024-09"
+
+    private long newAdmissions;         // Students created in the month
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal feeCollected;    // Fee.paidAmount of fees last paid in the month
+
+    private long attendancePresent;     // From attendance_daily_rollup
+
+    private long attendanceTotal;
+
+    private LocalDateTime updatedOn;
+}
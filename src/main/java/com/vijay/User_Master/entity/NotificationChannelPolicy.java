@@ -0,0 +1,32 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-school notification channel policy used by NotificationRouter.
+ * Lists the channels the school allows; paid channels are tried cheapest first and email is the
+ * last resort, either as one digest per parent or immediately. Schools without a row use the defaults.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "notification_channel_policies")
+public class NotificationChannelPolicy {
+
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(nullable = false, length = 60)
+    private String channels;            // Comma-separated, e.g. "WHATSAPP,SMS,EMAIL"
+
+    private boolean emailDigest;        // Email fallbacks are collected into one digest per parent
+
+    private LocalDateTime updatedOn;
+}
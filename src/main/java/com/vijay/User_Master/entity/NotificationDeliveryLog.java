@@ -0,0 +1,59 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification delivery log
+ * Append-only record of every message sent or given up on (moved to dead letters), one row per
+ * message, written in batches by DeliveryLogService.
+ * Rows are never updated; old days are pruned in small batches.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "notification_delivery_log",
+       indexes = {
+           @Index(name = "idx_delivery_log_logged_on", columnList = "logged_on"),
+           @Index(name = "idx_delivery_log_owner_logged_on", columnList = "owner_id, logged_on")
+       })
+public class NotificationDeliveryLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @Column(name = "owner_id")
+    private Long ownerId;               // null = system-wide
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private NotificationOutbox.Channel channel;
+
+    @Column(length = 60)
+    private String template;            // Campaign type (e.g. weekly-progress), null for one-off messages
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private long latencyMs;             // Queued to delivered (or failed)
+
+    @Column(length = 64)
+    private String providerMessageId;
+
+    @Column(name = "logged_on", nullable = false)
+    private LocalDateTime loggedOn;
+
+    public enum Status {
+        SENT, FAILED
+    }
+}
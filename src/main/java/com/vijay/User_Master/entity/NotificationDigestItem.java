@@ -0,0 +1,37 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message waiting to go out in a parent's next email digest (a failed WhatsApp / SMS fallback)
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "notification_digest_items",
+       indexes = @Index(name = "idx_digest_owner_email", columnList = "owner_id, email"))
+public class NotificationDigestItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private String email;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String message;
+
+    private LocalDateTime createdOn;
+}
@@ -0,0 +1,42 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hourly notification counters
+ * One row per school, channel and hour with the messages sent and given up on in that hour.
+ * Rolled up from each delivery log batch as it is written; dashboards read only these rows.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "notification_hourly_counters",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"owner_id", "channel", "hour_start"}),
+       indexes = @Index(name = "idx_notification_counter_hour", columnList = "hour_start"))
+public class NotificationHourlyCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;               // 0 = system-wide messages
+
+    @Column(nullable = false, length = 20)
+    private String channel;
+
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+
+    private long sent;
+
+    private long failed;
+
+    private long latencyMs;             // Sum over sent messages; divide by sent for the average
+}
@@ -0,0 +1,111 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification outbox
+ * One row per outgoing email / SMS / WhatsApp message, written in the caller's transaction
+ * and delivered later by NotificationDispatcher workers
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "notification_outbox",
+       indexes = {
+           @Index(name = "idx_outbox_status_priority_next_attempt", columnList = "status, priority, next_attempt_at"),
+           @Index(name = "idx_outbox_broadcast", columnList = "broadcast_id"),
+           @Index(name = "idx_outbox_campaign", columnList = "campaign_key, recipient"),
+           @Index(name = "idx_outbox_provider_message", columnList = "provider_message_id"),
+           @Index(name = "idx_outbox_owner_delivery_status", columnList = "owner_id, delivery_status")
+       })
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id")
+    private Long ownerId;               // School the message is sent for (null = system-wide)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Channel channel;
+
+    @Column(nullable = false)
+    private String recipient;           // Email address or phone number
+
+    private String subject;             // Email; on routed SMS / WhatsApp the subject for an email fallback
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    @Column(length = 1000)
+    private String mediaUrl;            // WhatsApp attachments
+
+    @Column(name = "broadcast_id", length = 36)
+    private String broadcastId;         // Groups the rows of one bulk / emergency send
+
+    @Column(name = "campaign_key", length = 100)
+    private String campaignKey;         // One logical send across channels; see RecipientResolver
+
+    // Rows queued before lanes existed default to TRANSACTIONAL when the column is added
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, columnDefinition = "varchar(20) not null default 'TRANSACTIONAL'")
+    private Priority priority;          // Lane the dispatcher delivers it on
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime claimedAt;    // Set while a worker owns the row (PROCESSING)
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdOn;
+
+    private LocalDateTime sentOn;
+
+    @Column(name = "provider_message_id", length = 64)
+    private String providerMessageId;   // e.g. Twilio message SID
+
+    @Column(name = "delivery_status", length = 20)
+    private String deliveryStatus;      // Latest provider status callback: queued, sent, delivered, undelivered, failed, read
+
+    @Column(length = 10)
+    private String deliveryErrorCode;   // Provider error code for undelivered / failed
+
+    private LocalDateTime deliveryUpdatedOn;
+
+    @Column(name = "fallback_channels", length = 60)
+    private String fallbackChannels;    // NotificationRouter: channels still to try if this one fails, e.g. "SMS,EMAIL"
+
+    private String fallbackEmail;       // Address for an EMAIL fallback
+
+    public enum Channel {
+        EMAIL, SMS, WHATSAPP
+    }
+
+    /**
+     * INTERACTIVE: a user is waiting (OTP, password reset). TRANSACTIONAL: one message about one
+     * event (receipt, welcome). BULK: campaigns and broadcasts. Each lane has its own workers.
+     */
+    public enum Priority {
+        INTERACTIVE, TRANSACTIONAL, BULK
+    }
+
+    public enum Status {
+        PENDING, PROCESSING, SENT, DEAD
+    }
+}
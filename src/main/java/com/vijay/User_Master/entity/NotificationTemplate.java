@@ -0,0 +1,39 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-school override of a bundled notification template
+ * (classpath notification-templates/{templateKey}.html|.txt); ownerId null overrides it for every school
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "notification_templates",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"owner_id", "template_key"}))
+public class NotificationTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "template_key", nullable = false, length = 100)
+    private String templateKey;         // e.g. "email/fee-reminder"
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    private boolean active;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedOn;
+}
@@ -0,0 +1,59 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scheduled job checkpoint
+ * Progress of one school (partition) in one run of a scheduled job. The cursor is the last
+ * item handled, so a run interrupted by a crash or redeploy resumes after it.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "scheduled_job_checkpoints",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"job_name", "run_key", "owner_id"}),
+       indexes = @Index(name = "idx_job_checkpoint_status", columnList = "status, started_on"))
+public class ScheduledJobCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 60)
+    private String jobName;
+
+    @Column(name = "run_key", nullable = false, length = 60)
+    private String runKey;              // Identifies one run, e.g. the date it was scheduled for
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "last_cursor")
+    private long cursor;                // Last item handled (e.g. worker id); 0 = not started
+
+    private long processed;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private int attempts;               // Runs that picked this partition up (1 = no resume needed)
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(name = "started_on")
+    private LocalDateTime startedOn;
+
+    private LocalDateTime updatedOn;
+
+    public enum Status {
+        RUNNING, DONE, FAILED
+    }
+}
@@ -0,0 +1,43 @@
+package com.vijay.User_Master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-school dashboard counters
+ * One row per owner, kept current by atomic increments from the write services
+ * and corrected nightly by the reconciliation job
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "tenant_counters")
+public class TenantCounter {
+
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    private long students;          // Non-deleted workers with ROLE_STUDENT
+
+    private long teachers;          // Non-deleted workers with ROLE_TEACHER
+
+    private long classes;
+
+    private long subjects;
+
+    private long exams;
+
+    private long scheduledExams;    // Non-deleted exams in SCHEDULED status
+
+    private long assignments;
+
+    private long openAssignments;   // Non-deleted assignments in ASSIGNED / IN_PROGRESS status
+
+    private LocalDateTime updatedOn;
+}
@@ -15,7 +15,8 @@ import java.util.Set;
 @Builder
 @AllArgsConstructor
 @Entity
-@Table(name = "workers")
+@Table(name = "workers",
+       indexes = @Index(name = "idx_workers_owner_birthday", columnList = "owner_id, birth_month_day"))
 @EntityListeners(AuditingEntityListener.class)
 public class Worker extends BaseModel {
 
@@ -52,6 +53,10 @@ public class Worker extends BaseModel {
     private String address;
     private String phoneNumber;
     private LocalDate dateOfBirth;
+    // dateOfBirth as MMDD (e.g. 1017), computed and stored by MySQL so birthday lookups use an index
+    @Column(name = "birth_month_day", insertable = false, updatable = false,
+            columnDefinition = "smallint generated always as (month(date_of_birth) * 100 + dayofmonth(date_of_birth)) stored")
+    private Integer birthMonthDay;
     private String profileImageUrl;
     
     // Teacher-specific fields
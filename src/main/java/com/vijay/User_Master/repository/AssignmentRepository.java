@@ -1,5 +1,6 @@
 package com.vijay.User_Master.repository;
 
+import com.vijay.User_Master.dto.ItemCount;
 import com.vijay.User_Master.entity.Assignment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -66,5 +67,11 @@ public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     Optional<Assignment> findByIdAndOwner_Id(Long id, Long ownerId);
     
     Optional<Assignment> findByIdAndOwner_IdAndIsDeletedFalse(Long id, Long ownerId);
+    
+    // Dashboard: total and pending assignments in one pass (ownerId null = all schools)
+    @Query("SELECT COUNT(a) AS total, " +
+           "SUM(CASE WHEN a.status IN ('ASSIGNED', 'IN_PROGRESS') THEN 1 ELSE 0 END) AS open " +
+           "FROM Assignment a WHERE a.isDeleted = false AND (:ownerId IS NULL OR a.owner.id = :ownerId)")
+    ItemCount countForDashboard(@Param("ownerId") Long ownerId);
 }
 
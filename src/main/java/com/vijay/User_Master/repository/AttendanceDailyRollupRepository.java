@@ -0,0 +1,83 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.dto.AttendanceClassTotals;
+import com.vijay.User_Master.dto.AttendanceDayTotals;
+import com.vijay.User_Master.entity.AttendanceDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AttendanceDailyRollupRepository extends JpaRepository<AttendanceDailyRollup, Long> {
+
+    // Atomic increment of one (owner, class, date) bucket; creates the bucket on first use
+    @Modifying
+    @Query(value = "INSERT INTO attendance_daily_rollup (owner_id, class_id, attendance_date, " +
+            "present, absent, late, half_day, excused, other, total) " +
+            "VALUES (:ownerId, :classId, :date, :present, :absent, :late, :halfDay, :excused, :other, :total) " +
+            "ON DUPLICATE KEY UPDATE present = present + :present, absent = absent + :absent, " +
+            "late = late + :late, half_day = half_day + :halfDay, excused = excused + :excused, " +
+            "other = other + :other, total = total + :total",
+            nativeQuery = true)
+    int increment(@Param("ownerId") Long ownerId,
+                  @Param("classId") Long classId,
+                  @Param("date") LocalDate date,
+                  @Param("present") long present,
+                  @Param("absent") long absent,
+                  @Param("late") long late,
+                  @Param("halfDay") long halfDay,
+                  @Param("excused") long excused,
+                  @Param("other") long other,
+                  @Param("total") long total);
+
+    // Backfill: drop a school's buckets for a date range ...
+    @Modifying
+    @Query(value = "DELETE FROM attendance_daily_rollup WHERE owner_id = :ownerId " +
+            "AND attendance_date BETWEEN :startDate AND :endDate", nativeQuery = true)
+    int deleteRange(@Param("ownerId") Long ownerId,
+                    @Param("startDate") LocalDate startDate,
+                    @Param("endDate") LocalDate endDate);
+
+    // ... and recompute them from the attendance table in one grouped INSERT ... SELECT
+    @Modifying
+    @Query(value = "INSERT INTO attendance_daily_rollup (owner_id, class_id, attendance_date, " +
+            "present, absent, late, half_day, excused, other, total) " +
+            "SELECT a.owner_id, a.class_id, a.attendance_date, " +
+            "SUM(a.status = 'PRESENT'), SUM(a.status = 'ABSENT'), SUM(a.status = 'LATE'), " +
+            "SUM(a.status = 'HALF_DAY'), SUM(a.status = 'EXCUSED'), " +
+            "SUM(a.status NOT IN ('PRESENT', 'ABSENT', 'LATE', 'HALF_DAY', 'EXCUSED')), COUNT(*) " +
+            "FROM attendance a WHERE a.owner_id = :ownerId " +
+            "AND a.attendance_date BETWEEN :startDate AND :endDate " +
+            "GROUP BY a.owner_id, a.class_id, a.attendance_date",
+            nativeQuery = true)
+    int rebuildRange(@Param("ownerId") Long ownerId,
+                     @Param("startDate") LocalDate startDate,
+                     @Param("endDate") LocalDate endDate);
+
+    List<AttendanceDailyRollup> findByClassIdAndAttendanceDateBetweenOrderByAttendanceDate(
+            Long classId, LocalDate startDate, LocalDate endDate);
+
+    // Dashboard: per-day totals (ownerId null = all schools)
+    @Query("SELECT r.attendanceDate AS attendanceDate, SUM(r.present) AS present, " +
+           "SUM(r.absent) AS absent, SUM(r.total) AS total " +
+           "FROM AttendanceDailyRollup r WHERE (:ownerId IS NULL OR r.ownerId = :ownerId) " +
+           "AND r.attendanceDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.attendanceDate ORDER BY r.attendanceDate")
+    List<AttendanceDayTotals> sumByDay(@Param("ownerId") Long ownerId,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+
+    // Dashboard: per-class totals over a window (ownerId null = all schools)
+    @Query("SELECT r.classId AS classId, SUM(r.present) AS present, SUM(r.total) AS total " +
+           "FROM AttendanceDailyRollup r WHERE (:ownerId IS NULL OR r.ownerId = :ownerId) " +
+           "AND r.attendanceDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.classId")
+    List<AttendanceClassTotals> sumByClass(@Param("ownerId") Long ownerId,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+}
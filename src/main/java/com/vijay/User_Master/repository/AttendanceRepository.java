@@ -1,5 +1,7 @@
 package com.vijay.User_Master.repository;
 
+import com.vijay.User_Master.dto.LowAttendanceStudent;
+import com.vijay.User_Master.dto.StudentAttendanceTotals;
 import com.vijay.User_Master.entity.Attendance;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,6 +46,29 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
            "(SELECT COUNT(a2) FROM Attendance a2 WHERE a2.student.id = :studentId)) " +
            "FROM Attendance a WHERE a.student.id = :studentId AND a.status = 'PRESENT'")
     Double calculateAttendancePercentage(@Param("studentId") Long studentId);
+
+    // One school's students below threshold percent present, in student id order after a cursor;
+    // a single grouped scan per chunk instead of a percentage query per student
+    @Query("SELECT s.id AS studentId, s.firstName AS firstName, s.lastName AS lastName, s.parentEmail AS parentEmail, " +
+           "SUM(CASE WHEN a.status = 'PRESENT' THEN 1 ELSE 0 END) AS present, COUNT(a) AS total " +
+           "FROM Attendance a JOIN a.student s " +
+           "WHERE a.owner.id = :ownerId AND s.id > :afterStudentId AND s.isDeleted = false AND s.parentEmail IS NOT NULL " +
+           "GROUP BY s.id, s.firstName, s.lastName, s.parentEmail " +
+           "HAVING SUM(CASE WHEN a.status = 'PRESENT' THEN 1 ELSE 0 END) * 100.0 < :threshold * COUNT(a) " +
+           "ORDER BY s.id")
+    List<LowAttendanceStudent> findBelowThreshold(@Param("ownerId") Long ownerId,
+                                                  @Param("afterStudentId") Long afterStudentId,
+                                                  @Param("threshold") double threshold,
+                                                  Pageable pageable);
+
+    // Attendance counts for a chunk of students over a date range, one row per student with records
+    @Query("SELECT a.student.id AS studentId, SUM(CASE WHEN a.status = 'PRESENT' THEN 1 ELSE 0 END) AS present, " +
+           "COUNT(a) AS total FROM Attendance a " +
+           "WHERE a.student.id IN :studentIds AND a.attendanceDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY a.student.id")
+    List<StudentAttendanceTotals> countByStudentsBetween(@Param("studentIds") Collection<Long> studentIds,
+                                                         @Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate);
     
     // Find by subject
     List<Attendance> findBySubject_IdAndAttendanceDate(Long subjectId, LocalDate date);
@@ -70,5 +96,9 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     
     // SECURITY: Find by ID and Owner (prevents cross-school access)
     Optional<Attendance> findByIdAndOwner_Id(Long id, Long ownerId);
+    
+    // Rollup backfill starts from the school's first attendance record
+    @Query("SELECT MIN(a.attendanceDate) FROM Attendance a WHERE a.owner.id = :ownerId")
+    LocalDate findFirstAttendanceDate(@Param("ownerId") Long ownerId);
 }
 
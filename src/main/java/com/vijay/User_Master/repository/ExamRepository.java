@@ -1,5 +1,6 @@
 package com.vijay.User_Master.repository;
 
+import com.vijay.User_Master.dto.ItemCount;
 import com.vijay.User_Master.entity.Exam;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -66,6 +67,8 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
     
     long countByOwner_IdAndIsDeletedFalse(Long ownerId);
     
+    long countByOwner_IdAndStatusAndIsDeletedFalse(Long ownerId, Exam.ExamStatus status);
+    
     @Query("SELECT e FROM Exam e WHERE e.owner.id = :ownerId AND e.status = :status AND e.isDeleted = false")
     Page<Exam> findByOwner_IdAndStatusAndIsDeletedFalse(@Param("ownerId") Long ownerId, @Param("status") Exam.ExamStatus status, Pageable pageable);
     
@@ -103,5 +106,11 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
     
     // Multi-tenant aware existence checks
     boolean existsByExamCodeAndOwner_Id(String examCode, Long ownerId);
+    
+    // Dashboard: total and upcoming exams in one pass (ownerId null = all schools)
+    @Query("SELECT COUNT(e) AS total, " +
+           "SUM(CASE WHEN e.examDate > :currentDate AND e.status = 'SCHEDULED' THEN 1 ELSE 0 END) AS open " +
+           "FROM Exam e WHERE e.isDeleted = false AND (:ownerId IS NULL OR e.owner.id = :ownerId)")
+    ItemCount countForDashboard(@Param("ownerId") Long ownerId, @Param("currentDate") LocalDate currentDate);
 }
 
@@ -78,6 +78,16 @@ public interface FeeRepository extends JpaRepository<Fee, Long> {
     // Owner-based queries for student fees
     Page<Fee> findByOwner_IdAndStudent_IdAndIsDeletedFalse(Long ownerId, Long studentId, Pageable pageable);
     List<Fee> findByOwner_IdAndStudent_IdAndIsDeletedFalse(Long ownerId, Long studentId);
+    
+    // Monthly facts: amount paid on fees whose latest payment falls in the range
+    @Query("SELECT SUM(f.paidAmount) FROM Fee f WHERE f.owner.id = :ownerId AND " +
+           "f.paymentDate BETWEEN :startDate AND :endDate AND f.isDeleted = false")
+    Double sumPaidByOwnerAndPaymentDate(@Param("ownerId") Long ownerId,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT MIN(f.paymentDate) FROM Fee f WHERE f.owner.id = :ownerId")
+    LocalDate findFirstPaymentDate(@Param("ownerId") Long ownerId);
 }
 
 
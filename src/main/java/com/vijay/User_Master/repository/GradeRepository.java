@@ -1,5 +1,6 @@
 package com.vijay.User_Master.repository;
 
+import com.vijay.User_Master.dto.StudentGradeSummary;
 import com.vijay.User_Master.entity.Grade;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +50,17 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
     @Query("SELECT AVG(g.percentage) FROM Grade g WHERE g.student.id = :studentId AND g.isPublished = true")
     Double calculateOverallGPA(@Param("studentId") Long studentId);
     
+    // Published grade count and GPA for a chunk of students, one row per student with published grades
+    @Query("SELECT g.student.id AS studentId, COUNT(g) AS publishedGrades, AVG(g.percentage) AS averagePercentage " +
+           "FROM Grade g WHERE g.student.id IN :studentIds AND g.isPublished = true GROUP BY g.student.id")
+    List<StudentGradeSummary> summarisePublishedGrades(@Param("studentIds") Collection<Long> studentIds);
+    
+    // A chunk of students' grades for a semester with their subjects, for report cards
+    @Query("SELECT g FROM Grade g JOIN FETCH g.subject " +
+           "WHERE g.student.id IN :studentIds AND g.semester = :semester ORDER BY g.student.id, g.id")
+    List<Grade> findBySemesterForStudents(@Param("studentIds") Collection<Long> studentIds,
+                                          @Param("semester") String semester);
+    
     // Find failing grades
     @Query("SELECT g FROM Grade g WHERE g.student.id = :studentId AND g.status = 'FAIL'")
     List<Grade> findFailingGrades(@Param("studentId") Long studentId);
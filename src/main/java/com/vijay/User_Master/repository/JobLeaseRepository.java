@@ -0,0 +1,40 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Take the lease if it is free, expired or already ours (which renews it). Times use the database
+    // clock so instances with skewed clocks agree. Assignments run left to right: acquired_on is
+    // decided before holder changes, and expires_at only moves once holder is ours.
+    @Modifying
+    @Query(value = "INSERT INTO job_leases (lease_key, holder, expires_at, acquired_on) " +
+            "VALUES (:leaseKey, :holder, TIMESTAMPADD(MICROSECOND, :ttlMicros, NOW(6)), NOW(6)) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "acquired_on = IF(holder <> :holder AND expires_at < NOW(6), NOW(6), acquired_on), " +
+            "holder = IF(holder = :holder OR expires_at < NOW(6), :holder, holder), " +
+            "expires_at = IF(holder = :holder, TIMESTAMPADD(MICROSECOND, :ttlMicros, NOW(6)), expires_at)",
+            nativeQuery = true)
+    int upsert(@Param("leaseKey") String leaseKey, @Param("holder") String holder, @Param("ttlMicros") long ttlMicros);
+
+    @Query(value = "SELECT holder FROM job_leases WHERE lease_key = :leaseKey", nativeQuery = true)
+    String findHolder(@Param("leaseKey") String leaseKey);
+
+    @Query(value = "SELECT COUNT(*) FROM job_leases WHERE lease_key = :leaseKey AND holder = :holder " +
+            "AND expires_at > NOW(6)", nativeQuery = true)
+    int countLive(@Param("leaseKey") String leaseKey, @Param("holder") String holder);
+
+    @Modifying
+    @Query(value = "DELETE FROM job_leases WHERE lease_key = :leaseKey AND holder = :holder", nativeQuery = true)
+    int release(@Param("leaseKey") String leaseKey, @Param("holder") String holder);
+
+    @Modifying
+    @Query(value = "DELETE FROM job_leases WHERE expires_at < TIMESTAMPADD(HOUR, -:hours, NOW(6))", nativeQuery = true)
+    int purgeExpired(@Param("hours") long hours);
+}
@@ -0,0 +1,43 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.dto.MonthlyFactTotals;
+import com.vijay.User_Master.entity.MonthlyFact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MonthlyFactRepository extends JpaRepository<MonthlyFact, Long> {
+
+    // Replace one (owner, month) partition with freshly computed values
+    @Modifying
+    @Query(value = "INSERT INTO monthly_facts (owner_id, month_key, new_admissions, fee_collected, " +
+            "attendance_present, attendance_total, updated_on) " +
+            "VALUES (:ownerId, :monthKey, :newAdmissions, :feeCollected, :attendancePresent, :attendanceTotal, NOW()) " +
+            "ON DUPLICATE KEY UPDATE new_admissions = :newAdmissions, fee_collected = :feeCollected, " +
+            "attendance_present = :attendancePresent, attendance_total = :attendanceTotal, updated_on = NOW()",
+            nativeQuery = true)
+    int upsert(@Param("ownerId") Long ownerId,
+               @Param("monthKey") String monthKey,
+               @Param("newAdmissions") long newAdmissions,
+               @Param("feeCollected") BigDecimal feeCollected,
+               @Param("attendancePresent") long attendancePresent,
+               @Param("attendanceTotal") long attendanceTotal);
+
+    List<MonthlyFact> findByOwnerIdInAndMonthKey(Collection<Long> ownerIds, String monthKey);
+
+    // Dashboard: one row per month in the range (ownerId null = all schools)
+    @Query("SELECT f.monthKey AS monthKey, SUM(f.newAdmissions) AS newAdmissions, SUM(f.feeCollected) AS feeCollected, " +
+           "SUM(f.attendancePresent) AS attendancePresent, SUM(f.attendanceTotal) AS attendanceTotal " +
+           "FROM MonthlyFact f WHERE (:ownerId IS NULL OR f.ownerId = :ownerId) " +
+           "AND f.monthKey BETWEEN :fromKey AND :toKey GROUP BY f.monthKey")
+    List<MonthlyFactTotals> sumByMonth(@Param("ownerId") Long ownerId,
+                                       @Param("fromKey") String fromKey,
+                                       @Param("toKey") String toKey);
+}
@@ -0,0 +1,9 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.entity.NotificationChannelPolicy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationChannelPolicyRepository extends JpaRepository<NotificationChannelPolicy, Long> {
+}
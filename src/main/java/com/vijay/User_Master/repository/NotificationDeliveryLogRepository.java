@@ -0,0 +1,20 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.entity.NotificationDeliveryLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface NotificationDeliveryLogRepository extends JpaRepository<NotificationDeliveryLog, Long> {
+
+    // Pruning: one short statement per call, walking the logged_on index from the oldest rows
+    @Modifying
+    @Query(value = "DELETE FROM notification_delivery_log WHERE logged_on < :cutoff ORDER BY logged_on LIMIT :limit",
+            nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
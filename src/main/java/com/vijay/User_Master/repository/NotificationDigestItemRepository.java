@@ -0,0 +1,18 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.entity.NotificationDigestItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationDigestItemRepository extends JpaRepository<NotificationDigestItem, Long> {
+
+    // Items for the next digests, grouped by recipient; SKIP LOCKED so instances never send the same item
+    @Query(value = "SELECT * FROM notification_digest_items ORDER BY owner_id, email, id LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationDigestItem> lockBatch(@Param("limit") int limit);
+}
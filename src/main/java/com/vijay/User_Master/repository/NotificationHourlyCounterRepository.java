@@ -0,0 +1,39 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.dto.ChannelCount;
+import com.vijay.User_Master.entity.NotificationHourlyCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationHourlyCounterRepository extends JpaRepository<NotificationHourlyCounter, Long> {
+
+    // Atomic increment of one (owner, channel, hour) bucket; creates the bucket on first use
+    @Modifying
+    @Query(value = "INSERT INTO notification_hourly_counters (owner_id, channel, hour_start, sent, failed, latency_ms) " +
+            "VALUES (:ownerId, :channel, :hourStart, :sent, :failed, :latencyMs) " +
+            "ON DUPLICATE KEY UPDATE sent = sent + :sent, failed = failed + :failed, latency_ms = latency_ms + :latencyMs",
+            nativeQuery = true)
+    int increment(@Param("ownerId") Long ownerId,
+                  @Param("channel") String channel,
+                  @Param("hourStart") LocalDateTime hourStart,
+                  @Param("sent") long sent,
+                  @Param("failed") long failed,
+                  @Param("latencyMs") long latencyMs);
+
+    // Dashboard: per-channel totals since a time (ownerId null = all schools)
+    @Query("SELECT c.channel AS channel, SUM(c.sent) AS sent, SUM(c.failed) AS failed " +
+           "FROM NotificationHourlyCounter c WHERE (:ownerId IS NULL OR c.ownerId = :ownerId) " +
+           "AND c.hourStart >= :since GROUP BY c.channel")
+    List<ChannelCount> sumByChannel(@Param("ownerId") Long ownerId, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query(value = "DELETE FROM notification_hourly_counters WHERE hour_start < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
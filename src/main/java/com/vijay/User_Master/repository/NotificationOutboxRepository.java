@@ -0,0 +1,75 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.entity.NotificationOutbox;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Due rows of one lane, locked for this transaction; rows locked by other workers are skipped, not waited on
+    @Query(value = "SELECT * FROM notification_outbox WHERE status = 'PENDING' AND priority = :priority " +
+            "AND next_attempt_at <= :now ORDER BY next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<NotificationOutbox> lockDue(@Param("priority") String priority, @Param("now") LocalDateTime now,
+                                     @Param("limit") int limit);
+
+    // Hand rows back when the worker that claimed them died mid-batch
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :pending, o.claimedAt = NULL " +
+           "WHERE o.status = :processing AND o.claimedAt < :cutoff")
+    int releaseStale(@Param("pending") NotificationOutbox.Status pending,
+                     @Param("processing") NotificationOutbox.Status processing,
+                     @Param("cutoff") LocalDateTime cutoff);
+
+    Page<NotificationOutbox> findByStatusOrderByIdDesc(NotificationOutbox.Status status, Pageable pageable);
+
+    Page<NotificationOutbox> findByOwnerIdAndStatusOrderByIdDesc(Long ownerId, NotificationOutbox.Status status, Pageable pageable);
+
+    // Take a failed message's fallback exactly once, however many failure signals arrive for it
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.fallbackChannels = NULL " +
+           "WHERE o.id = :id AND o.fallbackChannels = :fallbackChannels")
+    int claimFallback(@Param("id") Long id, @Param("fallbackChannels") String fallbackChannels);
+
+    List<NotificationOutbox> findByProviderMessageIdInAndFallbackChannelsIsNotNull(Collection<String> providerMessageIds);
+
+    // A school's messages the provider reported as not delivered (status callbacks)
+    Page<NotificationOutbox> findByOwnerIdAndDeliveryStatusInOrderByIdDesc(Long ownerId, Collection<String> deliveryStatuses,
+                                                                          Pageable pageable);
+
+    // ownerId null counts every school
+    @Query("SELECT o.status, COUNT(o) FROM NotificationOutbox o " +
+           "WHERE (:ownerId IS NULL OR o.ownerId = :ownerId) GROUP BY o.status")
+    List<Object[]> countByStatus(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT o.priority, COUNT(o) FROM NotificationOutbox o WHERE o.status = :status GROUP BY o.priority")
+    List<Object[]> countByPriority(@Param("status") NotificationOutbox.Status status);
+
+    // ownerId null matches a broadcast of any school
+    @Query("SELECT o.status, COUNT(o) FROM NotificationOutbox o WHERE o.broadcastId = :broadcastId " +
+           "AND (:ownerId IS NULL OR o.ownerId = :ownerId) GROUP BY o.status")
+    List<Object[]> countByStatusForBroadcast(@Param("ownerId") Long ownerId, @Param("broadcastId") String broadcastId);
+
+    Page<NotificationOutbox> findByBroadcastIdOrderByIdAsc(String broadcastId, Pageable pageable);
+
+    Page<NotificationOutbox> findByOwnerIdAndBroadcastIdOrderByIdAsc(Long ownerId, String broadcastId, Pageable pageable);
+
+    // A school's addresses already queued or reached in a campaign; dead-lettered rows reached nobody
+    @Query("SELECT o.recipient FROM NotificationOutbox o WHERE o.campaignKey = :campaignKey AND o.ownerId = :ownerId " +
+           "AND o.channel IN :channels AND o.status <> :dead")
+    Set<String> findCampaignRecipients(@Param("ownerId") Long ownerId,
+                                       @Param("campaignKey") String campaignKey,
+                                       @Param("channels") Collection<NotificationOutbox.Channel> channels,
+                                       @Param("dead") NotificationOutbox.Status dead);
+}
@@ -0,0 +1,24 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.entity.NotificationTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NotificationTemplateRepository extends JpaRepository<NotificationTemplate, Long> {
+
+    List<NotificationTemplate> findByActiveTrue();
+
+    Optional<NotificationTemplate> findByOwnerIdAndTemplateKey(Long ownerId, String templateKey);
+
+    List<NotificationTemplate> findByOwnerId(Long ownerId);
+
+    // Change marker for hot reload: any insert, edit or delete moves one of these
+    @Query("SELECT MAX(t.updatedOn) FROM NotificationTemplate t")
+    LocalDateTime findLastUpdatedOn();
+}
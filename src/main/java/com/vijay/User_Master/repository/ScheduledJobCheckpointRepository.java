@@ -0,0 +1,25 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.entity.ScheduledJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledJobCheckpointRepository extends JpaRepository<ScheduledJobCheckpoint, Long> {
+
+    Optional<ScheduledJobCheckpoint> findByJobNameAndRunKeyAndOwnerId(String jobName, String runKey, Long ownerId);
+
+    List<ScheduledJobCheckpoint> findByJobNameAndRunKeyOrderByOwnerIdAsc(String jobName, String runKey);
+
+    // Runs with a partition that never reached DONE (process stopped mid-run or the partition failed)
+    @Query("SELECT DISTINCT c.jobName, c.runKey FROM ScheduledJobCheckpoint c " +
+           "WHERE c.status <> :done AND c.startedOn >= :since")
+    List<Object[]> findUnfinishedRuns(@Param("done") ScheduledJobCheckpoint.Status done,
+                                      @Param("since") LocalDateTime since);
+}
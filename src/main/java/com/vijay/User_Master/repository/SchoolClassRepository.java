@@ -67,5 +67,9 @@ public interface SchoolClassRepository extends JpaRepository<SchoolClass, Long>
     
     // SECURITY: Find by ID and Owner (prevents cross-school access)
     Optional<SchoolClass> findByIdAndOwner_Id(Long id, Long ownerId);
+    
+    // Dashboard: non-deleted classes (ownerId null = all schools)
+    @Query("SELECT COUNT(c) FROM SchoolClass c WHERE c.isDeleted = false AND (:ownerId IS NULL OR c.owner.id = :ownerId)")
+    long countForDashboard(@Param("ownerId") Long ownerId);
 }
 
@@ -69,5 +69,9 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
     Optional<Subject> findByIdAndOwner_IdAndIsDeletedTrue(Long id, Long ownerId);
     
     Page<Subject> findByOwner_IdAndIsDeletedTrue(Long ownerId, Pageable pageable);
+    
+    // Dashboard: non-deleted subjects (ownerId null = all schools)
+    @Query("SELECT COUNT(s) FROM Subject s WHERE s.isDeleted = false AND (:ownerId IS NULL OR s.owner.id = :ownerId)")
+    long countForDashboard(@Param("ownerId") Long ownerId);
 }
 
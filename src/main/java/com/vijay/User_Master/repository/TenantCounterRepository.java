@@ -0,0 +1,42 @@
+package com.vijay.User_Master.repository;
+
+import com.vijay.User_Master.entity.TenantCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TenantCounterRepository extends JpaRepository<TenantCounter, Long> {
+
+    // Atomic increment: creates the row on first use, otherwise adds the deltas in place
+    @Modifying
+    @Query(value = "INSERT INTO tenant_counters (owner_id, students, teachers, classes, subjects, exams, " +
+            "scheduled_exams, assignments, open_assignments, updated_on) " +
+            "VALUES (:ownerId, :students, :teachers, :classes, :subjects, :exams, " +
+            ":scheduledExams, :assignments, :openAssignments, NOW()) " +
+            "ON DUPLICATE KEY UPDATE students = students + :students, teachers = teachers + :teachers, " +
+            "classes = classes + :classes, subjects = subjects + :subjects, exams = exams + :exams, " +
+            "scheduled_exams = scheduled_exams + :scheduledExams, assignments = assignments + :assignments, " +
+            "open_assignments = open_assignments + :openAssignments, updated_on = NOW()",
+            nativeQuery = true)
+    int increment(@Param("ownerId") Long ownerId,
+                  @Param("students") long students,
+                  @Param("teachers") long teachers,
+                  @Param("classes") long classes,
+                  @Param("subjects") long subjects,
+                  @Param("exams") long exams,
+                  @Param("scheduledExams") long scheduledExams,
+                  @Param("assignments") long assignments,
+                  @Param("openAssignments") long openAssignments);
+
+    // Reconciliation: take the row lock so in-flight increments queue behind the recount
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM TenantCounter c WHERE c.ownerId = :ownerId")
+    Optional<TenantCounter> findForUpdate(@Param("ownerId") Long ownerId);
+}
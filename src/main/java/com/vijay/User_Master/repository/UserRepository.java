@@ -1,6 +1,7 @@
 package com.vijay.User_Master.repository;
 
 
+import com.vijay.User_Master.dto.SchoolSummaryRow;
 import com.vijay.User_Master.entity.User;
 
 
@@ -12,6 +13,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 
+import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Repository;
 
@@ -51,6 +53,19 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
                                       @Param("isActive") Boolean isActive,
                                       Pageable pageable);
 
-
+    // Owner IDs only - avoids hydrating User with its EAGER workers collection
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
+    // Super admin: one row per school with owner x role counts, paged and sorted in the database
+    @Query(value = "SELECT u.id AS ownerId, u.name AS schoolName, s.isActive AS active, " +
+            "SUM(CASE WHEN r.name = 'ROLE_STUDENT' THEN 1 ELSE 0 END) AS totalStudents, " +
+            "SUM(CASE WHEN r.name = 'ROLE_TEACHER' THEN 1 ELSE 0 END) AS totalTeachers " +
+            "FROM User u LEFT JOIN u.accountStatus s " +
+            "LEFT JOIN Worker w ON w.owner = u AND w.isDeleted = false " +
+            "LEFT JOIN w.roles r " +
+            "GROUP BY u.id, u.name, s.isActive",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<SchoolSummaryRow> summarizeSchools(Pageable pageable);
 
 }
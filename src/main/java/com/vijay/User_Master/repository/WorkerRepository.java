@@ -1,5 +1,6 @@
 package com.vijay.User_Master.repository;
 
+import com.vijay.User_Master.dto.WorkerRoleCount;
 import com.vijay.User_Master.entity.Worker;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +10,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -76,12 +79,58 @@ public interface WorkerRepository extends JpaRepository<Worker, Long>, JpaSpecif
     Page<Worker> findByOwner_IdAndIsDeletedFalse(Long ownerId, Pageable pageable);
     List<Worker> findByOwner_IdAndIsDeletedFalse(Long ownerId);
     Optional<Worker> findByIdAndOwner_IdAndIsDeletedFalse(Long id, Long ownerId);
+
+    // Keyset page of a school's workers, for jobs that walk the roster in checkpointed chunks
+    List<Worker> findByOwner_IdAndIsDeletedFalseAndIdGreaterThanOrderByIdAsc(Long ownerId, Long afterId, Pageable pageable);
+
+    // Keyset page of a school's students with a parent email, class fetched in the same query; report mailers
+    @Query("SELECT w FROM Worker w LEFT JOIN FETCH w.currentClass " +
+           "WHERE w.owner.id = :ownerId AND w.isDeleted = false AND w.parentEmail IS NOT NULL AND w.id > :afterId " +
+           "ORDER BY w.id")
+    List<Worker> findReportRecipients(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId, Pageable pageable);
+
+    // A school's students among the given IDs, in one query; NotificationRouter contact profiles
+    @Query("SELECT w FROM Worker w WHERE w.owner.id = :ownerId AND w.id IN :ids AND w.isDeleted = false")
+    List<Worker> findContactProfiles(@Param("ownerId") Long ownerId, @Param("ids") Collection<Long> ids);
+
+    // Keyset page of a school's workers whose birthday (MMDD) is one of the given days
+    @Query("SELECT w FROM Worker w WHERE w.owner.id = :ownerId AND w.birthMonthDay IN :monthDays " +
+           "AND w.isDeleted = false AND w.id > :afterId ORDER BY w.id")
+    List<Worker> findBirthdays(@Param("ownerId") Long ownerId, @Param("monthDays") Collection<Integer> monthDays,
+                               @Param("afterId") Long afterId, Pageable pageable);
+
+    // Schools with at least one worker; scheduled jobs fan out over these
+    @Query("SELECT DISTINCT w.owner.id FROM Worker w WHERE w.isDeleted = false")
+    List<Long> findActiveOwnerIds();
     Page<Worker> findByOwner_IdAndIsDeletedFalseAndAccountStatus_IsActiveTrue(Long ownerId, Pageable pageable);
     
     // Simple owner-based queries for testing
     List<Worker> findByOwner_Id(Long ownerId);
     Page<Worker> findByOwner_Id(Long ownerId, Pageable pageable);
 
+    // Dashboard: grouped counts by role and status (ownerId null = all schools)
+    @Query("SELECT r.name AS roleName, w.isDeleted AS deleted, s.isActive AS active, COUNT(DISTINCT w.id) AS total " +
+            "FROM Worker w JOIN w.roles r LEFT JOIN w.accountStatus s " +
+            "WHERE (:ownerId IS NULL OR w.owner.id = :ownerId) " +
+            "GROUP BY r.name, w.isDeleted, s.isActive")
+    List<WorkerRoleCount> countByRoleAndStatus(@Param("ownerId") Long ownerId);
+
+    // Dashboard: latest admissions
+    List<Worker> findTop5ByRoles_NameAndIsDeletedFalseOrderByCreatedOnDesc(String roleName);
+
+    List<Worker> findTop5ByOwner_IdAndRoles_NameAndIsDeletedFalseOrderByCreatedOnDesc(Long ownerId, String roleName);
+
+    // Monthly facts: students admitted in [startDate, endDate)
+    @Query("SELECT COUNT(DISTINCT w.id) FROM Worker w JOIN w.roles r " +
+            "WHERE w.owner.id = :ownerId AND r.name = 'ROLE_STUDENT' AND w.isDeleted = false " +
+            "AND w.createdOn >= :startDate AND w.createdOn < :endDate")
+    long countAdmissions(@Param("ownerId") Long ownerId,
+                         @Param("startDate") Date startDate,
+                         @Param("endDate") Date endDate);
+
+    @Query("SELECT MIN(w.createdOn) FROM Worker w WHERE w.owner.id = :ownerId")
+    Date findFirstCreatedOn(@Param("ownerId") Long ownerId);
+
 }
 
 
@@ -0,0 +1,71 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.repository.AttendanceDailyRollupRepository;
+import com.vijay.User_Master.repository.AttendanceRepository;
+import com.vijay.User_Master.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Attendance Rollup Backfill Job
+ * Rebuilds attendance_daily_rollup from the attendance table one school and one month at a time,
+ * so each transaction stays short and live attendance marking is not blocked for long
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceRollupBackfillJob {
+
+    private final AttendanceRollupService rollupService;
+    private final AttendanceDailyRollupRepository rollupRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * First start after deploy: the rollup is empty but attendance already exists
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0 && attendanceRepository.count() > 0) {
+            log.info("Attendance rollup is empty, running backfill");
+            backfillAll();
+        }
+    }
+
+    public void backfillAll() {
+        for (Long ownerId : userRepository.findAllIds()) {
+            try {
+                backfillOwner(ownerId);
+            } catch (Exception e) {
+                log.error("Failed to backfill attendance rollup for owner {}: {}", ownerId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rebuild every month from the school's first attendance record up to today
+     *
+     * @return Number of rollup rows written
+     */
+    public int backfillOwner(Long ownerId) {
+        LocalDate firstDate = attendanceRepository.findFirstAttendanceDate(ownerId);
+        if (firstDate == null) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        int written = 0;
+        for (LocalDate monthStart = firstDate.withDayOfMonth(1); !monthStart.isAfter(today);
+             monthStart = monthStart.plusMonths(1)) {
+            written += rollupService.rebuild(ownerId, monthStart, monthStart.plusMonths(1).minusDays(1));
+        }
+        log.info("Attendance rollup backfilled for owner {}: {} rows", ownerId, written);
+        return written;
+    }
+}
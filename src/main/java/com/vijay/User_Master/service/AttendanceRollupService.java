@@ -0,0 +1,50 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.DashboardAnalytics;
+import com.vijay.User_Master.entity.Attendance;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attendance Rollup Service
+ * Maintains attendance_daily_rollup and answers attendance trends and averages from it,
+ * so dashboards never scan the attendance table
+ */
+public interface AttendanceRollupService {
+
+    /**
+     * An attendance record was marked (+1) or deleted (-1)
+     */
+    void apply(Long ownerId, Long classId, LocalDate date, Attendance.AttendanceStatus status, long delta);
+
+    /**
+     * An attendance record changed status
+     */
+    void move(Long ownerId, Long classId, LocalDate date, Attendance.AttendanceStatus from, Attendance.AttendanceStatus to);
+
+    /**
+     * Recompute a school's rollup rows for a date range from the attendance table
+     *
+     * @return Number of rollup rows written
+     */
+    int rebuild(Long ownerId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * One entry per day in the range, days without attendance included as zero
+     *
+     * @param ownerId School owner ID (null for all schools)
+     */
+    List<DashboardAnalytics.AttendanceTrend> getDailyTrend(Long ownerId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Present percentage over the range (null for all schools), 0.0 when nothing was marked
+     */
+    Double getAveragePercentage(Long ownerId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Present percentage per class ID over the range (null for all schools)
+     */
+    Map<Long, Double> getClassAverages(Long ownerId, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,126 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.DashboardEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard Event Hub
+ * Per-school fan-out of dashboard change events to live (SSE) subscribers.
+ * Every subscriber gets its own bounded buffer; when a slow client falls behind,
+ * the oldest buffered events are dropped so publishers never block.
+ */
+@Component
+@Slf4j
+public class DashboardEventHub {
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    public DashboardEventHub(@Value("${app.dashboard.stream.buffer-size:256}") int bufferSize,
+                             @Value("${app.dashboard.stream.max-subscribers:10000}") int maxSubscribers) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    // One multicast sink per school; subscribers is guarded by the map's per-key compute lock
+    private static final class Channel {
+        private final Sinks.Many<DashboardEvent> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+
+    /**
+     * Subscribe to a school's events; the subscriber is counted from the moment the returned
+     * stream is subscribed until it terminates or is cancelled
+     *
+     * @return Event stream, or null when the hub is at its subscriber limit
+     */
+    public Flux<DashboardEvent> subscribe(Long ownerId) {
+        if (subscriberCount.get() >= maxSubscribers) {
+            log.warn("Dashboard stream rejected for owner {}: {} subscribers already connected", ownerId, maxSubscribers);
+            return null;
+        }
+        return Flux.defer(() -> {
+            subscriberCount.incrementAndGet();
+            Channel channel = channels.compute(ownerId, (key, existing) -> {
+                Channel current = existing != null ? existing : new Channel();
+                current.subscribers++;
+                return current;
+            });
+            return channel.sink.asFlux()
+                    .onBackpressureBuffer(bufferSize, dropped -> droppedEvents.incrementAndGet(),
+                            BufferOverflowStrategy.DROP_OLDEST)
+                    .doFinally(signal -> release(ownerId, channel));
+        });
+    }
+
+    /**
+     * Publish once the surrounding transaction commits, so subscribers never see rolled-back changes
+     */
+    public void publishAfterCommit(Long ownerId, String type, Map<String, Object> data) {
+        if (ownerId == null || !channels.containsKey(ownerId)) {
+            return;
+        }
+        DashboardEvent event = DashboardEvent.builder()
+                .type(type)
+                .ownerId(ownerId)
+                .data(data)
+                .timestamp(LocalDateTime.now())
+                .build();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private void publish(DashboardEvent event) {
+        Channel channel = channels.get(event.getOwnerId());
+        if (channel == null) {
+            return;
+        }
+        // Sinks reject concurrent emission, so writers to the same school take turns
+        synchronized (channel) {
+            channel.sink.tryEmitNext(event);
+        }
+    }
+
+    private void release(Long ownerId, Channel channel) {
+        subscriberCount.decrementAndGet();
+        channels.computeIfPresent(ownerId, (key, current) -> {
+            if (current != channel) {
+                return current;
+            }
+            return --current.subscribers == 0 ? null : current;
+        });
+    }
+}
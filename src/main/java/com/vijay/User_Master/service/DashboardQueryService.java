@@ -0,0 +1,18 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.DashboardCounts;
+
+/**
+ * Dashboard query layer
+ * Answers dashboard counters with grouped aggregate queries instead of loading entities
+ */
+public interface DashboardQueryService {
+
+    /**
+     * Load all dashboard counters for a school in a handful of grouped queries
+     *
+     * @param ownerId School owner ID (null for all schools)
+     * @return Aggregated counters
+     */
+    DashboardCounts loadCounts(Long ownerId);
+}
@@ -0,0 +1,135 @@
+package com.vijay.User_Master.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard Section Composer
+ * Runs independent dashboard sections at the same time, each on its own virtual thread
+ * in its own short read-only transaction. A section that fails or misses its deadline
+ * falls back to the last value it produced for the same scope (or an empty value),
+ * and is reported as partial instead of failing the whole dashboard.
+ */
+@Component
+@Slf4j
+public class DashboardSectionComposer {
+
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long defaultTimeoutMs;
+
+    // Last good value per scope and section, served when a section misses its deadline
+    private final Map<String, Object> lastGood = new ConcurrentHashMap<>();
+
+    public DashboardSectionComposer(@Qualifier("dashboardSectionExecutor") ExecutorService executor,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.dashboard.section-timeout-ms:2000}") long defaultTimeoutMs) {
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultTimeoutMs = defaultTimeoutMs;
+    }
+
+    /**
+     * Start a composition; sections submitted to it share the same start time
+     *
+     * @param scope Cache scope for stale values, e.g. "owner:42" or "all"
+     */
+    public Composition begin(String scope) {
+        return new Composition(scope);
+    }
+
+    public final class Composition {
+
+        private final String scope;
+        private final long startNanos = System.nanoTime();
+        private final List<String> partialSections = Collections.synchronizedList(new ArrayList<>());
+
+        private Composition(String scope) {
+            this.scope = scope;
+        }
+
+        public <T> Section<T> section(String name, Supplier<T> loader, T fallback) {
+            return section(name, defaultTimeoutMs, loader, fallback);
+        }
+
+        public <T> Section<T> section(String name, long timeoutMs, Supplier<T> loader, T fallback) {
+            Future<T> future = executor.submit(() -> readOnlyTransaction.execute(status -> loader.get()));
+            long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            return new Section<>(this, name, future, deadlineNanos, fallback);
+        }
+
+        /**
+         * Names of sections that came back stale or empty, in the order they were awaited
+         */
+        public List<String> partialSections() {
+            return new ArrayList<>(partialSections);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T await(Section<T> section) {
+            String key = scope + ":" + section.name;
+            try {
+                long remaining = Math.max(0L, section.deadlineNanos - System.nanoTime());
+                T value = section.future.get(remaining, TimeUnit.NANOSECONDS);
+                if (value != null) {
+                    lastGood.put(key, value);
+                }
+                return value;
+            } catch (TimeoutException e) {
+                section.future.cancel(true);
+                log.warn("Dashboard section '{}' for {} missed its deadline", section.name, scope);
+            } catch (ExecutionException e) {
+                log.error("Dashboard section '{}' for {} failed: {}", section.name, scope, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                section.future.cancel(true);
+            }
+            partialSections.add(section.name);
+            Object stale = lastGood.get(key);
+            return stale != null ? (T) stale : section.fallback;
+        }
+    }
+
+    public static final class Section<T> {
+
+        private final Composition composition;
+        private final String name;
+        private final Future<T> future;
+        private final long deadlineNanos;
+        private final T fallback;
+
+        private Section(Composition composition, String name, Future<T> future, long deadlineNanos, T fallback) {
+            this.composition = composition;
+            this.name = name;
+            this.future = future;
+            this.deadlineNanos = deadlineNanos;
+            this.fallback = fallback;
+        }
+
+        /**
+         * Wait for the section until its deadline, then fall back to stale or empty data
+         */
+        public T get() {
+            return composition.await(this);
+        }
+    }
+}
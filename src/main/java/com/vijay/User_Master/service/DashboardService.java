@@ -1,6 +1,7 @@
 package com.vijay.User_Master.service;
 
 import com.vijay.User_Master.dto.DashboardAnalytics;
+import com.vijay.User_Master.dto.PageableResponse;
 
 /**
  * Service interface for Dashboard Analytics
@@ -41,4 +42,13 @@ public interface DashboardService {
      * @return Quick stats for dashboard widgets
      */
     DashboardAnalytics.QuickStats getQuickStats(Long ownerId);
+    
+    /**
+     * Get one page of per-school summaries for the Application Owner
+     * Counts come from a single grouped query, so only the requested page is loaded
+     * 
+     * @param sortBy One of schoolName, ownerId, totalStudents, totalTeachers
+     * @return Page of school summaries
+     */
+    PageableResponse<DashboardAnalytics.SchoolAnalyticsSummary> getSchoolSummaries(int page, int size, String sortBy, String sortDir);
 }
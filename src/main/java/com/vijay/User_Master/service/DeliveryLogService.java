@@ -0,0 +1,210 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.ChannelCount;
+import com.vijay.User_Master.entity.NotificationDeliveryLog;
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.repository.NotificationDeliveryLogRepository;
+import com.vijay.User_Master.repository.NotificationHourlyCounterRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Delivery Log Service
+ * Dispatcher workers hand every delivery outcome to an in-memory buffer; a scheduled writer
+ * appends the buffer to notification_delivery_log with one JDBC batch per flush and, in the same
+ * transaction, adds the batch to the per-school hourly counters. Sending never waits on the log,
+ * and dashboards read the counters only. Old rows are pruned in short, bounded DELETE statements.
+ */
+@Service
+@Slf4j
+public class DeliveryLogService {
+
+    private static final String INSERT_SQL = "INSERT INTO notification_delivery_log " +
+            "(outbox_id, owner_id, channel, template, status, latency_ms, provider_message_id, logged_on) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_TEMPLATE_LENGTH = 60;
+    private static final long SYSTEM_OWNER = 0L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationDeliveryLogRepository logRepository;
+    private final NotificationHourlyCounterRepository counterRepository;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transaction;
+    private final BlockingQueue<NotificationDeliveryLog> buffer;
+    private final int batchSize;
+    private final int retentionDays;
+    private final int counterRetentionDays;
+    private final int pruneBatchSize;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private record Bucket(long ownerId, String channel, LocalDateTime hourStart) {
+    }
+
+    private static final Comparator<Bucket> BUCKET_ORDER = Comparator.comparingLong(Bucket::ownerId)
+            .thenComparing(Bucket::channel)
+            .thenComparing(Bucket::hourStart);
+
+    public DeliveryLogService(JdbcTemplate jdbcTemplate,
+                              NotificationDeliveryLogRepository logRepository,
+                              NotificationHourlyCounterRepository counterRepository,
+                              JobLeaseService jobLeaseService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.notifications.delivery-log.buffer-size:50000}") int bufferSize,
+                              @Value("${app.notifications.delivery-log.batch-size:500}") int batchSize,
+                              @Value("${app.notifications.delivery-log.retention-days:90}") int retentionDays,
+                              @Value("${app.notifications.delivery-log.counter-retention-days:400}") int counterRetentionDays,
+                              @Value("${app.notifications.delivery-log.prune-batch-size:5000}") int pruneBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.logRepository = logRepository;
+        this.counterRepository = counterRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.retentionDays = retentionDays;
+        this.counterRetentionDays = counterRetentionDays;
+        this.pruneBatchSize = pruneBatchSize;
+    }
+
+    /**
+     * Buffer one delivery outcome; never blocks, and drops the entry when the buffer is full
+     */
+    public void record(NotificationOutbox message, NotificationDeliveryLog.Status status, String providerMessageId) {
+        LocalDateTime now = LocalDateTime.now();
+        NotificationDeliveryLog entry = NotificationDeliveryLog.builder()
+                .outboxId(message.getId())
+                .ownerId(message.getOwnerId())
+                .channel(message.getChannel())
+                .template(templateOf(message))
+                .status(status)
+                .latencyMs(message.getCreatedOn() != null ? Duration.between(message.getCreatedOn(), now).toMillis() : 0)
+                .providerMessageId(providerMessageId)
+                .loggedOn(now)
+                .build();
+        if (!buffer.offer(entry)) {
+            long total = dropped.incrementAndGet();
+            if (total % 1000 == 1) {
+                log.warn("Delivery log buffer full, {} entries dropped so far", total);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.delivery-log.flush-ms:2000}")
+    public synchronized void flush() {
+        List<NotificationDeliveryLog> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                transaction.executeWithoutResult(status -> write(batch));
+            } catch (Exception e) {
+                log.error("Could not write {} delivery log entries: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Sent and failed counts per channel since a time, from the hourly counters
+     *
+     * @param ownerId School owner ID (null for all schools)
+     */
+    public Map<NotificationOutbox.Channel, ChannelCount> getCountsSince(Long ownerId, LocalDateTime since) {
+        Map<NotificationOutbox.Channel, ChannelCount> counts = new EnumMap<>(NotificationOutbox.Channel.class);
+        for (ChannelCount count : counterRepository.sumByChannel(ownerId, since)) {
+            counts.put(NotificationOutbox.Channel.valueOf(count.getChannel()), count);
+        }
+        return counts;
+    }
+
+    @Scheduled(cron = "${app.notifications.delivery-log.prune-cron:0 30 3 * * ?}")
+    public void prune() {
+        LocalDate today = LocalDate.now();
+        if (!jobLeaseService.claimRun("delivery-log-prune", today.toString())) {
+            return;
+        }
+        LocalDateTime logCutoff = today.minusDays(retentionDays).atStartOfDay();
+        LocalDateTime counterCutoff = today.minusDays(counterRetentionDays).atStartOfDay();
+        long logs = deleteInBatches(limit -> logRepository.deleteOlderThan(logCutoff, limit));
+        long counters = deleteInBatches(limit -> counterRepository.deleteOlderThan(counterCutoff, limit));
+        log.info("Pruned {} delivery log rows before {} and {} hourly counters before {}",
+                logs, logCutoff, counters, counterCutoff);
+    }
+
+    private void write(List<NotificationDeliveryLog> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, entry) -> {
+            statement.setObject(1, entry.getOutboxId(), Types.BIGINT);
+            statement.setObject(2, entry.getOwnerId(), Types.BIGINT);
+            statement.setString(3, entry.getChannel().name());
+            statement.setString(4, entry.getTemplate());
+            statement.setString(5, entry.getStatus().name());
+            statement.setLong(6, entry.getLatencyMs());
+            statement.setString(7, entry.getProviderMessageId());
+            statement.setTimestamp(8, Timestamp.valueOf(entry.getLoggedOn()));
+        });
+
+        // Roll the batch up per (owner, channel, hour); a fixed order keeps concurrent writers from deadlocking
+        Map<Bucket, long[]> buckets = new TreeMap<>(BUCKET_ORDER);
+        for (NotificationDeliveryLog entry : batch) {
+            Bucket bucket = new Bucket(entry.getOwnerId() != null ? entry.getOwnerId() : SYSTEM_OWNER,
+                    entry.getChannel().name(), entry.getLoggedOn().truncatedTo(ChronoUnit.HOURS));
+            long[] totals = buckets.computeIfAbsent(bucket, key -> new long[3]);
+            if (entry.getStatus() == NotificationDeliveryLog.Status.SENT) {
+                totals[0]++;
+                totals[2] += entry.getLatencyMs();
+            } else {
+                totals[1]++;
+            }
+        }
+        buckets.forEach((bucket, totals) -> counterRepository.increment(
+                bucket.ownerId(), bucket.channel(), bucket.hourStart(), totals[0], totals[1], totals[2]));
+    }
+
+    private long deleteInBatches(IntUnaryOperator delete) {
+        long total = 0;
+        int deleted;
+        do {
+            // Each batch commits on its own, so no lock is held for the whole prune
+            deleted = transaction.execute(status -> delete.applyAsInt(pruneBatchSize));
+            total += deleted;
+        } while (deleted == pruneBatchSize);
+        return total;
+    }
+
+    // Campaign messages are keyed "type:id:date"; the type names what was sent
+    private static String templateOf(NotificationOutbox message) {
+        String campaignKey = message.getCampaignKey();
+        if (campaignKey == null) {
+            return null;
+        }
+        int end = campaignKey.indexOf(':');
+        String type = end > 0 ? campaignKey.substring(0, end) : campaignKey;
+        return type.length() > MAX_TEMPLATE_LENGTH ? type.substring(0, MAX_TEMPLATE_LENGTH) : type;
+    }
+}
@@ -0,0 +1,211 @@
+package com.vijay.User_Master.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Delivery Status Ingestor
+ * Twilio posts a status callback for every state change of a message (queued, sent, delivered, ...),
+ * which after a broadcast means thousands of requests per second. A callback is only put in a
+ * bounded in-memory buffer; a scheduled writer drains it, keeps the latest status per SID and
+ * updates notification_outbox by provider_message_id with one JDBC batch per flush. Callbacks
+ * arrive out of order, so a status never replaces one that is further along. Messages that end
+ * undelivered are announced with a NotificationFailedEvent so NotificationRouter can fall back.
+ */
+@Service
+@Slf4j
+public class DeliveryStatusIngestor {
+
+    /**
+     * Statuses a parent message can end in without reaching the phone
+     */
+    public static final Set<String> NOT_DELIVERED = Set.of("undelivered", "failed");
+
+    // How far along each Twilio status is; statuses with the same rank are final alternatives
+    private static final Map<String, Integer> RANKS = Map.of(
+            "accepted", 1, "scheduled", 1, "queued", 2, "sending", 3, "sent", 4,
+            "delivered", 5, "undelivered", 5, "failed", 5, "read", 6);
+
+    private static final String UPDATE_SQL = "UPDATE notification_outbox " +
+            "SET delivery_status = ?, delivery_error_code = ?, delivery_updated_on = ? " +
+            "WHERE provider_message_id = ? AND " + rankSql("delivery_status") + " < ?";
+
+    private static final int FINAL_RANK = 5;
+    private static final int MAX_ERROR_CODE_LENGTH = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<StatusUpdate> buffer;
+    private final int batchSize;
+    private final byte[] authToken;
+    private final String callbackUrl;
+    private final boolean validateSignature;
+    private final Duration unmatchedRetryWindow;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    private record StatusUpdate(String sid, String status, String errorCode, LocalDateTime receivedOn) {
+    }
+
+    public DeliveryStatusIngestor(JdbcTemplate jdbcTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${twilio.auth.token:}") String authToken,
+                                  @Value("${app.twilio.status-callback-url:}") String callbackUrl,
+                                  @Value("${app.twilio.status-callback.validate-signature:true}") boolean validateSignature,
+                                  @Value("${app.twilio.status-callback.buffer-size:100000}") int bufferSize,
+                                  @Value("${app.twilio.status-callback.batch-size:1000}") int batchSize,
+                                  @Value("${app.twilio.status-callback.unmatched-retry-ms:60000}") long unmatchedRetryMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.authToken = authToken.getBytes(StandardCharsets.UTF_8);
+        this.callbackUrl = callbackUrl;
+        this.validateSignature = validateSignature;
+        if (validateSignature && (authToken.isEmpty() || callbackUrl.isEmpty())) {
+            log.warn("twilio.auth.token or app.twilio.status-callback-url is not set; every Twilio status callback "
+                    + "will be rejected until both are configured");
+        }
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.unmatchedRetryWindow = Duration.ofMillis(unmatchedRetryMs);
+    }
+
+    /**
+     * Check X-Twilio-Signature: Base64 HMAC-SHA1, keyed with the auth token, of the callback URL
+     * followed by every POST parameter name and value in name order. Fails closed: without an auth
+     * token and callback URL nothing can be verified, so every callback is rejected unless validation
+     * is switched off explicitly.
+     */
+    public boolean isSignatureValid(Map<String, String> params, String signature) {
+        if (!validateSignature) {
+            return true;
+        }
+        if (signature == null || authToken.length == 0 || callbackUrl.isEmpty()) {
+            return false;
+        }
+        StringBuilder data = new StringBuilder(callbackUrl);
+        new TreeMap<>(params).forEach((name, value) -> data.append(name).append(value));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(authToken, "HmacSHA1"));
+            byte[] expected = mac.doFinal(data.toString().getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(Base64.getEncoder().encode(expected), signature.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            log.error("Could not verify Twilio signature: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Buffer one callback; never blocks
+     *
+     * @return false when the buffer is full, so the caller can ask Twilio to retry
+     */
+    public boolean offer(String sid, String status, String errorCode) {
+        if (sid == null || sid.isBlank() || status == null || !RANKS.containsKey(status.toLowerCase(Locale.ROOT))) {
+            return true;    // Nothing to record; acknowledged so Twilio does not retry it
+        }
+        received.incrementAndGet();
+        String code = errorCode != null && errorCode.length() > MAX_ERROR_CODE_LENGTH
+                ? errorCode.substring(0, MAX_ERROR_CODE_LENGTH) : errorCode;
+        if (buffer.offer(new StatusUpdate(sid, status.toLowerCase(Locale.ROOT), code, LocalDateTime.now()))) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.twilio.status-callback.flush-ms:500}")
+    public synchronized void flush() {
+        List<StatusUpdate> drained = new ArrayList<>(batchSize);
+        List<StatusUpdate> unmatched = new ArrayList<>();
+        List<String> notDelivered = new ArrayList<>();
+        while (buffer.drainTo(drained, batchSize) > 0) {
+            // Several callbacks for one message in the same batch collapse into the furthest status
+            Map<String, StatusUpdate> latest = new LinkedHashMap<>();
+            for (StatusUpdate update : drained) {
+                latest.merge(update.sid(), update,
+                        (current, next) -> RANKS.get(next.status()) > RANKS.get(current.status()) ? next : current);
+            }
+            try {
+                List<StatusUpdate> updates = new ArrayList<>(latest.values());
+                int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (statement, update) -> {
+                    statement.setString(1, update.status());
+                    statement.setString(2, update.errorCode());
+                    statement.setTimestamp(3, Timestamp.valueOf(update.receivedOn()));
+                    statement.setString(4, update.sid());
+                    statement.setInt(5, RANKS.get(update.status()));
+                });
+                written.addAndGet(updates.size());
+                collectUnmatched(updates, counts, unmatched, notDelivered);
+            } catch (Exception e) {
+                log.error("Could not write {} Twilio status updates: {}", latest.size(), e.getMessage());
+            }
+            drained.clear();
+        }
+        unmatched.forEach(buffer::offer);
+        if (!notDelivered.isEmpty()) {
+            log.warn("Twilio reported {} message(s) undelivered or failed", notDelivered.size());
+            eventPublisher.publishEvent(NotificationFailedEvent.ofProviderMessages(notDelivered));
+        }
+    }
+
+    /**
+     * Callbacks received, rejected because the buffer was full, and status updates written
+     */
+    public Map<String, Long> getStats() {
+        return Map.of("received", received.get(), "rejected", rejected.get(),
+                "written", written.get(), "buffered", (long) buffer.size());
+    }
+
+    // A callback can beat the commit that stores the SID on the outbox row; final statuses that matched
+    // no row are tried again on the next flush until the retry window has passed. SIDs whose row took
+    // an undelivered status are collected for the fallback event.
+    private void collectUnmatched(List<StatusUpdate> updates, int[][] counts,
+                                  List<StatusUpdate> unmatched, List<String> notDelivered) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(unmatchedRetryWindow);
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                StatusUpdate update = updates.get(index++);
+                if (count == 0 && RANKS.get(update.status()) >= FINAL_RANK && update.receivedOn().isAfter(cutoff)) {
+                    unmatched.add(update);
+                } else if (count != 0 && NOT_DELIVERED.contains(update.status())) {
+                    notDelivered.add(update.sid());
+                }
+            }
+        }
+    }
+
+    private static String rankSql(String column) {
+        return RANKS.entrySet().stream()
+                .map(rank -> "WHEN '" + rank.getKey() + "' THEN " + rank.getValue())
+                .collect(Collectors.joining(" ", "(CASE " + column + " ", " ELSE 0 END)"));
+    }
+}
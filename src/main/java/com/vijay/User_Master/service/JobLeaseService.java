@@ -0,0 +1,103 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.repository.JobLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Job Lease Service
+ * Database-backed leases so scheduled work runs once across all replicas: @Scheduled fires on
+ * every instance, and only the instance that takes a job's (or a school partition's) lease does
+ * the work. A lease that is not renewed expires, so work held by a crashed instance is taken over.
+ */
+@Service
+@Slf4j
+public class JobLeaseService {
+
+    private final JobLeaseRepository leaseRepository;
+    private final String instanceId;
+    private final Duration runOnceTtl;
+    private final long retentionHours;
+
+    public JobLeaseService(JobLeaseRepository leaseRepository,
+                           @Value("${app.scheduler.instance-id:}") String instanceId,
+                           @Value("${app.scheduler.lease.run-once-ttl-ms:43200000}") long runOnceTtlMs,
+                           @Value("${app.scheduler.lease.retention-hours:48}") long retentionHours) {
+        this.leaseRepository = leaseRepository;
+        this.instanceId = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+        this.runOnceTtl = Duration.ofMillis(runOnceTtlMs);
+        this.retentionHours = retentionHours;
+        log.info("Scheduled job leases held as instance {}", this.instanceId);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Take or renew a lease
+     *
+     * @return true when this instance holds the lease for at least ttl from now
+     */
+    @Transactional
+    public boolean tryAcquire(String leaseKey, Duration ttl) {
+        leaseRepository.upsert(leaseKey, instanceId, ttl.toNanos() / 1000);
+        return instanceId.equals(leaseRepository.findHolder(leaseKey));
+    }
+
+    /**
+     * Check without renewing
+     *
+     * @return true when this instance holds the lease and it has not expired
+     */
+    public boolean isHeld(String leaseKey) {
+        return leaseRepository.countLive(leaseKey, instanceId) > 0;
+    }
+
+    /**
+     * Claim a once-per-run job (e.g. "fee-reminders-7:2025-01-10"); the lease is kept, not released,
+     * so instances whose trigger fires a little later see the run as taken
+     */
+    public boolean claimRun(String jobName, String runKey) {
+        boolean claimed = tryAcquire(jobName + ":" + runKey, runOnceTtl);
+        if (!claimed) {
+            log.info("Scheduled job {} for {} is handled by another instance", jobName, runKey);
+        }
+        return claimed;
+    }
+
+    @Transactional
+    public void release(String leaseKey) {
+        leaseRepository.release(leaseKey, instanceId);
+    }
+
+    @Scheduled(cron = "${app.scheduler.lease.purge-cron:0 15 4 * * ?}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = leaseRepository.purgeExpired(retentionHours);
+        if (purged > 0) {
+            log.info("Purged {} expired job leases", purged);
+        }
+    }
+
+    // Pod name under Kubernetes (HOSTNAME), plus a suffix so a restarted pod is a new holder
+    private static String defaultInstanceId() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "instance";
+            }
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,156 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.repository.AttendanceRepository;
+import com.vijay.User_Master.repository.FeeRepository;
+import com.vijay.User_Master.repository.MonthlyFactRepository;
+import com.vijay.User_Master.repository.UserRepository;
+import com.vijay.User_Master.repository.WorkerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Monthly Fact Builder
+ * Incremental: writers mark the (owner, month) they touched as dirty after commit, and dirty
+ * partitions are rebuilt every few minutes. Nightly: the current and previous month are rebuilt
+ * for every school. Full rebuilds walk one month partition at a time, each in its own transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyFactBuilder {
+
+    private final MonthlyFactService monthlyFactService;
+    private final MonthlyFactRepository monthlyFactRepository;
+    private final UserRepository userRepository;
+    private final WorkerRepository workerRepository;
+    private final FeeRepository feeRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final JobLeaseService jobLeaseService;
+
+    private final Set<Partition> dirty = ConcurrentHashMap.newKeySet();
+
+    private record Partition(Long ownerId, YearMonth month) {}
+
+    public void markDirty(Long ownerId, LocalDate date) {
+        if (ownerId == null || date == null) {
+            return;
+        }
+        Partition partition = new Partition(ownerId, YearMonth.from(date));
+        // Only after commit, otherwise a flush could rebuild the month before the change is visible
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirty.add(partition);
+                }
+            });
+        } else {
+            dirty.add(partition);
+        }
+    }
+
+    public void markDirty(Long ownerId, Date date) {
+        if (date != null) {
+            markDirty(ownerId, date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+        }
+    }
+
+    /**
+     * Rebuild partitions touched since the last flush
+     */
+    @Scheduled(fixedDelayString = "${app.facts.flush-delay-ms:300000}")
+    public void flushDirty() {
+        List<Partition> batch = new ArrayList<>(dirty);
+        for (Partition partition : batch) {
+            dirty.remove(partition);
+            rebuildSafely(partition.ownerId(), partition.month());
+        }
+        if (!batch.isEmpty()) {
+            log.info("Monthly facts refreshed for {} dirty partition(s)", batch.size());
+        }
+    }
+
+    /**
+     * Rebuild the current and previous month for every school nightly at 3:00 AM
+     * Catches changes made outside the services (imports, manual SQL)
+     */
+    @Scheduled(cron = "${app.facts.rebuild-cron:0 0 3 * * ?}")
+    public void rebuildRecentMonths() {
+        log.info("Running scheduled task: Rebuild recent monthly facts");
+        if (!jobLeaseService.claimRun("monthly-fact-rebuild", LocalDate.now().toString())) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (Long ownerId : userRepository.findAllIds()) {
+            rebuildSafely(ownerId, current.minusMonths(1));
+            rebuildSafely(ownerId, current);
+        }
+    }
+
+    /**
+     * First start after deploy: build full history when the table is empty
+     * Runs after the attendance rollup backfill, which it reads from
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    public void buildIfEmpty() {
+        if (monthlyFactRepository.count() == 0) {
+            log.info("Monthly facts are empty, running full rebuild");
+            userRepository.findAllIds().forEach(this::rebuildOwner);
+        }
+    }
+
+    /**
+     * Rebuild every month from the school's first worker, fee payment or attendance record to now
+     *
+     * @return Number of month partitions rebuilt
+     */
+    public int rebuildOwner(Long ownerId) {
+        Date firstWorker = workerRepository.findFirstCreatedOn(ownerId);
+        LocalDate firstWorkerDate = firstWorker != null
+                ? firstWorker.toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
+
+        LocalDate firstDate = Stream.of(firstWorkerDate,
+                        feeRepository.findFirstPaymentDate(ownerId),
+                        attendanceRepository.findFirstAttendanceDate(ownerId))
+                .filter(date -> date != null)
+                .min(LocalDate::compareTo)
+                .orElse(null);
+        if (firstDate == null) {
+            return 0;
+        }
+
+        int partitions = 0;
+        YearMonth current = YearMonth.now();
+        for (YearMonth month = YearMonth.from(firstDate); !month.isAfter(current); month = month.plusMonths(1)) {
+            rebuildSafely(ownerId, month);
+            partitions++;
+        }
+        return partitions;
+    }
+
+    private void rebuildSafely(Long ownerId, YearMonth month) {
+        try {
+            monthlyFactService.rebuildMonth(ownerId, month);
+        } catch (Exception e) {
+            log.error("Failed to rebuild monthly facts for owner {} month {}: {}", ownerId, month, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.DashboardAnalytics;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Monthly Fact Service
+ * Builds and reads the monthly_facts table behind the dashboard monthly trends
+ */
+public interface MonthlyFactService {
+
+    /**
+     * Recompute one (owner, month) partition from workers, fees and the attendance rollup
+     */
+    void rebuildMonth(Long ownerId, YearMonth month);
+
+    /**
+     * Monthly trends for the last N months, oldest first, months without facts as zero
+     *
+     * @param ownerId School owner ID (null for all schools)
+     */
+    List<DashboardAnalytics.MonthlyTrend> getMonthlyTrends(Long ownerId, int months);
+}
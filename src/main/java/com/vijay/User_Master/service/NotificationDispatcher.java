@@ -0,0 +1,299 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.Helper.EmailUtils;
+import com.vijay.User_Master.Helper.LatencyReservoir;
+import com.vijay.User_Master.Helper.TwilioMessageSender;
+import com.vijay.User_Master.dto.NotificationLaneStats;
+import com.vijay.User_Master.entity.NotificationDeliveryLog;
+import com.vijay.User_Master.entity.NotificationOutbox;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Notification Dispatcher
+ * Each priority lane (INTERACTIVE, TRANSACTIONAL, BULK) has its own fixed pool of workers, so a
+ * large campaign can never occupy the workers an OTP or password reset needs. Each worker claims
+ * a batch of due rows of its lane (FOR UPDATE SKIP LOCKED, so workers on any number of instances
+ * never share a row), delivers them outside the claiming transaction and records SENT or a
+ * retry/dead-letter outcome per row. Emails share a pooled SMTP connection; SMS and WhatsApp go
+ * to Twilio concurrently within the account's rate limit, with part of it reserved for INTERACTIVE.
+ */
+@Service
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final int DELAY_SAMPLES = 2048;
+
+    private final NotificationOutboxService outboxService;
+    private final EmailUtils emailUtils;
+    private final SMSService smsService;
+    private final WhatsAppService whatsAppService;
+    private final TwilioMessageSender twilioSender;
+    private final DeliveryLogService deliveryLog;
+    private final Map<NotificationOutbox.Priority, Lane> lanes = new EnumMap<>(NotificationOutbox.Priority.class);
+
+    private static final class Lane {
+        private final NotificationOutbox.Priority priority;
+        private final int workers;
+        private final int batchSize;
+        private final ExecutorService pool;
+        private final AtomicInteger active = new AtomicInteger();
+        private final LatencyReservoir queueDelay = new LatencyReservoir(DELAY_SAMPLES);
+        private final LatencyReservoir endToEnd = new LatencyReservoir(DELAY_SAMPLES);
+
+        private Lane(NotificationOutbox.Priority priority, int workers, int batchSize) {
+            this.priority = priority;
+            this.workers = workers;
+            this.batchSize = batchSize;
+            this.pool = Executors.newFixedThreadPool(workers, Thread.ofPlatform()
+                    .name("notification-" + priority.name().toLowerCase() + "-", 1).daemon(true).factory());
+        }
+    }
+
+    public NotificationDispatcher(NotificationOutboxService outboxService,
+                                  EmailUtils emailUtils,
+                                  SMSService smsService,
+                                  WhatsAppService whatsAppService,
+                                  TwilioMessageSender twilioSender,
+                                  DeliveryLogService deliveryLog,
+                                  @Value("${app.notifications.dispatch.interactive.workers:2}") int interactiveWorkers,
+                                  @Value("${app.notifications.dispatch.interactive.batch-size:10}") int interactiveBatchSize,
+                                  @Value("${app.notifications.dispatch.transactional.workers:2}") int transactionalWorkers,
+                                  @Value("${app.notifications.dispatch.bulk.workers:4}") int bulkWorkers,
+                                  @Value("${app.notifications.dispatch.batch-size:50}") int batchSize) {
+        this.outboxService = outboxService;
+        this.emailUtils = emailUtils;
+        this.smsService = smsService;
+        this.whatsAppService = whatsAppService;
+        this.twilioSender = twilioSender;
+        this.deliveryLog = deliveryLog;
+        lanes.put(NotificationOutbox.Priority.INTERACTIVE,
+                new Lane(NotificationOutbox.Priority.INTERACTIVE, interactiveWorkers, interactiveBatchSize));
+        lanes.put(NotificationOutbox.Priority.TRANSACTIONAL,
+                new Lane(NotificationOutbox.Priority.TRANSACTIONAL, transactionalWorkers, batchSize));
+        lanes.put(NotificationOutbox.Priority.BULK,
+                new Lane(NotificationOutbox.Priority.BULK, bulkWorkers, batchSize));
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch.poll-ms:1000}")
+    public void poll() {
+        topUp(lanes.get(NotificationOutbox.Priority.TRANSACTIONAL));
+        topUp(lanes.get(NotificationOutbox.Priority.BULK));
+    }
+
+    /**
+     * Short interval as a backstop; interactive messages normally start from onEnqueued
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch.interactive.poll-ms:250}")
+    public void pollInteractive() {
+        topUp(lanes.get(NotificationOutbox.Priority.INTERACTIVE));
+    }
+
+    // After commit, so the worker's claim query can see the new row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(NotificationEnqueuedEvent event) {
+        topUp(lanes.get(event.priority()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch.stale-check-ms:60000}")
+    public void releaseStaleClaims() {
+        try {
+            outboxService.releaseStale();
+        } catch (Exception e) {
+            log.error("Failed to release stale notification claims: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Workers, backlog and queue delay per lane
+     */
+    public List<NotificationLaneStats> getLaneStats() {
+        Map<NotificationOutbox.Priority, Long> pending = outboxService.getPendingCounts();
+        List<NotificationLaneStats> stats = new ArrayList<>(lanes.size());
+        for (Lane lane : lanes.values()) {
+            LatencyReservoir.Snapshot queueDelay = lane.queueDelay.snapshot();
+            LatencyReservoir.Snapshot endToEnd = lane.endToEnd.snapshot();
+            stats.add(NotificationLaneStats.builder()
+                    .priority(lane.priority.name())
+                    .workers(lane.workers)
+                    .activeWorkers(lane.active.get())
+                    .pending(pending.getOrDefault(lane.priority, 0L))
+                    .delivered(endToEnd.count())
+                    .queueDelayP50Ms(queueDelay.p50())
+                    .queueDelayP95Ms(queueDelay.p95())
+                    .queueDelayP99Ms(queueDelay.p99())
+                    .queueDelayMaxMs(queueDelay.max())
+                    .endToEndP50Ms(endToEnd.p50())
+                    .endToEndP99Ms(endToEnd.p99())
+                    .build());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lanes.values().forEach(lane -> lane.pool.shutdown());
+        for (Lane lane : lanes.values()) {
+            if (!lane.pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                // Rows still PROCESSING are handed back by releaseStale on the next start
+                lane.pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Top the lane's pool up to its configured size; each worker runs until the lane has nothing due
+     */
+    private void topUp(Lane lane) {
+        while (!lane.pool.isShutdown()) {
+            int active = lane.active.get();
+            if (active >= lane.workers) {
+                return;
+            }
+            if (lane.active.compareAndSet(active, active + 1)) {
+                lane.pool.execute(() -> drain(lane));
+            }
+        }
+    }
+
+    private void drain(Lane lane) {
+        try {
+            while (!lane.pool.isShutdown()) {
+                List<NotificationOutbox> batch = outboxService.claimBatch(lane.priority, lane.batchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                for (NotificationOutbox message : batch) {
+                    lane.queueDelay.record(Duration.between(message.getNextAttemptAt(), message.getClaimedAt()).toMillis());
+                }
+                deliverEmails(lane, batch.stream()
+                        .filter(message -> message.getChannel() == NotificationOutbox.Channel.EMAIL)
+                        .collect(Collectors.toList()));
+                List<NotificationOutbox> twilioMessages = new ArrayList<>();
+                for (NotificationOutbox message : batch) {
+                    if (message.getChannel() == NotificationOutbox.Channel.EMAIL) {
+                        continue;
+                    }
+                    if (viaTwilio(message)) {
+                        twilioMessages.add(message);
+                    } else {
+                        deliver(lane, message);
+                    }
+                }
+                deliverTwilio(lane, twilioMessages);
+            }
+        } catch (Exception e) {
+            log.error("Notification {} worker stopped: {}", lane.priority, e.getMessage(), e);
+        } finally {
+            lane.active.decrementAndGet();
+        }
+    }
+
+    private void deliverEmails(Lane lane, List<NotificationOutbox> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> failures;
+        try {
+            failures = emailUtils.sendEmails(emails.stream()
+                    .map(message -> new EmailUtils.Email(message.getRecipient(), message.getSubject(), message.getBody()))
+                    .collect(Collectors.toList()), lane.priority == NotificationOutbox.Priority.INTERACTIVE);
+        } catch (Exception e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            emails.forEach(message -> markFailed(message, error));
+            return;
+        }
+        for (int i = 0; i < emails.size(); i++) {
+            String error = failures.get(i);
+            if (error == null) {
+                markSent(lane, emails.get(i), null);
+            } else {
+                markFailed(emails.get(i), error);
+            }
+        }
+    }
+
+    private boolean viaTwilio(NotificationOutbox message) {
+        return message.getChannel() == NotificationOutbox.Channel.SMS
+                ? twilioSender.isSmsEnabled()
+                : twilioSender.isWhatsAppEnabled();
+    }
+
+    // Sent concurrently; the sender's token bucket keeps all workers within the account rate limit
+    private void deliverTwilio(Lane lane, List<NotificationOutbox> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        boolean interactive = lane.priority == NotificationOutbox.Priority.INTERACTIVE;
+        List<TwilioMessageSender.Result> results = twilioSender.sendAll(messages.stream()
+                .map(message -> message.getChannel() == NotificationOutbox.Channel.SMS
+                        ? TwilioMessageSender.Message.sms(message.getRecipient(), message.getBody())
+                        : TwilioMessageSender.Message.whatsApp(message.getRecipient(), message.getBody(), message.getMediaUrl()))
+                .map(message -> interactive ? message.interactive() : message)
+                .collect(Collectors.toList()));
+        for (int i = 0; i < messages.size(); i++) {
+            TwilioMessageSender.Result result = results.get(i);
+            if (result.accepted()) {
+                markSent(lane, messages.get(i), result.sid());
+            } else {
+                markFailed(messages.get(i), result.error());
+            }
+        }
+    }
+
+    private void deliver(Lane lane, NotificationOutbox message) {
+        String error;
+        try {
+            error = send(message) ? null : "Provider did not accept the message";
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        if (error == null) {
+            markSent(lane, message, null);
+        } else {
+            markFailed(message, error);
+        }
+    }
+
+    private void markSent(Lane lane, NotificationOutbox message, String providerMessageId) {
+        outboxService.markSent(message.getId(), providerMessageId);
+        lane.endToEnd.record(Duration.between(message.getCreatedOn(), LocalDateTime.now()).toMillis());
+        deliveryLog.record(message, NotificationDeliveryLog.Status.SENT, providerMessageId);
+    }
+
+    // A retry is not an outcome: only a message that has used up its attempts is logged as FAILED
+    private void markFailed(NotificationOutbox message, String error) {
+        if (outboxService.markFailed(message.getId(), error)) {
+            deliveryLog.record(message, NotificationDeliveryLog.Status.FAILED, null);
+        }
+    }
+
+    private boolean send(NotificationOutbox message) {
+        return switch (message.getChannel()) {
+            case EMAIL -> {
+                emailUtils.sendEmail(message.getRecipient(), message.getSubject(), message.getBody());
+                yield true;
+            }
+            case SMS -> smsService.sendSMS(message.getRecipient(), message.getBody());
+            case WHATSAPP -> message.getMediaUrl() != null
+                    ? whatsAppService.sendWhatsAppMessageWithMedia(message.getRecipient(), message.getBody(), message.getMediaUrl())
+                    : whatsAppService.sendWhatsAppMessage(message.getRecipient(), message.getBody());
+        };
+    }
+}
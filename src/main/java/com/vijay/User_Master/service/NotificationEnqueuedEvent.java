@@ -0,0 +1,9 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.entity.NotificationOutbox;
+
+/**
+ * Published when a message is queued on a lane that should not wait for the next dispatcher poll
+ */
+public record NotificationEnqueuedEvent(NotificationOutbox.Priority priority) {
+}
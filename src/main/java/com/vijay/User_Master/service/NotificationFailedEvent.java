@@ -0,0 +1,19 @@
+package com.vijay.User_Master.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when routed messages (ones carrying a fallback) finally fail: dead-lettered by the
+ * dispatcher, or reported undelivered by the provider (matched by provider message ID)
+ */
+public record NotificationFailedEvent(Collection<Long> outboxIds, Collection<String> providerMessageIds) {
+
+    public static NotificationFailedEvent ofOutbox(Long outboxId) {
+        return new NotificationFailedEvent(List.of(outboxId), List.of());
+    }
+
+    public static NotificationFailedEvent ofProviderMessages(Collection<String> providerMessageIds) {
+        return new NotificationFailedEvent(List.of(), providerMessageIds);
+    }
+}
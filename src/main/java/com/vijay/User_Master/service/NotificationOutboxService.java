@@ -0,0 +1,108 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.BroadcastProgress;
+import com.vijay.User_Master.entity.NotificationOutbox;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notification Outbox Service
+ * Callers enqueue messages inside their own transaction; NotificationDispatcher delivers them
+ */
+public interface NotificationOutboxService {
+
+    /**
+     * Enqueue one message on the given lane. INTERACTIVE (a user is waiting, e.g. OTP or password
+     * reset) is dispatched as soon as the caller's transaction commits; TRANSACTIONAL is a single
+     * event for one family; BULK is a scheduled or school-wide send.
+     *
+     * @return true once queued; false when there is no recipient
+     */
+    boolean enqueueEmail(NotificationOutbox.Priority priority, Long ownerId, String to, String subject, String body);
+
+    boolean enqueueSms(NotificationOutbox.Priority priority, Long ownerId, String phoneNumber, String message);
+
+    boolean enqueueWhatsApp(NotificationOutbox.Priority priority, Long ownerId, String phoneNumber, String message,
+                            String mediaUrl);
+
+    /**
+     * Enqueue as part of a campaign, so RecipientResolver can skip addresses already reached in it
+     */
+    boolean enqueueEmail(NotificationOutbox.Priority priority, Long ownerId, String to, String subject, String body,
+                         String campaignKey);
+
+    boolean enqueueWhatsApp(NotificationOutbox.Priority priority, Long ownerId, String phoneNumber, String message,
+                            String mediaUrl, String campaignKey);
+
+    /**
+     * Enqueue a NotificationRouter message that carries its fallback plan
+     *
+     * @param fallbackChannels Channels to try, in order, if this one fails (null = none)
+     */
+    void enqueueRouted(NotificationOutbox.Priority priority, Long ownerId, NotificationOutbox.Channel channel, String recipient, String subject, String body,
+                       String campaignKey, String fallbackChannels, String fallbackEmail);
+
+    /**
+     * Queue the same message for many recipients under one broadcast ID (BULK lane)
+     *
+     * @return Broadcast ID for getBroadcastProgress
+     */
+    String enqueueBroadcast(Long ownerId, NotificationOutbox.Channel channel, List<String> recipients,
+                            String message, String campaignKey);
+
+    /**
+     * Claim up to batchSize due messages of one lane (PENDING -> PROCESSING) in one short transaction
+     */
+    List<NotificationOutbox> claimBatch(NotificationOutbox.Priority priority, int batchSize);
+
+    void markSent(Long id);
+
+    void markSent(Long id, String providerMessageId);
+
+    /**
+     * Schedule a retry with exponential backoff, or move the message to DEAD once attempts are used up
+     *
+     * @return true when the message was moved to DEAD
+     */
+    boolean markFailed(Long id, String error);
+
+    int releaseStale();
+
+    /**
+     * @param ownerId School owner ID (null for all schools)
+     */
+    Page<NotificationOutbox> getDeadLetters(Long ownerId, Pageable pageable);
+
+    /**
+     * A school's messages the provider accepted but reported undelivered or failed
+     */
+    Page<NotificationOutbox> getUndelivered(Long ownerId, Pageable pageable);
+
+    /**
+     * @param ownerId School the message must belong to (null for any school)
+     */
+    void retryDeadLetter(Long ownerId, Long id);
+
+    /**
+     * @param ownerId School owner ID (null for all schools)
+     */
+    Map<String, Long> getStatusCounts(Long ownerId);
+
+    /**
+     * PENDING messages per lane
+     */
+    Map<NotificationOutbox.Priority, Long> getPendingCounts();
+
+    /**
+     * @param ownerId School the broadcast must belong to (null for any school)
+     */
+    BroadcastProgress getBroadcastProgress(Long ownerId, String broadcastId);
+
+    /**
+     * Per-recipient status of a broadcast
+     */
+    Page<NotificationOutbox> getBroadcastRecipients(Long ownerId, String broadcastId, Pageable pageable);
+}
@@ -0,0 +1,440 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.Helper.SmsSegments;
+import com.vijay.User_Master.dto.ChannelPolicyRequest;
+import com.vijay.User_Master.dto.NotificationRouterStats;
+import com.vijay.User_Master.entity.NotificationChannelPolicy;
+import com.vijay.User_Master.entity.NotificationDigestItem;
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.entity.Worker;
+import com.vijay.User_Master.exceptions.BadApiRequestException;
+import com.vijay.User_Master.repository.NotificationChannelPolicyRepository;
+import com.vijay.User_Master.repository.NotificationDigestItemRepository;
+import com.vijay.User_Master.repository.NotificationOutboxRepository;
+import com.vijay.User_Master.repository.WorkerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notification Router
+ * Sends one message to the parents of a set of students over the cheapest channel that works.
+ * Contact profiles are loaded once per chunk of students (not once per student and channel), siblings
+ * share one message, and each parent gets the school's cheapest allowed paid channel for that text
+ * (an SMS is priced per segment). The outbox row carries the remaining channels: when it is
+ * dead-lettered or Twilio reports it undelivered, the next channel is queued, and email - the free
+ * last resort - goes out immediately or in the parent's next digest, per the school's policy.
+ */
+@Service
+@Slf4j
+public class NotificationRouter {
+
+    private static final int PROFILE_CHUNK = 500;
+    private static final int DIGEST_BATCH = 1000;
+    private static final int MAX_CAMPAIGN_LENGTH = 100;
+    private static final String NAMES_PLACEHOLDER = "{{studentNames}}";
+    private static final String DEFAULT_SUBJECT = "Message from School";
+    private static final DateTimeFormatter DIGEST_TIME = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
+
+    private final WorkerRepository workerRepository;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationChannelPolicyRepository policyRepository;
+    private final NotificationDigestItemRepository digestRepository;
+    private final NotificationOutboxService outboxService;
+    private final RecipientResolver recipientResolver;
+    private final NotificationTemplateEngine templateEngine;
+    private final TransactionTemplate transaction;
+    private final ExecutorService executor;
+    private final int whatsAppCost;
+    private final int smsCost;
+    private final Policy defaultPolicy;
+
+    private final AtomicLong students = new AtomicLong();
+    private final AtomicLong profileQueries = new AtomicLong();
+    private final AtomicLong naiveLookups = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong digestItems = new AtomicLong();
+    private final AtomicLong digestEmails = new AtomicLong();
+    private final AtomicLong estimatedCost = new AtomicLong();
+    private final Map<NotificationOutbox.Channel, AtomicLong> queued = new EnumMap<>(NotificationOutbox.Channel.class);
+
+    /**
+     * Channels a school allows, in its order of preference for equal cost, and how email fallbacks go out
+     */
+    public record Policy(List<NotificationOutbox.Channel> channels, boolean emailDigest) {
+
+        public boolean allows(NotificationOutbox.Channel channel) {
+            return channels.contains(channel);
+        }
+
+        List<NotificationOutbox.Channel> paidChannels() {
+            return channels.stream().filter(channel -> channel != NotificationOutbox.Channel.EMAIL).toList();
+        }
+    }
+
+    public NotificationRouter(WorkerRepository workerRepository,
+                              NotificationOutboxRepository outboxRepository,
+                              NotificationChannelPolicyRepository policyRepository,
+                              NotificationDigestItemRepository digestRepository,
+                              NotificationOutboxService outboxService,
+                              RecipientResolver recipientResolver,
+                              NotificationTemplateEngine templateEngine,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.notifications.router.workers:2}") int workers,
+                              @Value("${app.notifications.router.cost.whatsapp:12}") int whatsAppCost,
+                              @Value("${app.notifications.router.cost.sms:20}") int smsCost,
+                              @Value("${app.notifications.router.default-channels:WHATSAPP,SMS,EMAIL}") List<String> defaultChannels,
+                              @Value("${app.notifications.router.default-email-digest:true}") boolean defaultEmailDigest) {
+        this.workerRepository = workerRepository;
+        this.outboxRepository = outboxRepository;
+        this.policyRepository = policyRepository;
+        this.digestRepository = digestRepository;
+        this.outboxService = outboxService;
+        this.recipientResolver = recipientResolver;
+        this.templateEngine = templateEngine;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform()
+                .name("notification-router-", 1).daemon(true).factory());
+        this.whatsAppCost = whatsAppCost;
+        this.smsCost = smsCost;
+        this.defaultPolicy = new Policy(parseChannels(defaultChannels), defaultEmailDigest);
+        for (NotificationOutbox.Channel channel : NotificationOutbox.Channel.values()) {
+            queued.put(channel, new AtomicLong());
+        }
+    }
+
+    /**
+     * Queue a message to the parents of the given students of a school, in the background
+     *
+     * @param campaign Name of the send (e.g. "sports-day"); a parent already reached under it today is skipped
+     * @param message  Plain text; {{studentNames}} becomes the first names of the parent's children
+     * @return Messages queued, once every student has been routed
+     */
+    public CompletableFuture<Integer> route(Long ownerId, String campaign, Collection<Long> studentIds,
+                                            String subject, String message) {
+        if (campaign == null || campaign.isBlank() || campaign.length() > MAX_CAMPAIGN_LENGTH) {
+            throw new BadApiRequestException("Campaign name is required (at most " + MAX_CAMPAIGN_LENGTH + " characters)");
+        }
+        if (message == null || message.isBlank()) {
+            throw new BadApiRequestException("Message is required");
+        }
+        if (studentIds == null || studentIds.isEmpty()) {
+            throw new BadApiRequestException("At least one student is required");
+        }
+        List<Long> ids = studentIds.stream().filter(Objects::nonNull).distinct().toList();
+        String campaignKey = RecipientResolver.campaignKey(campaign.trim(), ownerId);
+        String emailSubject = subject != null && !subject.isBlank() ? subject : DEFAULT_SUBJECT;
+        Policy policy = getPolicy(ownerId);
+
+        return CompletableFuture.supplyAsync(() -> {
+            int total = 0;
+            for (int from = 0; from < ids.size(); from += PROFILE_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(from + PROFILE_CHUNK, ids.size()));
+                total += transaction.execute(status -> routeChunk(ownerId, campaignKey, policy, chunk, emailSubject, message));
+            }
+            log.info("{}: {} students routed, {} messages queued", campaignKey, ids.size(), total);
+            return total;
+        }, executor).whenComplete((total, error) -> {
+            if (error != null) {
+                log.error("Routing {} for owner {} failed: {}", campaignKey, ownerId, error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * A school's channel policy, or the configured default when it has none
+     */
+    public Policy getPolicy(Long ownerId) {
+        return policyRepository.findById(ownerId)
+                .map(policy -> new Policy(parseChannels(List.of(policy.getChannels().split(","))), policy.isEmailDigest()))
+                .orElse(defaultPolicy);
+    }
+
+    public Policy savePolicy(Long ownerId, ChannelPolicyRequest request) {
+        if (request.getChannels() == null) {
+            throw new BadApiRequestException("At least one channel is required");
+        }
+        List<NotificationOutbox.Channel> channels = parseChannels(request.getChannels());
+        policyRepository.save(NotificationChannelPolicy.builder()
+                .ownerId(ownerId)
+                .channels(String.join(",", channels.stream().map(Enum::name).toList()))
+                .emailDigest(request.isEmailDigest())
+                .updatedOn(LocalDateTime.now())
+                .build());
+        return new Policy(channels, request.isEmailDigest());
+    }
+
+    // After commit, so the failed row and its SID are visible; the fallback itself runs off the caller's thread
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFailed(NotificationFailedEvent event) {
+        executor.execute(() -> fallBack(event));
+    }
+
+    /**
+     * Send the collected email fallbacks, one digest per parent; SKIP LOCKED so each item goes out once
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.router.digest-ms:900000}")
+    public void sendDigests() {
+        try {
+            int items;
+            do {
+                items = transaction.execute(status -> sendDigestBatch());
+            } while (items == DIGEST_BATCH);
+        } catch (Exception e) {
+            log.error("Failed to send notification digests: {}", e.getMessage());
+        }
+    }
+
+    public NotificationRouterStats getStats() {
+        Map<String, Long> queuedByChannel = new LinkedHashMap<>();
+        queued.forEach((channel, count) -> queuedByChannel.put(channel.name(), count.get()));
+        return NotificationRouterStats.builder()
+                .students(students.get())
+                .profileQueries(profileQueries.get())
+                .naiveLookups(naiveLookups.get())
+                .coalesced(coalesced.get())
+                .queuedByChannel(queuedByChannel)
+                .fallbacks(fallbacks.get())
+                .digestItems(digestItems.get())
+                .digestEmails(digestEmails.get())
+                .estimatedCostPaise(estimatedCost.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private int routeChunk(Long ownerId, String campaignKey, Policy policy, List<Long> ids,
+                           String subject, String message) {
+        List<Worker> profiles = workerRepository.findContactProfiles(ownerId, ids);
+        profileQueries.incrementAndGet();
+        naiveLookups.addAndGet((long) ids.size() * policy.channels().size());
+        students.addAndGet(profiles.size());
+
+        List<NotificationOutbox.Channel> paid = policy.paidChannels();
+        boolean emailAllowed = policy.allows(NotificationOutbox.Channel.EMAIL);
+        List<Worker> byPhone = new ArrayList<>();
+        List<Worker> byEmail = new ArrayList<>();
+        for (Worker student : profiles) {
+            if (!paid.isEmpty() && phoneOf(student) != null) {
+                byPhone.add(student);
+            } else if (emailAllowed && student.getParentEmail() != null) {
+                byEmail.add(student);
+            }
+        }
+
+        int messages = 0;
+        // SMS and WhatsApp share phone numbers, so one resolve covers both
+        List<RecipientResolver.Recipient> phones = byPhone.isEmpty() ? List.of()
+                : recipientResolver.resolve(ownerId, campaignKey, paid.get(0), byPhone, NotificationRouter::phoneOf);
+        for (RecipientResolver.Recipient recipient : phones) {
+            String body = personalise(message, recipient);
+            List<NotificationOutbox.Channel> order = paid.stream()
+                    .sorted(Comparator.comparingInt(channel -> cost(channel, body)))
+                    .toList();
+            NotificationOutbox.Channel first = order.get(0);
+            String email = emailAllowed ? emailOf(recipient.students()) : null;
+            outboxService.enqueueRouted(NotificationOutbox.Priority.BULK, ownerId, first, recipient.address(),
+                    subject, body, campaignKey, fallbackChannels(order.subList(1, order.size()), email), email);
+            queued.get(first).incrementAndGet();
+            estimatedCost.addAndGet(cost(first, body));
+            messages++;
+        }
+        List<RecipientResolver.Recipient> emails = byEmail.isEmpty() ? List.of()
+                : recipientResolver.resolve(ownerId, campaignKey, NotificationOutbox.Channel.EMAIL, byEmail, Worker::getParentEmail);
+        for (RecipientResolver.Recipient recipient : emails) {
+            // Email is this parent's first choice, so a plain message rather than the "could not reach you" digest
+            String body = templateEngine.render(ownerId, "email/notification-message",
+                    "subject", subject,
+                    "message", personalise(message, recipient));
+            outboxService.enqueueRouted(NotificationOutbox.Priority.BULK, ownerId, NotificationOutbox.Channel.EMAIL,
+                    recipient.address(), subject, body, campaignKey, null, null);
+            queued.get(NotificationOutbox.Channel.EMAIL).incrementAndGet();
+            messages++;
+        }
+        coalesced.addAndGet(byPhone.size() + byEmail.size() - messages);
+        return messages;
+    }
+
+    private void fallBack(NotificationFailedEvent event) {
+        List<NotificationOutbox> failed = new ArrayList<>();
+        if (!event.outboxIds().isEmpty()) {
+            failed.addAll(outboxRepository.findAllById(event.outboxIds()));
+        }
+        if (!event.providerMessageIds().isEmpty()) {
+            failed.addAll(outboxRepository.findByProviderMessageIdInAndFallbackChannelsIsNotNull(event.providerMessageIds()));
+        }
+        Map<Long, Policy> policies = new HashMap<>();
+        for (NotificationOutbox message : failed) {
+            if (message.getFallbackChannels() == null) {
+                continue;
+            }
+            try {
+                Policy policy = policies.computeIfAbsent(message.getOwnerId(), this::getPolicy);
+                transaction.executeWithoutResult(status -> fallBack(message, policy));
+            } catch (Exception e) {
+                log.error("Could not fall back for notification {}: {}", message.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void fallBack(NotificationOutbox message, Policy policy) {
+        // Dead-lettering and an undelivered callback can both report the same message
+        if (outboxRepository.claimFallback(message.getId(), message.getFallbackChannels()) == 0) {
+            return;
+        }
+        List<String> remaining = List.of(message.getFallbackChannels().split(","));
+        NotificationOutbox.Channel next = NotificationOutbox.Channel.valueOf(remaining.get(0));
+        String rest = remaining.size() > 1 ? String.join(",", remaining.subList(1, remaining.size())) : null;
+        String subject = message.getSubject() != null ? message.getSubject() : DEFAULT_SUBJECT;
+        Long ownerId = message.getOwnerId();
+        fallbacks.incrementAndGet();
+        log.info("Notification {} ({} to {}) failed, falling back to {}",
+                message.getId(), message.getChannel(), message.getRecipient(), next);
+
+        if (next != NotificationOutbox.Channel.EMAIL) {
+            // A fallback stays on the lane of the message it replaces
+            outboxService.enqueueRouted(message.getPriority(), ownerId, next, message.getRecipient(), subject,
+                    message.getBody(), message.getCampaignKey(), rest, message.getFallbackEmail());
+            queued.get(next).incrementAndGet();
+            return;
+        }
+        NotificationDigestItem item = digestItem(ownerId, message.getFallbackEmail(), subject, message.getBody());
+        if (policy.emailDigest()) {
+            digestRepository.save(item);
+            digestItems.incrementAndGet();
+        } else {
+            outboxService.enqueueRouted(message.getPriority(), ownerId, NotificationOutbox.Channel.EMAIL, item.getEmail(),
+                    subject, renderEmail(ownerId, List.of(item)), message.getCampaignKey(), null, null);
+            queued.get(NotificationOutbox.Channel.EMAIL).incrementAndGet();
+        }
+    }
+
+    private int sendDigestBatch() {
+        List<NotificationDigestItem> items = digestRepository.lockBatch(DIGEST_BATCH);
+        Map<String, List<NotificationDigestItem>> byParent = new LinkedHashMap<>();
+        for (NotificationDigestItem item : items) {
+            byParent.computeIfAbsent(item.getOwnerId() + "|" + item.getEmail(), key -> new ArrayList<>()).add(item);
+        }
+        for (List<NotificationDigestItem> group : byParent.values()) {
+            NotificationDigestItem first = group.get(0);
+            String subject = group.size() == 1 ? first.getSubject() : group.size() + " messages from School";
+            outboxService.enqueueEmail(NotificationOutbox.Priority.BULK, first.getOwnerId(), first.getEmail(), subject,
+                    renderEmail(first.getOwnerId(), group));
+        }
+        digestRepository.deleteAllInBatch(items);
+        digestEmails.addAndGet(byParent.size());
+        queued.get(NotificationOutbox.Channel.EMAIL).addAndGet(byParent.size());
+        if (!items.isEmpty()) {
+            log.info("Sent {} notification digests covering {} messages", byParent.size(), items.size());
+        }
+        return items.size();
+    }
+
+    private String renderEmail(Long ownerId, List<NotificationDigestItem> items) {
+        StringBuilder rendered = new StringBuilder();
+        for (NotificationDigestItem item : items) {
+            rendered.append(templateEngine.render(ownerId, "email/notification-digest-item",
+                    "subject", item.getSubject(),
+                    "sentOn", item.getCreatedOn().format(DIGEST_TIME),
+                    "message", item.getMessage()));
+        }
+        return templateEngine.render(ownerId, "email/notification-digest",
+                "countText", items.size() == 1 ? "is a message" : "are " + items.size() + " messages",
+                "items", rendered.toString());
+    }
+
+    private String personalise(String message, RecipientResolver.Recipient recipient) {
+        return message.replace(NAMES_PLACEHOLDER, recipientResolver.firstNames(recipient.students()));
+    }
+
+    // Cost in paise of sending text on a paid channel; an SMS is billed per segment, and text that is not
+    // GSM-7 (a name in Devanagari, an emoji) is sent as typed in UCS-2, so it costs more segments
+    private int cost(NotificationOutbox.Channel channel, String text) {
+        return switch (channel) {
+            case WHATSAPP -> whatsAppCost;
+            case SMS -> smsCost * Math.max(1, SmsSegments.count(text).segments());
+            case EMAIL -> 0;
+        };
+    }
+
+    private static String fallbackChannels(List<NotificationOutbox.Channel> channels, String email) {
+        List<String> names = new ArrayList<>(channels.stream().map(Enum::name).toList());
+        if (email != null) {
+            names.add(NotificationOutbox.Channel.EMAIL.name());
+        }
+        return names.isEmpty() ? null : String.join(",", names);
+    }
+
+    private static NotificationDigestItem digestItem(Long ownerId, String email, String subject, String message) {
+        return NotificationDigestItem.builder()
+                .ownerId(ownerId)
+                .email(email)
+                .subject(subject)
+                .message(message)
+                .createdOn(LocalDateTime.now())
+                .build();
+    }
+
+    private static String phoneOf(Worker student) {
+        for (String phone : new String[]{student.getParentPhone(), student.getFatherPhone(), student.getMotherPhone()}) {
+            if (phone != null && !phone.isBlank()) {
+                return phone;
+            }
+        }
+        return null;
+    }
+
+    private static String emailOf(List<Worker> students) {
+        return students.stream().map(Worker::getParentEmail)
+                .filter(email -> email != null && !email.isBlank())
+                .findFirst().orElse(null);
+    }
+
+    private static List<NotificationOutbox.Channel> parseChannels(Collection<String> names) {
+        List<NotificationOutbox.Channel> channels = new ArrayList<>();
+        for (String name : names) {
+            try {
+                NotificationOutbox.Channel channel = NotificationOutbox.Channel.valueOf(name.trim().toUpperCase(Locale.ROOT));
+                if (!channels.contains(channel)) {
+                    channels.add(channel);
+                }
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new BadApiRequestException("Unknown notification channel: " + name);
+            }
+        }
+        if (channels.isEmpty()) {
+            throw new BadApiRequestException("At least one channel is required");
+        }
+        return channels;
+    }
+}
@@ -0,0 +1,298 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.Helper.CompiledTemplate;
+import com.vijay.User_Master.Helper.SmsSegments;
+import com.vijay.User_Master.dto.SmsSegmentInfo;
+import com.vijay.User_Master.entity.NotificationTemplate;
+import com.vijay.User_Master.exceptions.BadApiRequestException;
+import com.vijay.User_Master.repository.NotificationTemplateRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Notification Template Engine
+ * Bundled templates (classpath notification-templates/**) are compiled once at startup; per-school
+ * overrides from notification_templates are compiled on change and swapped in by a periodic reload.
+ * Rendering reuses a per-thread StringBuilder, so a bulk send allocates little beyond the result.
+ * SMS templates (sms/*) are rewritten to GSM-7 and fitted to a segment budget when compiled. Values
+ * are never rewritten: a name in Devanagari or another script keeps the SMS in UCS-2 rather than being
+ * stripped out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationTemplateEngine {
+
+    private static final String LOCATION = "notification-templates/";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final String SMS_PREFIX = "sms/";
+
+    private final NotificationTemplateRepository templateRepository;
+
+    @Value("${app.sms.gsm7-optimise:true}")
+    private boolean smsGsm7Optimise;
+
+    @Value("${app.sms.target-segments:2}")
+    private int smsTargetSegments;
+
+    @Value("${app.sms.placeholder-width:12}")
+    private int smsPlaceholderWidth;
+
+    private volatile Map<String, CompiledTemplate> defaults = Map.of();
+    private volatile Map<String, CompiledTemplate> overrides = Map.of();   // "ownerId|key", ownerId "*" = all schools
+    private volatile Map<String, String> smsSources = Map.of();            // Prepared sms/* sources, same keys as above
+    private volatile LocalDateTime loadedVersion;
+    private volatile long loadedCount = -1;
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    @PostConstruct
+    void loadDefaults() throws IOException {
+        Map<String, CompiledTemplate> compiled = new HashMap<>();
+        Map<String, String> sources = new HashMap<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:" + LOCATION + "**/*.*");
+        for (Resource resource : resources) {
+            String path = resource.getURL().getPath();
+            String key = path.substring(path.lastIndexOf(LOCATION) + LOCATION.length(), path.lastIndexOf('.'));
+            String source = prepare(key, resource.getContentAsString(StandardCharsets.UTF_8));
+            compiled.put(key, CompiledTemplate.compile(source));
+            if (key.startsWith(SMS_PREFIX)) {
+                sources.put(key, source);
+            }
+        }
+        defaults = Map.copyOf(compiled);
+        smsSources = Map.copyOf(sources);
+        log.info("Compiled {} bundled notification templates", compiled.size());
+    }
+
+    /**
+     * Render a template for a school
+     *
+     * @param namesAndValues Alternating placeholder names and values
+     */
+    public String render(Long ownerId, String key, Object... namesAndValues) {
+        CompiledTemplate template = resolve(ownerId, key);
+        Map<String, Object> values = new HashMap<>(namesAndValues.length);
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            values.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.render(values, buffer);
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return result;
+    }
+
+    public Set<String> getTemplateKeys() {
+        return new TreeSet<>(defaults.keySet());
+    }
+
+    /**
+     * Validate an override body before it is stored
+     */
+    public void validate(String key, String body) {
+        if (!defaults.containsKey(key)) {
+            throw new BadApiRequestException("Unknown notification template: " + key);
+        }
+        try {
+            CompiledTemplate.compile(body);
+        } catch (IllegalArgumentException e) {
+            throw new BadApiRequestException("Invalid notification template: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Store a school's override and apply it on this node straight away; other nodes pick it up on their next reload
+     */
+    @Transactional
+    public NotificationTemplate saveOverride(Long ownerId, String key, String body) {
+        requireOwner(ownerId);
+        validate(key, body);
+        NotificationTemplate template = templateRepository.findByOwnerIdAndTemplateKey(ownerId, key)
+                .orElseGet(() -> NotificationTemplate.builder().ownerId(ownerId).templateKey(key).build());
+        template.setBody(body);
+        template.setActive(true);
+        template.setUpdatedOn(LocalDateTime.now());
+        NotificationTemplate saved = templateRepository.save(template);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    /**
+     * Drop a school's override so the bundled template applies again
+     */
+    @Transactional
+    public void deleteOverride(Long ownerId, String key) {
+        requireOwner(ownerId);
+        templateRepository.findByOwnerIdAndTemplateKey(ownerId, key)
+                .ifPresent(templateRepository::delete);
+        reloadAfterCommit();
+    }
+
+    public List<NotificationTemplate> getOverrides(Long ownerId) {
+        return templateRepository.findByOwnerId(ownerId);
+    }
+
+    // A row without an owner would apply to every school, so overrides are always stored per school
+    private static void requireOwner(Long ownerId) {
+        if (ownerId == null) {
+            throw new BadApiRequestException("No school is associated with this account");
+        }
+    }
+
+    private void reloadAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadOverrides();
+            }
+        });
+    }
+
+    /**
+     * Pick up override changes; cheap when nothing changed (one MAX + one COUNT)
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.templates.reload-ms:30000}")
+    public void reloadOverrides() {
+        try {
+            LocalDateTime version = templateRepository.findLastUpdatedOn();
+            long count = templateRepository.count();
+            if (count == loadedCount && Objects.equals(version, loadedVersion)) {
+                return;
+            }
+            Map<String, CompiledTemplate> compiled = new HashMap<>();
+            Map<String, String> sources = new HashMap<>();
+            smsSources.forEach((key, source) -> {
+                if (!key.contains("|")) {
+                    sources.put(key, source);
+                }
+            });
+            List<NotificationTemplate> rows = templateRepository.findByActiveTrue();
+            for (NotificationTemplate row : rows) {
+                try {
+                    String key = overrideKey(row.getOwnerId(), row.getTemplateKey());
+                    String source = prepare(row.getTemplateKey(), row.getBody());
+                    compiled.put(key, CompiledTemplate.compile(source));
+                    if (row.getTemplateKey().startsWith(SMS_PREFIX)) {
+                        sources.put(key, source);
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.error("Skipping notification template override {}: {}", row.getId(), e.getMessage());
+                }
+            }
+            overrides = Map.copyOf(compiled);
+            smsSources = Map.copyOf(sources);
+            loadedVersion = version;
+            loadedCount = count;
+            log.info("Loaded {} notification template overrides", compiled.size());
+        } catch (Exception e) {
+            log.error("Failed to reload notification template overrides: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Expected segments per SMS template for a school, as they will be sent
+     */
+    public Map<String, SmsSegmentInfo> getSmsSegmentEstimates(Long ownerId) {
+        Map<String, String> sources = smsSources;
+        Map<String, SmsSegmentInfo> estimates = new LinkedHashMap<>();
+        for (String key : getTemplateKeys()) {
+            if (!key.startsWith(SMS_PREFIX)) {
+                continue;
+            }
+            String source = ownerId != null ? sources.get(overrideKey(ownerId, key)) : null;
+            if (source == null) {
+                source = sources.getOrDefault(overrideKey(null, key), sources.get(key));
+            }
+            SmsSegments.Count count = SmsSegments.estimate(source, smsPlaceholderWidth);
+            estimates.put(key, SmsSegmentInfo.builder()
+                    .encoding(count.encoding().name())
+                    .characters(count.units())
+                    .segments(count.segments())
+                    .build());
+        }
+        return estimates;
+    }
+
+    /**
+     * Segments for a free-text SMS, and what GSM-7 optimisation would make of it
+     */
+    public SmsSegmentInfo estimateSms(String text) {
+        SmsSegments.Count count = SmsSegments.count(text);
+        String optimised = SmsSegments.toGsm7(text);
+        SmsSegments.Count optimisedCount = SmsSegments.count(optimised);
+        return SmsSegmentInfo.builder()
+                .encoding(count.encoding().name())
+                .characters(count.units())
+                .segments(count.segments())
+                .optimisedText(optimised)
+                .optimisedSegments(optimisedCount.segments())
+                .build();
+    }
+
+    // sms/* sources become GSM-7 and are trimmed towards the segment budget before compiling
+    private String prepare(String key, String source) {
+        if (!key.startsWith(SMS_PREFIX)) {
+            return source;
+        }
+        SmsSegments.Count before = SmsSegments.estimate(source, smsPlaceholderWidth);
+        String prepared = smsGsm7Optimise ? SmsSegments.toGsm7(source) : source;
+        prepared = SmsSegments.fitTemplate(prepared, smsTargetSegments, smsPlaceholderWidth);
+        SmsSegments.Count after = SmsSegments.estimate(prepared, smsPlaceholderWidth);
+        if (after.segments() != before.segments() || after.encoding() != before.encoding()) {
+            log.info("SMS template {}: {} {} segments -> {} {} segments",
+                    key, before.encoding(), before.segments(), after.encoding(), after.segments());
+        }
+        if (smsTargetSegments > 0 && after.segments() > smsTargetSegments) {
+            log.warn("SMS template {} is estimated at {} segments, above the target of {}",
+                    key, after.segments(), smsTargetSegments);
+        }
+        return prepared;
+    }
+
+    private CompiledTemplate resolve(Long ownerId, String key) {
+        Map<String, CompiledTemplate> current = overrides;
+        if (!current.isEmpty()) {
+            CompiledTemplate template = ownerId != null ? current.get(overrideKey(ownerId, key)) : null;
+            if (template == null) {
+                template = current.get(overrideKey(null, key));
+            }
+            if (template != null) {
+                return template;
+            }
+        }
+        CompiledTemplate template = defaults.get(key);
+        if (template == null) {
+            throw new IllegalStateException("Notification template not found: " + key);
+        }
+        return template;
+    }
+
+    private static String overrideKey(Long ownerId, String key) {
+        return (ownerId != null ? ownerId.toString() : "*") + "|" + key;
+    }
+}
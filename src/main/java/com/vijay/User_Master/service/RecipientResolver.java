@@ -0,0 +1,189 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.RecipientDedupStats;
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.entity.Worker;
+import com.vijay.User_Master.repository.NotificationOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Recipient Resolver
+ * Turns "message every student's parent" into one message per parent: students are grouped by
+ * normalised contact (siblings share a parent email / phone) so callers can merge per-child content,
+ * and addresses the school already queued for the same campaign are dropped (dead-lettered sends do
+ * not count, so another channel can still reach that parent). SMS and WhatsApp go to the same
+ * phone numbers, so a number reached on one of them is not messaged again on the other.
+ */
+@Service
+@Slf4j
+public class RecipientResolver {
+
+    private final NotificationOutboxRepository outboxRepository;
+
+    private final Map<NotificationOutbox.Channel, AtomicLong> targeted = counters();
+    private final Map<NotificationOutbox.Channel, AtomicLong> queued = counters();
+    private final Map<NotificationOutbox.Channel, AtomicLong> coalesced = counters();
+    private final Map<NotificationOutbox.Channel, AtomicLong> campaignDuplicates = counters();
+
+    /**
+     * One message to send: the contact address and every student it covers
+     */
+    public record Recipient(String address, List<Worker> students) {
+
+        public Worker first() {
+            return students.get(0);
+        }
+    }
+
+    public RecipientResolver(NotificationOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * Campaign key for today's send of an item; repeating the send the same day reaches nobody twice
+     */
+    public static String campaignKey(String type, Object id) {
+        return type + ":" + id + ":" + LocalDate.now();
+    }
+
+    /**
+     * Group students by contact address for one channel of a campaign
+     *
+     * @param ownerId     School whose earlier sends of the campaign are checked
+     * @param campaignKey Identifies one logical send (e.g. "event-invitation:42:2025-01-10"); addresses
+     *                    already queued under it are skipped. Null disables campaign de-duplication.
+     */
+    public List<Recipient> resolve(Long ownerId, String campaignKey, NotificationOutbox.Channel channel,
+                                   List<Worker> students, Function<Worker, String> contact) {
+        Map<String, List<Worker>> groups = new LinkedHashMap<>();
+        int withContact = 0;
+        for (Worker student : students) {
+            String address = normalize(channel, contact.apply(student));
+            if (address != null) {
+                groups.computeIfAbsent(address, key -> new ArrayList<>()).add(student);
+                withContact++;
+            }
+        }
+        int skipped = dropAlreadyQueued(ownerId, campaignKey, channel, groups.keySet());
+
+        List<Recipient> recipients = new ArrayList<>(groups.size());
+        groups.forEach((address, group) -> recipients.add(new Recipient(address, group)));
+        record(channel, campaignKey, withContact, withContact - groups.size() - skipped, skipped, recipients.size());
+        return recipients;
+    }
+
+    /**
+     * De-duplicate a plain list of addresses (bulk sends without students)
+     */
+    public List<String> resolveAddresses(Long ownerId, String campaignKey, NotificationOutbox.Channel channel,
+                                         List<String> addresses) {
+        Set<String> unique = new LinkedHashSet<>();
+        int valid = 0;
+        for (String raw : addresses) {
+            String address = normalize(channel, raw);
+            if (address != null) {
+                unique.add(address);
+                valid++;
+            }
+        }
+        int skipped = dropAlreadyQueued(ownerId, campaignKey, channel, unique);
+        record(channel, campaignKey, valid, valid - unique.size() - skipped, skipped, unique.size());
+        return new ArrayList<>(unique);
+    }
+
+    /**
+     * "Aarav", "Aarav and Diya", "Aarav, Diya and Kabir"
+     */
+    public String firstNames(List<Worker> students) {
+        List<String> names = students.stream().map(Worker::getFirstName).distinct().toList();
+        if (names.size() == 1) {
+            return names.get(0);
+        }
+        return String.join(", ", names.subList(0, names.size() - 1)) + " and " + names.get(names.size() - 1);
+    }
+
+    public RecipientDedupStats getStats() {
+        long totalTargeted = sum(targeted);
+        long totalQueued = sum(queued);
+        Map<String, Long> savedByChannel = new LinkedHashMap<>();
+        for (NotificationOutbox.Channel channel : NotificationOutbox.Channel.values()) {
+            savedByChannel.put(channel.name(), coalesced.get(channel).get() + campaignDuplicates.get(channel).get());
+        }
+        return RecipientDedupStats.builder()
+                .targeted(totalTargeted)
+                .queued(totalQueued)
+                .savedByCoalescing(sum(coalesced))
+                .savedByCampaignDedup(sum(campaignDuplicates))
+                .savedRatio(totalTargeted == 0 ? 0.0 : (double) (totalTargeted - totalQueued) / totalTargeted)
+                .savedByChannel(savedByChannel)
+                .build();
+    }
+
+    static String normalize(NotificationOutbox.Channel channel, String address) {
+        if (address == null || address.isBlank()) {
+            return null;
+        }
+        if (channel == NotificationOutbox.Channel.EMAIL) {
+            return address.trim().toLowerCase(Locale.ROOT);
+        }
+        // Phone numbers are stored as 10 digits; the sender adds +91
+        String digits = address.replaceAll("\\D", "");
+        if (digits.length() == 12 && digits.startsWith("91")) {
+            digits = digits.substring(2);
+        } else if (digits.length() == 11 && digits.startsWith("0")) {
+            digits = digits.substring(1);
+        }
+        return digits.isEmpty() ? null : digits;
+    }
+
+    private int dropAlreadyQueued(Long ownerId, String campaignKey, NotificationOutbox.Channel channel, Set<String> addresses) {
+        if (ownerId == null || campaignKey == null || addresses.isEmpty()) {
+            return 0;
+        }
+        List<NotificationOutbox.Channel> sameAddressSpace = channel == NotificationOutbox.Channel.EMAIL
+                ? List.of(NotificationOutbox.Channel.EMAIL)
+                : List.of(NotificationOutbox.Channel.SMS, NotificationOutbox.Channel.WHATSAPP);
+        Set<String> alreadyQueued = outboxRepository.findCampaignRecipients(
+                ownerId, campaignKey, sameAddressSpace, NotificationOutbox.Status.DEAD);
+        int before = addresses.size();
+        addresses.removeAll(alreadyQueued);
+        return before - addresses.size();
+    }
+
+    private void record(NotificationOutbox.Channel channel, String campaignKey,
+                        int requested, int merged, int duplicates, int resolved) {
+        targeted.get(channel).addAndGet(requested);
+        queued.get(channel).addAndGet(resolved);
+        coalesced.get(channel).addAndGet(merged);
+        campaignDuplicates.get(channel).addAndGet(duplicates);
+        if (requested > resolved) {
+            log.info("{} {}: {} recipients -> {} messages ({} siblings merged, {} already sent in campaign)",
+                    campaignKey != null ? campaignKey : "bulk", channel, requested, resolved, merged, duplicates);
+        }
+    }
+
+    private static Map<NotificationOutbox.Channel, AtomicLong> counters() {
+        Map<NotificationOutbox.Channel, AtomicLong> counters = new EnumMap<>(NotificationOutbox.Channel.class);
+        for (NotificationOutbox.Channel channel : NotificationOutbox.Channel.values()) {
+            counters.put(channel, new AtomicLong());
+        }
+        return counters;
+    }
+
+    private static long sum(Map<NotificationOutbox.Channel, AtomicLong> counters) {
+        return counters.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+}
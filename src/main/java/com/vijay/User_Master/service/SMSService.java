@@ -16,8 +16,10 @@ public interface SMSService {
     
     /**
      * Send bulk SMS to multiple phone numbers
+     *
+     * @return Broadcast ID for tracking delivery progress
      */
-    void sendBulkSMS(List<String> phoneNumbers, String message);
+    String sendBulkSMS(List<String> phoneNumbers, String message);
     
     /**
      * Send attendance SMS to parent
@@ -46,11 +48,15 @@ public interface SMSService {
     
     /**
      * Send emergency SMS to all parents
+     *
+     * @return Broadcast ID for tracking delivery progress
      */
-    void sendEmergencySMSToAll(String message);
+    String sendEmergencySMSToAll(String message);
     
     /**
-     * Send OTP for verification
+     * Send OTP for verification on the interactive lane
+     *
+     * @return true once queued; false without a phone number or when it could not be queued
      */
     boolean sendOTP(String phoneNumber, String otp);
     
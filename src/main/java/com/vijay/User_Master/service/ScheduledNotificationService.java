@@ -1,36 +1,62 @@
 package com.vijay.User_Master.service;
 
-import com.vijay.User_Master.entity.Worker;
+import com.vijay.User_Master.Helper.BirthdayKeys;
+import com.vijay.User_Master.dto.LowAttendanceStudent;
 import com.vijay.User_Master.entity.Fee;
-import com.vijay.User_Master.repository.WorkerRepository;
+import com.vijay.User_Master.exceptions.BadApiRequestException;
 import com.vijay.User_Master.repository.FeeRepository;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
-import org.springframework.data.domain.Pageable;
 
 /**
  * Scheduled Notification Service
- * Automatically sends notifications at scheduled intervals
+ * Automatically sends notifications at scheduled intervals. Per-student jobs run for every
+ * school through TenantJobRunner, keyed by the date they are scheduled for. Every replica fires
+ * these triggers: per-student jobs split the schools through partition leases, and the fee jobs
+ * run on whichever instance claims that day's run.
  */
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
 public class ScheduledNotificationService {
 
+    private static final String BIRTHDAY_JOB = "birthday-wishes";
+    private static final String WEEKLY_PROGRESS_JOB = "weekly-progress";
+    private static final String LOW_ATTENDANCE_JOB = "low-attendance";
+    private static final String REPORT_CARD_JOB = "report-cards";
+    private static final List<String> TENANT_JOBS = List.of(BIRTHDAY_JOB, WEEKLY_PROGRESS_JOB, LOW_ATTENDANCE_JOB);
+    // Students per chunk for report mailers; attendance and grades are loaded for the chunk with IN lists
+    private static final int REPORT_BATCH_SIZE = 500;
+    private static final int MAX_SEMESTER_LENGTH = 48;
+
     private final SchoolNotificationService notificationService;
-    private final WorkerRepository workerRepository;
-    
-    private Long getCurrentOwnerId() {
-        // Get the current logged-in user ID for multi-tenancy
-        return 1L; // Placeholder - should be replaced with actual logged-in user ID
-    }
+    private final TenantJobRunner tenantJobRunner;
+    private final JobLeaseService jobLeaseService;
     private final FeeRepository feeRepository;
 
+    // Greeting day for 29 February birthdays in other years: FEB_28, MAR_1 or SKIP
+    @Value("${app.notifications.birthday.leap-day:FEB_28}")
+    private BirthdayKeys.LeapDay leapDay;
+
+    /**
+     * Pick up runs that were cut short by a restart (schools not yet DONE continue from their checkpoint)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        for (TenantJobRunner.UnfinishedRun run : tenantJobRunner.findUnfinishedRuns(TENANT_JOBS)) {
+            log.info("Resuming interrupted scheduled job {} for {}", run.jobName(), run.runKey());
+            start(run.jobName(), LocalDate.parse(run.runKey()));
+        }
+    }
+
     /**
      * Send birthday wishes daily at 8:00 AM
      * Cron: Every day at 8:00 AM
@@ -38,21 +64,7 @@ public class ScheduledNotificationService {
     @Scheduled(cron = "0 0 8 * * ?")
     public void sendDailyBirthdayWishes() {
         log.info("Running scheduled task: Send birthday wishes");
-        
-        LocalDate today = LocalDate.now();
-        
-        // Find students with birthday today
-        List<Worker> students = workerRepository.findByUser_IdAndIsDeletedFalse(getCurrentOwnerId(), Pageable.unpaged());
-        
-        for (Worker student : students) {
-            if (student.getDateOfBirth() != null) {
-                LocalDate dob = student.getDateOfBirth();
-                if (dob.getMonth() == today.getMonth() && dob.getDayOfMonth() == today.getDayOfMonth()) {
-                    notificationService.sendBirthdayWishes(student.getId());
-                    log.info("Birthday wishes sent to student ID: {}", student.getId());
-                }
-            }
-        }
+        start(BIRTHDAY_JOB, LocalDate.now());
     }
 
     /**
@@ -62,7 +74,9 @@ public class ScheduledNotificationService {
     @Scheduled(cron = "0 0 9 * * ?")
     public void sendFeeRemindersSevenDays() {
         log.info("Running scheduled task: Send fee reminders (7 days before due)");
-        notificationService.sendBulkFeeReminders(7);
+        if (jobLeaseService.claimRun("fee-reminders-7", LocalDate.now().toString())) {
+            notificationService.sendBulkFeeReminders(7);
+        }
     }
 
     /**
@@ -72,7 +86,9 @@ public class ScheduledNotificationService {
     @Scheduled(cron = "0 30 9 * * ?")
     public void sendFeeRemindersThreeDays() {
         log.info("Running scheduled task: Send fee reminders (3 days before due)");
-        notificationService.sendBulkFeeReminders(3);
+        if (jobLeaseService.claimRun("fee-reminders-3", LocalDate.now().toString())) {
+            notificationService.sendBulkFeeReminders(3);
+        }
     }
 
     /**
@@ -82,7 +98,9 @@ public class ScheduledNotificationService {
     @Scheduled(cron = "0 0 10 * * ?")
     public void sendFeeRemindersOneDay() {
         log.info("Running scheduled task: Send fee reminders (1 day before due)");
-        notificationService.sendBulkFeeReminders(1);
+        if (jobLeaseService.claimRun("fee-reminders-1", LocalDate.now().toString())) {
+            notificationService.sendBulkFeeReminders(1);
+        }
     }
 
     /**
@@ -92,19 +110,7 @@ public class ScheduledNotificationService {
     @Scheduled(cron = "0 0 17 * * FRI")
     public void sendWeeklyProgressReports() {
         log.info("Running scheduled task: Send weekly progress reports");
-        
-        List<Worker> activeStudents = workerRepository.findByUser_IdAndIsDeletedFalse(getCurrentOwnerId(), Pageable.unpaged());
-        
-        for (Worker student : activeStudents) {
-            try {
-                notificationService.sendWeeklyProgressReport(student.getId());
-                log.info("Weekly progress report sent to student ID: {}", student.getId());
-            } catch (Exception e) {
-                log.error("Error sending weekly report for student ID: {}", student.getId(), e);
-            }
-        }
-        
-        log.info("Weekly progress reports sent to {} students", activeStudents.size());
+        start(WEEKLY_PROGRESS_JOB, LocalDate.now());
     }
 
     /**
@@ -114,16 +120,7 @@ public class ScheduledNotificationService {
     @Scheduled(cron = "0 0 18 * * ?")
     public void checkAndSendLowAttendanceWarnings() {
         log.info("Running scheduled task: Check low attendance warnings");
-        
-        List<Worker> activeStudents = workerRepository.findByUser_IdAndIsDeletedFalse(getCurrentOwnerId(), Pageable.unpaged());
-        
-        for (Worker student : activeStudents) {
-            try {
-                notificationService.sendLowAttendanceWarning(student.getId());
-            } catch (Exception e) {
-                log.error("Error checking attendance for student ID: {}", student.getId(), e);
-            }
-        }
+        start(LOW_ATTENDANCE_JOB, LocalDate.now());
     }
 
     /**
@@ -133,6 +130,9 @@ public class ScheduledNotificationService {
     @Scheduled(cron = "0 0 11 * * ?")
     public void sendOverdueFeeNotices() {
         log.info("Running scheduled task: Send overdue fee notices");
+        if (!jobLeaseService.claimRun("fee-overdue", LocalDate.now().toString())) {
+            return;
+        }
         
         List<Fee> overdueFees = feeRepository.findOverdueFees(LocalDate.now());
         
@@ -147,5 +147,56 @@ public class ScheduledNotificationService {
         
         log.info("Overdue fee notices sent for {} fees", overdueFees.size());
     }
-}
 
+    private void start(String jobName, LocalDate runDate) {
+        TenantJobRunner.ChunkTask task = switch (jobName) {
+            // Indexed lookup of the day's birthdays; cost follows the number of birthdays, not the roster
+            case BIRTHDAY_JOB -> {
+                List<Integer> monthDays = BirthdayKeys.celebratedOn(runDate, leapDay);
+                yield (ownerId, cursor, size) ->
+                        lastOf(notificationService.sendBirthdayWishes(ownerId, monthDays, cursor, size));
+            }
+            case WEEKLY_PROGRESS_JOB -> (ownerId, cursor, size) ->
+                    lastOf(notificationService.sendWeeklyProgressReports(ownerId, cursor, size));
+            // One grouped query per chunk returns only the students below the threshold
+            case LOW_ATTENDANCE_JOB -> (ownerId, cursor, size) -> {
+                List<LowAttendanceStudent> warned = notificationService.sendLowAttendanceWarnings(ownerId, cursor, size);
+                return warned.isEmpty() ? null
+                        : new TenantJobRunner.Chunk(warned.get(warned.size() - 1).getStudentId(), warned.size());
+            };
+            default -> throw new IllegalArgumentException("Unknown scheduled job: " + jobName);
+        };
+        int chunkSize = WEEKLY_PROGRESS_JOB.equals(jobName) ? REPORT_BATCH_SIZE : tenantJobRunner.getChunkSize();
+        tenantJobRunner.run(jobName, runDate.toString(), chunkSize, task).thenAccept(this::logSummary);
+    }
+
+    /**
+     * Mail a semester's report cards to the parents of every student of one school, in the background.
+     * Repeating the request on the same day resumes (or skips) that day's run instead of sending twice.
+     *
+     * @return The run key ("2025-01-10:Term 1") under which the school's checkpoint is recorded
+     */
+    public String startReportCards(Long ownerId, String semester) {
+        if (semester == null || semester.isBlank() || semester.length() > MAX_SEMESTER_LENGTH) {
+            throw new BadApiRequestException("Semester must be 1 to " + MAX_SEMESTER_LENGTH + " characters");
+        }
+        String runKey = LocalDate.now() + ":" + semester;
+        tenantJobRunner.runFor(REPORT_CARD_JOB, runKey, List.of(ownerId), REPORT_BATCH_SIZE,
+                (owner, cursor, size) -> lastOf(notificationService.sendReportCards(owner, semester, cursor, size)))
+                .thenAccept(this::logSummary);
+        return runKey;
+    }
+
+    private static TenantJobRunner.Chunk lastOf(List<Long> studentIds) {
+        return studentIds.isEmpty() ? null
+                : new TenantJobRunner.Chunk(studentIds.get(studentIds.size() - 1), studentIds.size());
+    }
+
+    private void logSummary(TenantJobRunner.RunSummary summary) {
+        if (summary != null) {
+            log.info("Scheduled job {} for {} finished: {} of {} schools here ({} items), {} by other instances, "
+                            + "{} failed, {} interrupted", summary.jobName(), summary.runKey(), summary.completed(),
+                    summary.schools(), summary.processed(), summary.elsewhere(), summary.failed(), summary.interrupted());
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.vijay.User_Master.service;
 
+import com.vijay.User_Master.dto.LowAttendanceStudent;
 import com.vijay.User_Master.entity.*;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,6 +30,14 @@ public interface SchoolNotificationService {
      * Send low attendance warning (below 75%)
      */
     void sendLowAttendanceWarning(Long studentId);
+
+    /**
+     * Send low attendance warnings for the next students of a school below the threshold
+     *
+     * @param afterStudentId Cursor: only students with a larger id are considered
+     * @return The students warned, in id order (fewer than limit when the school is finished)
+     */
+    List<LowAttendanceStudent> sendLowAttendanceWarnings(Long ownerId, Long afterStudentId, int limit);
     
     // ============= FEE NOTIFICATIONS =============
     
@@ -63,11 +73,29 @@ public interface SchoolNotificationService {
      */
     void sendReportCard(Long studentId, String semester);
     
+    /**
+     * Send report cards for the next chunk of a school's students; grades, subjects and GPAs for
+     * the whole chunk are loaded with IN-list queries. Students without grades in the semester are skipped.
+     *
+     * @param afterStudentId Cursor: only students with a larger id are considered
+     * @return Ids of the students considered, in id order (empty when the school is finished)
+     */
+    List<Long> sendReportCards(Long ownerId, String semester, Long afterStudentId, int limit);
+    
     /**
      * Send weekly progress report
      */
     void sendWeeklyProgressReport(Long studentId);
     
+    /**
+     * Send weekly progress reports for the next chunk of a school's students, loading the chunk's
+     * attendance and grades with one IN-list query each
+     *
+     * @param afterStudentId Cursor: only students with a larger id are considered
+     * @return Ids of the students reported, in id order (empty when the school is finished)
+     */
+    List<Long> sendWeeklyProgressReports(Long ownerId, Long afterStudentId, int limit);
+    
     /**
      * Send failing grade alert
      */
@@ -136,6 +164,15 @@ public interface SchoolNotificationService {
      */
     void sendBirthdayWishes(Long studentId);
     
+    /**
+     * Send birthday wishes to the next chunk of a school's workers whose birthday is one of monthDays
+     *
+     * @param monthDays      Birthdays as MMDD (see BirthdayKeys)
+     * @param afterStudentId Cursor: only workers with a larger id are considered
+     * @return Ids of the workers greeted, in id order (empty when the school is finished)
+     */
+    List<Long> sendBirthdayWishes(Long ownerId, Collection<Integer> monthDays, Long afterStudentId, int limit);
+    
     /**
      * Send assignment deadline reminder
      */
@@ -0,0 +1,81 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.TenantCounterDrift;
+import com.vijay.User_Master.repository.TenantCounterRepository;
+import com.vijay.User_Master.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tenant Counter Reconciliation Job
+ * Recomputes every school's tenant_counters row from the source tables and reports drift.
+ * Each school is reconciled in its own transaction so one failure does not block the rest.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantCounterReconciliationJob {
+
+    private final TenantCounterService tenantCounterService;
+    private final TenantCounterRepository tenantCounterRepository;
+    private final UserRepository userRepository;
+    private final JobLeaseService jobLeaseService;
+
+    /**
+     * Seed rows for schools that have none yet (first start after deploy, restored backups)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedMissingCounters() {
+        for (Long ownerId : userRepository.findAllIds()) {
+            if (!tenantCounterRepository.existsById(ownerId)) {
+                reconcileSafely(ownerId);
+            }
+        }
+    }
+
+    /**
+     * Reconcile all schools nightly at 2:30 AM
+     */
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 2 * * ?}")
+    public void reconcileNightly() {
+        log.info("Running scheduled task: Reconcile tenant counters");
+        if (!jobLeaseService.claimRun("counter-reconcile", LocalDate.now().toString())) {
+            return;
+        }
+        List<TenantCounterDrift> drifted = reconcileAll();
+        log.info("Tenant counter reconciliation finished, {} school(s) drifted", drifted.size());
+    }
+
+    /**
+     * Reconcile all schools
+     *
+     * @return Reports for the schools whose stored counters disagreed with the source tables
+     */
+    public List<TenantCounterDrift> reconcileAll() {
+        List<TenantCounterDrift> drifted = new ArrayList<>();
+        for (Long ownerId : userRepository.findAllIds()) {
+            TenantCounterDrift report = reconcileSafely(ownerId);
+            if (report != null && report.hasDrift()) {
+                drifted.add(report);
+            }
+        }
+        return drifted;
+    }
+
+    private TenantCounterDrift reconcileSafely(Long ownerId) {
+        try {
+            return tenantCounterService.reconcile(ownerId);
+        } catch (Exception e) {
+            log.error("Failed to reconcile tenant counters for owner {}: {}", ownerId, e.getMessage());
+            return null;
+        }
+    }
+}
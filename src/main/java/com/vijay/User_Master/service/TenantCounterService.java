@@ -0,0 +1,58 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.TenantCounterDrift;
+import com.vijay.User_Master.entity.Assignment;
+import com.vijay.User_Master.entity.Exam;
+import com.vijay.User_Master.entity.Role;
+import com.vijay.User_Master.entity.TenantCounter;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tenant Counter Service
+ * Keeps the per-school tenant_counters row in step with the source tables.
+ * Every adjust/move method joins the caller's transaction, so the counter
+ * change commits or rolls back together with the entity change.
+ */
+public interface TenantCounterService {
+
+    enum CounterType {
+        STUDENTS, TEACHERS, CLASSES, SUBJECTS, EXAMS, SCHEDULED_EXAMS, ASSIGNMENTS, OPEN_ASSIGNMENTS
+    }
+
+    void increment(Long ownerId, CounterType type, long delta);
+
+    void increment(Long ownerId, Map<CounterType, Long> deltas);
+
+    /**
+     * A worker was created (+1), soft-deleted (-1) or restored (+1)
+     */
+    void adjustWorker(Long ownerId, Set<Role> roles, long delta);
+
+    /**
+     * A live worker's roles were replaced
+     */
+    void moveWorkerRoles(Long ownerId, Set<Role> from, Set<Role> to);
+
+    void adjustExam(Long ownerId, Exam.ExamStatus status, long delta);
+
+    void moveExamStatus(Long ownerId, Exam.ExamStatus from, Exam.ExamStatus to);
+
+    void adjustAssignment(Long ownerId, Assignment.AssignmentStatus status, long delta);
+
+    void moveAssignmentStatus(Long ownerId, Assignment.AssignmentStatus from, Assignment.AssignmentStatus to);
+
+    /**
+     * Read the counters with a primary-key lookup
+     *
+     * @param ownerId School owner ID (null sums every school)
+     * @return Counters, all zero when the school has no row yet
+     */
+    TenantCounter getCounters(Long ownerId);
+
+    /**
+     * Recompute one school's counters from the source tables, overwrite the row and report drift
+     */
+    TenantCounterDrift reconcile(Long ownerId);
+}
@@ -0,0 +1,425 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.entity.ScheduledJobCheckpoint;
+import com.vijay.User_Master.entity.Worker;
+import com.vijay.User_Master.repository.ScheduledJobCheckpointRepository;
+import com.vijay.User_Master.repository.WorkerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tenant Job Runner
+ * Runs a scheduled job for every school as an independent partition on a bounded pool.
+ * A partition works in chunks and records its cursor in scheduled_job_checkpoints after each
+ * one, so a run stopped by a crash or redeploy resumes where it left off (at most the chunk in
+ * progress is repeated). After each chunk the partition goes to the back of the pool's queue,
+ * so a school with a large roster or slow data cannot hold up the others.
+ * Every replica runs the same schedule; a school is processed by whichever instance takes its
+ * partition lease, so replicas split the schools between them instead of each sending everything.
+ * Partitions leased elsewhere are re-checked until DONE, and taken over if that lease expires.
+ * Leases of schools in progress are renewed by a heartbeat every third of the TTL, so a chunk that
+ * runs longer than the TTL keeps its school; a checkpoint is only written while the lease is held.
+ */
+@Service
+@Slf4j
+public class TenantJobRunner {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ScheduledJobCheckpointRepository checkpointRepository;
+    private final WorkerRepository workerRepository;
+    private final JobLeaseService leaseService;
+    private final int chunkSize;
+    private final long resumeWindowHours;
+    private final Duration leaseTtl;
+    private final long leaseRecheckMs;
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService heartbeat;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    private final Set<Partition> leased = ConcurrentHashMap.newKeySet();
+
+    /**
+     * One step of a job for one school
+     */
+    @FunctionalInterface
+    public interface ChunkTask {
+
+        /**
+         * Process up to chunkSize items of the school after the cursor
+         *
+         * @return Cursor and item count after this chunk, or null when the school has nothing left
+         */
+        Chunk next(Long ownerId, long cursor, int chunkSize);
+    }
+
+    public record Chunk(long cursor, int processed) {
+    }
+
+    /**
+     * @param completed    Schools this instance finished
+     * @param elsewhere    Schools finished by another instance (or already DONE before this run)
+     * @param interrupted  Schools left unfinished by shutdown or a lost lease
+     */
+    public record RunSummary(String jobName, String runKey, int schools, int completed, int failed,
+                             int elsewhere, int interrupted, long processed) {
+    }
+
+    public record UnfinishedRun(String jobName, String runKey) {
+    }
+
+    private enum Outcome {
+        COMPLETED, FAILED, ELSEWHERE, INTERRUPTED
+    }
+
+    public TenantJobRunner(ScheduledJobCheckpointRepository checkpointRepository,
+                           WorkerRepository workerRepository,
+                           JobLeaseService leaseService,
+                           @Value("${app.scheduler.tenant-parallelism:4}") int parallelism,
+                           @Value("${app.scheduler.chunk-size:100}") int chunkSize,
+                           @Value("${app.scheduler.resume-window-hours:24}") long resumeWindowHours,
+                           @Value("${app.scheduler.lease.partition-ttl-ms:120000}") long leaseTtlMs,
+                           @Value("${app.scheduler.lease.recheck-ms:60000}") long leaseRecheckMs) {
+        this.checkpointRepository = checkpointRepository;
+        this.workerRepository = workerRepository;
+        this.leaseService = leaseService;
+        this.chunkSize = chunkSize;
+        this.resumeWindowHours = resumeWindowHours;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        this.leaseRecheckMs = leaseRecheckMs;
+        this.executor = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("tenant-job-", 1).daemon(true).factory());
+        long renewMs = Math.max(1, leaseTtlMs / 3);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("tenant-job-lease").daemon(true).factory());
+        this.heartbeat.scheduleWithFixedDelay(this::renewLeases, renewMs, renewMs, TimeUnit.MILLISECONDS);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Start a run over every school with workers; schools already DONE for this run key are skipped,
+     * and schools leased by another instance are left to it
+     *
+     * @param runKey Identifies the run (e.g. the date it is for); reusing it resumes that run
+     * @return Completes when every school has finished or failed; null if the same run is still in progress
+     */
+    public CompletableFuture<RunSummary> run(String jobName, String runKey, ChunkTask task) {
+        return run(jobName, runKey, chunkSize, task);
+    }
+
+    /**
+     * Run over every school with a job-specific chunk size (e.g. batch jobs that load a whole chunk
+     * of students with IN-list queries)
+     */
+    public CompletableFuture<RunSummary> run(String jobName, String runKey, int chunkSize, ChunkTask task) {
+        return start(jobName, runKey, null, chunkSize, task);
+    }
+
+    /**
+     * Run for the given schools only, e.g. a send an administrator starts for their own school
+     */
+    public CompletableFuture<RunSummary> runFor(String jobName, String runKey, Collection<Long> ownerIds,
+                                                int chunkSize, ChunkTask task) {
+        return start(jobName, runKey, ownerIds, chunkSize, task);
+    }
+
+    private CompletableFuture<RunSummary> start(String jobName, String runKey, Collection<Long> ownerIds,
+                                                int chunkSize, ChunkTask task) {
+        String runId = jobName + ":" + runKey;
+        if (!running.add(runId)) {
+            log.warn("Scheduled job {} is still running, skipping this trigger", runId);
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            List<Long> owners = ownerIds != null ? new ArrayList<>(ownerIds) : workerRepository.findActiveOwnerIds();
+            // Each instance starts at a different point, so replicas rarely contend for the same school
+            Collections.shuffle(owners);
+            List<Partition> partitions = new ArrayList<>();
+            for (Long ownerId : owners) {
+                Partition partition = new Partition(jobName, runKey, ownerId, chunkSize, task);
+                partitions.add(partition);
+                executor.execute(partition::step);
+            }
+            log.info("Scheduled job {} started for {} school(s)", runId, partitions.size());
+            return CompletableFuture.allOf(partitions.stream().map(p -> p.result).toArray(CompletableFuture[]::new))
+                    .thenApply(done -> summarise(jobName, runKey, partitions))
+                    .whenComplete((summary, error) -> running.remove(runId));
+        } catch (RuntimeException e) {
+            running.remove(runId);
+            throw e;
+        }
+    }
+
+    /**
+     * Chunked walk over a school's non-deleted workers in id order; a failure for one worker is
+     * logged and does not stop the chunk
+     */
+    public ChunkTask forEachWorker(Consumer<Worker> action) {
+        return (ownerId, cursor, size) -> {
+            List<Worker> workers = workerRepository.findByOwner_IdAndIsDeletedFalseAndIdGreaterThanOrderByIdAsc(
+                    ownerId, cursor, PageRequest.of(0, size));
+            if (workers.isEmpty()) {
+                return null;
+            }
+            for (Worker worker : workers) {
+                try {
+                    action.accept(worker);
+                } catch (RuntimeException e) {
+                    log.error("Scheduled job failed for worker ID {}: {}", worker.getId(), e.getMessage());
+                }
+            }
+            return new Chunk(workers.get(workers.size() - 1).getId(), workers.size());
+        };
+    }
+
+    /**
+     * Runs of the given jobs started within the resume window that have a school not yet DONE
+     */
+    public List<UnfinishedRun> findUnfinishedRuns(Collection<String> jobNames) {
+        List<UnfinishedRun> runs = new ArrayList<>();
+        for (Object[] row : checkpointRepository.findUnfinishedRuns(ScheduledJobCheckpoint.Status.DONE,
+                LocalDateTime.now().minusHours(resumeWindowHours))) {
+            if (jobNames.contains((String) row[0])) {
+                runs.add(new UnfinishedRun((String) row[0], (String) row[1]));
+            }
+        }
+        return runs;
+    }
+
+    public List<ScheduledJobCheckpoint> getCheckpoints(String jobName, String runKey) {
+        return checkpointRepository.findByJobNameAndRunKeyOrderByOwnerIdAsc(jobName, runKey);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Partitions still RUNNING keep their cursor and are resumed on the next start
+        executor.shutdownNow();
+        heartbeat.shutdownNow();
+    }
+
+    // Heartbeat: renew the lease of every school this instance is working on
+    private void renewLeases() {
+        for (Partition partition : leased) {
+            try {
+                partition.renew();
+            } catch (Exception e) {
+                log.warn("Could not renew lease {}: {}", partition.leaseKey, e.getMessage());
+            }
+        }
+    }
+
+    private RunSummary summarise(String jobName, String runKey, List<Partition> partitions) {
+        int completed = 0;
+        int failed = 0;
+        int elsewhere = 0;
+        int interrupted = 0;
+        long processed = 0;
+        for (Partition partition : partitions) {
+            switch (partition.result.join()) {
+                case COMPLETED -> completed++;
+                case FAILED -> failed++;
+                case ELSEWHERE -> elsewhere++;
+                case INTERRUPTED -> interrupted++;
+            }
+            processed += partition.processedThisRun;
+        }
+        return new RunSummary(jobName, runKey, partitions.size(), completed, failed, elsewhere, interrupted, processed);
+    }
+
+    /**
+     * One school's share of a run; each step processes a single chunk and re-queues itself
+     */
+    private final class Partition {
+        private final String jobName;
+        private final String runKey;
+        private final Long ownerId;
+        private final int chunkSize;
+        private final ChunkTask task;
+        private final String leaseKey;
+        private final CompletableFuture<Outcome> result = new CompletableFuture<>();
+        private ScheduledJobCheckpoint checkpoint;
+        private long processedThisRun;
+        private boolean holding;
+        private volatile boolean leaseLost;
+
+        private Partition(String jobName, String runKey, Long ownerId, int chunkSize, ChunkTask task) {
+            this.jobName = jobName;
+            this.runKey = runKey;
+            this.ownerId = ownerId;
+            this.chunkSize = chunkSize;
+            this.task = task;
+            this.leaseKey = jobName + ":" + runKey + ":owner:" + ownerId;
+        }
+
+        private void step() {
+            try {
+                if (checkpoint == null) {
+                    if (!leaseService.tryAcquire(leaseKey, leaseTtl)) {
+                        waitForOtherInstance();
+                        return;
+                    }
+                    hold();
+                    checkpoint = open();
+                    if (checkpoint == null) {
+                        finish(Outcome.ELSEWHERE);
+                        return;
+                    }
+                } else if (leaseLost || !leaseService.tryAcquire(leaseKey, leaseTtl)) {
+                    lostLease();
+                    return;
+                }
+                Chunk chunk = task.next(ownerId, checkpoint.getCursor(), chunkSize);
+                if (!holdsLease()) {
+                    // The chunk outlived the lease: the new holder repeats it from the last checkpoint
+                    lostLease();
+                    return;
+                }
+                if (chunk == null) {
+                    checkpoint.setStatus(ScheduledJobCheckpoint.Status.DONE);
+                    save();
+                    finish(Outcome.COMPLETED);
+                    return;
+                }
+                if (chunk.cursor() <= checkpoint.getCursor()) {
+                    throw new IllegalStateException("Cursor did not advance past " + checkpoint.getCursor());
+                }
+                checkpoint.setCursor(chunk.cursor());
+                checkpoint.setProcessed(checkpoint.getProcessed() + chunk.processed());
+                processedThisRun += chunk.processed();
+                save();
+                executor.execute(this::step);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the checkpoint stays RUNNING for another instance or the next start
+                finish(Outcome.INTERRUPTED);
+            } catch (Exception e) {
+                log.error("Scheduled job {}:{} failed for owner {}: {}", jobName, runKey, ownerId, e.getMessage(), e);
+                fail(e);
+                finish(Outcome.FAILED);
+            }
+        }
+
+        // Another instance holds the school: done once its checkpoint is DONE, otherwise look again later
+        private void waitForOtherInstance() {
+            boolean done = checkpointRepository.findByJobNameAndRunKeyAndOwnerId(jobName, runKey, ownerId)
+                    .map(existing -> existing.getStatus() == ScheduledJobCheckpoint.Status.DONE)
+                    .orElse(false);
+            if (done) {
+                result.complete(Outcome.ELSEWHERE);
+            } else {
+                CompletableFuture.delayedExecutor(leaseRecheckMs, TimeUnit.MILLISECONDS, executor).execute(this::step);
+            }
+        }
+
+        private synchronized void hold() {
+            holding = true;
+            leased.add(this);
+        }
+
+        private synchronized void renew() {
+            if (holding && !leaseService.tryAcquire(leaseKey, leaseTtl)) {
+                leaseLost = true;
+            }
+        }
+
+        private boolean holdsLease() {
+            return !leaseLost && leaseService.isHeld(leaseKey);
+        }
+
+        // The lease expired and another instance took the school over; its checkpoint is left to that instance
+        private void lostLease() {
+            synchronized (this) {
+                holding = false;
+                leased.remove(this);
+            }
+            log.warn("Lost lease {} after cursor {}", leaseKey, checkpoint.getCursor());
+            result.complete(Outcome.INTERRUPTED);
+        }
+
+        private void finish(Outcome outcome) {
+            synchronized (this) {
+                if (holding) {
+                    holding = false;
+                    leased.remove(this);
+                    try {
+                        leaseService.release(leaseKey);
+                    } catch (Exception e) {
+                        log.warn("Could not release lease {}: {}", leaseKey, e.getMessage());
+                    }
+                }
+            }
+            result.complete(outcome);
+        }
+
+        // Existing checkpoint (resume) or a new one; null when this school already finished the run
+        private ScheduledJobCheckpoint open() {
+            LocalDateTime now = LocalDateTime.now();
+            ScheduledJobCheckpoint existing = checkpointRepository
+                    .findByJobNameAndRunKeyAndOwnerId(jobName, runKey, ownerId)
+                    .orElse(null);
+            if (existing == null) {
+                return checkpointRepository.save(ScheduledJobCheckpoint.builder()
+                        .jobName(jobName)
+                        .runKey(runKey)
+                        .ownerId(ownerId)
+                        .status(ScheduledJobCheckpoint.Status.RUNNING)
+                        .attempts(1)
+                        .startedOn(now)
+                        .updatedOn(now)
+                        .build());
+            }
+            if (existing.getStatus() == ScheduledJobCheckpoint.Status.DONE) {
+                return null;
+            }
+            log.info("Resuming {}:{} for owner {} after cursor {}", jobName, runKey, ownerId, existing.getCursor());
+            existing.setStatus(ScheduledJobCheckpoint.Status.RUNNING);
+            existing.setAttempts(existing.getAttempts() + 1);
+            existing.setLastError(null);
+            existing.setUpdatedOn(now);
+            return checkpointRepository.save(existing);
+        }
+
+        private void save() {
+            checkpoint.setUpdatedOn(LocalDateTime.now());
+            checkpoint = checkpointRepository.save(checkpoint);
+        }
+
+        private void fail(Exception error) {
+            if (checkpoint == null) {
+                return;
+            }
+            try {
+                if (!holdsLease()) {
+                    return;
+                }
+                String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+                checkpoint.setStatus(ScheduledJobCheckpoint.Status.FAILED);
+                checkpoint.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+                save();
+            } catch (Exception e) {
+                log.error("Could not record failure of {}:{} for owner {}: {}", jobName, runKey, ownerId, e.getMessage());
+            }
+        }
+    }
+}
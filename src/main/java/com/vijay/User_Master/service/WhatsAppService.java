@@ -21,8 +21,10 @@ public interface WhatsAppService {
     
     /**
      * Send bulk WhatsApp messages
+     *
+     * @return Broadcast ID for tracking delivery progress
      */
-    void sendBulkWhatsAppMessages(List<String> phoneNumbers, String message);
+    String sendBulkWhatsAppMessages(List<String> phoneNumbers, String message);
     
     /**
      * Send attendance WhatsApp notification
@@ -61,8 +63,10 @@ public interface WhatsAppService {
     
     /**
      * Send emergency alert via WhatsApp
+     *
+     * @return Broadcast ID for tracking delivery progress
      */
-    void sendEmergencyWhatsAppToAll(String message);
+    String sendEmergencyWhatsAppToAll(String message);
     
     /**
      * Send welcome message to new student
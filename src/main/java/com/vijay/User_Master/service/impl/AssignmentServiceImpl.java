@@ -14,6 +14,7 @@ import com.vijay.User_Master.repository.SubjectRepository;
 import com.vijay.User_Master.repository.UserRepository;
 import com.vijay.User_Master.repository.WorkerRepository;
 import com.vijay.User_Master.service.AssignmentService;
+import com.vijay.User_Master.service.TenantCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -40,6 +41,7 @@ public class AssignmentServiceImpl implements AssignmentService {
     private final SubjectRepository subjectRepository;
     private final SchoolClassRepository schoolClassRepository;
     private final WorkerRepository workerRepository;
+    private final TenantCounterService tenantCounterService;
 
     @Override
     public AssignmentResponse createAssignment(AssignmentRequest request, Long ownerId) {
@@ -85,6 +87,7 @@ public class AssignmentServiceImpl implements AssignmentService {
                 .build();
         
         Assignment savedAssignment = assignmentRepository.save(assignment);
+        tenantCounterService.adjustAssignment(ownerId, savedAssignment.getStatus(), 1);
         log.info("Assignment created successfully with ID: {}", savedAssignment.getId());
         
         return convertToResponse(savedAssignment);
@@ -97,6 +100,8 @@ public class AssignmentServiceImpl implements AssignmentService {
         Assignment assignment = assignmentRepository.findByIdAndOwner_IdAndIsDeletedFalse(id, ownerId)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
         
+        Assignment.AssignmentStatus previousStatus = assignment.getStatus();
+        
         // Update fields
         assignment.setTitle(request.getTitle());
         assignment.setDescription(request.getDescription());
@@ -114,6 +119,7 @@ public class AssignmentServiceImpl implements AssignmentService {
         assignment.setNotes(request.getNotes());
         
         Assignment updatedAssignment = assignmentRepository.save(assignment);
+        tenantCounterService.moveAssignmentStatus(ownerId, previousStatus, updatedAssignment.getStatus());
         log.info("Assignment updated successfully");
         
         return convertToResponse(updatedAssignment);
@@ -247,6 +253,7 @@ public class AssignmentServiceImpl implements AssignmentService {
         
         assignment.setDeleted(true);
         assignmentRepository.save(assignment);
+        tenantCounterService.adjustAssignment(ownerId, assignment.getStatus(), -1);
         
         log.info("Assignment deleted successfully");
     }
@@ -258,8 +265,12 @@ public class AssignmentServiceImpl implements AssignmentService {
         Assignment assignment = assignmentRepository.findByIdAndOwner_Id(id, ownerId)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
         
+        boolean wasDeleted = assignment.isDeleted();
         assignment.setDeleted(false);
         assignmentRepository.save(assignment);
+        if (wasDeleted) {
+            tenantCounterService.adjustAssignment(ownerId, assignment.getStatus(), 1);
+        }
         
         log.info("Assignment restored successfully");
     }
@@ -0,0 +1,140 @@
+package com.vijay.User_Master.service.impl;
+
+import com.vijay.User_Master.dto.AttendanceClassTotals;
+import com.vijay.User_Master.dto.AttendanceDayTotals;
+import com.vijay.User_Master.dto.DashboardAnalytics;
+import com.vijay.User_Master.entity.Attendance;
+import com.vijay.User_Master.repository.AttendanceDailyRollupRepository;
+import com.vijay.User_Master.service.AttendanceRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of Attendance Rollup Service
+ * Writes are a single upsert per attendance change; reads aggregate at most one row per class and day
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class AttendanceRollupServiceImpl implements AttendanceRollupService {
+
+    private final AttendanceDailyRollupRepository rollupRepository;
+
+    @Override
+    public void apply(Long ownerId, Long classId, LocalDate date, Attendance.AttendanceStatus status, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        long[] counts = bucket(status, delta);
+        rollupRepository.increment(ownerId, classId, date,
+                counts[0], counts[1], counts[2], counts[3], counts[4], counts[5], delta);
+    }
+
+    @Override
+    public void move(Long ownerId, Long classId, LocalDate date,
+                     Attendance.AttendanceStatus from, Attendance.AttendanceStatus to) {
+        if (from == to) {
+            return;
+        }
+        long[] removed = bucket(from, -1);
+        long[] added = bucket(to, 1);
+        rollupRepository.increment(ownerId, classId, date,
+                removed[0] + added[0], removed[1] + added[1], removed[2] + added[2],
+                removed[3] + added[3], removed[4] + added[4], removed[5] + added[5], 0);
+    }
+
+    @Override
+    public int rebuild(Long ownerId, LocalDate startDate, LocalDate endDate) {
+        log.info("Rebuilding attendance rollup for owner: {} from {} to {}", ownerId, startDate, endDate);
+        rollupRepository.deleteRange(ownerId, startDate, endDate);
+        return rollupRepository.rebuildRange(ownerId, startDate, endDate);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DashboardAnalytics.AttendanceTrend> getDailyTrend(Long ownerId, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, AttendanceDayTotals> byDay = rollupRepository.sumByDay(ownerId, startDate, endDate).stream()
+                .collect(Collectors.toMap(AttendanceDayTotals::getAttendanceDate, Function.identity()));
+
+        List<DashboardAnalytics.AttendanceTrend> trends = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            AttendanceDayTotals day = byDay.get(date);
+            long present = day != null ? value(day.getPresent()) : 0L;
+            long absent = day != null ? value(day.getAbsent()) : 0L;
+            long total = day != null ? value(day.getTotal()) : 0L;
+
+            trends.add(DashboardAnalytics.AttendanceTrend.builder()
+                    .date(date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
+                    .present(Math.toIntExact(present))
+                    .absent(Math.toIntExact(absent))
+                    .total(Math.toIntExact(total))
+                    .percentage(percentage(present, total))
+                    .build());
+        }
+        return trends;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Double getAveragePercentage(Long ownerId, LocalDate startDate, LocalDate endDate) {
+        long present = 0;
+        long total = 0;
+        for (AttendanceDayTotals day : rollupRepository.sumByDay(ownerId, startDate, endDate)) {
+            present += value(day.getPresent());
+            total += value(day.getTotal());
+        }
+        return percentage(present, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Double> getClassAverages(Long ownerId, LocalDate startDate, LocalDate endDate) {
+        Map<Long, Double> averages = new HashMap<>();
+        for (AttendanceClassTotals row : rollupRepository.sumByClass(ownerId, startDate, endDate)) {
+            averages.put(row.getClassId(), percentage(value(row.getPresent()), value(row.getTotal())));
+        }
+        return averages;
+    }
+
+    // Index order matches the rollup columns: present, absent, late, halfDay, excused, other
+    private long[] bucket(Attendance.AttendanceStatus status, long delta) {
+        long[] counts = new long[6];
+        if (status == null) {
+            counts[5] = delta;
+            return counts;
+        }
+        switch (status) {
+            case PRESENT -> counts[0] = delta;
+            case ABSENT -> counts[1] = delta;
+            case LATE -> counts[2] = delta;
+            case HALF_DAY -> counts[3] = delta;
+            case EXCUSED -> counts[4] = delta;
+            default -> counts[5] = delta;
+        }
+        return counts;
+    }
+
+    // Present percentage, rounded to one decimal like the rest of the dashboard figures
+    private double percentage(long present, long total) {
+        if (total == 0) {
+            return 0.0;
+        }
+        return Math.round(present * 1000.0 / total) / 10.0;
+    }
+
+    private long value(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -6,13 +6,18 @@ import com.vijay.User_Master.dto.AttendanceStatistics;
 import com.vijay.User_Master.entity.*;
 import com.vijay.User_Master.exceptions.BadApiRequestException;
 import com.vijay.User_Master.exceptions.ResourceNotFoundException;
+import com.vijay.User_Master.repository.AttendanceDailyRollupRepository;
 import com.vijay.User_Master.repository.AttendanceRepository;
 import com.vijay.User_Master.repository.WorkerRepository;
 import com.vijay.User_Master.repository.SchoolClassRepository;
 import com.vijay.User_Master.repository.SubjectRepository;
 import com.vijay.User_Master.Helper.CommonUtils;
 import com.vijay.User_Master.repository.UserRepository;
+import com.vijay.User_Master.service.AttendanceRollupService;
 import com.vijay.User_Master.service.AttendanceService;
+import com.vijay.User_Master.dto.DashboardEvent;
+import com.vijay.User_Master.service.DashboardEventHub;
+import com.vijay.User_Master.service.MonthlyFactBuilder;
 import com.vijay.User_Master.config.security.CustomUserDetails;
 import com.vijay.User_Master.entity.User;
 import lombok.AllArgsConstructor;
@@ -23,7 +28,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,6 +45,10 @@ public class AttendanceServiceImpl implements AttendanceService {
     private final SchoolClassRepository schoolClassRepository;
     private final SubjectRepository subjectRepository;
     private final UserRepository userRepository;
+    private final AttendanceRollupService rollupService;
+    private final AttendanceDailyRollupRepository rollupRepository;
+    private final MonthlyFactBuilder monthlyFactBuilder;
+    private final DashboardEventHub dashboardEventHub;
 
     @Override
     @Transactional(readOnly = true)
@@ -110,6 +122,16 @@ public class AttendanceServiceImpl implements AttendanceService {
             .build();
         
         Attendance savedAttendance = attendanceRepository.save(attendance);
+        rollupService.apply(owner.getId(), schoolClass.getId(), savedAttendance.getAttendanceDate(),
+            savedAttendance.getStatus(), 1);
+        monthlyFactBuilder.markDirty(owner.getId(), savedAttendance.getAttendanceDate());
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("attendanceId", savedAttendance.getId());
+        event.put("studentId", student.getId());
+        event.put("classId", schoolClass.getId());
+        event.put("date", savedAttendance.getAttendanceDate());
+        event.put("status", savedAttendance.getStatus());
+        dashboardEventHub.publishAfterCommit(owner.getId(), DashboardEvent.ATTENDANCE_MARKED, event);
         log.info("Attendance marked successfully with ID: {}", savedAttendance.getId());
         
         return mapToResponse(savedAttendance);
@@ -131,6 +153,7 @@ public class AttendanceServiceImpl implements AttendanceService {
         Attendance attendance = attendanceRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Attendance", "id", id));
         
+        Attendance.AttendanceStatus previousStatus = attendance.getStatus();
         attendance.setStatus(request.getStatus());
         attendance.setCheckInTime(request.getCheckInTime());
         attendance.setCheckOutTime(request.getCheckOutTime());
@@ -139,6 +162,9 @@ public class AttendanceServiceImpl implements AttendanceService {
         attendance.setParentNote(request.getParentNote());
         
         Attendance updated = attendanceRepository.save(attendance);
+        rollupService.move(updated.getOwner().getId(), updated.getSchoolClass().getId(),
+            updated.getAttendanceDate(), previousStatus, updated.getStatus());
+        monthlyFactBuilder.markDirty(updated.getOwner().getId(), updated.getAttendanceDate());
         return mapToResponse(updated);
     }
 
@@ -292,15 +318,43 @@ public class AttendanceServiceImpl implements AttendanceService {
         Attendance attendance = attendanceRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Attendance", "id", id));
         attendanceRepository.delete(attendance);
+        rollupService.apply(attendance.getOwner().getId(), attendance.getSchoolClass().getId(),
+            attendance.getAttendanceDate(), attendance.getStatus(), -1);
+        monthlyFactBuilder.markDirty(attendance.getOwner().getId(), attendance.getAttendanceDate());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<AttendanceStatistics> getMonthlyAttendanceStatistics(Long classId, int year, int month) {
         log.info("Fetching monthly attendance statistics for class ID: {} for {}/{}", classId, month, year);
-        // This would require more complex date range queries
-        // For now, return empty list - can be implemented later
-        return List.of();
+        
+        // One rollup row per marked day - the attendance table itself is not read
+        YearMonth yearMonth = YearMonth.of(year, month);
+        List<AttendanceDailyRollup> days = rollupRepository.findByClassIdAndAttendanceDateBetweenOrderByAttendanceDate(
+            classId, yearMonth.atDay(1), yearMonth.atEndOfMonth());
+        
+        if (days.isEmpty()) {
+            return List.of();
+        }
+        
+        String className = schoolClassRepository.findById(classId)
+            .map(schoolClass -> schoolClass.getClassName() + " - " + schoolClass.getSection())
+            .orElse(null);
+        
+        return days.stream()
+            .map(day -> AttendanceStatistics.builder()
+                .classId(classId)
+                .className(className)
+                .date(day.getAttendanceDate())
+                .totalStudents((int) day.getTotal())
+                .presentCount((int) day.getPresent())
+                .absentCount((int) day.getAbsent())
+                .lateCount((int) day.getLate())
+                .halfDayCount((int) day.getHalfDay())
+                .excusedCount((int) day.getExcused())
+                .attendancePercentage(day.getTotal() > 0 ? (day.getPresent() * 100.0) / day.getTotal() : 0.0)
+                .build())
+            .collect(Collectors.toList());
     }
 
     // Helper Methods
@@ -11,6 +11,7 @@ import com.vijay.User_Master.dto.UserRequest;
 import com.vijay.User_Master.dto.UserResponse;
 import com.vijay.User_Master.dto.form.*;
 import com.vijay.User_Master.entity.AccountStatus;
+import com.vijay.User_Master.entity.NotificationOutbox;
 import com.vijay.User_Master.entity.Role;
 import com.vijay.User_Master.entity.User;
 import com.vijay.User_Master.entity.Worker;
@@ -21,6 +22,8 @@ import com.vijay.User_Master.repository.RoleRepository;
 import com.vijay.User_Master.repository.UserRepository;
 import com.vijay.User_Master.repository.WorkerRepository;
 import com.vijay.User_Master.service.AuthService;
+import com.vijay.User_Master.service.NotificationOutboxService;
+import com.vijay.User_Master.service.NotificationTemplateEngine;
 import com.vijay.User_Master.service.RefreshTokenService;
 import com.vijay.User_Master.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -59,6 +62,8 @@ public class AuthServiceImpl implements AuthService {
     private final UserService userService;
     private final EmailUtils emailUtils;
     private final ModelMapper mapper;
+    private final NotificationOutboxService notificationOutboxService;
+    private final NotificationTemplateEngine templateEngine;
 
     @Override
     public LoginJWTResponse login(LoginRequest request) {
@@ -90,7 +95,7 @@ public class AuthServiceImpl implements AuthService {
             throw new RuntimeException("Error creating refresh token.");
         }
 
-        String token = jwtTokenProvider.generateToken(authentication.getName());
+        String token = jwtTokenProvider.generateToken(userDetails);
 
         UserResponse response = mapper.map(userDetails, UserResponse.class);
 
@@ -341,20 +346,25 @@ public class AuthServiceImpl implements AuthService {
     }
 
     public CompletableFuture<Object> sendEmailPasswordReset(String email, HttpServletRequest request) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                log.info("Sending password reset email to: {}", email);
-                
-                // In a real implementation, you would send an email with the reset token
-                // For now, just log the action
-                log.info("Password reset email would be sent to {} with request context", email);
-                
-                return Map.of("success", true, "message", "Password reset email sent successfully");
-            } catch (Exception e) {
-                log.error("Error sending password reset email: {}", e.getMessage());
-                return Map.of("success", false, "message", "Failed to send password reset email");
-            }
-        });
+        log.info("Sending password reset email to: {}", email);
+        User user = userRepository.findByEmail(email);
+        if (user == null || user.isDeleted() || user.getAccountStatus() == null) {
+            // Same answer as for a real account, so the endpoint cannot be used to probe emails
+            log.info("Password reset requested for unknown email: {}", email);
+            return CompletableFuture.completedFuture(Map.of("success", true, "message", "Password reset email sent successfully"));
+        }
+
+        String resetToken = UUID.randomUUID().toString();
+        user.getAccountStatus().setPasswordResetToken(resetToken);
+        userRepository.save(user);
+
+        String resetLink = CommonUtils.getUrl(request) + "/api/v1/home/verify-pswd-link?uid=" + user.getId()
+                + "&code=" + resetToken;
+        String body = templateEngine.render(null, "email/password-reset",
+                "name", user.getName(), "resetLink", resetLink);
+        // INTERACTIVE lane: the user is waiting for this mail, so it never queues behind bulk sends
+        notificationOutboxService.enqueueEmail(NotificationOutbox.Priority.INTERACTIVE, null, user.getEmail(), "Password Reset Request", body);
+        return CompletableFuture.completedFuture(Map.of("success", true, "message", "Password reset email sent successfully"));
     }
 
     @Override
@@ -0,0 +1,90 @@
+package com.vijay.User_Master.service.impl;
+
+import com.vijay.User_Master.dto.DashboardCounts;
+import com.vijay.User_Master.dto.ItemCount;
+import com.vijay.User_Master.dto.WorkerRoleCount;
+import com.vijay.User_Master.repository.AssignmentRepository;
+import com.vijay.User_Master.repository.ExamRepository;
+import com.vijay.User_Master.repository.SchoolClassRepository;
+import com.vijay.User_Master.repository.SubjectRepository;
+import com.vijay.User_Master.repository.WorkerRepository;
+import com.vijay.User_Master.service.DashboardQueryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Implementation of Dashboard Query Service
+ * One grouped query per entity family: workers (by role and status), classes, subjects, exams, assignments
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class DashboardQueryServiceImpl implements DashboardQueryService {
+
+    private static final String ROLE_STUDENT = "ROLE_STUDENT";
+    private static final String ROLE_TEACHER = "ROLE_TEACHER";
+
+    private final WorkerRepository workerRepository;
+    private final SchoolClassRepository classRepository;
+    private final SubjectRepository subjectRepository;
+    private final ExamRepository examRepository;
+    private final AssignmentRepository assignmentRepository;
+
+    @Override
+    public DashboardCounts loadCounts(Long ownerId) {
+        log.debug("Loading dashboard counts for owner: {}", ownerId);
+
+        DashboardCounts counts = new DashboardCounts();
+        applyWorkerCounts(counts, workerRepository.countByRoleAndStatus(ownerId));
+
+        counts.setTotalClasses(Math.toIntExact(classRepository.countForDashboard(ownerId)));
+        counts.setTotalSubjects(Math.toIntExact(subjectRepository.countForDashboard(ownerId)));
+
+        ItemCount exams = examRepository.countForDashboard(ownerId, LocalDate.now());
+        counts.setTotalExams(toInt(exams.getTotal()));
+        counts.setUpcomingExams(toInt(exams.getOpen()));
+
+        ItemCount assignments = assignmentRepository.countForDashboard(ownerId);
+        counts.setTotalAssignments(toInt(assignments.getTotal()));
+        counts.setPendingAssignments(toInt(assignments.getOpen()));
+
+        return counts;
+    }
+
+    // Deleted workers are left out of every counter, as in the rest of the worker APIs
+    private void applyWorkerCounts(DashboardCounts counts, List<WorkerRoleCount> rows) {
+        for (WorkerRoleCount row : rows) {
+            if (Boolean.TRUE.equals(row.getDeleted())) {
+                continue;
+            }
+            int total = toInt(row.getTotal());
+            boolean active = Boolean.TRUE.equals(row.getActive());
+
+            if (ROLE_STUDENT.equals(row.getRoleName())) {
+                counts.setTotalStudents(counts.getTotalStudents() + total);
+                if (active) {
+                    counts.setActiveStudents(counts.getActiveStudents() + total);
+                } else {
+                    counts.setInactiveStudents(counts.getInactiveStudents() + total);
+                }
+            } else if (ROLE_TEACHER.equals(row.getRoleName())) {
+                counts.setTotalTeachers(counts.getTotalTeachers() + total);
+                if (active) {
+                    counts.setActiveTeachers(counts.getActiveTeachers() + total);
+                } else {
+                    counts.setInactiveTeachers(counts.getInactiveTeachers() + total);
+                }
+            }
+        }
+    }
+
+    private int toInt(Long value) {
+        return value != null ? Math.toIntExact(value) : 0;
+    }
+}
@@ -2,19 +2,34 @@ package com.vijay.User_Master.service.impl;
 
 import com.vijay.User_Master.dto.*;
 import com.vijay.User_Master.entity.*;
+import com.vijay.User_Master.exceptions.BadApiRequestException;
 import com.vijay.User_Master.repository.*;
+import com.vijay.User_Master.service.AttendanceRollupService;
+import com.vijay.User_Master.service.DashboardQueryService;
+import com.vijay.User_Master.service.DashboardSectionComposer;
+import com.vijay.User_Master.service.MonthlyFactService;
 import com.vijay.User_Master.service.DashboardService;
+import com.vijay.User_Master.service.DeliveryLogService;
+import com.vijay.User_Master.service.TenantCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,45 +53,86 @@ public class DashboardServiceImpl implements DashboardService {
     private final AssignmentRepository assignmentRepository;
     private final EventRepository eventRepository;
     private final LibraryRepository libraryRepository;
-
+    private final DashboardQueryService dashboardQueryService;
+    private final TenantCounterService tenantCounterService;
+    private final DashboardSectionComposer sectionComposer;
+    private final AttendanceRollupService attendanceRollupService;
+    private final MonthlyFactService monthlyFactService;
+    private final MonthlyFactRepository monthlyFactRepository;
+    private final DeliveryLogService deliveryLogService;
+
+    // Attendance windows: trend chart covers the last 7 days, averages the last 30
+    private static final int ATTENDANCE_TREND_DAYS = 7;
+    private static final int ATTENDANCE_AVERAGE_DAYS = 30;
+    private static final int MONTHLY_TREND_MONTHS = 6;
+
+    // The application-owner dashboard embeds only the largest schools; the rest are paged via getSchoolSummaries
+    private static final int EMBEDDED_SCHOOL_SUMMARIES = 20;
+    private static final Set<String> SCHOOL_SUMMARY_SORTS = Set.of("schoolName", "ownerId", "totalStudents", "totalTeachers");
+
+    // Sections run in parallel, each in its own read-only transaction, so no outer transaction is held
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DashboardAnalytics getApplicationOwnerDashboard() {
         log.info("Getting Application Owner Dashboard - All Schools Analytics");
         
+        DashboardSectionComposer.Composition composition = sectionComposer.begin("all");
+        var countsSection = composition.section("counts", () -> dashboardQueryService.loadCounts(null), new DashboardCounts());
+        var schoolsSection = composition.section("totalSchools", this::getTotalSchools, 0);
+        var activitiesSection = composition.section("recentActivities", this::getRecentActivitiesAcrossAllSchools, List.<DashboardAnalytics.RecentActivity>of());
+        var classesSection = composition.section("classWiseAnalytics", this::getClassWiseAnalyticsAcrossAllSchools, List.<DashboardAnalytics.ClassAnalytics>of());
+        var trendsSection = composition.section("monthlyTrends", this::getMonthlyTrendsAcrossAllSchools, List.<DashboardAnalytics.MonthlyTrend>of());
+        var schoolsWiseSection = composition.section("schoolWiseAnalytics", this::getSchoolWiseAnalytics, List.<DashboardAnalytics.SchoolAnalyticsSummary>of());
+        var attendanceTrendSection = composition.section("attendanceTrends", () -> getAttendanceTrends(null), List.<DashboardAnalytics.AttendanceTrend>of());
+        var attendanceAverageSection = composition.section("averageAttendance", () -> getAverageAttendance(null), 0.0);
+        var notificationsSection = composition.section("notificationsThisMonth", () -> getNotificationsThisMonth(null), Map.<NotificationOutbox.Channel, ChannelCount>of());
+        
+        DashboardCounts counts = countsSection.get();
+        List<DashboardAnalytics.AttendanceTrend> attendanceTrends = attendanceTrendSection.get();
+        DashboardAnalytics.AttendanceTrend today = todayOf(attendanceTrends);
+        Map<NotificationOutbox.Channel, ChannelCount> notifications = notificationsSection.get();
+        
         return DashboardAnalytics.builder()
                 .businessId("SUPER_ADMIN")
                 .schoolName("All Schools Overview")
-                .totalSchools(getTotalSchools())
-                .totalStudents(getTotalStudentsAcrossAllSchools())
-                .totalTeachers(getTotalTeachersAcrossAllSchools())
-                .totalClasses(getTotalClassesAcrossAllSchools())
-                .totalSubjects(getTotalSubjectsAcrossAllSchools())
-                .activeStudents(getActiveStudentsAcrossAllSchools())
-                .activeTeachers(getActiveTeachersAcrossAllSchools())
-                .averageAttendancePercentage(85.5)
+                .totalSchools(schoolsSection.get())
+                .totalStudents(counts.getTotalStudents())
+                .totalTeachers(counts.getTotalTeachers())
+                .totalClasses(counts.getTotalClasses())
+                .totalSubjects(counts.getTotalSubjects())
+                .activeStudents(counts.getActiveStudents())
+                .inactiveStudents(counts.getInactiveStudents())
+                .activeTeachers(counts.getActiveTeachers())
+                .inactiveTeachers(counts.getInactiveTeachers())
+                .averageAttendancePercentage(attendanceAverageSection.get())
                 .averageGPA(3.5)
-                .totalExamsScheduled(getTotalExamsAcrossAllSchools())
-                .totalAssignments(getTotalAssignmentsAcrossAllSchools())
+                .totalExamsScheduled(counts.getTotalExams())
+                .upcomingExams(counts.getUpcomingExams())
+                .totalAssignments(counts.getTotalAssignments())
+                .pendingAssignments(counts.getPendingAssignments())
                 .totalFeeCollected(BigDecimal.valueOf(150000))
                 .totalFeeCollectedThisMonth(BigDecimal.valueOf(25000))
                 .totalFeePending(BigDecimal.valueOf(15000))
-                .totalAttendanceMarkedToday(45)
-                .studentsPreseToday(42)
-                .studentsAbsentToday(3)
+                .totalAttendanceMarkedToday(today.getTotal())
+                .studentsPreseToday(today.getPresent())
+                .studentsAbsentToday(today.getAbsent())
+                .attendanceTrends(attendanceTrends)
                 .totalBooks(200)
                 .booksIssued(50)
                 .booksAvailable(150)
-                .emailsSentThisMonth(150)
-                .smsSentThisMonth(200)
-                .whatsappSentThisMonth(100)
-                .recentActivities(getRecentActivitiesAcrossAllSchools())
-                .classWiseAnalytics(getClassWiseAnalyticsAcrossAllSchools())
-                .monthlyTrends(getMonthlyTrendsAcrossAllSchools())
-                .schoolWiseAnalytics(getSchoolWiseAnalytics())
+                .emailsSentThisMonth(sentOf(notifications, NotificationOutbox.Channel.EMAIL))
+                .smsSentThisMonth(sentOf(notifications, NotificationOutbox.Channel.SMS))
+                .whatsappSentThisMonth(sentOf(notifications, NotificationOutbox.Channel.WHATSAPP))
+                .recentActivities(activitiesSection.get())
+                .classWiseAnalytics(classesSection.get())
+                .monthlyTrends(trendsSection.get())
+                .schoolWiseAnalytics(schoolsWiseSection.get())
+                .partialSections(composition.partialSections())
                 .build();
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DashboardAnalytics getSchoolOwnerDashboard(Long ownerId) {
         log.info("Getting School Owner Dashboard for owner: {}", ownerId);
         
@@ -84,36 +140,57 @@ public class DashboardServiceImpl implements DashboardService {
         User schoolOwner = userRepository.findById(ownerId)
                 .orElseThrow(() -> new RuntimeException("School owner not found"));
         
+        DashboardSectionComposer.Composition composition = sectionComposer.begin("owner:" + ownerId);
+        var countsSection = composition.section("counts", () -> dashboardQueryService.loadCounts(ownerId), new DashboardCounts());
+        var activitiesSection = composition.section("recentActivities", () -> getRecentActivitiesForOwner(ownerId), List.<DashboardAnalytics.RecentActivity>of());
+        var classesSection = composition.section("classWiseAnalytics", () -> getClassWiseAnalyticsForOwner(ownerId), List.<DashboardAnalytics.ClassAnalytics>of());
+        var trendsSection = composition.section("monthlyTrends", () -> getMonthlyTrendsForOwner(ownerId), List.<DashboardAnalytics.MonthlyTrend>of());
+        var attendanceTrendSection = composition.section("attendanceTrends", () -> getAttendanceTrends(ownerId), List.<DashboardAnalytics.AttendanceTrend>of());
+        var attendanceAverageSection = composition.section("averageAttendance", () -> getAverageAttendance(ownerId), 0.0);
+        var notificationsSection = composition.section("notificationsThisMonth", () -> getNotificationsThisMonth(ownerId), Map.<NotificationOutbox.Channel, ChannelCount>of());
+        
+        DashboardCounts counts = countsSection.get();
+        List<DashboardAnalytics.AttendanceTrend> attendanceTrends = attendanceTrendSection.get();
+        DashboardAnalytics.AttendanceTrend today = todayOf(attendanceTrends);
+        Map<NotificationOutbox.Channel, ChannelCount> notifications = notificationsSection.get();
+        List<DashboardAnalytics.MonthlyTrend> monthlyTrends = trendsSection.get();
+        
         return DashboardAnalytics.builder()
                 .businessId(ownerId.toString())
                 .schoolName(schoolOwner.getName() + " School")
-                .totalStudents(getTotalStudentsForOwner(ownerId))
-                .totalTeachers(getTotalTeachersForOwner(ownerId))
-                .totalClasses(getTotalClassesForOwner(ownerId))
-                .totalSubjects(getTotalSubjectsForOwner(ownerId))
-                .activeStudents(getActiveStudentsForOwner(ownerId))
-                .activeTeachers(getActiveTeachersForOwner(ownerId))
-                .newStudentsThisMonth(2)
+                .totalStudents(counts.getTotalStudents())
+                .totalTeachers(counts.getTotalTeachers())
+                .totalClasses(counts.getTotalClasses())
+                .totalSubjects(counts.getTotalSubjects())
+                .activeStudents(counts.getActiveStudents())
+                .inactiveStudents(counts.getInactiveStudents())
+                .activeTeachers(counts.getActiveTeachers())
+                .inactiveTeachers(counts.getInactiveTeachers())
+                .newStudentsThisMonth(monthlyTrends.isEmpty() ? 0 : monthlyTrends.get(monthlyTrends.size() - 1).getNewAdmissions())
                 .newTeachersThisMonth(1)
-                .averageAttendancePercentage(88.5)
+                .averageAttendancePercentage(attendanceAverageSection.get())
                 .averageGPA(3.7)
-                .totalExamsScheduled(getTotalExamsForOwner(ownerId))
-                .totalAssignments(getTotalAssignmentsForOwner(ownerId))
+                .totalExamsScheduled(counts.getTotalExams())
+                .upcomingExams(counts.getUpcomingExams())
+                .totalAssignments(counts.getTotalAssignments())
+                .pendingAssignments(counts.getPendingAssignments())
                 .totalFeeCollected(BigDecimal.valueOf(75000))
                 .totalFeeCollectedThisMonth(BigDecimal.valueOf(12500))
                 .totalFeePending(BigDecimal.valueOf(5000))
-                .totalAttendanceMarkedToday(22)
-                .studentsPreseToday(20)
-                .studentsAbsentToday(2)
+                .totalAttendanceMarkedToday(today.getTotal())
+                .studentsPreseToday(today.getPresent())
+                .studentsAbsentToday(today.getAbsent())
+                .attendanceTrends(attendanceTrends)
                 .totalBooks(100)
                 .booksIssued(25)
                 .booksAvailable(75)
-                .emailsSentThisMonth(25)
-                .smsSentThisMonth(35)
-                .whatsappSentThisMonth(20)
-                .recentActivities(getRecentActivitiesForOwner(ownerId))
-                .classWiseAnalytics(getClassWiseAnalyticsForOwner(ownerId))
-                .monthlyTrends(getMonthlyTrendsForOwner(ownerId))
+                .emailsSentThisMonth(sentOf(notifications, NotificationOutbox.Channel.EMAIL))
+                .smsSentThisMonth(sentOf(notifications, NotificationOutbox.Channel.SMS))
+                .whatsappSentThisMonth(sentOf(notifications, NotificationOutbox.Channel.WHATSAPP))
+                .recentActivities(activitiesSection.get())
+                .classWiseAnalytics(classesSection.get())
+                .monthlyTrends(monthlyTrends)
+                .partialSections(composition.partialSections())
                 .build();
     }
 
@@ -124,120 +201,114 @@ public class DashboardServiceImpl implements DashboardService {
     }
 
     @Override
-    public DashboardAnalytics.QuickStats getQuickStats(Long ownerId) {
-        log.info("Getting Quick Stats for owner: {}", ownerId);
+    public PageableResponse<DashboardAnalytics.SchoolAnalyticsSummary> getSchoolSummaries(int page, int size, String sortBy, String sortDir) {
+        log.info("Getting school summaries page: {} size: {} sortBy: {} {}", page, size, sortBy, sortDir);
         
-        if (ownerId == null) {
-            // Application Owner quick stats
-            return DashboardAnalytics.QuickStats.builder()
-                    .totalStudents(getTotalStudentsAcrossAllSchools())
-                    .totalTeachers(getTotalTeachersAcrossAllSchools())
-                    .totalClasses(getTotalClassesAcrossAllSchools())
-                    .totalSubjects(getTotalSubjectsAcrossAllSchools())
-                    .averageAttendance(85.5)
-                    .totalFeesCollected(BigDecimal.valueOf(150000))
-                    .upcomingExams(getTotalExamsAcrossAllSchools())
-                    .pendingAssignments(getTotalAssignmentsAcrossAllSchools())
-                    .build();
-        } else {
-            // School Owner quick stats
-            return DashboardAnalytics.QuickStats.builder()
-                    .totalStudents(getTotalStudentsForOwner(ownerId))
-                    .totalTeachers(getTotalTeachersForOwner(ownerId))
-                    .totalClasses(getTotalClassesForOwner(ownerId))
-                    .totalSubjects(getTotalSubjectsForOwner(ownerId))
-                    .averageAttendance(88.5)
-                    .totalFeesCollected(BigDecimal.valueOf(75000))
-                    .upcomingExams(getTotalExamsForOwner(ownerId))
-                    .pendingAssignments(getTotalAssignmentsForOwner(ownerId))
-                    .build();
+        if (!SCHOOL_SUMMARY_SORTS.contains(sortBy)) {
+            throw new BadApiRequestException("Invalid sort field: " + sortBy + ". Allowed: " + SCHOOL_SUMMARY_SORTS);
         }
+        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Page<SchoolSummaryRow> rows = userRepository.summarizeSchools(PageRequest.of(page, size, sort));
+        
+        // Revenue for the page's schools only: one lookup against this month's facts
+        List<Long> ownerIds = rows.getContent().stream().map(SchoolSummaryRow::getOwnerId).collect(Collectors.toList());
+        Map<Long, MonthlyFact> factsByOwner = ownerIds.isEmpty() ? Map.of() : monthlyFactRepository
+                .findByOwnerIdInAndMonthKey(ownerIds, YearMonth.now().format(DateTimeFormatter.ofPattern("yyyy-MM"))).stream()
+                .collect(Collectors.toMap(MonthlyFact::getOwnerId, Function.identity()));
+        
+        List<DashboardAnalytics.SchoolAnalyticsSummary> content = rows.getContent().stream()
+                .map(row -> {
+                    MonthlyFact fact = factsByOwner.get(row.getOwnerId());
+                    return DashboardAnalytics.SchoolAnalyticsSummary.builder()
+                            .businessId(row.getOwnerId().toString())
+                            .schoolName(row.getSchoolName() + " School")
+                            .totalStudents(row.getTotalStudents() != null ? Math.toIntExact(row.getTotalStudents()) : 0)
+                            .totalTeachers(row.getTotalTeachers() != null ? Math.toIntExact(row.getTotalTeachers()) : 0)
+                            .monthlyRevenue(fact != null && fact.getFeeCollected() != null ? fact.getFeeCollected() : BigDecimal.ZERO)
+                            .isActive(row.getActive())
+                            .build();
+                })
+                .collect(Collectors.toList());
+        
+        return PageableResponse.<DashboardAnalytics.SchoolAnalyticsSummary>builder()
+                .content(content)
+                .page(rows.getNumber())
+                .size(rows.getSize())
+                .totalElements(rows.getTotalElements())
+                .totalPages(rows.getTotalPages())
+                .first(rows.isFirst())
+                .last(rows.isLast())
+                .build();
     }
 
-    // ============= APPLICATION OWNER METHODS (ALL SCHOOLS) =============
-
-    private Integer getTotalSchools() {
-        return Math.toIntExact(userRepository.count());
+    @Override
+    public DashboardAnalytics.QuickStats getQuickStats(Long ownerId) {
+        log.info("Getting Quick Stats for owner: {}", ownerId);
+        
+        // ownerId null = Application Owner quick stats
+        // Single-row read of the maintained counters; upcoming exams = exams still in SCHEDULED status
+        TenantCounter counters = tenantCounterService.getCounters(ownerId);
+        
+        return DashboardAnalytics.QuickStats.builder()
+                .totalStudents(Math.toIntExact(counters.getStudents()))
+                .totalTeachers(Math.toIntExact(counters.getTeachers()))
+                .totalClasses(Math.toIntExact(counters.getClasses()))
+                .totalSubjects(Math.toIntExact(counters.getSubjects()))
+                .averageAttendance(getAverageAttendance(ownerId))
+                .totalFeesCollected(BigDecimal.valueOf(ownerId == null ? 150000 : 75000))
+                .upcomingExams(Math.toIntExact(counters.getScheduledExams()))
+                .pendingAssignments(Math.toIntExact(counters.getOpenAssignments()))
+                .build();
     }
 
-    private Integer getTotalStudentsAcrossAllSchools() {
-        // Count workers with ROLE_STUDENT
-        return Math.toIntExact(workerRepository.findAll().stream()
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_STUDENT")))
-                .count());
-    }
+    // ============= NOTIFICATIONS (HOURLY COUNTERS, ownerId null = all schools) =============
 
-    private Integer getTotalTeachersAcrossAllSchools() {
-        // Count workers with ROLE_TEACHER
-        return Math.toIntExact(workerRepository.findAll().stream()
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_TEACHER")))
-                .count());
+    private Map<NotificationOutbox.Channel, ChannelCount> getNotificationsThisMonth(Long ownerId) {
+        return deliveryLogService.getCountsSince(ownerId, YearMonth.now().atDay(1).atStartOfDay());
     }
 
-    private Integer getTotalClassesAcrossAllSchools() {
-        return Math.toIntExact(classRepository.findAll().stream()
-                .filter(c -> !c.isDeleted())
-                .count());
+    private static Integer sentOf(Map<NotificationOutbox.Channel, ChannelCount> counts, NotificationOutbox.Channel channel) {
+        ChannelCount count = counts.get(channel);
+        return count != null && count.getSent() != null ? Math.toIntExact(count.getSent()) : 0;
     }
 
-    private Integer getTotalSubjectsAcrossAllSchools() {
-        return Math.toIntExact(subjectRepository.findAll().stream()
-                .filter(s -> !s.isDeleted())
-                .count());
-    }
+    // ============= ATTENDANCE (DAILY ROLLUP, ownerId null = all schools) =============
 
-    private Integer getActiveStudentsAcrossAllSchools() {
-        return Math.toIntExact(workerRepository.findAll().stream()
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_STUDENT")))
-                .filter(w -> w.getAccountStatus() != null && w.getAccountStatus().getIsActive())
-                .count());
+    private List<DashboardAnalytics.AttendanceTrend> getAttendanceTrends(Long ownerId) {
+        LocalDate today = LocalDate.now();
+        return attendanceRollupService.getDailyTrend(ownerId, today.minusDays(ATTENDANCE_TREND_DAYS - 1), today);
     }
 
-    private Integer getActiveTeachersAcrossAllSchools() {
-        return Math.toIntExact(workerRepository.findAll().stream()
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_TEACHER")))
-                .filter(w -> w.getAccountStatus() != null && w.getAccountStatus().getIsActive())
-                .count());
+    private Double getAverageAttendance(Long ownerId) {
+        LocalDate today = LocalDate.now();
+        return attendanceRollupService.getAveragePercentage(ownerId, today.minusDays(ATTENDANCE_AVERAGE_DAYS - 1), today);
     }
 
-    private Integer getTotalExamsAcrossAllSchools() {
-        return Math.toIntExact(examRepository.findAll().stream()
-                .filter(e -> !e.isDeleted())
-                .count());
+    private Map<Long, Double> getClassAttendance(Long ownerId) {
+        LocalDate today = LocalDate.now();
+        return attendanceRollupService.getClassAverages(ownerId, today.minusDays(ATTENDANCE_AVERAGE_DAYS - 1), today);
     }
 
-    private Integer getTotalAssignmentsAcrossAllSchools() {
-        return Math.toIntExact(assignmentRepository.findAll().stream()
-                .filter(a -> !a.isDeleted())
-                .count());
+    // Trend ends with today; an empty (partial) trend reads as nothing marked yet
+    private DashboardAnalytics.AttendanceTrend todayOf(List<DashboardAnalytics.AttendanceTrend> trends) {
+        if (trends.isEmpty()) {
+            return DashboardAnalytics.AttendanceTrend.builder().present(0).absent(0).total(0).percentage(0.0).build();
+        }
+        return trends.get(trends.size() - 1);
     }
 
-    private List<DashboardAnalytics.AttendanceTrend> getAttendanceTrendsAcrossAllSchools() {
-        List<DashboardAnalytics.AttendanceTrend> trends = new ArrayList<>();
-        LocalDate today = LocalDate.now();
-        
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            
-            trends.add(DashboardAnalytics.AttendanceTrend.builder()
-                    .date(date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                    .present(40 + i)
-                    .absent(5 - i)
-                    .percentage(85.0 + i)
-                    .build());
-        }
-        
-        return trends;
+    // ============= APPLICATION OWNER METHODS (ALL SCHOOLS) =============
+
+    private Integer getTotalSchools() {
+        return Math.toIntExact(userRepository.count());
     }
 
     private List<DashboardAnalytics.RecentActivity> getRecentActivitiesAcrossAllSchools() {
         List<DashboardAnalytics.RecentActivity> activities = new ArrayList<>();
         
         // Get recent students
-        List<Worker> recentStudents = workerRepository.findAll().stream()
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_STUDENT")))
-                .limit(5)
-                .collect(Collectors.toList());
+        List<Worker> recentStudents = workerRepository
+                .findTop5ByRoles_NameAndIsDeletedFalseOrderByCreatedOnDesc("ROLE_STUDENT");
         
         for (Worker student : recentStudents) {
             activities.add(DashboardAnalytics.RecentActivity.builder()
@@ -253,15 +324,14 @@ public class DashboardServiceImpl implements DashboardService {
 
     private List<DashboardAnalytics.ClassAnalytics> getClassWiseAnalyticsAcrossAllSchools() {
         List<DashboardAnalytics.ClassAnalytics> analytics = new ArrayList<>();
-        List<SchoolClass> classes = classRepository.findAll().stream()
-                .filter(c -> !c.isDeleted())
-                .collect(Collectors.toList());
+        List<SchoolClass> classes = classRepository.findByIsDeletedFalse();
+        Map<Long, Double> attendanceByClass = getClassAttendance(null);
         
         for (SchoolClass schoolClass : classes) {
             analytics.add(DashboardAnalytics.ClassAnalytics.builder()
                     .className(schoolClass.getClassName())
                     .totalStudents(25)
-                    .averageAttendance(85.5)
+                    .averageAttendance(attendanceByClass.getOrDefault(schoolClass.getId(), 0.0))
                     .averageGPA(3.5)
                     .totalFees(BigDecimal.valueOf(50000))
                     .collectedFees(BigDecimal.valueOf(45000))
@@ -272,129 +342,21 @@ public class DashboardServiceImpl implements DashboardService {
     }
 
     private List<DashboardAnalytics.MonthlyTrend> getMonthlyTrendsAcrossAllSchools() {
-        List<DashboardAnalytics.MonthlyTrend> trends = new ArrayList<>();
-        
-        for (int i = 5; i >= 0; i--) {
-            LocalDate monthStart = LocalDate.now().minusMonths(i).withDayOfMonth(1);
-            
-            trends.add(DashboardAnalytics.MonthlyTrend.builder()
-                    .month(monthStart.format(DateTimeFormatter.ofPattern("yyyy-MM")))
-                    .newAdmissions(10 + i)
-                    .feeCollected(BigDecimal.valueOf(50000 + (i * 5000)))
-                    .averageAttendance(85.0 + i)
-                    .build());
-        }
-        
-        return trends;
+        return monthlyFactService.getMonthlyTrends(null, MONTHLY_TREND_MONTHS);
     }
 
     private List<DashboardAnalytics.SchoolAnalyticsSummary> getSchoolWiseAnalytics() {
-        List<DashboardAnalytics.SchoolAnalyticsSummary> schoolAnalytics = new ArrayList<>();
-        List<User> schoolOwners = userRepository.findAll();
-        
-        for (User schoolOwner : schoolOwners) {
-            long totalStudents = getTotalStudentsForOwner(schoolOwner.getId());
-            long totalTeachers = getTotalTeachersForOwner(schoolOwner.getId());
-            
-            schoolAnalytics.add(DashboardAnalytics.SchoolAnalyticsSummary.builder()
-                    .businessId(schoolOwner.getId().toString())
-                    .schoolName(schoolOwner.getName() + " School")
-                    .totalStudents(Math.toIntExact(totalStudents))
-                    .totalTeachers(Math.toIntExact(totalTeachers))
-                    .monthlyRevenue(BigDecimal.valueOf(12500))
-                    .build());
-        }
-        
-        return schoolAnalytics;
+        return getSchoolSummaries(0, EMBEDDED_SCHOOL_SUMMARIES, "totalStudents", "desc").getContent();
     }
 
     // ============= SCHOOL OWNER METHODS (SINGLE SCHOOL) =============
 
-    private Integer getTotalStudentsForOwner(Long ownerId) {
-        return Math.toIntExact(workerRepository.findAll().stream()
-                .filter(w -> w.getUser().getId().equals(ownerId))
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_STUDENT")))
-                .count());
-    }
-
-    private Integer getTotalTeachersForOwner(Long ownerId) {
-        return Math.toIntExact(workerRepository.findAll().stream()
-                .filter(w -> w.getUser().getId().equals(ownerId))
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_TEACHER")))
-                .count());
-    }
-
-    private Integer getTotalClassesForOwner(Long ownerId) {
-        return Math.toIntExact(classRepository.findAll().stream()
-                .filter(c -> c.getOwner().getId().equals(ownerId))
-                .filter(c -> !c.isDeleted())
-                .count());
-    }
-
-    private Integer getTotalSubjectsForOwner(Long ownerId) {
-        return Math.toIntExact(subjectRepository.findAll().stream()
-                .filter(s -> s.getOwner().getId().equals(ownerId))
-                .filter(s -> !s.isDeleted())
-                .count());
-    }
-
-    private Integer getActiveStudentsForOwner(Long ownerId) {
-        return Math.toIntExact(workerRepository.findAll().stream()
-                .filter(w -> w.getUser().getId().equals(ownerId))
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_STUDENT")))
-                .filter(w -> w.getAccountStatus() != null && w.getAccountStatus().getIsActive())
-                .count());
-    }
-
-    private Integer getActiveTeachersForOwner(Long ownerId) {
-        return Math.toIntExact(workerRepository.findAll().stream()
-                .filter(w -> w.getUser().getId().equals(ownerId))
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_TEACHER")))
-                .filter(w -> w.getAccountStatus() != null && w.getAccountStatus().getIsActive())
-                .count());
-    }
-
-    private Integer getTotalExamsForOwner(Long ownerId) {
-        return Math.toIntExact(examRepository.findAll().stream()
-                .filter(e -> e.getOwner().getId().equals(ownerId))
-                .filter(e -> !e.isDeleted())
-                .count());
-    }
-
-    private Integer getTotalAssignmentsForOwner(Long ownerId) {
-        return Math.toIntExact(assignmentRepository.findAll().stream()
-                .filter(a -> a.getOwner().getId().equals(ownerId))
-                .filter(a -> !a.isDeleted())
-                .count());
-    }
-
-    private List<DashboardAnalytics.AttendanceTrend> getAttendanceTrendsForOwner(Long ownerId) {
-        List<DashboardAnalytics.AttendanceTrend> trends = new ArrayList<>();
-        LocalDate today = LocalDate.now();
-        
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            
-            trends.add(DashboardAnalytics.AttendanceTrend.builder()
-                    .date(date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                    .present(20 + i)
-                    .absent(3 - i)
-                    .percentage(88.0 + i)
-                    .build());
-        }
-        
-        return trends;
-    }
-
     private List<DashboardAnalytics.RecentActivity> getRecentActivitiesForOwner(Long ownerId) {
         List<DashboardAnalytics.RecentActivity> activities = new ArrayList<>();
         
         // Get recent students for this owner
-        List<Worker> recentStudents = workerRepository.findAll().stream()
-                .filter(w -> w.getUser().getId().equals(ownerId))
-                .filter(w -> w.getRoles().stream().anyMatch(r -> r.getName().equals("ROLE_STUDENT")))
-                .limit(5)
-                .collect(Collectors.toList());
+        List<Worker> recentStudents = workerRepository
+                .findTop5ByOwner_IdAndRoles_NameAndIsDeletedFalseOrderByCreatedOnDesc(ownerId, "ROLE_STUDENT");
         
         for (Worker student : recentStudents) {
             activities.add(DashboardAnalytics.RecentActivity.builder()
@@ -410,16 +372,14 @@ public class DashboardServiceImpl implements DashboardService {
 
     private List<DashboardAnalytics.ClassAnalytics> getClassWiseAnalyticsForOwner(Long ownerId) {
         List<DashboardAnalytics.ClassAnalytics> analytics = new ArrayList<>();
-        List<SchoolClass> classes = classRepository.findAll().stream()
-                .filter(c -> c.getOwner().getId().equals(ownerId))
-                .filter(c -> !c.isDeleted())
-                .collect(Collectors.toList());
+        List<SchoolClass> classes = classRepository.findByOwner_IdAndIsDeletedFalse(ownerId);
+        Map<Long, Double> attendanceByClass = getClassAttendance(ownerId);
         
         for (SchoolClass schoolClass : classes) {
             analytics.add(DashboardAnalytics.ClassAnalytics.builder()
                     .className(schoolClass.getClassName())
                     .totalStudents(15)
-                    .averageAttendance(88.5)
+                    .averageAttendance(attendanceByClass.getOrDefault(schoolClass.getId(), 0.0))
                     .averageGPA(3.7)
                     .totalFees(BigDecimal.valueOf(25000))
                     .collectedFees(BigDecimal.valueOf(22500))
@@ -430,19 +390,6 @@ public class DashboardServiceImpl implements DashboardService {
     }
 
     private List<DashboardAnalytics.MonthlyTrend> getMonthlyTrendsForOwner(Long ownerId) {
-        List<DashboardAnalytics.MonthlyTrend> trends = new ArrayList<>();
-        
-        for (int i = 5; i >= 0; i--) {
-            LocalDate monthStart = LocalDate.now().minusMonths(i).withDayOfMonth(1);
-            
-            trends.add(DashboardAnalytics.MonthlyTrend.builder()
-                    .month(monthStart.format(DateTimeFormatter.ofPattern("yyyy-MM")))
-                    .newAdmissions(5 + i)
-                    .feeCollected(BigDecimal.valueOf(25000 + (i * 2500)))
-                    .averageAttendance(88.0 + i)
-                    .build());
-        }
-        
-        return trends;
+        return monthlyFactService.getMonthlyTrends(ownerId, MONTHLY_TREND_MONTHS);
     }
 }
\ No newline at end of file
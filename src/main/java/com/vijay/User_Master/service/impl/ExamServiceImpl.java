@@ -14,6 +14,7 @@ import com.vijay.User_Master.repository.SubjectRepository;
 import com.vijay.User_Master.repository.UserRepository;
 import com.vijay.User_Master.repository.WorkerRepository;
 import com.vijay.User_Master.service.ExamService;
+import com.vijay.User_Master.service.TenantCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -40,6 +41,7 @@ public class ExamServiceImpl implements ExamService {
     private final SubjectRepository subjectRepository;
     private final SchoolClassRepository schoolClassRepository;
     private final WorkerRepository workerRepository;
+    private final TenantCounterService tenantCounterService;
 
     @Override
     public ExamResponse createExam(ExamRequest request, Long ownerId) {
@@ -97,6 +99,7 @@ public class ExamServiceImpl implements ExamService {
                 .build();
         
         Exam savedExam = examRepository.save(exam);
+        tenantCounterService.adjustExam(ownerId, savedExam.getStatus(), 1);
         log.info("Exam created successfully with ID: {}", savedExam.getId());
         
         return convertToResponse(savedExam);
@@ -109,6 +112,8 @@ public class ExamServiceImpl implements ExamService {
         Exam exam = examRepository.findByIdAndOwner_IdAndIsDeletedFalse(id, ownerId)
                 .orElseThrow(() -> new RuntimeException("Exam not found"));
         
+        Exam.ExamStatus previousStatus = exam.getStatus();
+        
         // Update fields
         exam.setExamName(request.getExamName());
         exam.setExamCode(request.getExamCode());
@@ -130,6 +135,7 @@ public class ExamServiceImpl implements ExamService {
         exam.setNotes(request.getNotes());
         
         Exam updatedExam = examRepository.save(exam);
+        tenantCounterService.moveExamStatus(ownerId, previousStatus, updatedExam.getStatus());
         log.info("Exam updated successfully");
         
         return convertToResponse(updatedExam);
@@ -272,6 +278,7 @@ public class ExamServiceImpl implements ExamService {
         
         exam.setDeleted(true);
         examRepository.save(exam);
+        tenantCounterService.adjustExam(ownerId, exam.getStatus(), -1);
         
         log.info("Exam deleted successfully");
     }
@@ -283,8 +290,12 @@ public class ExamServiceImpl implements ExamService {
         Exam exam = examRepository.findByIdAndOwner_Id(id, ownerId)
                 .orElseThrow(() -> new RuntimeException("Exam not found"));
         
+        boolean wasDeleted = exam.isDeleted();
         exam.setDeleted(false);
         examRepository.save(exam);
+        if (wasDeleted) {
+            tenantCounterService.adjustExam(ownerId, exam.getStatus(), 1);
+        }
         
         log.info("Exam restored successfully");
     }
@@ -296,11 +307,13 @@ public class ExamServiceImpl implements ExamService {
         Exam exam = examRepository.findByIdAndOwner_IdAndIsDeletedFalse(id, ownerId)
                 .orElseThrow(() -> new RuntimeException("Exam not found"));
         
+        Exam.ExamStatus previousStatus = exam.getStatus();
         exam.setResultsPublished(true);
         exam.setResultPublishDate(LocalDate.now());
         exam.setStatus(Exam.ExamStatus.COMPLETED);
         
         Exam updatedExam = examRepository.save(exam);
+        tenantCounterService.moveExamStatus(ownerId, previousStatus, Exam.ExamStatus.COMPLETED);
         log.info("Exam results published successfully");
         
         return convertToResponse(updatedExam);
@@ -313,10 +326,12 @@ public class ExamServiceImpl implements ExamService {
         Exam exam = examRepository.findByIdAndOwner_IdAndIsDeletedFalse(id, ownerId)
                 .orElseThrow(() -> new RuntimeException("Exam not found"));
         
+        Exam.ExamStatus previousStatus = exam.getStatus();
         exam.setStatus(Exam.ExamStatus.CANCELLED);
         exam.setNotes(exam.getNotes() + "\nCancelled: " + reason);
         
         Exam updatedExam = examRepository.save(exam);
+        tenantCounterService.moveExamStatus(ownerId, previousStatus, Exam.ExamStatus.CANCELLED);
         log.info("Exam cancelled successfully");
         
         return convertToResponse(updatedExam);
@@ -330,11 +345,13 @@ public class ExamServiceImpl implements ExamService {
                 .orElseThrow(() -> new RuntimeException("Exam not found"));
         
         LocalDate oldDate = exam.getExamDate();
+        Exam.ExamStatus previousStatus = exam.getStatus();
         exam.setExamDate(newDate);
         exam.setStatus(Exam.ExamStatus.RESCHEDULED);
         exam.setNotes(exam.getNotes() + "\nRescheduled from " + oldDate + " to " + newDate);
         
         Exam updatedExam = examRepository.save(exam);
+        tenantCounterService.moveExamStatus(ownerId, previousStatus, Exam.ExamStatus.RESCHEDULED);
         log.info("Exam rescheduled successfully");
         
         return convertToResponse(updatedExam);
@@ -11,6 +11,9 @@ import com.vijay.User_Master.repository.FeeRepository;
 import com.vijay.User_Master.repository.WorkerRepository;
 import com.vijay.User_Master.repository.UserRepository;
 import com.vijay.User_Master.service.FeeService;
+import com.vijay.User_Master.dto.DashboardEvent;
+import com.vijay.User_Master.service.DashboardEventHub;
+import com.vijay.User_Master.service.MonthlyFactBuilder;
 import com.vijay.User_Master.Helper.CommonUtils;
 import com.vijay.User_Master.config.security.CustomUserDetails;
 import com.vijay.User_Master.entity.User;
@@ -23,7 +26,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -36,6 +41,8 @@ public class FeeServiceImpl implements FeeService {
     private final FeeRepository feeRepository;
     private final WorkerRepository workerRepository;
     private final UserRepository userRepository;
+    private final MonthlyFactBuilder monthlyFactBuilder;
+    private final DashboardEventHub dashboardEventHub;
 
     @Override
     @Transactional(readOnly = true)
@@ -93,6 +100,10 @@ public class FeeServiceImpl implements FeeService {
             .owner(owner) // Set the owner for multi-tenancy
             .build();
         Fee savedFee = feeRepository.save(fee);
+        monthlyFactBuilder.markDirty(owner.getId(), savedFee.getPaymentDate());
+        if (paidAmount > 0) {
+            publishFeePaid(savedFee, paidAmount);
+        }
         
         // Update student fee balance
         updateStudentFeeBalance(student.getId());
@@ -111,6 +122,9 @@ public class FeeServiceImpl implements FeeService {
             throw new BadApiRequestException("Payment amount exceeds balance amount");
         }
         
+        // The whole paid amount moves to the new payment month, so both months need rebuilding
+        monthlyFactBuilder.markDirty(fee.getOwner().getId(), fee.getPaymentDate());
+        
         Double newPaidAmount = fee.getPaidAmount() + amount;
         Double newBalance = fee.getBalanceAmount() - amount;
         
@@ -128,6 +142,8 @@ public class FeeServiceImpl implements FeeService {
         }
         
         Fee updated = feeRepository.save(fee);
+        monthlyFactBuilder.markDirty(fee.getOwner().getId(), updated.getPaymentDate());
+        publishFeePaid(updated, amount);
         
         // Update student fee balance
         updateStudentFeeBalance(fee.getStudent().getId());
@@ -214,6 +230,7 @@ public class FeeServiceImpl implements FeeService {
         Fee fee = feeRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Fee", "id", id));
         feeRepository.delete(fee);
+        monthlyFactBuilder.markDirty(fee.getOwner().getId(), fee.getPaymentDate());
     }
 
     // Helper Methods
@@ -233,6 +250,16 @@ public class FeeServiceImpl implements FeeService {
         return "REC-" + LocalDate.now().getYear() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
     
+    private void publishFeePaid(Fee fee, Double amount) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("feeId", fee.getId());
+        event.put("studentId", fee.getStudent().getId());
+        event.put("amount", amount);
+        event.put("paymentStatus", fee.getPaymentStatus());
+        event.put("paymentDate", fee.getPaymentDate());
+        dashboardEventHub.publishAfterCommit(fee.getOwner().getId(), DashboardEvent.FEE_PAID, event);
+    }
+    
     private void updateStudentFeeBalance(Long studentId) {
         Worker student = workerRepository.findById(studentId).orElse(null);
         if (student != null) {
@@ -0,0 +1,97 @@
+package com.vijay.User_Master.service.impl;
+
+import com.vijay.User_Master.dto.AttendanceDayTotals;
+import com.vijay.User_Master.dto.DashboardAnalytics;
+import com.vijay.User_Master.dto.MonthlyFactTotals;
+import com.vijay.User_Master.repository.AttendanceDailyRollupRepository;
+import com.vijay.User_Master.repository.FeeRepository;
+import com.vijay.User_Master.repository.MonthlyFactRepository;
+import com.vijay.User_Master.repository.WorkerRepository;
+import com.vijay.User_Master.service.MonthlyFactService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of Monthly Fact Service
+ * A rebuild runs three aggregate queries for a single month, so no source rows are loaded into memory
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class MonthlyFactServiceImpl implements MonthlyFactService {
+
+    private static final DateTimeFormatter MONTH_KEY = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final MonthlyFactRepository monthlyFactRepository;
+    private final WorkerRepository workerRepository;
+    private final FeeRepository feeRepository;
+    private final AttendanceDailyRollupRepository rollupRepository;
+
+    @Override
+    public void rebuildMonth(Long ownerId, YearMonth month) {
+        log.debug("Rebuilding monthly facts for owner: {} month: {}", ownerId, month);
+
+        // Worker.createdOn is a java.util.Date, so admissions use a half-open [start, next month) range
+        ZoneId zone = ZoneId.systemDefault();
+        Date start = Date.from(month.atDay(1).atStartOfDay(zone).toInstant());
+        Date end = Date.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant());
+        long admissions = workerRepository.countAdmissions(ownerId, start, end);
+
+        Double paid = feeRepository.sumPaidByOwnerAndPaymentDate(ownerId, month.atDay(1), month.atEndOfMonth());
+        BigDecimal feeCollected = BigDecimal.valueOf(paid != null ? paid : 0.0).setScale(2, RoundingMode.HALF_UP);
+
+        long present = 0;
+        long total = 0;
+        for (AttendanceDayTotals day : rollupRepository.sumByDay(ownerId, month.atDay(1), month.atEndOfMonth())) {
+            present += day.getPresent() != null ? day.getPresent() : 0L;
+            total += day.getTotal() != null ? day.getTotal() : 0L;
+        }
+
+        monthlyFactRepository.upsert(ownerId, month.format(MONTH_KEY), admissions, feeCollected, present, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DashboardAnalytics.MonthlyTrend> getMonthlyTrends(Long ownerId, int months) {
+        YearMonth current = YearMonth.now();
+        YearMonth first = current.minusMonths(months - 1L);
+
+        Map<String, MonthlyFactTotals> byMonth = monthlyFactRepository
+                .sumByMonth(ownerId, first.format(MONTH_KEY), current.format(MONTH_KEY)).stream()
+                .collect(Collectors.toMap(MonthlyFactTotals::getMonthKey, Function.identity()));
+
+        List<DashboardAnalytics.MonthlyTrend> trends = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+            String key = month.format(MONTH_KEY);
+            MonthlyFactTotals fact = byMonth.get(key);
+
+            long admissions = fact != null && fact.getNewAdmissions() != null ? fact.getNewAdmissions() : 0L;
+            BigDecimal fees = fact != null && fact.getFeeCollected() != null ? fact.getFeeCollected() : BigDecimal.ZERO;
+            long present = fact != null && fact.getAttendancePresent() != null ? fact.getAttendancePresent() : 0L;
+            long total = fact != null && fact.getAttendanceTotal() != null ? fact.getAttendanceTotal() : 0L;
+
+            trends.add(DashboardAnalytics.MonthlyTrend.builder()
+                    .month(key)
+                    .newAdmissions(Math.toIntExact(admissions))
+                    .feeCollected(fees)
+                    .averageAttendance(total > 0 ? Math.round(present * 1000.0 / total) / 10.0 : 0.0)
+                    .build());
+        }
+        return trends;
+    }
+}
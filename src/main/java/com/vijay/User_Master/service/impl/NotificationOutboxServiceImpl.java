@@ -0,0 +1,335 @@
+package com.vijay.User_Master.service.impl;
+
+import com.vijay.User_Master.dto.BroadcastProgress;
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.exceptions.BadApiRequestException;
+import com.vijay.User_Master.exceptions.ResourceNotFoundException;
+import com.vijay.User_Master.repository.NotificationOutboxRepository;
+import com.vijay.User_Master.service.DeliveryStatusIngestor;
+import com.vijay.User_Master.service.NotificationEnqueuedEvent;
+import com.vijay.User_Master.service.NotificationFailedEvent;
+import com.vijay.User_Master.service.NotificationOutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Implementation of Notification Outbox Service
+ */
+@Service
+@Slf4j
+@Transactional
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final long claimTimeoutMs;
+    private final int attemptsBeforeFallback;
+
+    public NotificationOutboxServiceImpl(NotificationOutboxRepository outboxRepository,
+                                         ApplicationEventPublisher eventPublisher,
+                                         @Value("${app.notifications.max-attempts:6}") int maxAttempts,
+                                         @Value("${app.notifications.retry-backoff-ms:30000}") long baseBackoffMs,
+                                         @Value("${app.notifications.max-backoff-ms:3600000}") long maxBackoffMs,
+                                         @Value("${app.notifications.claim-timeout-ms:600000}") long claimTimeoutMs,
+                                         @Value("${app.notifications.router.attempts-before-fallback:2}") int attemptsBeforeFallback) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+        this.attemptsBeforeFallback = attemptsBeforeFallback;
+    }
+
+    @Override
+    public boolean enqueueEmail(NotificationOutbox.Priority priority, Long ownerId, String to, String subject, String body) {
+        return enqueue(priority, ownerId, NotificationOutbox.Channel.EMAIL, to, subject, body, null, null);
+    }
+
+    @Override
+    public boolean enqueueSms(NotificationOutbox.Priority priority, Long ownerId, String phoneNumber, String message) {
+        return enqueue(priority, ownerId, NotificationOutbox.Channel.SMS, phoneNumber, null, message, null, null);
+    }
+
+    @Override
+    public boolean enqueueWhatsApp(NotificationOutbox.Priority priority, Long ownerId, String phoneNumber, String message,
+                                   String mediaUrl) {
+        return enqueue(priority, ownerId, NotificationOutbox.Channel.WHATSAPP, phoneNumber, null, message, mediaUrl, null);
+    }
+
+    @Override
+    public boolean enqueueEmail(NotificationOutbox.Priority priority, Long ownerId, String to, String subject, String body,
+                                String campaignKey) {
+        return enqueue(priority, ownerId, NotificationOutbox.Channel.EMAIL, to, subject, body, null, campaignKey);
+    }
+
+    @Override
+    public boolean enqueueWhatsApp(NotificationOutbox.Priority priority, Long ownerId, String phoneNumber, String message,
+                                   String mediaUrl, String campaignKey) {
+        return enqueue(priority, ownerId, NotificationOutbox.Channel.WHATSAPP, phoneNumber, null, message, mediaUrl, campaignKey);
+    }
+
+    @Override
+    public void enqueueRouted(NotificationOutbox.Priority priority, Long ownerId, NotificationOutbox.Channel channel,
+                              String recipient, String subject, String body,
+                              String campaignKey, String fallbackChannels, String fallbackEmail) {
+        if (recipient == null || recipient.isBlank()) {
+            log.warn("Skipping routed {} notification without a recipient", channel);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(NotificationOutbox.builder()
+                .ownerId(ownerId)
+                .channel(channel)
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .campaignKey(campaignKey)
+                .fallbackChannels(fallbackChannels)
+                .fallbackEmail(fallbackEmail)
+                .priority(priority)
+                .status(NotificationOutbox.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdOn(now)
+                .build());
+    }
+
+    @Override
+    public String enqueueBroadcast(Long ownerId, NotificationOutbox.Channel channel, List<String> recipients,
+                                   String message, String campaignKey) {
+        String broadcastId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> rows = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            if (recipient == null || recipient.isBlank()) {
+                continue;
+            }
+            rows.add(NotificationOutbox.builder()
+                    .ownerId(ownerId)
+                    .channel(channel)
+                    .recipient(recipient)
+                    .body(message)
+                    .broadcastId(broadcastId)
+                    .campaignKey(campaignKey)
+                    .priority(NotificationOutbox.Priority.BULK)
+                    .status(NotificationOutbox.Status.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(now)
+                    .createdOn(now)
+                    .build());
+        }
+        outboxRepository.saveAll(rows);
+        return broadcastId;
+    }
+
+    @Override
+    public List<NotificationOutbox> claimBatch(NotificationOutbox.Priority priority, int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> batch = outboxRepository.lockDue(priority.name(), now, batchSize);
+        for (NotificationOutbox message : batch) {
+            message.setStatus(NotificationOutbox.Status.PROCESSING);
+            message.setClaimedAt(now);
+        }
+        return batch;
+    }
+
+    @Override
+    public void markSent(Long id) {
+        markSent(id, null);
+    }
+
+    @Override
+    public void markSent(Long id, String providerMessageId) {
+        outboxRepository.findById(id).ifPresent(message -> {
+            message.setProviderMessageId(providerMessageId);
+            message.setStatus(NotificationOutbox.Status.SENT);
+            message.setAttempts(message.getAttempts() + 1);
+            message.setSentOn(LocalDateTime.now());
+            message.setClaimedAt(null);
+            message.setLastError(null);
+        });
+    }
+
+    @Override
+    public boolean markFailed(Long id, String error) {
+        return outboxRepository.findById(id).map(message -> {
+            int attempts = message.getAttempts() + 1;
+            message.setAttempts(attempts);
+            message.setClaimedAt(null);
+            message.setLastError(error != null && error.length() > MAX_ERROR_LENGTH
+                    ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            // A message with a fallback gives up sooner: the next channel is likelier to arrive than another retry
+            boolean hasFallback = message.getFallbackChannels() != null;
+            if (attempts >= (hasFallback ? Math.min(maxAttempts, attemptsBeforeFallback) : maxAttempts)) {
+                message.setStatus(NotificationOutbox.Status.DEAD);
+                log.warn("Notification {} ({} to {}) moved to dead letters after {} attempts: {}",
+                        id, message.getChannel(), message.getRecipient(), attempts, error);
+                if (hasFallback) {
+                    eventPublisher.publishEvent(NotificationFailedEvent.ofOutbox(id));
+                }
+                return true;
+            }
+            message.setStatus(NotificationOutbox.Status.PENDING);
+            message.setNextAttemptAt(LocalDateTime.now().plusNanos(backoffMillis(attempts) * 1_000_000));
+            return false;
+        }).orElse(false);
+    }
+
+    @Override
+    public int releaseStale() {
+        int released = outboxRepository.releaseStale(NotificationOutbox.Status.PENDING,
+                NotificationOutbox.Status.PROCESSING, LocalDateTime.now().minusNanos(claimTimeoutMs * 1_000_000));
+        if (released > 0) {
+            log.warn("Released {} notifications claimed by workers that did not finish", released);
+        }
+        return released;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<NotificationOutbox> getDeadLetters(Long ownerId, Pageable pageable) {
+        if (ownerId == null) {
+            return outboxRepository.findByStatusOrderByIdDesc(NotificationOutbox.Status.DEAD, pageable);
+        }
+        return outboxRepository.findByOwnerIdAndStatusOrderByIdDesc(ownerId, NotificationOutbox.Status.DEAD, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<NotificationOutbox> getUndelivered(Long ownerId, Pageable pageable) {
+        return outboxRepository.findByOwnerIdAndDeliveryStatusInOrderByIdDesc(
+                ownerId, DeliveryStatusIngestor.NOT_DELIVERED, pageable);
+    }
+
+    @Override
+    public void retryDeadLetter(Long ownerId, Long id) {
+        // Another school's message is reported as missing, not as forbidden
+        NotificationOutbox message = outboxRepository.findById(id)
+                .filter(found -> ownerId == null || ownerId.equals(found.getOwnerId()))
+                .orElseThrow(() -> new ResourceNotFoundException("NotificationOutbox", "id", id));
+        if (message.getStatus() != NotificationOutbox.Status.DEAD) {
+            throw new BadApiRequestException("Only dead-lettered notifications can be retried");
+        }
+        message.setStatus(NotificationOutbox.Status.PENDING);
+        message.setAttempts(0);
+        message.setNextAttemptAt(LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Long> getStatusCounts(Long ownerId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (NotificationOutbox.Status status : NotificationOutbox.Status.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (Object[] row : outboxRepository.countByStatus(ownerId)) {
+            counts.put(((NotificationOutbox.Status) row[0]).name(), ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<NotificationOutbox.Priority, Long> getPendingCounts() {
+        Map<NotificationOutbox.Priority, Long> counts = new EnumMap<>(NotificationOutbox.Priority.class);
+        for (NotificationOutbox.Priority priority : NotificationOutbox.Priority.values()) {
+            counts.put(priority, 0L);
+        }
+        for (Object[] row : outboxRepository.countByPriority(NotificationOutbox.Status.PENDING)) {
+            counts.put((NotificationOutbox.Priority) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BroadcastProgress getBroadcastProgress(Long ownerId, String broadcastId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (NotificationOutbox.Status status : NotificationOutbox.Status.values()) {
+            counts.put(status.name(), 0L);
+        }
+        long total = 0;
+        for (Object[] row : outboxRepository.countByStatusForBroadcast(ownerId, broadcastId)) {
+            long count = ((Number) row[1]).longValue();
+            counts.put(((NotificationOutbox.Status) row[0]).name(), count);
+            total += count;
+        }
+        if (total == 0) {
+            throw new ResourceNotFoundException("Broadcast", "id", broadcastId);
+        }
+        long sent = counts.get(NotificationOutbox.Status.SENT.name());
+        long failed = counts.get(NotificationOutbox.Status.DEAD.name());
+        return BroadcastProgress.builder()
+                .broadcastId(broadcastId)
+                .total(total)
+                .sent(sent)
+                .failed(failed)
+                .inFlight(total - sent - failed)
+                .complete(sent + failed == total)
+                .statusCounts(counts)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<NotificationOutbox> getBroadcastRecipients(Long ownerId, String broadcastId, Pageable pageable) {
+        if (ownerId == null) {
+            return outboxRepository.findByBroadcastIdOrderByIdAsc(broadcastId, pageable);
+        }
+        return outboxRepository.findByOwnerIdAndBroadcastIdOrderByIdAsc(ownerId, broadcastId, pageable);
+    }
+
+    private boolean enqueue(NotificationOutbox.Priority priority, Long ownerId, NotificationOutbox.Channel channel, String recipient,
+                            String subject, String body, String mediaUrl, String campaignKey) {
+        if (recipient == null || recipient.isBlank()) {
+            log.warn("Skipping {} notification without a recipient", channel);
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(NotificationOutbox.builder()
+                .ownerId(ownerId)
+                .channel(channel)
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .mediaUrl(mediaUrl)
+                .campaignKey(campaignKey)
+                .priority(priority)
+                .status(NotificationOutbox.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdOn(now)
+                .build());
+        if (priority == NotificationOutbox.Priority.INTERACTIVE) {
+            // Delivered after commit, so the dispatcher does not wait for its next poll
+            eventPublisher.publishEvent(new NotificationEnqueuedEvent(priority));
+        }
+        return true;
+    }
+
+    // base * 2^(attempt-1), capped, with up to 20% jitter so retries of one bulk send spread out
+    private long backoffMillis(int attempt) {
+        long delay = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+}
@@ -1,5 +1,6 @@
 package com.vijay.User_Master.service.impl;
 
+import com.vijay.User_Master.config.security.CustomUserDetails;
 import com.vijay.User_Master.config.security.CustomUserDetailsService;
 import com.vijay.User_Master.config.security.JwtTokenProvider;
 import com.vijay.User_Master.dto.form.RefreshTokenRequest;
@@ -141,8 +142,8 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     }
 
     private String generateAccessToken(String username) {
-        UserDetails springUserDetails = customUserDetailsService.loadUserByUsername(username);
-        return jwtTokenProvider.generateToken(username);
+        CustomUserDetails principal = (CustomUserDetails) customUserDetailsService.loadUserByUsername(username);
+        return jwtTokenProvider.generateToken(principal);
     }
 
     private JwtResponse buildJwtResponse(String accessToken, RefreshTokenDto refreshToken, TokenUserDetails userDetails) {
@@ -1,5 +1,6 @@
 package com.vijay.User_Master.service.impl;
 
+import com.vijay.User_Master.config.security.PrincipalCache;
 import com.vijay.User_Master.dto.RoleRequest;
 import com.vijay.User_Master.dto.RoleResponse;
 import com.vijay.User_Master.dto.RoleUpdateRequest;
@@ -34,6 +35,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
 
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
     private final ModelMapper mapper;
 
     // ============= BASIC ROLE CRUD OPERATIONS =============
@@ -109,6 +111,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         }
         
         Role savedRole = roleRepository.save(role);
+        principalCache.evictAll();
         log.info("Role with ID '{}' updated successfully", roleId);
         
         return mapper.map(savedRole, RoleResponse.class);
@@ -129,6 +132,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         role.setDeleted(true);
         role.setActive(false);
         roleRepository.save(role);
+        principalCache.evictAll();
         
         log.info("Role with ID '{}' deleted successfully", roleId);
         return true;
@@ -176,6 +180,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         }
         
         Role savedRole = roleRepository.save(role);
+        principalCache.evictAll();
         log.info("Role details updated successfully for role ID: {}", roleId);
         
         return mapper.map(savedRole, RoleResponse.class);
@@ -191,6 +196,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         
         role.setActive(true);
         roleRepository.save(role);
+        principalCache.evictAll();
         
         log.info("Role with ID: {} activated successfully", roleId);
     }
@@ -205,6 +211,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         
         role.setActive(false);
         roleRepository.save(role);
+        principalCache.evictAll();
         
         log.info("Role with ID: {} deactivated successfully", roleId);
     }
@@ -236,6 +243,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         user.getRoles().addAll(rolesToAssign);
         
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser);
         log.info("Roles assigned successfully to user with ID: {}", userRoleRequest.getUserId());
         
         return mapper.map(savedUser, UserResponse.class);
@@ -260,6 +268,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         }
         
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser);
         log.info("Roles removed successfully from user with ID: {}", userRoleRequest.getUserId());
         
         return mapper.map(savedUser, UserResponse.class);
@@ -287,6 +296,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         user.setRoles(newRoles);
         
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser);
         log.info("Roles replaced successfully for user with ID: {}", userRoleRequest.getUserId());
         
         return mapper.map(savedUser, UserResponse.class);
@@ -1,5 +1,6 @@
 package com.vijay.User_Master.service.impl;
 
+import com.vijay.User_Master.config.security.PrincipalCache;
 import com.vijay.User_Master.dto.RoleRequest;
 import com.vijay.User_Master.dto.RoleResponse;
 import com.vijay.User_Master.dto.RoleUpdateRequest;
@@ -29,6 +30,7 @@ public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
     private final ModelMapper mapper;
 
     // Create Role For Users
@@ -104,6 +106,7 @@ public class RoleServiceImpl implements RoleService {
             }
             // Save the updated role
             roleRepository.save(role);
+            principalCache.evictAll();
 
             // Log success
             log.info("Role with ID '{}' updated successfully", id);
@@ -129,6 +132,7 @@ public class RoleServiceImpl implements RoleService {
 
             // Delete the role
             roleRepository.delete(role);
+            principalCache.evictAll();
 
             // Log success
             log.info("Role with ID '{}' deleted successfully", id);
@@ -166,6 +170,7 @@ public class RoleServiceImpl implements RoleService {
         }
         
         Role savedRole = roleRepository.save(role);
+        principalCache.evictAll();
         log.info("Role with ID: {} updated successfully", roleId);
         
         return mapper.map(savedRole, RoleResponse.class);
@@ -180,6 +185,7 @@ public class RoleServiceImpl implements RoleService {
         
         role.setActive(true);
         roleRepository.save(role);
+        principalCache.evictAll();
         
         log.info("Role with ID: {} activated successfully", roleId);
     }
@@ -193,6 +199,7 @@ public class RoleServiceImpl implements RoleService {
         
         role.setActive(false);
         roleRepository.save(role);
+        principalCache.evictAll();
         
         log.info("Role with ID: {} deactivated successfully", roleId);
     }
@@ -216,6 +223,7 @@ public class RoleServiceImpl implements RoleService {
         user.getRoles().addAll(rolesToAssign);
         
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser);
         log.info("Roles assigned successfully to user with ID: {}", userRoleRequest.getUserId());
         
         return mapper.map(savedUser, UserResponse.class);
@@ -239,6 +247,7 @@ public class RoleServiceImpl implements RoleService {
         }
         
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser);
         log.info("Roles removed successfully from user with ID: {}", userRoleRequest.getUserId());
         
         return mapper.map(savedUser, UserResponse.class);
@@ -260,6 +269,7 @@ public class RoleServiceImpl implements RoleService {
         user.setRoles(newRoles);
         
         User savedUser = userRepository.save(user);
+        principalCache.evict(savedUser);
         log.info("Roles replaced successfully for user with ID: {}", userRoleRequest.getUserId());
         
         return mapper.map(savedUser, UserResponse.class);
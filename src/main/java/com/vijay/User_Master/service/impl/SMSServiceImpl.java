@@ -1,15 +1,15 @@
 package com.vijay.User_Master.service.impl;
 
+import com.vijay.User_Master.Helper.CommonUtils;
+import com.vijay.User_Master.Helper.TwilioMessageSender;
 import com.vijay.User_Master.entity.*;
 import com.vijay.User_Master.repository.*;
+import com.vijay.User_Master.service.NotificationOutboxService;
+import com.vijay.User_Master.service.NotificationTemplateEngine;
+import com.vijay.User_Master.service.RecipientResolver;
 import com.vijay.User_Master.service.SMSService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import com.twilio.Twilio;
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
-import jakarta.annotation.PostConstruct;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -20,57 +20,46 @@ import java.util.List;
  * SMS Service Implementation using Twilio
  * 
  * To enable Twilio:
- * 1. Add dependency in build.gradle:
- *    implementation 'com.twilio.sdk:twilio:9.14.1'
- * 
- * 2. Add properties in application.properties:
+ * 1. Add properties in application.properties:
  *    twilio.account.sid=YOUR_ACCOUNT_SID
  *    twilio.auth.token=YOUR_AUTH_TOKEN
  *    twilio.phone.number=YOUR_TWILIO_NUMBER
  * 
- * 3. Uncomment Twilio imports above
+ * 2. Set app.twilio.messages-per-second / max-concurrency to the account limits
  */
 @Service
 @Slf4j
 public class SMSServiceImpl implements SMSService {
 
-    @Value("${twilio.account.sid:}")
-    private String twilioAccountSid;
-    
-    @Value("${twilio.auth.token:}")
-    private String twilioAuthToken;
-    
-    @Value("${twilio.phone.number:}")
-    private String twilioPhoneNumber;
-    
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MMM-yyyy");
+
     private final WorkerRepository workerRepository;
     
     private Long getCurrentOwnerId() {
-        // Get the current logged-in user ID for multi-tenancy
-        return 1L; // Placeholder - should be replaced with actual logged-in user ID
+        // School of the logged-in user; broadcasts and their progress are scoped to it
+        return CommonUtils.getLoggedInUser().getOwnerId();
     }
     private final FeeRepository feeRepository;
     private final ExamRepository examRepository;
+    private final NotificationOutboxService notificationOutboxService;
+    private final NotificationTemplateEngine templateEngine;
+    private final TwilioMessageSender twilioSender;
+    private final RecipientResolver recipientResolver;
     
     public SMSServiceImpl(WorkerRepository workerRepository, 
                          FeeRepository feeRepository,
-                         ExamRepository examRepository) {
+                         ExamRepository examRepository,
+                         NotificationOutboxService notificationOutboxService,
+                         NotificationTemplateEngine templateEngine,
+                         TwilioMessageSender twilioSender,
+                         RecipientResolver recipientResolver) {
         this.workerRepository = workerRepository;
         this.feeRepository = feeRepository;
         this.examRepository = examRepository;
-    }
-    
-    @PostConstruct
-    public void initTwilio() {
-        // Initialize Twilio after properties are injected
-        if (twilioAccountSid != null && !twilioAccountSid.isEmpty() 
-            && twilioAuthToken != null && !twilioAuthToken.isEmpty()) {
-            Twilio.init(twilioAccountSid, twilioAuthToken);
-            log.info("✅ Twilio SMS service initialized successfully");
-            log.info("📱 SMS notifications are LIVE!");
-        } else {
-            log.warn("⚠️ Twilio not configured. SMS will run in MOCK mode.");
-        }
+        this.notificationOutboxService = notificationOutboxService;
+        this.templateEngine = templateEngine;
+        this.twilioSender = twilioSender;
+        this.recipientResolver = recipientResolver;
     }
 
     @Override
@@ -78,16 +67,14 @@ public class SMSServiceImpl implements SMSService {
         log.info("Sending SMS to: {}", phoneNumber);
         
         try {
-            // TWILIO IMPLEMENTATION - LIVE MODE
-            if (twilioAccountSid != null && !twilioAccountSid.isEmpty() 
-                && twilioAuthToken != null && !twilioAuthToken.isEmpty()) {
-                Message twilioMessage = Message.creator(
-                    new PhoneNumber("+91" + phoneNumber),  // Indian number format
-                    new PhoneNumber(twilioPhoneNumber),
-                    message
-                ).create();
-                
-                log.info("✅ SMS sent successfully. SID: {}", twilioMessage.getSid());
+            // TWILIO IMPLEMENTATION - LIVE MODE (shared rate limit with bulk dispatch)
+            if (twilioSender.isSmsEnabled()) {
+                TwilioMessageSender.Result result = twilioSender.send(TwilioMessageSender.Message.sms(phoneNumber, message));
+                if (!result.accepted()) {
+                    log.error("Failed to send SMS to {}: {}", phoneNumber, result.error());
+                    return false;
+                }
+                log.info("✅ SMS sent successfully. SID: {}", result.sid());
                 return true;
             } else {
                 // MOCK IMPLEMENTATION (When Twilio not configured)
@@ -107,17 +94,15 @@ public class SMSServiceImpl implements SMSService {
     }
 
     @Override
-    public void sendBulkSMS(List<String> phoneNumbers, String message) {
-        log.info("Sending bulk SMS to {} recipients", phoneNumbers.size());
-        
-        int successCount = 0;
-        for (String phoneNumber : phoneNumbers) {
-            if (sendSMS(phoneNumber, message)) {
-                successCount++;
-            }
-        }
-        
-        log.info("Bulk SMS sent: {}/{} successful", successCount, phoneNumbers.size());
+    public String sendBulkSMS(List<String> phoneNumbers, String message) {
+        Long ownerId = getCurrentOwnerId();
+        // Sending the same message again skips numbers it is already queued for
+        String campaignKey = RecipientResolver.campaignKey("bulk-sms", Integer.toHexString(message.hashCode()));
+        List<String> recipients = recipientResolver.resolveAddresses(ownerId, campaignKey, NotificationOutbox.Channel.SMS, phoneNumbers);
+        String broadcastId = notificationOutboxService.enqueueBroadcast(
+            ownerId, NotificationOutbox.Channel.SMS, recipients, message, campaignKey);
+        log.info("Bulk SMS broadcast {} queued for {} recipients", broadcastId, recipients.size());
+        return broadcastId;
     }
 
     @Override
@@ -135,7 +120,7 @@ public class SMSServiceImpl implements SMSService {
         }
         
         String message = buildAttendanceSMS(student, date, status);
-        sendSMS(parentPhone, message);
+        queueSMS(student, parentPhone, message);
     }
 
     @Override
@@ -152,7 +137,7 @@ public class SMSServiceImpl implements SMSService {
         if (parentPhone == null) return;
         
         String message = buildFeeReminderSMS(student, fee, dueDate);
-        sendSMS(parentPhone, message);
+        queueSMS(student, parentPhone, message);
     }
 
     @Override
@@ -166,7 +151,7 @@ public class SMSServiceImpl implements SMSService {
         if (parentPhone == null) return;
         
         String message = buildExamReminderSMS(student, exam);
-        sendSMS(parentPhone, message);
+        queueSMS(student, parentPhone, message);
     }
 
     @Override
@@ -178,7 +163,7 @@ public class SMSServiceImpl implements SMSService {
         if (parentPhone == null) return;
         
         String message = buildLowAttendanceWarningSMS(student, percentage);
-        sendSMS(parentPhone, message);
+        queueSMS(student, parentPhone, message);
     }
 
     @Override
@@ -190,32 +175,41 @@ public class SMSServiceImpl implements SMSService {
         if (parentPhone == null) return;
         
         String message = buildGradePublishedSMS(student, subject, percentage, grade);
-        sendSMS(parentPhone, message);
+        queueSMS(student, parentPhone, message);
     }
 
     @Override
-    public void sendEmergencySMSToAll(String message) {
+    public String sendEmergencySMSToAll(String message) {
         log.info("Sending emergency SMS to all parents");
         
         List<Worker> students = workerRepository.findByUser_IdAndIsDeletedFalse(getCurrentOwnerId(), Pageable.unpaged());
+        // Same campaign as the school's WhatsApp alert with this text, so a parent already reached there is skipped
+        String campaignKey = RecipientResolver.campaignKey("emergency", Integer.toHexString(message.hashCode()));
+        List<String> parentPhones = recipientResolver
+            .resolve(getCurrentOwnerId(), campaignKey, NotificationOutbox.Channel.SMS, students, Worker::getFatherPhone).stream()
+            .map(RecipientResolver.Recipient::address)
+            .toList();
         
-        for (Worker student : students) {
-            String parentPhone = student.getFatherPhone();
-            if (parentPhone != null) {
-                sendSMS(parentPhone, "🚨 EMERGENCY: " + message);
-            }
-        }
+        String broadcastId = notificationOutboxService.enqueueBroadcast(
+            getCurrentOwnerId(), NotificationOutbox.Channel.SMS, parentPhones, "🚨 EMERGENCY: " + message, campaignKey);
+        log.info("Emergency SMS broadcast {} queued for {} parents", broadcastId, parentPhones.size());
+        return broadcastId;
     }
 
     @Override
     public boolean sendOTP(String phoneNumber, String otp) {
-        String message = String.format(
-            "Your OTP for School Management System is: %s\n" +
-            "Valid for 10 minutes.\n" +
-            "Do not share this OTP with anyone.",
-            otp
-        );
-        return sendSMS(phoneNumber, message);
+        if (phoneNumber == null || phoneNumber.isBlank()) {
+            return false;
+        }
+        // Sent before sign-in, like the password reset, so there is no school to bill or brand it for
+        try {
+            String message = templateEngine.render(null, "sms/otp", "otp", otp);
+            // INTERACTIVE lane: dispatched on commit with reserved Twilio capacity, ahead of any bulk send
+            return notificationOutboxService.enqueueSms(NotificationOutbox.Priority.INTERACTIVE, null, phoneNumber, message);
+        } catch (Exception e) {
+            log.error("Failed to queue OTP SMS to {}: {}", phoneNumber, e.getMessage());
+            return false;
+        }
     }
 
     @Override
@@ -227,135 +221,88 @@ public class SMSServiceImpl implements SMSService {
         if (parentPhone == null) return;
         
         String message = buildWelcomeSMS(student);
-        sendSMS(parentPhone, message);
+        queueSMS(student, parentPhone, message);
+    }
+
+    // Notifications are queued in the outbox; sendSMS stays the direct transport the dispatcher uses
+    private void queueSMS(Worker student, String phoneNumber, String message) {
+        notificationOutboxService.enqueueSms(NotificationOutbox.Priority.TRANSACTIONAL, ownerIdOf(student), phoneNumber, message);
+    }
+
+    private Long ownerIdOf(Worker student) {
+        return student.getOwner() != null ? student.getOwner().getId() : null;
     }
 
     // ============= SMS TEMPLATE BUILDERS =============
 
     private String buildAttendanceSMS(Worker student, LocalDate date, String status) {
-        String emoji = getStatusEmoji(status);
-        String dateStr = date.format(DateTimeFormatter.ofPattern("dd-MMM-yyyy"));
+        String dateStr = date.format(DATE_FORMAT);
         
-        return String.format(
-            "%s Daily Attendance\n\n" +
-            "Student: %s %s\n" +
-            "Class: %s-%s\n" +
-            "Date: %s\n" +
-            "Status: %s\n\n" +
-            "- School Management",
-            emoji,
-            student.getFirstName(), student.getLastName(),
-            student.getCurrentClass().getClassName(), student.getSection(),
-            dateStr,
-            status
+        return templateEngine.render(ownerIdOf(student), "sms/attendance",
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "className", student.getCurrentClass().getClassName(),
+            "section", student.getSection(),
+            "date", dateStr,
+            "status", status
         );
     }
 
     private String buildFeeReminderSMS(Worker student, Fee fee, LocalDate dueDate) {
-        String dateStr = dueDate.format(DateTimeFormatter.ofPattern("dd-MMM-yyyy"));
+        String dateStr = dueDate.format(DATE_FORMAT);
         long daysRemaining = java.time.temporal.ChronoUnit.DAYS.between(LocalDate.now(), dueDate);
         
-        return String.format(
-            "💰 Fee Reminder\n\n" +
-            "Dear Parent,\n" +
-            "Student: %s %s\n" +
-            "Fee: %s\n" +
-            "Amount Due: ₹%.0f\n" +
-            "Due Date: %s\n" +
-            "Days Left: %d\n\n" +
-            "Please pay on time to avoid late fees.\n" +
-            "Pay online: https://school.com/pay\n\n" +
-            "- School Office",
-            student.getFirstName(), student.getLastName(),
-            fee.getFeeCategory(),
-            fee.getBalanceAmount(),
-            dateStr,
-            daysRemaining
+        return templateEngine.render(ownerIdOf(student), "sms/fee-reminder",
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "feeCategory", fee.getFeeCategory(),
+            "balanceAmount", fee.getBalanceAmount(),
+            "dueDate", dateStr,
+            "daysRemaining", daysRemaining
         );
     }
 
     private String buildExamReminderSMS(Worker student, Exam exam) {
-        String dateStr = exam.getExamDate().format(DateTimeFormatter.ofPattern("dd-MMM-yyyy"));
+        String dateStr = exam.getExamDate().format(DATE_FORMAT);
         
-        return String.format(
-            "📝 Exam Reminder\n\n" +
-            "Student: %s %s\n" +
-            "Exam: %s\n" +
-            "Subject: %s\n" +
-            "Date: %s\n" +
-            "Time: %s\n" +
-            "Room: %s\n\n" +
-            "All the best!\n" +
-            "- School",
-            student.getFirstName(), student.getLastName(),
-            exam.getExamName(),
-            exam.getSubject().getSubjectName(),
-            dateStr,
-            exam.getStartTime() != null ? exam.getStartTime().toString() : "TBA",
-            exam.getRoomNumber() != null ? exam.getRoomNumber() : "TBA"
+        return templateEngine.render(ownerIdOf(student), "sms/exam-reminder",
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "examName", exam.getExamName(),
+            "subjectName", exam.getSubject().getSubjectName(),
+            "examDate", dateStr,
+            "startTime", exam.getStartTime() != null ? exam.getStartTime().toString() : "TBA",
+            "roomNumber", exam.getRoomNumber() != null ? exam.getRoomNumber() : "TBA"
         );
     }
 
     private String buildLowAttendanceWarningSMS(Worker student, Double percentage) {
-        return String.format(
-            "⚠️ Attendance Alert\n\n" +
-            "Dear Parent,\n" +
-            "Student: %s %s\n" +
-            "Current Attendance: %.2f%%\n" +
-            "Required: 75%%\n\n" +
-            "Please ensure regular attendance.\n" +
-            "Contact: 9876543210\n\n" +
-            "- School",
-            student.getFirstName(), student.getLastName(),
-            percentage
+        return templateEngine.render(ownerIdOf(student), "sms/attendance-low",
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "percentage", percentage
         );
     }
 
     private String buildGradePublishedSMS(Worker student, String subject, Double percentage, String grade) {
-        String emoji = percentage >= 75 ? "🎉" : "📚";
-        
-        return String.format(
-            "%s Grade Published\n\n" +
-            "Student: %s %s\n" +
-            "Subject: %s\n" +
-            "Marks: %.2f%%\n" +
-            "Grade: %s\n\n" +
-            "View details in parent portal.\n" +
-            "- School",
-            emoji,
-            student.getFirstName(), student.getLastName(),
-            subject,
-            percentage,
-            grade
+        return templateEngine.render(ownerIdOf(student), "sms/grade-published",
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "subjectName", subject,
+            "percentage", percentage,
+            "letterGrade", grade
         );
     }
 
     private String buildWelcomeSMS(Worker student) {
-        return String.format(
-            "🎓 Welcome to School!\n\n" +
-            "Dear Parent,\n" +
-            "We welcome %s %s to our school family.\n\n" +
-            "Admission No: %s\n" +
-            "Class: %s-%s\n" +
-            "Roll No: %d\n\n" +
-            "ID card will be issued soon.\n" +
-            "Login: https://school.com\n\n" +
-            "- School Management",
-            student.getFirstName(), student.getLastName(),
-            student.getAdmissionNumber(),
-            student.getCurrentClass().getClassName(), student.getSection(),
-            student.getRollNumber()
+        return templateEngine.render(ownerIdOf(student), "sms/welcome",
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "admissionNumber", student.getAdmissionNumber(),
+            "className", student.getCurrentClass().getClassName(),
+            "section", student.getSection(),
+            "rollNumber", student.getRollNumber()
         );
     }
-
-    private String getStatusEmoji(String status) {
-        return switch (status.toUpperCase()) {
-            case "PRESENT" -> "✅";
-            case "ABSENT" -> "❌";
-            case "LATE" -> "⏰";
-            case "HALF_DAY" -> "🕐";
-            default -> "ℹ️";
-        };
-    }
 }
 
@@ -8,12 +8,14 @@ import com.vijay.User_Master.entity.User;
 import com.vijay.User_Master.repository.SchoolClassRepository;
 import com.vijay.User_Master.repository.UserRepository;
 import com.vijay.User_Master.service.SchoolClassService;
+import com.vijay.User_Master.service.TenantCounterService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,8 +26,10 @@ public class SchoolClassServiceImpl implements SchoolClassService {
     
     private final SchoolClassRepository schoolClassRepository;
     private final UserRepository userRepository;
+    private final TenantCounterService tenantCounterService;
     
     @Override
+    @Transactional
     public SchoolClassResponse createClass(SchoolClassRequest request, Long ownerId) {
         // Get the owner user
         User owner = userRepository.findById(ownerId)
@@ -49,6 +53,7 @@ public class SchoolClassServiceImpl implements SchoolClassService {
                 .build();
         
         SchoolClass savedClass = schoolClassRepository.save(schoolClass);
+        tenantCounterService.increment(ownerId, TenantCounterService.CounterType.CLASSES, 1);
         return convertToResponse(savedClass);
     }
     
@@ -96,12 +101,14 @@ public class SchoolClassServiceImpl implements SchoolClassService {
     }
     
     @Override
+    @Transactional
     public void deleteClass(Long id, Long ownerId) {
         SchoolClass schoolClass = schoolClassRepository.findByIdAndOwner_IdAndIsDeletedFalse(id, ownerId)
                 .orElseThrow(() -> new RuntimeException("Class not found"));
         
         schoolClass.setDeleted(true);
         schoolClassRepository.save(schoolClass);
+        tenantCounterService.increment(ownerId, TenantCounterService.CounterType.CLASSES, -1);
     }
     
     @Override
@@ -8,6 +8,7 @@ import com.vijay.User_Master.entity.User;
 import com.vijay.User_Master.repository.SubjectRepository;
 import com.vijay.User_Master.repository.UserRepository;
 import com.vijay.User_Master.service.SubjectService;
+import com.vijay.User_Master.service.TenantCounterService;
 // import com.vijay.User_Master.util.CommonUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +28,7 @@ public class SubjectServiceImpl implements SubjectService {
 
     private final SubjectRepository subjectRepository;
     private final UserRepository userRepository;
+    private final TenantCounterService tenantCounterService;
 
     @Override
     public SubjectResponse createSubject(SubjectRequest request, Long ownerId) {
@@ -56,6 +58,7 @@ public class SubjectServiceImpl implements SubjectService {
                 .build();
         
         Subject savedSubject = subjectRepository.save(subject);
+        tenantCounterService.increment(ownerId, TenantCounterService.CounterType.SUBJECTS, 1);
         log.info("Subject created successfully with ID: {}", savedSubject.getId());
         
         return convertToResponse(savedSubject);
@@ -191,6 +194,7 @@ public class SubjectServiceImpl implements SubjectService {
         
         subject.setDeleted(true);
         subjectRepository.save(subject);
+        tenantCounterService.increment(ownerId, TenantCounterService.CounterType.SUBJECTS, -1);
         
         log.info("Subject deleted successfully: {}", id);
     }
@@ -204,6 +208,7 @@ public class SubjectServiceImpl implements SubjectService {
         
         subject.setDeleted(false);
         subjectRepository.save(subject);
+        tenantCounterService.increment(ownerId, TenantCounterService.CounterType.SUBJECTS, 1);
         
         log.info("Subject restored successfully: {}", id);
     }
@@ -0,0 +1,196 @@
+package com.vijay.User_Master.service.impl;
+
+import com.vijay.User_Master.dto.DashboardCounts;
+import com.vijay.User_Master.dto.TenantCounterDrift;
+import com.vijay.User_Master.entity.Assignment;
+import com.vijay.User_Master.entity.Exam;
+import com.vijay.User_Master.entity.Role;
+import com.vijay.User_Master.entity.TenantCounter;
+import com.vijay.User_Master.repository.ExamRepository;
+import com.vijay.User_Master.repository.TenantCounterRepository;
+import com.vijay.User_Master.service.DashboardQueryService;
+import com.vijay.User_Master.service.TenantCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementation of Tenant Counter Service
+ * Increments are a single MySQL upsert per write; reads are a primary-key lookup
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class TenantCounterServiceImpl implements TenantCounterService {
+
+    private static final String ROLE_STUDENT = "ROLE_STUDENT";
+    private static final String ROLE_TEACHER = "ROLE_TEACHER";
+
+    private final TenantCounterRepository tenantCounterRepository;
+    private final DashboardQueryService dashboardQueryService;
+    private final ExamRepository examRepository;
+
+    @Override
+    public void increment(Long ownerId, CounterType type, long delta) {
+        Map<CounterType, Long> deltas = new EnumMap<>(CounterType.class);
+        deltas.put(type, delta);
+        increment(ownerId, deltas);
+    }
+
+    @Override
+    public void increment(Long ownerId, Map<CounterType, Long> deltas) {
+        // Workers seeded without an owner (and no-op changes) never touch the table
+        if (ownerId == null || deltas.values().stream().allMatch(d -> d == 0)) {
+            return;
+        }
+        tenantCounterRepository.increment(ownerId,
+                deltas.getOrDefault(CounterType.STUDENTS, 0L),
+                deltas.getOrDefault(CounterType.TEACHERS, 0L),
+                deltas.getOrDefault(CounterType.CLASSES, 0L),
+                deltas.getOrDefault(CounterType.SUBJECTS, 0L),
+                deltas.getOrDefault(CounterType.EXAMS, 0L),
+                deltas.getOrDefault(CounterType.SCHEDULED_EXAMS, 0L),
+                deltas.getOrDefault(CounterType.ASSIGNMENTS, 0L),
+                deltas.getOrDefault(CounterType.OPEN_ASSIGNMENTS, 0L));
+    }
+
+    @Override
+    public void adjustWorker(Long ownerId, Set<Role> roles, long delta) {
+        Map<CounterType, Long> deltas = new EnumMap<>(CounterType.class);
+        deltas.put(CounterType.STUDENTS, hasRole(roles, ROLE_STUDENT) ? delta : 0L);
+        deltas.put(CounterType.TEACHERS, hasRole(roles, ROLE_TEACHER) ? delta : 0L);
+        increment(ownerId, deltas);
+    }
+
+    @Override
+    public void moveWorkerRoles(Long ownerId, Set<Role> from, Set<Role> to) {
+        Map<CounterType, Long> deltas = new EnumMap<>(CounterType.class);
+        deltas.put(CounterType.STUDENTS, flag(hasRole(to, ROLE_STUDENT)) - flag(hasRole(from, ROLE_STUDENT)));
+        deltas.put(CounterType.TEACHERS, flag(hasRole(to, ROLE_TEACHER)) - flag(hasRole(from, ROLE_TEACHER)));
+        increment(ownerId, deltas);
+    }
+
+    @Override
+    public void adjustExam(Long ownerId, Exam.ExamStatus status, long delta) {
+        Map<CounterType, Long> deltas = new EnumMap<>(CounterType.class);
+        deltas.put(CounterType.EXAMS, delta);
+        deltas.put(CounterType.SCHEDULED_EXAMS, isScheduled(status) ? delta : 0L);
+        increment(ownerId, deltas);
+    }
+
+    @Override
+    public void moveExamStatus(Long ownerId, Exam.ExamStatus from, Exam.ExamStatus to) {
+        increment(ownerId, CounterType.SCHEDULED_EXAMS, flag(isScheduled(to)) - flag(isScheduled(from)));
+    }
+
+    @Override
+    public void adjustAssignment(Long ownerId, Assignment.AssignmentStatus status, long delta) {
+        Map<CounterType, Long> deltas = new EnumMap<>(CounterType.class);
+        deltas.put(CounterType.ASSIGNMENTS, delta);
+        deltas.put(CounterType.OPEN_ASSIGNMENTS, isOpen(status) ? delta : 0L);
+        increment(ownerId, deltas);
+    }
+
+    @Override
+    public void moveAssignmentStatus(Long ownerId, Assignment.AssignmentStatus from, Assignment.AssignmentStatus to) {
+        increment(ownerId, CounterType.OPEN_ASSIGNMENTS, flag(isOpen(to)) - flag(isOpen(from)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TenantCounter getCounters(Long ownerId) {
+        if (ownerId != null) {
+            return tenantCounterRepository.findById(ownerId)
+                    .orElseGet(() -> TenantCounter.builder().ownerId(ownerId).build());
+        }
+
+        // Application owner: one row per school, summed in memory
+        TenantCounter total = new TenantCounter();
+        for (TenantCounter row : tenantCounterRepository.findAll()) {
+            total.setStudents(total.getStudents() + row.getStudents());
+            total.setTeachers(total.getTeachers() + row.getTeachers());
+            total.setClasses(total.getClasses() + row.getClasses());
+            total.setSubjects(total.getSubjects() + row.getSubjects());
+            total.setExams(total.getExams() + row.getExams());
+            total.setScheduledExams(total.getScheduledExams() + row.getScheduledExams());
+            total.setAssignments(total.getAssignments() + row.getAssignments());
+            total.setOpenAssignments(total.getOpenAssignments() + row.getOpenAssignments());
+        }
+        return total;
+    }
+
+    @Override
+    public TenantCounterDrift reconcile(Long ownerId) {
+        // Lock first: increments from concurrent writers wait until the recount is committed
+        Optional<TenantCounter> stored = tenantCounterRepository.findForUpdate(ownerId);
+
+        DashboardCounts counts = dashboardQueryService.loadCounts(ownerId);
+        TenantCounter actual = TenantCounter.builder()
+                .ownerId(ownerId)
+                .students(counts.getTotalStudents())
+                .teachers(counts.getTotalTeachers())
+                .classes(counts.getTotalClasses())
+                .subjects(counts.getTotalSubjects())
+                .exams(counts.getTotalExams())
+                .scheduledExams(examRepository.countByOwner_IdAndStatusAndIsDeletedFalse(ownerId, Exam.ExamStatus.SCHEDULED))
+                .assignments(counts.getTotalAssignments())
+                .openAssignments(counts.getPendingAssignments())
+                .updatedOn(LocalDateTime.now())
+                .build();
+
+        Map<String, Long> drift = new LinkedHashMap<>();
+        stored.ifPresent(row -> {
+            putDrift(drift, CounterType.STUDENTS, row.getStudents(), actual.getStudents());
+            putDrift(drift, CounterType.TEACHERS, row.getTeachers(), actual.getTeachers());
+            putDrift(drift, CounterType.CLASSES, row.getClasses(), actual.getClasses());
+            putDrift(drift, CounterType.SUBJECTS, row.getSubjects(), actual.getSubjects());
+            putDrift(drift, CounterType.EXAMS, row.getExams(), actual.getExams());
+            putDrift(drift, CounterType.SCHEDULED_EXAMS, row.getScheduledExams(), actual.getScheduledExams());
+            putDrift(drift, CounterType.ASSIGNMENTS, row.getAssignments(), actual.getAssignments());
+            putDrift(drift, CounterType.OPEN_ASSIGNMENTS, row.getOpenAssignments(), actual.getOpenAssignments());
+        });
+
+        tenantCounterRepository.save(actual);
+
+        TenantCounterDrift report = TenantCounterDrift.builder()
+                .ownerId(ownerId)
+                .rowMissing(stored.isEmpty())
+                .drift(drift)
+                .build();
+        if (!drift.isEmpty()) {
+            log.warn("Tenant counters drifted for owner {}: {}", ownerId, drift);
+        }
+        return report;
+    }
+
+    private void putDrift(Map<String, Long> drift, CounterType type, long stored, long actual) {
+        if (stored != actual) {
+            drift.put(type.name(), stored - actual);
+        }
+    }
+
+    private boolean hasRole(Set<Role> roles, String roleName) {
+        return roles != null && roles.stream().anyMatch(role -> roleName.equals(role.getName()));
+    }
+
+    private boolean isScheduled(Exam.ExamStatus status) {
+        return status == Exam.ExamStatus.SCHEDULED;
+    }
+
+    private boolean isOpen(Assignment.AssignmentStatus status) {
+        return status == Assignment.AssignmentStatus.ASSIGNED || status == Assignment.AssignmentStatus.IN_PROGRESS;
+    }
+
+    private long flag(boolean value) {
+        return value ? 1L : 0L;
+    }
+}
@@ -1,5 +1,6 @@
 package com.vijay.User_Master.service.impl;
 
+import com.vijay.User_Master.config.security.PrincipalCache;
 import com.vijay.User_Master.dto.PageableResponse;
 import com.vijay.User_Master.dto.UserRequest;
 import com.vijay.User_Master.dto.UserResponse;
@@ -38,6 +39,7 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper mapper;
@@ -252,6 +254,7 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedOn(new java.util.Date());
         
         userRepository.save(user);
+        principalCache.evict(user);
         log.info("Account status updated successfully for user: {}", userId);
     }
 
@@ -268,6 +271,7 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedOn(new java.util.Date());
         
         userRepository.save(user);
+        principalCache.evict(user);
         log.info("User soft deleted successfully: {}", id);
     }
 
@@ -284,6 +288,7 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedOn(new java.util.Date());
         
         userRepository.save(user);
+        principalCache.evict(user);
         log.info("User restored successfully: {}", id);
     }
 
@@ -295,6 +300,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
         
         userRepository.delete(user);
+        principalCache.evict(user);
         log.info("User permanently deleted: {}", id);
     }
 
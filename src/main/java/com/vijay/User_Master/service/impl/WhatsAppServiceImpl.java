@@ -1,15 +1,15 @@
 package com.vijay.User_Master.service.impl;
 
+import com.vijay.User_Master.Helper.CommonUtils;
+import com.vijay.User_Master.Helper.TwilioMessageSender;
 import com.vijay.User_Master.entity.*;
 import com.vijay.User_Master.repository.*;
+import com.vijay.User_Master.service.NotificationOutboxService;
+import com.vijay.User_Master.service.NotificationTemplateEngine;
+import com.vijay.User_Master.service.RecipientResolver;
 import com.vijay.User_Master.service.WhatsAppService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import com.twilio.Twilio;
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
-import jakarta.annotation.PostConstruct;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -24,54 +24,45 @@ import java.util.List;
  * 1. Add Twilio dependency (same as SMS)
  * 2. Configure Twilio WhatsApp Business Account
  * 3. Add whatsapp.enabled=true in properties
- * 4. Uncomment Twilio imports
+ * 4. Sends share the Twilio rate limit with SMS (app.twilio.*)
  */
 @Service
 @Slf4j
 public class WhatsAppServiceImpl implements WhatsAppService {
 
-    @Value("${twilio.account.sid:}")
-    private String twilioAccountSid;
-    
-    @Value("${twilio.auth.token:}")
-    private String twilioAuthToken;
-    
-    @Value("${twilio.whatsapp.number:whatsapp:+14155238886}")
-    private String twilioWhatsAppNumber;
-    
-    @Value("${whatsapp.enabled:false}")
-    private boolean whatsappEnabled;
-    
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final DateTimeFormatter EVENT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
+
     private final WorkerRepository workerRepository;
     
     private Long getCurrentOwnerId() {
-        // Get the current logged-in user ID for multi-tenancy
-        return 1L; // Placeholder - should be replaced with actual logged-in user ID
+        // School of the logged-in user; broadcasts and their progress are scoped to it
+        return CommonUtils.getLoggedInUser().getOwnerId();
     }
     private final FeeRepository feeRepository;
     private final ExamRepository examRepository;
     private final EventRepository eventRepository;
+    private final NotificationOutboxService notificationOutboxService;
+    private final NotificationTemplateEngine templateEngine;
+    private final TwilioMessageSender twilioSender;
+    private final RecipientResolver recipientResolver;
     
     public WhatsAppServiceImpl(WorkerRepository workerRepository,
                               FeeRepository feeRepository,
                               ExamRepository examRepository,
-                              EventRepository eventRepository) {
+                              EventRepository eventRepository,
+                              NotificationOutboxService notificationOutboxService,
+                              NotificationTemplateEngine templateEngine,
+                              TwilioMessageSender twilioSender,
+                              RecipientResolver recipientResolver) {
         this.workerRepository = workerRepository;
         this.feeRepository = feeRepository;
         this.examRepository = examRepository;
         this.eventRepository = eventRepository;
-    }
-    
-    @PostConstruct
-    public void initTwilio() {
-        // Initialize Twilio after properties are injected
-        if (whatsappEnabled && twilioAccountSid != null && !twilioAccountSid.isEmpty()) {
-            Twilio.init(twilioAccountSid, twilioAuthToken);
-            log.info("✅ Twilio WhatsApp service initialized successfully");
-            log.info("💬 WhatsApp notifications are LIVE!");
-        } else {
-            log.warn("⚠️ WhatsApp not configured. Will run in MOCK mode.");
-        }
+        this.notificationOutboxService = notificationOutboxService;
+        this.templateEngine = templateEngine;
+        this.twilioSender = twilioSender;
+        this.recipientResolver = recipientResolver;
     }
 
     @Override
@@ -79,15 +70,14 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         log.info("Sending WhatsApp message to: {}", phoneNumber);
         
         try {
-            // TWILIO WHATSAPP IMPLEMENTATION - LIVE MODE
-            if (whatsappEnabled && twilioAccountSid != null && !twilioAccountSid.isEmpty()) {
-                Message twilioMessage = Message.creator(
-                    new PhoneNumber("whatsapp:+91" + phoneNumber),
-                    new PhoneNumber(twilioWhatsAppNumber),
-                    message
-                ).create();
-                
-                log.info("✅ WhatsApp sent successfully. SID: {}", twilioMessage.getSid());
+            // TWILIO WHATSAPP IMPLEMENTATION - LIVE MODE (shared rate limit with bulk dispatch)
+            if (twilioSender.isWhatsAppEnabled()) {
+                TwilioMessageSender.Result result = twilioSender.send(TwilioMessageSender.Message.whatsApp(phoneNumber, message, null));
+                if (!result.accepted()) {
+                    log.error("Failed to send WhatsApp to {}: {}", phoneNumber, result.error());
+                    return false;
+                }
+                log.info("✅ WhatsApp sent successfully. SID: {}", result.sid());
                 return true;
             } else {
                 // MOCK IMPLEMENTATION
@@ -112,15 +102,13 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         
         try {
             // TWILIO WHATSAPP WITH MEDIA - LIVE MODE
-            if (whatsappEnabled && twilioAccountSid != null && !twilioAccountSid.isEmpty()) {
-                Message twilioMessage = Message.creator(
-                    new PhoneNumber("whatsapp:+91" + phoneNumber),
-                    new PhoneNumber(twilioWhatsAppNumber),
-                    message
-                ).setMediaUrl(List.of(new java.net.URI(mediaUrl)))
-                 .create();
-                
-                log.info("✅ WhatsApp with media sent. SID: {}", twilioMessage.getSid());
+            if (twilioSender.isWhatsAppEnabled()) {
+                TwilioMessageSender.Result result = twilioSender.send(TwilioMessageSender.Message.whatsApp(phoneNumber, message, mediaUrl));
+                if (!result.accepted()) {
+                    log.error("Failed to send WhatsApp with media: {}", result.error());
+                    return false;
+                }
+                log.info("✅ WhatsApp with media sent. SID: {}", result.sid());
                 return true;
             } else {
                 // MOCK IMPLEMENTATION
@@ -140,17 +128,15 @@ public class WhatsAppServiceImpl implements WhatsAppService {
     }
 
     @Override
-    public void sendBulkWhatsAppMessages(List<String> phoneNumbers, String message) {
-        log.info("Sending bulk WhatsApp to {} recipients", phoneNumbers.size());
-        
-        int successCount = 0;
-        for (String phoneNumber : phoneNumbers) {
-            if (sendWhatsAppMessage(phoneNumber, message)) {
-                successCount++;
-            }
-        }
-        
-        log.info("Bulk WhatsApp sent: {}/{} successful", successCount, phoneNumbers.size());
+    public String sendBulkWhatsAppMessages(List<String> phoneNumbers, String message) {
+        Long ownerId = getCurrentOwnerId();
+        // Sending the same message again skips numbers it is already queued for
+        String campaignKey = RecipientResolver.campaignKey("bulk-whatsapp", Integer.toHexString(message.hashCode()));
+        List<String> recipients = recipientResolver.resolveAddresses(ownerId, campaignKey, NotificationOutbox.Channel.WHATSAPP, phoneNumbers);
+        String broadcastId = notificationOutboxService.enqueueBroadcast(
+            ownerId, NotificationOutbox.Channel.WHATSAPP, recipients, message, campaignKey);
+        log.info("Bulk WhatsApp broadcast {} queued for {} recipients", broadcastId, recipients.size());
+        return broadcastId;
     }
 
     @Override
@@ -162,7 +148,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         if (parentPhone == null) return;
         
         String message = buildAttendanceWhatsAppMessage(student, date, status);
-        sendWhatsAppMessage(parentPhone, message);
+        queueWhatsApp(student, parentPhone, message, null);
     }
 
     @Override
@@ -176,7 +162,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         if (parentPhone == null) return;
         
         String message = buildFeeReminderWhatsAppMessage(student, fee);
-        sendWhatsAppMessage(parentPhone, message);
+        queueWhatsApp(student, parentPhone, message, null);
     }
 
     @Override
@@ -198,7 +184,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
             pdfUrl
         );
         
-        sendWhatsAppMessageWithMedia(parentPhone, message, pdfUrl);
+        queueWhatsApp(student, parentPhone, message, pdfUrl);
     }
 
     @Override
@@ -227,7 +213,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
             admitCardUrl
         );
         
-        sendWhatsAppMessageWithMedia(parentPhone, message, admitCardUrl);
+        queueWhatsApp(student, parentPhone, message, admitCardUrl);
     }
 
     @Override
@@ -251,7 +237,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
             idCardPdfUrl
         );
         
-        sendWhatsAppMessageWithMedia(parentPhone, message, idCardPdfUrl);
+        queueWhatsApp(student, parentPhone, message, idCardPdfUrl);
     }
 
     @Override
@@ -273,7 +259,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
             tcPdfUrl
         );
         
-        sendWhatsAppMessageWithMedia(parentPhone, message, tcPdfUrl);
+        queueWhatsApp(student, parentPhone, message, tcPdfUrl);
     }
 
     @Override
@@ -281,32 +267,37 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         Event event = eventRepository.findById(eventId).orElse(null);
         if (event == null) return;
         
-        List<Worker> students = workerRepository.findByUser_IdAndIsDeletedFalse(getCurrentOwnerId(), Pageable.unpaged());
+        Long ownerId = getCurrentOwnerId();
+        List<Worker> students = workerRepository.findByUser_IdAndIsDeletedFalse(ownerId, Pageable.unpaged());
         
         String message = buildEventInvitationWhatsAppMessage(event);
+        String campaignKey = RecipientResolver.campaignKey("event-invitation", eventId);
         
-        for (Worker student : students) {
-            String parentPhone = student.getFatherPhone();
-            if (parentPhone != null) {
-                sendWhatsAppMessage(parentPhone, message);
-            }
+        // One message per parent phone, however many of their children are enrolled
+        for (RecipientResolver.Recipient recipient : recipientResolver.resolve(
+                ownerId, campaignKey, NotificationOutbox.Channel.WHATSAPP, students, Worker::getFatherPhone)) {
+            notificationOutboxService.enqueueWhatsApp(NotificationOutbox.Priority.BULK,
+                ownerIdOf(recipient.first()), recipient.address(), message, null, campaignKey);
         }
     }
 
     @Override
-    public void sendEmergencyWhatsAppToAll(String message) {
+    public String sendEmergencyWhatsAppToAll(String message) {
         log.info("Sending emergency WhatsApp to all parents");
         
         List<Worker> students = workerRepository.findByUser_IdAndIsDeletedFalse(getCurrentOwnerId(), Pageable.unpaged());
+        String campaignKey = RecipientResolver.campaignKey("emergency", Integer.toHexString(message.hashCode()));
+        List<String> parentPhones = recipientResolver
+            .resolve(getCurrentOwnerId(), campaignKey, NotificationOutbox.Channel.WHATSAPP, students, Worker::getFatherPhone).stream()
+            .map(RecipientResolver.Recipient::address)
+            .toList();
         
         String emergencyMsg = "🚨 *EMERGENCY ALERT*\n\n" + message + "\n\n- School Management";
         
-        for (Worker student : students) {
-            String parentPhone = student.getFatherPhone();
-            if (parentPhone != null) {
-                sendWhatsAppMessage(parentPhone, emergencyMsg);
-            }
-        }
+        String broadcastId = notificationOutboxService.enqueueBroadcast(
+            getCurrentOwnerId(), NotificationOutbox.Channel.WHATSAPP, parentPhones, emergencyMsg, campaignKey);
+        log.info("Emergency WhatsApp broadcast {} queued for {} parents", broadcastId, parentPhones.size());
+        return broadcastId;
     }
 
     @Override
@@ -318,7 +309,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         if (parentPhone == null) return;
         
         String message = buildWelcomeWhatsAppMessage(student);
-        sendWhatsAppMessage(parentPhone, message);
+        queueWhatsApp(student, parentPhone, message, null);
     }
 
     @Override
@@ -340,100 +331,72 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         );
         
         // Send to both student and parent
-        if (studentPhone != null) sendWhatsAppMessage(studentPhone, message);
-        if (parentPhone != null) sendWhatsAppMessage(parentPhone, message);
+        if (studentPhone != null) queueWhatsApp(student, studentPhone, message, null);
+        if (parentPhone != null) queueWhatsApp(student, parentPhone, message, null);
+    }
+
+    // Notifications are queued in the outbox; the send methods above stay the direct transport the dispatcher uses
+    private void queueWhatsApp(Worker student, String phoneNumber, String message, String mediaUrl) {
+        notificationOutboxService.enqueueWhatsApp(NotificationOutbox.Priority.TRANSACTIONAL, ownerIdOf(student), phoneNumber, message, mediaUrl);
+    }
+
+    private Long ownerIdOf(Worker student) {
+        return student.getOwner() != null ? student.getOwner().getId() : null;
     }
 
     // ============= WHATSAPP TEMPLATE BUILDERS =============
 
     private String buildAttendanceWhatsAppMessage(Worker student, LocalDate date, String status) {
         String emoji = getStatusEmoji(status);
-        String dateStr = date.format(DateTimeFormatter.ofPattern("dd MMM yyyy"));
-        
-        return String.format(
-            "%s *Daily Attendance Report*\n\n" +
-            "*Student:* %s %s\n" +
-            "*Class:* %s - Section %s\n" +
-            "*Date:* %s\n" +
-            "*Status:* *%s*\n\n" +
-            "_This is an automated notification from School Management System_",
-            emoji,
-            student.getFirstName(), student.getLastName(),
-            student.getCurrentClass().getClassName(), student.getSection(),
-            dateStr,
-            status
+        String dateStr = date.format(DATE_FORMAT);
+        
+        return templateEngine.render(ownerIdOf(student), "whatsapp/attendance",
+            "statusEmoji", emoji,
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "className", student.getCurrentClass().getClassName(),
+            "section", student.getSection(),
+            "date", dateStr,
+            "status", status
         );
     }
 
     private String buildFeeReminderWhatsAppMessage(Worker student, Fee fee) {
-        String dateStr = fee.getDueDate().format(DateTimeFormatter.ofPattern("dd MMM yyyy"));
+        String dateStr = fee.getDueDate().format(DATE_FORMAT);
         long daysRemaining = java.time.temporal.ChronoUnit.DAYS.between(LocalDate.now(), fee.getDueDate());
         
-        return String.format(
-            "💰 *Fee Payment Reminder*\n\n" +
-            "Dear Parent,\n\n" +
-            "*Student:* %s %s\n" +
-            "*Fee Type:* %s\n" +
-            "*Amount Due:* ₹%.0f\n" +
-            "*Due Date:* %s\n" +
-            "*Days Remaining:* %d days\n\n" +
-            "📱 *Pay Online:* https://school.com/pay\n" +
-            "🏦 *Bank Transfer* or *Cash* at office\n\n" +
-            "_Please pay on time to avoid late fees._\n\n" +
-            "- School Office",
-            student.getFirstName(), student.getLastName(),
-            fee.getFeeCategory(),
-            fee.getBalanceAmount(),
-            dateStr,
-            daysRemaining
+        return templateEngine.render(ownerIdOf(student), "whatsapp/fee-reminder",
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "feeCategory", fee.getFeeCategory(),
+            "balanceAmount", fee.getBalanceAmount(),
+            "dueDate", dateStr,
+            "daysRemaining", daysRemaining
         );
     }
 
     private String buildEventInvitationWhatsAppMessage(Event event) {
-        String dateStr = event.getStartDateTime().format(DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a"));
-        
-        return String.format(
-            "🎉 *Event Invitation*\n\n" +
-            "*%s*\n\n" +
-            "📅 *Date & Time:* %s\n" +
-            "📍 *Venue:* %s\n" +
-            "🎯 *Type:* %s\n\n" +
-            "*Description:*\n%s\n\n" +
-            "%s" +
-            "\n_We look forward to your participation!_\n\n" +
-            "Contact: %s\n" +
-            "- School Management",
-            event.getEventName(),
-            dateStr,
-            event.getVenue() != null ? event.getVenue() : "School Campus",
-            event.getEventType().toString(),
-            event.getDescription() != null ? event.getDescription() : "",
-            event.isRequiresRegistration() ? "⚠️ *Registration Required*\n" : "",
-            event.getContactPhone() != null ? event.getContactPhone() : "School Office"
+        String dateStr = event.getStartDateTime().format(EVENT_DATE_FORMAT);
+        
+        return templateEngine.render(event.getOwner() != null ? event.getOwner().getId() : null, "whatsapp/event-invitation",
+            "eventName", event.getEventName(),
+            "eventDate", dateStr,
+            "venue", event.getVenue() != null ? event.getVenue() : "School Campus",
+            "eventType", event.getEventType().toString(),
+            "description", event.getDescription() != null ? event.getDescription() : "",
+            "registrationNote", event.isRequiresRegistration() ? "⚠️ *Registration Required*\n" : "",
+            "contactPhone", event.getContactPhone() != null ? event.getContactPhone() : "School Office"
         );
     }
 
     private String buildWelcomeWhatsAppMessage(Worker student) {
-        return String.format(
-            "🎓 *Welcome to Our School!*\n\n" +
-            "Dear Parent,\n\n" +
-            "We are delighted to welcome *%s %s* to our school family! 🎉\n\n" +
-            "*Student Details:*\n" +
-            "📝 Admission No: %s\n" +
-            "📚 Class: %s - Section %s\n" +
-            "🔢 Roll Number: %d\n\n" +
-            "*Next Steps:*\n" +
-            "✅ ID card will be issued soon\n" +
-            "✅ Login credentials sent via email\n" +
-            "✅ Download parent app for updates\n\n" +
-            "🌐 Portal: https://school.com\n" +
-            "📱 Download App: https://school.com/app\n\n" +
-            "_We wish you a wonderful academic journey!_\n\n" +
-            "- School Management",
-            student.getFirstName(), student.getLastName(),
-            student.getAdmissionNumber(),
-            student.getCurrentClass().getClassName(), student.getSection(),
-            student.getRollNumber()
+        return templateEngine.render(ownerIdOf(student), "whatsapp/welcome",
+            "firstName", student.getFirstName(),
+            "lastName", student.getLastName(),
+            "admissionNumber", student.getAdmissionNumber(),
+            "className", student.getCurrentClass().getClassName(),
+            "section", student.getSection(),
+            "rollNumber", student.getRollNumber()
         );
     }
 
@@ -3,6 +3,7 @@ package com.vijay.User_Master.service.impl;
 import com.vijay.User_Master.Helper.CommonUtils;
 import com.vijay.User_Master.Helper.Helper;
 import com.vijay.User_Master.config.security.CustomUserDetails;
+import com.vijay.User_Master.config.security.PrincipalCache;
 import com.vijay.User_Master.dto.FavouriteEntryResponse;
 import com.vijay.User_Master.dto.PageableResponse;
 import com.vijay.User_Master.dto.UserResponse;
@@ -17,6 +18,10 @@ import com.vijay.User_Master.entity.Worker;
 import com.vijay.User_Master.exceptions.ResourceNotFoundException;
 import com.vijay.User_Master.repository.FavouriteEntryRepo;
 import com.vijay.User_Master.repository.UserRepository;
+import com.vijay.User_Master.dto.DashboardEvent;
+import com.vijay.User_Master.service.DashboardEventHub;
+import com.vijay.User_Master.service.MonthlyFactBuilder;
+import com.vijay.User_Master.service.TenantCounterService;
 import com.vijay.User_Master.service.WorkerUserService;
 import jakarta.persistence.EntityNotFoundException;
 import com.vijay.User_Master.entity.FavouriteEntry;
@@ -29,6 +34,7 @@ import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
@@ -49,8 +55,13 @@ public class WorkerUserServiceImpl implements WorkerUserService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final SchoolClassRepository schoolClassRepository;
+    private final TenantCounterService tenantCounterService;
+    private final MonthlyFactBuilder monthlyFactBuilder;
+    private final DashboardEventHub dashboardEventHub;
+    private final PrincipalCache principalCache;
 
     @Override
+    @Transactional
     public WorkerResponse create(WorkerRequest request) {
         log.info("Creating worker with username: {}", request.getUsername());
         
@@ -102,6 +113,15 @@ public class WorkerUserServiceImpl implements WorkerUserService {
         worker.setUpdatedOn(new Date());
         
         Worker savedWorker = workerRepository.save(worker);
+        tenantCounterService.adjustWorker(owner.getId(), roles, 1);
+        monthlyFactBuilder.markDirty(owner.getId(), savedWorker.getCreatedOn());
+        if (roles.stream().anyMatch(role -> "ROLE_STUDENT".equals(role.getName()))) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("studentId", savedWorker.getId());
+            event.put("name", savedWorker.getName());
+            event.put("classId", savedWorker.getCurrentClass() != null ? savedWorker.getCurrentClass().getId() : null);
+            dashboardEventHub.publishAfterCommit(owner.getId(), DashboardEvent.STUDENT_ADMITTED, event);
+        }
         log.info("Worker created successfully with ID: {}", savedWorker.getId());
         
         return mapper.map(savedWorker, WorkerResponse.class);
@@ -117,6 +137,7 @@ public class WorkerUserServiceImpl implements WorkerUserService {
 
     // You can delete Item ... it saves at recycle bin.
     @Override
+    @Transactional
     public void softDelete(Long id) throws Exception {
         Worker worker = workerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Worker", "ID", id));
@@ -130,10 +151,14 @@ public class WorkerUserServiceImpl implements WorkerUserService {
         accountStatus.setIsActive(false);
         worker.setAccountStatus(accountStatus);
         workerRepository.save(worker);
+        principalCache.evict(worker);
+        tenantCounterService.adjustWorker(ownerIdOf(worker), worker.getRoles(), -1);
+        monthlyFactBuilder.markDirty(ownerIdOf(worker), worker.getCreatedOn());
     }
 
     // You can restore Item form recycle bin
     @Override
+    @Transactional
     public void restore(Long id) throws Exception {
         Worker worker = workerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Worker", "ID", id));
@@ -146,6 +171,9 @@ public class WorkerUserServiceImpl implements WorkerUserService {
             worker.setAccountStatus(accountStatus);
 
             workerRepository.save(worker); // Save the restored worker
+            principalCache.evict(worker);
+            tenantCounterService.adjustWorker(ownerIdOf(worker), worker.getRoles(), 1);
+            monthlyFactBuilder.markDirty(ownerIdOf(worker), worker.getCreatedOn());
         } else {
             throw new IllegalArgumentException("Worker with ID " + id + " is already present.");
         }
@@ -158,6 +186,7 @@ public class WorkerUserServiceImpl implements WorkerUserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Worker", "ID", id));
         if (worker.isDeleted()) {
             workerRepository.delete(worker); // deleting form recycle bin
+            principalCache.evict(worker);
         } else {
             throw new IllegalArgumentException("Sorry You can't hard delete Directly");
         }
@@ -345,10 +374,12 @@ public class WorkerUserServiceImpl implements WorkerUserService {
         worker.setAccountStatus(accountStatus); // assign to user
 
         workerRepository.save(worker); // cascade should handle persist/update
+        principalCache.evict(worker);
 
     }
 
     @Override
+    @Transactional
     public WorkerResponse update(Long id, WorkerRequest request) throws Exception {
         log.info("Updating worker with ID: {}", id);
         
@@ -365,6 +396,8 @@ public class WorkerUserServiceImpl implements WorkerUserService {
         if (!existingWorker.getOwner().getId().equals(owner.getId())) {
             throw new RuntimeException("Worker does not belong to current user");
         }
+        // Email and roles may change below, so drop the principal cached under the old keys
+        principalCache.evict(existingWorker);
         
         // Update basic fields
         existingWorker.setName(request.getName());
@@ -395,6 +428,10 @@ public class WorkerUserServiceImpl implements WorkerUserService {
                     .map(roleName -> roleRepository.findByName(roleName)
                             .orElseThrow(() -> new ResourceNotFoundException("Role", "name", roleName)))
                     .collect(Collectors.toSet());
+            // Deleted workers are not counted, so only live workers move between counters
+            if (!existingWorker.isDeleted()) {
+                tenantCounterService.moveWorkerRoles(owner.getId(), existingWorker.getRoles(), roles);
+            }
             existingWorker.setRoles(roles);
         }
         
@@ -416,6 +453,9 @@ public class WorkerUserServiceImpl implements WorkerUserService {
         return response;
     }
 
+    private Long ownerIdOf(Worker worker) {
+        return worker.getOwner() != null ? worker.getOwner().getId() : null;
+    }
 
 }
                    
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.vijay.User_Master.Helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BirthdayKeysTest {
+
+    private static final LocalDate FEB_28_2025 = LocalDate.of(2025, 2, 28);
+    private static final LocalDate MAR_1_2025 = LocalDate.of(2025, 3, 1);
+
+    @Test
+    void keyIsMonthAndDay() {
+        assertThat(BirthdayKeys.of(LocalDate.of(2010, 1, 5))).isEqualTo(105);
+        assertThat(BirthdayKeys.of(LocalDate.of(2012, 2, 29))).isEqualTo(BirthdayKeys.LEAP_DAY);
+        assertThat(BirthdayKeys.of(LocalDate.of(2010, 12, 31))).isEqualTo(1231);
+    }
+
+    @Test
+    void ordinaryDayMatchesOnlyItself() {
+        for (BirthdayKeys.LeapDay leapDay : BirthdayKeys.LeapDay.values()) {
+            assertThat(BirthdayKeys.celebratedOn(LocalDate.of(2025, 6, 15), leapDay)).containsExactly(615);
+        }
+    }
+
+    @Test
+    void feb28GreetsLeapDayBirthdaysOn28FebruaryInCommonYears() {
+        assertThat(BirthdayKeys.celebratedOn(FEB_28_2025, BirthdayKeys.LeapDay.FEB_28)).containsExactly(228, 229);
+        assertThat(BirthdayKeys.celebratedOn(MAR_1_2025, BirthdayKeys.LeapDay.FEB_28)).containsExactly(301);
+    }
+
+    @Test
+    void mar1GreetsLeapDayBirthdaysOn1MarchInCommonYears() {
+        assertThat(BirthdayKeys.celebratedOn(FEB_28_2025, BirthdayKeys.LeapDay.MAR_1)).containsExactly(228);
+        assertThat(BirthdayKeys.celebratedOn(MAR_1_2025, BirthdayKeys.LeapDay.MAR_1)).containsExactly(301, 229);
+    }
+
+    @Test
+    void skipNeverGreetsLeapDayBirthdaysInCommonYears() {
+        assertThat(BirthdayKeys.celebratedOn(FEB_28_2025, BirthdayKeys.LeapDay.SKIP)).containsExactly(228);
+        assertThat(BirthdayKeys.celebratedOn(MAR_1_2025, BirthdayKeys.LeapDay.SKIP)).containsExactly(301);
+    }
+
+    @Test
+    void leapYearGreetsLeapDayBirthdaysOnTheDay() {
+        for (BirthdayKeys.LeapDay leapDay : BirthdayKeys.LeapDay.values()) {
+            assertThat(BirthdayKeys.celebratedOn(LocalDate.of(2028, 2, 28), leapDay)).containsExactly(228);
+            assertThat(BirthdayKeys.celebratedOn(LocalDate.of(2028, 2, 29), leapDay)).containsExactly(229);
+            assertThat(BirthdayKeys.celebratedOn(LocalDate.of(2028, 3, 1), leapDay)).containsExactly(301);
+        }
+    }
+}
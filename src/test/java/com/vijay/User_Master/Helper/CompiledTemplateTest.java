@@ -0,0 +1,78 @@
+package com.vijay.User_Master.Helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledTemplateTest {
+
+    @Test
+    void rendersLiteralsAndValues() {
+        CompiledTemplate template = CompiledTemplate.compile("Dear {{name}}, fee of Rs. {{amount:2}} is due on {{ dueDate }}.");
+
+        assertThat(render(template, Map.of("name", "Asha", "amount", 1234.5, "dueDate", "10-Jan-2025")))
+                .isEqualTo("Dear Asha, fee of Rs. 1234.50 is due on 10-Jan-2025.");
+    }
+
+    @Test
+    void roundsHalfUpLikeStringFormat() {
+        CompiledTemplate template = CompiledTemplate.compile("{{p:0}}% / {{q:1}} / {{r:2}}");
+
+        assertThat(render(template, Map.of("p", 72.5, "q", 0.25, "r", new BigDecimal("2.345"))))
+                .isEqualTo("73% / 0.3 / 2.35");
+    }
+
+    @Test
+    void rendersMissingValueAsEmpty() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("section", null);
+
+        assertThat(render(CompiledTemplate.compile("Class {{className}}{{section}}!"), values)).isEqualTo("Class !");
+    }
+
+    @Test
+    void leavesTextWithoutPlaceholdersUnchanged() {
+        assertThat(render(CompiledTemplate.compile("No placeholders here"), Map.of())).isEqualTo("No placeholders here");
+    }
+
+    @Test
+    void appendsToExistingBuffer() {
+        StringBuilder out = new StringBuilder("<ul>");
+        CompiledTemplate.compile("<li>{{subject}}</li>").render(Map.of("subject", "Maths"), out);
+
+        assertThat(out.toString()).isEqualTo("<ul><li>Maths</li>");
+    }
+
+    @Test
+    void rejectsUnclosedPlaceholder() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("Dear {{name, welcome"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsInvalidDecimals() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("{{amount:two}}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsDecimalsOutOfRange() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("{{amount:1000000000}}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledTemplate.compile("{{amount:-1}}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(render(CompiledTemplate.compile("{{amount:10}}"), Map.of("amount", 1.5)))
+                .isEqualTo("1.5000000000");
+    }
+
+    private static String render(CompiledTemplate template, Map<String, Object> values) {
+        StringBuilder out = new StringBuilder();
+        template.render(values, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.vijay.User_Master.Helper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmsSegmentsTest {
+
+    @Test
+    void countsGsm7SegmentsAt160Then153() {
+        assertThat(SmsSegments.count("a".repeat(160)))
+                .isEqualTo(new SmsSegments.Count(SmsSegments.Encoding.GSM7, 160, 1));
+        assertThat(SmsSegments.count("a".repeat(161)).segments()).isEqualTo(2);
+        assertThat(SmsSegments.count("a".repeat(306)).segments()).isEqualTo(2);
+        assertThat(SmsSegments.count("a".repeat(307)).segments()).isEqualTo(3);
+    }
+
+    @Test
+    void countsExtensionCharactersAsTwoSeptets() {
+        SmsSegments.Count count = SmsSegments.count("Fee: €10 [due]");
+
+        assertThat(count.encoding()).isEqualTo(SmsSegments.Encoding.GSM7);
+        assertThat(count.units()).isEqualTo(17);
+        assertThat(SmsSegments.count("€".repeat(80)).segments()).isEqualTo(1);
+        assertThat(SmsSegments.count("€".repeat(81)).segments()).isEqualTo(2);
+    }
+
+    @Test
+    void countsUcs2SegmentsAt70Then67() {
+        assertThat(SmsSegments.count("✅" + "a".repeat(69)))
+                .isEqualTo(new SmsSegments.Count(SmsSegments.Encoding.UCS2, 70, 1));
+        assertThat(SmsSegments.count("✅" + "a".repeat(70)).segments()).isEqualTo(2);
+        assertThat(SmsSegments.count("✅" + "a".repeat(134)).segments()).isEqualTo(3);
+    }
+
+    @Test
+    void countsEmptyTextAsNoSegments() {
+        assertThat(SmsSegments.count("").segments()).isEqualTo(0);
+    }
+
+    @Test
+    void devanagariNameKeepsMessageInUcs2() {
+        String text = "Dear Parent, आरव was absent today.";
+
+        assertThat(SmsSegments.isGsm7(text)).isFalse();
+        assertThat(SmsSegments.count(text).encoding()).isEqualTo(SmsSegments.Encoding.UCS2);
+        assertThat(SmsSegments.count(text).units()).isEqualTo(text.length());
+    }
+
+    @Test
+    void rewritesPunctuationAndRupeeToGsm7() {
+        String text = SmsSegments.toGsm7("“Fees” due – ₹500… it’s late");
+
+        assertThat(text).isEqualTo("\"Fees\" due - Rs.500... it's late");
+        assertThat(SmsSegments.isGsm7(text)).isTrue();
+    }
+
+    @Test
+    void stripsAccentsAndDropsEmoji() {
+        assertThat(SmsSegments.toGsm7("✅ Daily Attendance")).isEqualTo("Daily Attendance");
+        assertThat(SmsSegments.toGsm7("Chloë Ângela")).isEqualTo("Chloe Angela");
+        // é and ñ are in the GSM alphabet and stay as they are
+        assertThat(SmsSegments.toGsm7("José Muñoz")).isEqualTo("José Muñoz");
+    }
+
+    @Test
+    void leavesGsm7TextUntouched() {
+        String text = "Student:  Aarav\n  Class: 5-A";
+
+        assertThat(SmsSegments.toGsm7(text)).isSameAs(text);
+    }
+
+    @Test
+    void estimatesPlaceholdersAtTheGivenWidth() {
+        SmsSegments.Count count = SmsSegments.estimate("Hi {{firstName}} {{lastName}}", 10);
+
+        assertThat(count.encoding()).isEqualTo(SmsSegments.Encoding.GSM7);
+        assertThat(count.units()).isEqualTo(24);
+    }
+
+    @Test
+    void fitTemplateLeavesTemplatesWithinBudgetAlone() {
+        String source = "Daily Attendance\n\nStudent: {{firstName}}\n\nThank you";
+
+        assertThat(SmsSegments.fitTemplate(source, 1, 12)).isSameAs(source);
+        assertThat(SmsSegments.fitTemplate(source, 0, 12)).isSameAs(source);
+    }
+
+    @Test
+    void fitTemplateDropsStaticLinesFromTheEnd() {
+        String filler = "x".repeat(100);
+        String source = "Daily Attendance\n\n" + filler + "\nStudent: {{firstName}}\n\n" + filler + "\n" + filler;
+
+        String fitted = SmsSegments.fitTemplate(source, 2, 12);
+
+        assertThat(fitted).isEqualTo("Daily Attendance\n" + filler + "\nStudent: {{firstName}}\n" + filler);
+        assertThat(SmsSegments.estimate(fitted, 12).segments()).isEqualTo(2);
+    }
+
+    @Test
+    void fitTemplateKeepsFirstLineAndPlaceholderLines() {
+        String heading = "H".repeat(200);
+        String source = heading + "\n" + "Student: {{firstName}} " + "y".repeat(200) + "\n" + "z".repeat(50);
+
+        String fitted = SmsSegments.fitTemplate(source, 1, 12);
+
+        assertThat(fitted).isEqualTo(heading + "\n" + "Student: {{firstName}} " + "y".repeat(200));
+    }
+}
@@ -0,0 +1,220 @@
+package com.vijay.User_Master.Helper;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SmtpTransportPool against an in-process SMTP server: batches reuse one connection, a reused
+ * connection outpaces a connection per email, and an unreachable server fails a batch after one
+ * reconnect instead of once per message
+ */
+class SmtpTransportPoolTest {
+
+    private FakeSmtpServer server;
+    private SmtpTransportPool pool;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void sendsBatchOverOneConnection() throws Exception {
+        server = new FakeSmtpServer(true, 0);
+        pool = pool(server.port(), 100);
+
+        Map<Integer, String> failures = pool.send(messages(50));
+
+        assertThat(failures).isEmpty();
+        assertThat(server.delivered.get()).isEqualTo(50);
+        assertThat(server.connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void reusesConnectionAcrossBatches() throws Exception {
+        server = new FakeSmtpServer(true, 0);
+        pool = pool(server.port(), 100);
+
+        pool.send(messages(10));
+        pool.send(messages(10));
+
+        assertThat(server.delivered.get()).isEqualTo(20);
+        assertThat(server.connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void pooledConnectionOutpacesAConnectionPerEmail() throws Exception {
+        // Each new connection waits 20ms before the greeting, standing in for TCP, TLS and AUTH round trips
+        server = new FakeSmtpServer(true, 20);
+
+        // One message per connection: what sending each email on its own connection costs
+        pool = pool(server.port(), 1);
+        long perEmailNanos = timeSend(50);
+        assertThat(server.connections.get()).isEqualTo(50);
+        pool.shutdown();
+
+        server.connections.set(0);
+        pool = pool(server.port(), 100);
+        long pooledNanos = timeSend(50);
+        assertThat(server.connections.get()).isEqualTo(1);
+
+        assertThat(server.delivered.get()).isEqualTo(100);
+        // The per-email run pays the handshake 50 times (at least 1s); the pooled run pays it once
+        assertThat(perEmailNanos).isGreaterThanOrEqualTo(50 * 20_000_000L);
+        assertThat(pooledNanos * 3).isLessThan(perEmailNanos);
+    }
+
+    @Test
+    void failsRestOfBatchWhenServerIsDown() throws Exception {
+        server = new FakeSmtpServer(false, 0);
+        pool = pool(server.port(), 100);
+
+        Map<Integer, String> failures = pool.send(messages(50));
+
+        assertThat(failures).hasSize(50);
+        assertThat(failures.values()).allMatch(error -> error.startsWith("SMTP unavailable"));
+        // First attempt plus one reconnect, not two per message
+        assertThat(server.connections.get()).isLessThanOrEqualTo(2);
+    }
+
+    private long timeSend(int count) throws Exception {
+        List<MimeMessage> batch = messages(count);
+        long start = System.nanoTime();
+        Map<Integer, String> failures = pool.send(batch);
+        long elapsed = System.nanoTime() - start;
+        assertThat(failures).isEmpty();
+        return elapsed;
+    }
+
+    private SmtpTransportPool pool(int port, int maxMessagesPerConnection) {
+        MailProperties properties = new MailProperties();
+        properties.setHost("localhost");
+        properties.setPort(port);
+        properties.getProperties().put("mail.smtp.connectiontimeout", "2000");
+        properties.getProperties().put("mail.smtp.timeout", "2000");
+        return new SmtpTransportPool(properties, 1, 0, maxMessagesPerConnection, 60000);
+    }
+
+    private List<MimeMessage> messages(int count) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = pool.createMessage();
+            message.setFrom(new InternetAddress("school@example.com"));
+            message.setRecipients(MimeMessage.RecipientType.TO, InternetAddress.parse("parent" + i + "@example.com"));
+            message.setSubject("Message " + i, "UTF-8");
+            message.setText("Body " + i, "UTF-8");
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    /**
+     * Minimal SMTP server; when not accepting mail it closes every connection straight away.
+     * handshakeDelayMs holds back the greeting of every new connection.
+     */
+    private static final class FakeSmtpServer implements AutoCloseable {
+
+        private final ServerSocket socket = new ServerSocket(0);
+        private final boolean acceptMail;
+        private final long handshakeDelayMs;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger delivered = new AtomicInteger();
+
+        private FakeSmtpServer(boolean acceptMail, long handshakeDelayMs) throws IOException {
+            this.acceptMail = acceptMail;
+            this.handshakeDelayMs = handshakeDelayMs;
+            Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return socket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket client = socket.accept();
+                    connections.incrementAndGet();
+                    if (!acceptMail) {
+                        client.close();
+                        continue;
+                    }
+                    Thread session = new Thread(() -> converse(client), "fake-smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void converse(Socket client) {
+            try (client;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                if (handshakeDelayMs > 0) {
+                    Thread.sleep(handshakeDelayMs);
+                }
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // Message content is not needed
+                            }
+                            delivered.incrementAndGet();
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
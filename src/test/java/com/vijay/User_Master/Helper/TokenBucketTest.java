@@ -0,0 +1,63 @@
+package com.vijay.User_Master.Helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    @Test
+    void spacesPermitsAtTheConfiguredRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(50, 1);
+
+        long elapsed = timeMillis(() -> acquire(bucket, 11));
+
+        // 10 intervals of 20 ms after the first permit
+        assertThat(elapsed).isGreaterThanOrEqualTo(180L);
+    }
+
+    @Test
+    void savesPermitsUpToBurstWhileIdle() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(20, 5);
+        Thread.sleep(300);
+
+        long burst = timeMillis(() -> acquire(bucket, 5));
+        long next = timeMillis(() -> acquire(bucket, 1));
+
+        assertThat(burst).isLessThan(40L);
+        assertThat(next).isGreaterThanOrEqualTo(30L);
+    }
+
+    @Test
+    void pauseHoldsBackEveryCaller() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 10);
+        bucket.pause(200);
+
+        assertThat(timeMillis(() -> acquire(bucket, 1))).isGreaterThanOrEqualTo(190L);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void acquire(TokenBucket bucket, int permits) throws InterruptedException {
+        for (int i = 0; i < permits; i++) {
+            bucket.acquire();
+        }
+    }
+
+    private static long timeMillis(Action action) throws InterruptedException {
+        long start = System.nanoTime();
+        action.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private interface Action {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,162 @@
+package com.vijay.User_Master.Helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TwilioMessageSender against a local HTTP stub of the Messages API
+ */
+class TwilioMessageSenderTest {
+
+    private static final int MAX_CONCURRENCY = 3;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final Queue<String> forms = new ConcurrentLinkedQueue<>();
+    private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger rateLimitedResponses = new AtomicInteger();
+    private volatile int errorStatus;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/2010-04-01/Accounts/AC123/Messages.json", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void postsMessageAndReturnsSid() {
+        TwilioMessageSender.Result result = sender().send(TwilioMessageSender.Message.sms("9876543210", "Fee due ₹500"));
+
+        assertThat(result.accepted()).isTrue();
+        assertThat(result.sid()).isEqualTo("SM1");
+        String form = URLDecoder.decode(forms.peek(), StandardCharsets.UTF_8);
+        assertThat(form).contains("To=+919876543210", "From=+15005550006", "Body=Fee due ₹500");
+        assertThat(authorizations.peek()).startsWith("Basic ");
+    }
+
+    @Test
+    void prefixesWhatsAppAddresses() {
+        sender().send(TwilioMessageSender.Message.whatsApp("9876543210", "Hello", null));
+
+        String form = URLDecoder.decode(forms.peek(), StandardCharsets.UTF_8);
+        assertThat(form).contains("To=whatsapp:+919876543210", "From=whatsapp:+14155238886");
+    }
+
+    @Test
+    void retriesAfterRateLimit() {
+        rateLimitedResponses.set(2);
+
+        TwilioMessageSender.Result result = sender().send(TwilioMessageSender.Message.sms("9876543210", "Hello"));
+
+        assertThat(result.accepted()).isTrue();
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void reportsProviderError() {
+        errorStatus = 400;
+
+        TwilioMessageSender.Result result = sender().send(TwilioMessageSender.Message.sms("123", "Hello"));
+
+        assertThat(result.accepted()).isFalse();
+        assertThat(result.error()).contains("Twilio HTTP 400", "Invalid 'To' Phone Number");
+    }
+
+    @Test
+    void sendsBatchWithinConcurrencyCap() {
+        List<TwilioMessageSender.Message> messages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            messages.add(TwilioMessageSender.Message.sms("98765432" + String.format("%02d", i), "Message " + i));
+        }
+
+        List<TwilioMessageSender.Result> results = sender().sendAll(messages);
+
+        assertThat(results).hasSize(20);
+        assertThat(results).allMatch(TwilioMessageSender.Result::accepted);
+        assertThat(requests.get()).isEqualTo(20);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(MAX_CONCURRENCY);
+    }
+
+    @Test
+    void doesNotCallTwilioWithoutCredentials() {
+        TwilioMessageSender unconfigured = new TwilioMessageSender(new ObjectMapper(), "", "", "", "whatsapp:+14155238886",
+                false, baseUrl(), "", MAX_CONCURRENCY, 1000, 10, 0, 1, 3, 10, 2000);
+
+        TwilioMessageSender.Result result = unconfigured.send(TwilioMessageSender.Message.sms("9876543210", "Hello"));
+
+        assertThat(result.accepted()).isFalse();
+        assertThat(result.error()).isEqualTo("SMS is not configured");
+        assertThat(requests.get()).isEqualTo(0);
+    }
+
+    private TwilioMessageSender sender() {
+        return new TwilioMessageSender(new ObjectMapper(), "AC123", "secret", "+15005550006", "whatsapp:+14155238886",
+                true, baseUrl(), "", MAX_CONCURRENCY, 1000, 10, 0, 1, 3, 10, 2000);
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int number = requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            forms.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            Thread.sleep(20);
+            if (rateLimitedResponses.getAndUpdate(left -> Math.max(left - 1, 0)) > 0) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                respond(exchange, 429, "{\"code\":20429,\"message\":\"Too Many Requests\"}");
+            } else if (errorStatus != 0) {
+                respond(exchange, errorStatus, "{\"code\":21211,\"message\":\"Invalid 'To' Phone Number\"}");
+            } else {
+                respond(exchange, 201, "{\"sid\":\"SM" + number + "\",\"status\":\"queued\"}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
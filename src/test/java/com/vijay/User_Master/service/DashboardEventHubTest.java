@@ -0,0 +1,62 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.dto.DashboardEvent;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardEventHubTest {
+
+    private final DashboardEventHub hub = new DashboardEventHub(4, 2);
+
+    @Test
+    void countsSubscribersFromSubscriptionUntilCancel() {
+        Flux<DashboardEvent> events = hub.subscribe(7L);
+        assertThat(hub.getSubscriberCount()).isZero();
+
+        Disposable subscription = events.subscribe();
+        assertThat(hub.getSubscriberCount()).isEqualTo(1);
+
+        subscription.dispose();
+        assertThat(hub.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void streamThatIsNeverSubscribedHoldsNoSlot() {
+        hub.subscribe(7L);
+        hub.subscribe(7L);
+
+        assertThat(hub.getSubscriberCount()).isZero();
+        assertThat(hub.subscribe(7L)).isNotNull();
+    }
+
+    @Test
+    void rejectsSubscribersPastTheCap() {
+        Disposable first = hub.subscribe(7L).subscribe();
+        Disposable second = hub.subscribe(8L).subscribe();
+
+        assertThat(hub.subscribe(9L)).isNull();
+
+        first.dispose();
+        second.dispose();
+        assertThat(hub.subscribe(9L)).isNotNull();
+    }
+
+    @Test
+    void deliversEventsOnlyToTheSchoolsSubscribers() {
+        List<DashboardEvent> received = new ArrayList<>();
+        Disposable subscription = hub.subscribe(7L).subscribe(received::add);
+
+        hub.publishAfterCommit(7L, DashboardEvent.FEE_PAID, Map.of("amount", 500));
+        hub.publishAfterCommit(8L, DashboardEvent.FEE_PAID, Map.of("amount", 900));
+
+        assertThat(received).extracting(DashboardEvent::getOwnerId).containsExactly(7L);
+        subscription.dispose();
+    }
+}
@@ -0,0 +1,146 @@
+package com.vijay.User_Master.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeliveryStatusIngestorTest {
+
+    // Example request from Twilio's webhook security documentation
+    private static final String AUTH_TOKEN = "12345";
+    private static final String CALLBACK_URL = "https://mycompany.com/myapp.php?foo=1&bar=2";
+    private static final Map<String, String> PARAMS = Map.of(
+            "CallSid", "CA1234567890ABCDE", "Caller", "+12349013030", "Digits", "1234",
+            "From", "+12349013030", "To", "+18005551212");
+    private static final String SIGNATURE = "0/KCTR6DLpKmkAf8muzZqo1nDgQ=";
+
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private PreparedStatement statement;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        statement = mock(PreparedStatement.class);
+        // Run the statement setter for every row and report each row as matched
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            Collection<Object> rows = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object row : rows) {
+                setter.setValues(statement, row);
+            }
+            int[] counts = new int[rows.size()];
+            Arrays.fill(counts, 1);
+            return new int[][]{counts};
+        });
+    }
+
+    @Test
+    void acceptsTwilioSignature() {
+        DeliveryStatusIngestor ingestor = ingestor(AUTH_TOKEN, CALLBACK_URL, true);
+
+        assertThat(ingestor.isSignatureValid(PARAMS, SIGNATURE)).isTrue();
+    }
+
+    @Test
+    void rejectsWrongOrMissingSignature() {
+        DeliveryStatusIngestor ingestor = ingestor(AUTH_TOKEN, CALLBACK_URL, true);
+
+        assertThat(ingestor.isSignatureValid(PARAMS, "AAAAAAAAAAAAAAAAAAAAAAAAAAA=")).isFalse();
+        assertThat(ingestor.isSignatureValid(PARAMS, null)).isFalse();
+        assertThat(ingestor.isSignatureValid(Map.of("CallSid", "CA1234567890ABCDE"), SIGNATURE)).isFalse();
+    }
+
+    @Test
+    void rejectsEveryCallbackWhenNotConfigured() {
+        assertThat(ingestor("", CALLBACK_URL, true).isSignatureValid(PARAMS, SIGNATURE)).isFalse();
+        assertThat(ingestor(AUTH_TOKEN, "", true).isSignatureValid(PARAMS, SIGNATURE)).isFalse();
+    }
+
+    @Test
+    void acceptsUnsignedCallbacksOnlyWhenValidationIsOff() {
+        assertThat(ingestor("", "", false).isSignatureValid(PARAMS, null)).isTrue();
+    }
+
+    @Test
+    void keepsTheFurthestStatusPerMessage() throws Exception {
+        DeliveryStatusIngestor ingestor = ingestor(AUTH_TOKEN, CALLBACK_URL, true);
+        ingestor.offer("SM1", "sent", null);
+        ingestor.offer("SM1", "delivered", null);
+        ingestor.offer("SM1", "queued", null);
+        ingestor.offer("SM2", "sending", null);
+        ingestor.offer("SM2", "SENT", null);
+
+        ingestor.flush();
+
+        ArgumentCaptor<String> statuses = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> sids = ArgumentCaptor.forClass(String.class);
+        verify(statement, times(2)).setString(eq(1), statuses.capture());
+        verify(statement, times(2)).setString(eq(4), sids.capture());
+        assertThat(sids.getAllValues()).containsExactly("SM1", "SM2");
+        assertThat(statuses.getAllValues()).containsExactly("delivered", "sent");
+        verify(statement).setInt(5, 5);
+        verify(statement).setInt(5, 4);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void announcesUndeliveredMessages() {
+        DeliveryStatusIngestor ingestor = ingestor(AUTH_TOKEN, CALLBACK_URL, true);
+        ingestor.offer("SM1", "sent", null);
+        ingestor.offer("SM1", "undelivered", "30003");
+        ingestor.offer("SM2", "delivered", null);
+
+        ingestor.flush();
+
+        verify(eventPublisher).publishEvent(NotificationFailedEvent.ofProviderMessages(List.of("SM1")));
+    }
+
+    @Test
+    void ignoresUnknownStatusesAndMissingSids() {
+        DeliveryStatusIngestor ingestor = ingestor(AUTH_TOKEN, CALLBACK_URL, true);
+
+        assertThat(ingestor.offer("SM1", "bogus", null)).isTrue();
+        assertThat(ingestor.offer(" ", "delivered", null)).isTrue();
+        assertThat(ingestor.offer(null, "delivered", null)).isTrue();
+
+        assertThat(ingestor.getStats()).containsEntry("received", 0L).containsEntry("buffered", 0L);
+    }
+
+    @Test
+    void refusesCallbacksWhenTheBufferIsFull() {
+        DeliveryStatusIngestor ingestor = new DeliveryStatusIngestor(jdbcTemplate, eventPublisher,
+                AUTH_TOKEN, CALLBACK_URL, true, 1, 1000, 60_000);
+
+        assertThat(ingestor.offer("SM1", "sent", null)).isTrue();
+        assertThat(ingestor.offer("SM2", "sent", null)).isFalse();
+        assertThat(ingestor.getStats()).containsEntry("rejected", 1L);
+    }
+
+    private DeliveryStatusIngestor ingestor(String authToken, String callbackUrl, boolean validateSignature) {
+        return new DeliveryStatusIngestor(jdbcTemplate, eventPublisher, authToken, callbackUrl,
+                validateSignature, 100, 1000, 60_000);
+    }
+}
@@ -0,0 +1,93 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.repository.JobLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two replicas sharing one lease table. The repository mock follows the semantics of
+ * JobLeaseRepository.upsert (free, expired or own lease is taken; a live lease of another holder is
+ * left alone) against a clock the test moves; the native MySQL statement itself needs a database.
+ */
+class JobLeaseServiceTest {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private record Lease(String holder, long expiresAtMicros) {
+    }
+
+    private final Map<String, Lease> leases = new HashMap<>();
+    private long nowMicros;
+
+    private JobLeaseService first;
+    private JobLeaseService second;
+
+    @BeforeEach
+    void setUp() {
+        JobLeaseRepository repository = mock(JobLeaseRepository.class);
+        when(repository.upsert(anyString(), anyString(), anyLong())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            String holder = invocation.getArgument(1);
+            long ttlMicros = invocation.getArgument(2);
+            Lease current = leases.get(key);
+            if (current == null || current.holder().equals(holder) || current.expiresAtMicros() < nowMicros) {
+                leases.put(key, new Lease(holder, nowMicros + ttlMicros));
+                return current == null ? 1 : 2;
+            }
+            return 0;
+        });
+        when(repository.findHolder(anyString())).thenAnswer(invocation -> {
+            Lease current = leases.get(invocation.<String>getArgument(0));
+            return current != null ? current.holder() : null;
+        });
+        first = new JobLeaseService(repository, "pod-a", 60_000, 48);
+        second = new JobLeaseService(repository, "pod-b", 60_000, 48);
+    }
+
+    @Test
+    void onlyOneInstanceTakesAFreeLease() {
+        assertThat(first.tryAcquire("partition:0", TTL)).isTrue();
+        assertThat(second.tryAcquire("partition:0", TTL)).isFalse();
+    }
+
+    @Test
+    void holderRenewsItsLease() {
+        first.tryAcquire("partition:0", TTL);
+        advance(Duration.ofSeconds(25));
+        assertThat(first.tryAcquire("partition:0", TTL)).isTrue();
+
+        // Renewed at 25s, so it is still live at 50s
+        advance(Duration.ofSeconds(25));
+        assertThat(second.tryAcquire("partition:0", TTL)).isFalse();
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() {
+        first.tryAcquire("partition:0", TTL);
+        advance(TTL.plusSeconds(1));
+
+        assertThat(second.tryAcquire("partition:0", TTL)).isTrue();
+        assertThat(first.tryAcquire("partition:0", TTL)).isFalse();
+    }
+
+    @Test
+    void runIsClaimedOnce() {
+        assertThat(first.claimRun("fee-reminders-7", "2025-01-10")).isTrue();
+        assertThat(second.claimRun("fee-reminders-7", "2025-01-10")).isFalse();
+        assertThat(second.claimRun("fee-reminders-7", "2025-01-11")).isTrue();
+    }
+
+    private void advance(Duration duration) {
+        nowMicros += duration.toNanos() / 1000;
+    }
+}
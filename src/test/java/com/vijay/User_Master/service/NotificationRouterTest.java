@@ -0,0 +1,163 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.entity.Worker;
+import com.vijay.User_Master.repository.NotificationChannelPolicyRepository;
+import com.vijay.User_Master.repository.NotificationDigestItemRepository;
+import com.vijay.User_Master.repository.NotificationOutboxRepository;
+import com.vijay.User_Master.repository.WorkerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routes a fixture campaign against mocked repositories and counts what reaches the database and the
+ * paid providers: one contact-profile query per 500 students, one paid send per parent phone.
+ */
+class NotificationRouterTest {
+
+    private static final Long OWNER_ID = 7L;
+
+    private WorkerRepository workerRepository;
+    private NotificationOutboxRepository outboxRepository;
+    private NotificationChannelPolicyRepository policyRepository;
+    private NotificationOutboxService outboxService;
+    private NotificationTemplateEngine templateEngine;
+    private NotificationRouter router;
+    private Map<Long, Worker> fixture;
+
+    @BeforeEach
+    void setUp() {
+        workerRepository = mock(WorkerRepository.class);
+        outboxRepository = mock(NotificationOutboxRepository.class);
+        policyRepository = mock(NotificationChannelPolicyRepository.class);
+        outboxService = mock(NotificationOutboxService.class);
+        templateEngine = mock(NotificationTemplateEngine.class);
+        when(workerRepository.findContactProfiles(eq(OWNER_ID), anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(1);
+            return ids.stream().map(fixture::get).toList();
+        });
+        when(outboxRepository.findCampaignRecipients(anyLong(), anyString(), anyCollection(), any()))
+                .thenReturn(Set.of());
+        when(policyRepository.findById(OWNER_ID)).thenReturn(Optional.empty());
+        // The rendered email is the template key, so the test can see which template was used
+        when(templateEngine.render(any(), anyString(), any(Object[].class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        router = router(12, 20, List.of("WHATSAPP", "SMS", "EMAIL"));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        router.shutdown();
+    }
+
+    @Test
+    void routesCampaignWithOneQueryPerChunkAndOneSendPerParent() {
+        // 1,200 students in sibling pairs: 600 families, every tenth reachable by email only
+        List<Worker> students = new ArrayList<>();
+        for (long id = 0; id < 1200; id++) {
+            long family = id / 2;
+            boolean emailOnly = family % 10 == 0;
+            students.add(Worker.builder()
+                    .id(id)
+                    .firstName("Child" + id)
+                    .parentPhone(emailOnly ? null : String.valueOf(9_000_000_000L + family))
+                    .parentEmail("family" + family + "@example.com")
+                    .build());
+        }
+        fixture = students.stream().collect(Collectors.toMap(Worker::getId, Function.identity()));
+
+        int queued = router.route(OWNER_ID, "sports-day", fixture.keySet().stream().sorted().toList(),
+                "Sports Day", "Dear parent of {{studentNames}}, sports day is on Friday.").join();
+
+        assertThat(queued).isEqualTo(600);
+        verify(workerRepository, times(3)).findContactProfiles(eq(OWNER_ID), anyCollection());
+        // WhatsApp is the cheapest channel; SMS and then email are kept as fallbacks
+        verify(outboxService, times(540)).enqueueRouted(eq(NotificationOutbox.Priority.BULK), eq(OWNER_ID),
+                eq(NotificationOutbox.Channel.WHATSAPP),
+                anyString(), eq("Sports Day"), anyString(), anyString(), eq("SMS,EMAIL"), anyString());
+        verify(outboxService, never()).enqueueRouted(any(), eq(OWNER_ID), eq(NotificationOutbox.Channel.SMS),
+                anyString(), anyString(), anyString(), anyString(), any(), any());
+
+        ArgumentCaptor<String> emailBodies = ArgumentCaptor.forClass(String.class);
+        verify(outboxService, times(60)).enqueueRouted(eq(NotificationOutbox.Priority.BULK), eq(OWNER_ID),
+                eq(NotificationOutbox.Channel.EMAIL),
+                anyString(), eq("Sports Day"), emailBodies.capture(), anyString(), isNull(), isNull());
+        assertThat(emailBodies.getAllValues()).containsOnly("email/notification-message");
+
+        assertThat(router.getStats().getProfileQueries()).isEqualTo(3L);
+        assertThat(router.getStats().getNaiveLookups()).isEqualTo(3600L);
+        assertThat(router.getStats().getCoalesced()).isEqualTo(600L);
+        assertThat(router.getStats().getEstimatedCostPaise()).isEqualTo(540L * 12);
+    }
+
+    @Test
+    void sendsSiblingsOneMessageNamingBoth() {
+        fixture = Map.of(
+                1L, Worker.builder().id(1L).firstName("Aarav").parentPhone("+91 98765 43210").build(),
+                2L, Worker.builder().id(2L).firstName("Diya").parentPhone("09876543210").build());
+
+        router.route(OWNER_ID, "sports-day", List.of(1L, 2L), null, "{{studentNames}}: sports day on Friday").join();
+
+        verify(outboxService).enqueueRouted(eq(NotificationOutbox.Priority.BULK), eq(OWNER_ID),
+                eq(NotificationOutbox.Channel.WHATSAPP), eq("9876543210"),
+                anyString(), eq("Aarav and Diya: sports day on Friday"), anyString(), eq("SMS"), isNull());
+    }
+
+    @Test
+    void pricesAndSendsNonGsmTextAsWritten() throws InterruptedException {
+        router.shutdown();
+        router = router(30, 20, List.of("WHATSAPP", "SMS"));
+        String shortText = "{{studentNames}} won the race";
+        String longText = "{{studentNames}} won the 100 m race on sports day. Congratulations from all of us! "
+                + "See you at the prize giving.";
+        fixture = Map.of(
+                1L, Worker.builder().id(1L).firstName("Aarav").parentPhone("9876543210").build(),
+                2L, Worker.builder().id(2L).firstName("आरव").parentPhone("9876543211").build());
+
+        router.route(OWNER_ID, "race-short", List.of(1L, 2L), null, shortText).join();
+        router.route(OWNER_ID, "race-long", List.of(2L), null, longText).join();
+
+        // One GSM-7 or UCS-2 segment (20) is cheaper than WhatsApp (30)
+        verify(outboxService).enqueueRouted(eq(NotificationOutbox.Priority.BULK), eq(OWNER_ID),
+                eq(NotificationOutbox.Channel.SMS), eq("9876543210"),
+                anyString(), eq("Aarav won the race"), anyString(), any(), any());
+        verify(outboxService).enqueueRouted(eq(NotificationOutbox.Priority.BULK), eq(OWNER_ID),
+                eq(NotificationOutbox.Channel.SMS), eq("9876543211"),
+                anyString(), eq("आरव won the race"), anyString(), any(), any());
+        // The Devanagari name keeps the long text in UCS-2: two segments (40) cost more than WhatsApp
+        verify(outboxService).enqueueRouted(eq(NotificationOutbox.Priority.BULK), eq(OWNER_ID),
+                eq(NotificationOutbox.Channel.WHATSAPP), eq("9876543211"),
+                anyString(), eq(longText.replace("{{studentNames}}", "आरव")), anyString(), eq("SMS"), isNull());
+    }
+
+    private NotificationRouter router(int whatsAppCost, int smsCost, List<String> channels) {
+        return new NotificationRouter(workerRepository, outboxRepository, policyRepository,
+                mock(NotificationDigestItemRepository.class), outboxService, new RecipientResolver(outboxRepository),
+                templateEngine, mock(PlatformTransactionManager.class), 1, whatsAppCost, smsCost, channels, true);
+    }
+}
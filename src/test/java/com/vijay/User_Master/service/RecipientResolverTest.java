@@ -0,0 +1,107 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.entity.Worker;
+import com.vijay.User_Master.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RecipientResolverTest {
+
+    private static final Long OWNER_ID = 7L;
+    private static final String CAMPAIGN = "event-invitation:42:2025-01-10";
+
+    private NotificationOutboxRepository outboxRepository;
+    private RecipientResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(NotificationOutboxRepository.class);
+        when(outboxRepository.findCampaignRecipients(anyLong(), anyString(), anyCollection(), any()))
+                .thenReturn(Set.of());
+        resolver = new RecipientResolver(outboxRepository);
+    }
+
+    @Test
+    void mergesSiblingsSharingAParentContact() {
+        Worker aarav = student(1L, "Aarav", "Parent@Example.com");
+        Worker diya = student(2L, "Diya", " parent@example.com ");
+        Worker kabir = student(3L, "Kabir", "other@example.com");
+
+        List<RecipientResolver.Recipient> recipients = resolver.resolve(OWNER_ID, CAMPAIGN,
+                NotificationOutbox.Channel.EMAIL, List.of(aarav, diya, kabir), Worker::getParentEmail);
+
+        assertThat(recipients).hasSize(2);
+        assertThat(recipients.get(0).address()).isEqualTo("parent@example.com");
+        assertThat(recipients.get(0).students()).containsExactly(aarav, diya);
+        assertThat(resolver.firstNames(recipients.get(0).students())).isEqualTo("Aarav and Diya");
+        assertThat(recipients.get(1).students()).containsExactly(kabir);
+    }
+
+    @Test
+    void skipsStudentsWithoutContact() {
+        List<RecipientResolver.Recipient> recipients = resolver.resolve(OWNER_ID, CAMPAIGN,
+                NotificationOutbox.Channel.EMAIL, List.of(student(1L, "Aarav", null), student(2L, "Diya", " ")),
+                Worker::getParentEmail);
+
+        assertThat(recipients).isEmpty();
+    }
+
+    @Test
+    void dropsAddressesTheSchoolAlreadyReachedInTheCampaign() {
+        when(outboxRepository.findCampaignRecipients(eq(OWNER_ID), eq(CAMPAIGN), anyCollection(), eq(NotificationOutbox.Status.DEAD)))
+                .thenReturn(Set.of("9876543210"));
+
+        List<String> addresses = resolver.resolveAddresses(OWNER_ID, CAMPAIGN, NotificationOutbox.Channel.SMS,
+                List.of("+91 98765 43210", "09876543211", "9876543212"));
+
+        assertThat(addresses).containsExactly("9876543211", "9876543212");
+        // SMS and WhatsApp share phone numbers, so both channels' earlier sends count
+        verify(outboxRepository).findCampaignRecipients(OWNER_ID, CAMPAIGN,
+                List.of(NotificationOutbox.Channel.SMS, NotificationOutbox.Channel.WHATSAPP), NotificationOutbox.Status.DEAD);
+    }
+
+    @Test
+    void doesNotCheckEarlierSendsWithoutCampaignOrSchool() {
+        List<String> addresses = resolver.resolveAddresses(null, null, NotificationOutbox.Channel.SMS,
+                List.of("9876543210", "+919876543210"));
+
+        assertThat(addresses).containsExactly("9876543210");
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void countsSavedMessages() {
+        resolver.resolve(OWNER_ID, CAMPAIGN, NotificationOutbox.Channel.EMAIL,
+                List.of(student(1L, "Aarav", "a@example.com"), student(2L, "Diya", "a@example.com")), Worker::getParentEmail);
+
+        assertThat(resolver.getStats().getTargeted()).isEqualTo(2L);
+        assertThat(resolver.getStats().getQueued()).isEqualTo(1L);
+        assertThat(resolver.getStats().getSavedByCoalescing()).isEqualTo(1L);
+    }
+
+    @Test
+    void normalisesPhoneNumbersToTenDigits() {
+        assertThat(RecipientResolver.normalize(NotificationOutbox.Channel.WHATSAPP, "+91-98765-43210")).isEqualTo("9876543210");
+        assertThat(RecipientResolver.normalize(NotificationOutbox.Channel.SMS, "09876543210")).isEqualTo("9876543210");
+        assertThat(RecipientResolver.normalize(NotificationOutbox.Channel.SMS, "n/a")).isNull();
+    }
+
+    private static Worker student(Long id, String firstName, String parentEmail) {
+        return Worker.builder().id(id).firstName(firstName).parentEmail(parentEmail).build();
+    }
+}
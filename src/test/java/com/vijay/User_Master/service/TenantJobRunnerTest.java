@@ -0,0 +1,112 @@
+package com.vijay.User_Master.service;
+
+import com.vijay.User_Master.entity.ScheduledJobCheckpoint;
+import com.vijay.User_Master.repository.ScheduledJobCheckpointRepository;
+import com.vijay.User_Master.repository.WorkerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TenantJobRunnerTest {
+
+    private static final Long OWNER_ID = 7L;
+    private static final String LEASE_KEY = "job:run:owner:7";
+
+    private ScheduledJobCheckpointRepository checkpointRepository;
+    private JobLeaseService leaseService;
+    private TenantJobRunner runner;
+    private final List<Long> savedCursors = new ArrayList<>();
+    private final AtomicBoolean held = new AtomicBoolean(true);
+
+    @BeforeEach
+    void setUp() {
+        checkpointRepository = mock(ScheduledJobCheckpointRepository.class);
+        leaseService = mock(JobLeaseService.class);
+        when(checkpointRepository.findByJobNameAndRunKeyAndOwnerId(anyString(), anyString(), anyLong()))
+                .thenReturn(Optional.empty());
+        when(checkpointRepository.save(any(ScheduledJobCheckpoint.class))).thenAnswer(invocation -> {
+            ScheduledJobCheckpoint checkpoint = invocation.getArgument(0);
+            savedCursors.add(checkpoint.getCursor());
+            return checkpoint;
+        });
+        when(leaseService.tryAcquire(eq(LEASE_KEY), any(Duration.class))).thenReturn(true);
+        when(leaseService.isHeld(LEASE_KEY)).thenAnswer(invocation -> held.get());
+        // 300ms lease, renewed every 100ms
+        WorkerRepository workerRepository = mock(WorkerRepository.class);
+        when(workerRepository.findActiveOwnerIds()).thenAnswer(invocation -> new ArrayList<>(List.of(OWNER_ID)));
+        runner = new TenantJobRunner(checkpointRepository, workerRepository, leaseService,
+                1, 10, 24, 300, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    void heartbeatRenewsTheLeaseDuringALongChunk() {
+        TenantJobRunner.RunSummary summary = runner.run("job", "run",
+                (ownerId, cursor, size) -> {
+                    if (cursor > 0) {
+                        return null;
+                    }
+                    sleep(1000);
+                    return new TenantJobRunner.Chunk(10, 10);
+                }).join();
+
+        assertThat(summary.completed()).isEqualTo(1);
+        // Two acquisitions by the steps, the rest by the heartbeat while the chunk ran
+        verify(leaseService, atLeast(6)).tryAcquire(eq(LEASE_KEY), any(Duration.class));
+        verify(leaseService).release(LEASE_KEY);
+    }
+
+    @Test
+    void chunkThatOutlivesItsLeaseDoesNotWriteTheCheckpoint() {
+        TenantJobRunner.RunSummary summary = runner.run("job", "run",
+                (ownerId, cursor, size) -> {
+                    // Another instance takes the school over while this chunk runs
+                    held.set(false);
+                    return new TenantJobRunner.Chunk(cursor + 10, 10);
+                }).join();
+
+        assertThat(summary.interrupted()).isEqualTo(1);
+        assertThat(summary.processed()).isZero();
+        // Only the checkpoint opened before the chunk
+        assertThat(savedCursors).containsExactly(0L);
+    }
+
+    @Test
+    void lostRenewalStopsTheSchoolBeforeTheNextChunk() {
+        when(leaseService.tryAcquire(eq(LEASE_KEY), any(Duration.class))).thenReturn(true, false);
+
+        TenantJobRunner.RunSummary summary = runner.run("job", "run",
+                (ownerId, cursor, size) -> new TenantJobRunner.Chunk(cursor + 10, 10)).join();
+
+        assertThat(summary.interrupted()).isEqualTo(1);
+        assertThat(savedCursors).containsExactly(0L, 10L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.vijay.User_Master.service.impl;
+
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationOutboxServiceImplTest {
+
+    private final NotificationOutbox message = NotificationOutbox.builder()
+            .id(1L)
+            .channel(NotificationOutbox.Channel.SMS)
+            .recipient("9876543210")
+            .status(NotificationOutbox.Status.PROCESSING)
+            .attempts(0)
+            .build();
+    private NotificationOutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+        when(outboxRepository.findById(1L)).thenReturn(Optional.of(message));
+        outboxService = new NotificationOutboxServiceImpl(outboxRepository, mock(ApplicationEventPublisher.class),
+                3, 30_000, 3_600_000, 600_000, 2);
+    }
+
+    @Test
+    void reportsFailureOnlyWhenTheLastAttemptIsUsed() {
+        assertThat(outboxService.markFailed(1L, "timeout")).isFalse();
+        assertThat(message.getStatus()).isEqualTo(NotificationOutbox.Status.PENDING);
+        assertThat(outboxService.markFailed(1L, "timeout")).isFalse();
+
+        assertThat(outboxService.markFailed(1L, "timeout")).isTrue();
+        assertThat(message.getStatus()).isEqualTo(NotificationOutbox.Status.DEAD);
+        assertThat(message.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void unknownMessageIsNotReportedAsFailed() {
+        assertThat(outboxService.markFailed(2L, "timeout")).isFalse();
+    }
+}
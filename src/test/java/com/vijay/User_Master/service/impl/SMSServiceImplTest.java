@@ -0,0 +1,139 @@
+package com.vijay.User_Master.service.impl;
+
+import com.vijay.User_Master.Helper.TwilioMessageSender;
+import com.vijay.User_Master.config.security.CustomUserDetails;
+import com.vijay.User_Master.dto.BroadcastProgress;
+import com.vijay.User_Master.entity.NotificationOutbox;
+import com.vijay.User_Master.exceptions.ResourceNotFoundException;
+import com.vijay.User_Master.repository.ExamRepository;
+import com.vijay.User_Master.repository.FeeRepository;
+import com.vijay.User_Master.repository.NotificationOutboxRepository;
+import com.vijay.User_Master.repository.WorkerRepository;
+import com.vijay.User_Master.service.NotificationOutboxService;
+import com.vijay.User_Master.service.NotificationTemplateEngine;
+import com.vijay.User_Master.service.RecipientResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A school administrator's bulk SMS, queued through the real outbox service against an in-memory
+ * outbox table, and its progress read back the way the broadcast endpoint reads it
+ */
+class SMSServiceImplTest {
+
+    private static final Long OWNER_ID = 7L;
+
+    private final List<NotificationOutbox> outbox = new ArrayList<>();
+    private NotificationOutboxService outboxService;
+    private SMSServiceImpl smsService;
+
+    @BeforeEach
+    void setUp() {
+        NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+        when(outboxRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<NotificationOutbox> rows = invocation.getArgument(0);
+            outbox.addAll(rows);
+            return rows;
+        });
+        when(outboxRepository.save(any(NotificationOutbox.class))).thenAnswer(invocation -> {
+            NotificationOutbox row = invocation.getArgument(0);
+            outbox.add(row);
+            return row;
+        });
+        // Same filter as the JPQL query: a null owner matches a broadcast of any school
+        when(outboxRepository.countByStatusForBroadcast(any(), anyString())).thenAnswer(invocation -> {
+            Long ownerId = invocation.getArgument(0);
+            String broadcastId = invocation.getArgument(1);
+            Map<NotificationOutbox.Status, Long> counts = outbox.stream()
+                    .filter(row -> broadcastId.equals(row.getBroadcastId()))
+                    .filter(row -> ownerId == null || ownerId.equals(row.getOwnerId()))
+                    .collect(Collectors.groupingBy(NotificationOutbox::getStatus, Collectors.counting()));
+            return counts.entrySet().stream().map(entry -> new Object[]{entry.getKey(), entry.getValue()}).toList();
+        });
+        when(outboxRepository.findCampaignRecipients(any(), anyString(), anyCollection(), any())).thenAnswer(invocation -> {
+            Long ownerId = invocation.getArgument(0);
+            String campaignKey = invocation.getArgument(1);
+            Collection<NotificationOutbox.Channel> channels = invocation.getArgument(2);
+            return outbox.stream()
+                    .filter(row -> ownerId.equals(row.getOwnerId()) && campaignKey.equals(row.getCampaignKey()))
+                    .filter(row -> channels.contains(row.getChannel()) && row.getStatus() != invocation.getArgument(3))
+                    .map(NotificationOutbox::getRecipient)
+                    .collect(Collectors.toSet());
+        });
+        outboxService = new NotificationOutboxServiceImpl(outboxRepository, mock(ApplicationEventPublisher.class),
+                6, 30_000, 3_600_000, 600_000, 2);
+        smsService = new SMSServiceImpl(mock(WorkerRepository.class), mock(FeeRepository.class),
+                mock(ExamRepository.class), outboxService, mock(NotificationTemplateEngine.class),
+                mock(TwilioMessageSender.class), new RecipientResolver(outboxRepository));
+
+        CustomUserDetails admin = CustomUserDetails.fromToken(5L, OWNER_ID, "School Admin", "admin",
+                "admin@example.com", List.of("ROLE_ADMIN"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void schoolReadsProgressOfItsOwnBulkSms() {
+        String broadcastId = smsService.sendBulkSMS(
+                List.of("9876543210", "+91 98765 43211", "09876543210"), "School is closed tomorrow");
+
+        BroadcastProgress progress = outboxService.getBroadcastProgress(OWNER_ID, broadcastId);
+
+        assertThat(progress.getTotal()).isEqualTo(2);
+        assertThat(progress.getInFlight()).isEqualTo(2);
+        assertThat(progress.isComplete()).isFalse();
+        assertThat(outbox).extracting(NotificationOutbox::getOwnerId).containsOnly(OWNER_ID);
+    }
+
+    @Test
+    void otherSchoolCannotReadTheBroadcast() {
+        String broadcastId = smsService.sendBulkSMS(List.of("9876543210"), "School is closed tomorrow");
+
+        assertThatThrownBy(() -> outboxService.getBroadcastProgress(8L, broadcastId))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(outboxService.getBroadcastProgress(null, broadcastId).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void resendingTheSameMessageSkipsNumbersAlreadyQueued() {
+        smsService.sendBulkSMS(List.of("9876543210"), "School is closed tomorrow");
+        String broadcastId = smsService.sendBulkSMS(List.of("9876543210", "9876543211"), "School is closed tomorrow");
+
+        assertThat(outboxService.getBroadcastProgress(OWNER_ID, broadcastId).getTotal()).isEqualTo(1);
+        assertThat(outbox).extracting(NotificationOutbox::getRecipient).containsExactly("9876543210", "9876543211");
+    }
+
+    @Test
+    void otpIsQueuedOnTheInteractiveLaneWithoutASchool() {
+        assertThat(smsService.sendOTP("9876543210", "482913")).isTrue();
+        assertThat(smsService.sendOTP(" ", "482913")).isFalse();
+
+        assertThat(outbox).singleElement().satisfies(row -> {
+            assertThat(row.getPriority()).isEqualTo(NotificationOutbox.Priority.INTERACTIVE);
+            assertThat(row.getOwnerId()).isNull();
+        });
+    }
+}